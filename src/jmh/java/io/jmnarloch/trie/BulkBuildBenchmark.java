@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building the tries from the sorted entries in a single pass and building them in parallel to inserting
+ * the entries one by one.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkBuildBenchmark {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    private static final int WORDS = 100000;
+
+    private TreeMap<String, String> entries;
+
+    @Setup
+    public void before() {
+
+        final Random random = new Random(42);
+        entries = new TreeMap<>();
+        for (int ind = 0; ind < WORDS; ind++) {
+            final StringBuilder word = new StringBuilder();
+            for (int length = 3 + random.nextInt(8); length > 0; length--) {
+                word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            entries.put(word.toString(), word.toString());
+        }
+    }
+
+    @Benchmark
+    public Tst<String> benchmarkTstPutAll() {
+
+        final Tst<String> tst = new Tst<>();
+        tst.putAll(entries);
+        return tst;
+    }
+
+    @Benchmark
+    public Tst<String> benchmarkTstPutAllSorted() {
+
+        final Tst<String> tst = new Tst<>();
+        tst.putAllSorted(entries.entrySet().iterator());
+        return tst;
+    }
+
+    @Benchmark
+    public AdaptiveTrie<String> benchmarkAdaptiveTriePutAll() {
+
+        final AdaptiveTrie<String> trie = new AdaptiveTrie<>();
+        trie.putAll(entries);
+        return trie;
+    }
+
+    @Benchmark
+    public AdaptiveTrie<String> benchmarkAdaptiveTriePutAllSorted() {
+
+        final AdaptiveTrie<String> trie = new AdaptiveTrie<>();
+        trie.putAllSorted(entries.entrySet().iterator());
+        return trie;
+    }
+
+    @Benchmark
+    public Tst<String> benchmarkTstParallelBuild() {
+
+        return Tries.parallelBuild(entries, new Tst<String>());
+    }
+
+    @Benchmark
+    public AdaptiveTrie<String> benchmarkAdaptiveTrieParallelBuild() {
+
+        return Tries.parallelBuild(entries, new AdaptiveTrie<String>());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+          .include(BulkBuildBenchmark.class.getSimpleName())
+          .forks(1)
+          .warmupIterations(1)
+          .measurementIterations(1)
+          .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares searching the UTF-8 encoded keys directly in the buffer with decoding them into strings first.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ByteTrieBenchmark {
+
+    private static final String[] KEYS = {"/uaa/**", "/user/**", "/account/**", "/api/**", "/notifications/**"};
+
+    private ByteTrie<String> byteTrie;
+
+    private AdaptiveTrie<String> adaptiveTrie;
+
+    private ByteBuffer buffer;
+
+    @Setup
+    public void before() {
+
+        byteTrie = new ByteTrie<>();
+        adaptiveTrie = new AdaptiveTrie<>();
+        for (String key : KEYS) {
+            byteTrie.put(key, key);
+            adaptiveTrie.put(key, key);
+        }
+        buffer = ByteBuffer.allocateDirect(64);
+        buffer.put("/notifications/**".getBytes(StandardCharsets.UTF_8));
+        buffer.flip();
+    }
+
+    @Benchmark
+    public String benchmarkByteTrieGetBuffer() {
+
+        return byteTrie.get(buffer);
+    }
+
+    @Benchmark
+    public String benchmarkAdaptiveTrieDecodeAndGet() {
+
+        return adaptiveTrie.get(StandardCharsets.UTF_8.decode(buffer.duplicate()).toString());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+          .include(ByteTrieBenchmark.class.getSimpleName())
+          .forks(1)
+          .warmupIterations(1)
+          .measurementIterations(1)
+          .build();
+
+        new Runner(opt).run();
+    }
+}
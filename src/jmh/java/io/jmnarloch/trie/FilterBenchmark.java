@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link Trie#filter(String, String)} with the {@link AhoCorasick} automaton on long messages, filtered
+ * whole, with case and width folding, per category or with all categories at once, in parallel segments and streamed in chunks, and with scanning the messages for matches without building the filtered text.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FilterBenchmark {
+
+    private static final int WORDS = 4096;
+
+    private static final int CATEGORIES = 4;
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    @Param({"1024", "16384", "4194304"})
+    private int length;
+
+    private Tst<String> tst;
+    private HashMapTrie<String> hashMapTrie;
+    private AhoCorasick<String> automaton;
+    private AhoCorasick<String> normalizingAutomaton;
+    private List<AhoCorasick<String>> categoryAutomata;
+    private CategoryFilter categoryFilter;
+    private String message;
+
+    @Setup
+    public void before() {
+
+        final Random random = new Random(42);
+        final Map<String, String> words = new HashMap<>();
+        final List<String> list = new ArrayList<>();
+        while (words.size() < WORDS) {
+            final String word = randomText(random, 3 + random.nextInt(8));
+            words.put(word, word);
+            list.add(word);
+        }
+        tst = new Tst<>();
+        tst.putAll(words);
+        hashMapTrie = new HashMapTrie<>();
+        hashMapTrie.putAll(words);
+        automaton = AhoCorasick.compile(words);
+        normalizingAutomaton = AhoCorasick.compile(words, CharNormalizer.builder().foldWidth().foldCase().build());
+        categoryAutomata = categoryAutomata(list);
+        final CategoryFilter.Builder builder = CategoryFilter.builder();
+        for (int category = 0; category < CATEGORIES; category++) {
+            builder.replace(category, "*");
+        }
+        for (int ind = 0; ind < list.size(); ind++) {
+            builder.add(list.get(ind), 1 << ind % CATEGORIES);
+        }
+        categoryFilter = builder.build();
+
+        final StringBuilder text = new StringBuilder();
+        while (text.length() < length) {
+            if (random.nextInt(10) == 0) {
+                text.append(list.get(random.nextInt(list.size())));
+            } else {
+                text.append(randomText(random, 1 + random.nextInt(8)));
+            }
+            text.append(random.nextBoolean() ? ' ' : ',');
+        }
+        message = text.toString();
+    }
+
+    @Benchmark
+    public String benchmarkTstFilter() {
+
+        return tst.filter(message, "*");
+    }
+
+    @Benchmark
+    public String benchmarkHashMapTrieFilter() {
+
+        return hashMapTrie.filter(message, "*");
+    }
+
+    @Benchmark
+    public String benchmarkAhoCorasickFilter() {
+
+        return automaton.filter(message, "*");
+    }
+
+    @Benchmark
+    public String benchmarkAhoCorasickNormalizingFilter() {
+
+        return normalizingAutomaton.filter(message, "*");
+    }
+
+    @Benchmark
+    public String benchmarkAhoCorasickFilterPerCategory() {
+
+        String filtered = message;
+        for (AhoCorasick<String> categoryAutomaton : categoryAutomata) {
+            filtered = categoryAutomaton.filter(filtered, "*");
+        }
+        return filtered;
+    }
+
+    @Benchmark
+    public CategoryFilter.Result benchmarkCategoryFilter() {
+
+        return categoryFilter.filter(message);
+    }
+
+    @Benchmark
+    public String benchmarkAhoCorasickStreamFilter() throws IOException {
+
+        final StringWriter writer = new StringWriter(message.length());
+        automaton.filter(new StringReader(message), writer, "*");
+        return writer.toString();
+    }
+
+    @Benchmark
+    public String benchmarkAhoCorasickParallelFilter() {
+
+        return automaton.filter(message, "*", ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public boolean benchmarkTstContainsAnyMatch() {
+
+        return tst.containsAnyMatch(message);
+    }
+
+    @Benchmark
+    public int benchmarkAhoCorasickScan() {
+
+        final int[] count = new int[1];
+        automaton.scan(message, new MatchListener<String>() {
+            @Override
+            public boolean onMatch(int start, int end, String value) {
+                count[0]++;
+                return true;
+            }
+        });
+        return count[0];
+    }
+
+    private static List<AhoCorasick<String>> categoryAutomata(List<String> words) {
+        final List<AhoCorasick<String>> automata = new ArrayList<>(CATEGORIES);
+        for (int category = 0; category < CATEGORIES; category++) {
+            final Map<String, String> categoryWords = new HashMap<>();
+            for (int ind = category; ind < words.size(); ind += CATEGORIES) {
+                categoryWords.put(words.get(ind), words.get(ind));
+            }
+            automata.add(AhoCorasick.compile(categoryWords));
+        }
+        return automata;
+    }
+
+    private static String randomText(Random random, int length) {
+        final StringBuilder text = new StringBuilder();
+        for (int ind = 0; ind < length; ind++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+          .include(FilterBenchmark.class.getSimpleName())
+          .forks(1)
+          .warmupIterations(1)
+          .measurementIterations(1)
+          .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares walking the tries together with the Levenshtein automaton to checking every key of the dictionary.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FuzzyBenchmark {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    private static final int WORDS = 100000;
+
+    private static final String KEY = "benchmark";
+
+    @Param({"1", "2"})
+    private int distance;
+
+    private Tst<String> tst;
+
+    private AdaptiveTrie<String> adaptiveTrie;
+
+    @Setup
+    public void before() {
+
+        final Random random = new Random(42);
+        tst = new Tst<>();
+        adaptiveTrie = new AdaptiveTrie<>();
+        for (int ind = 0; ind < WORDS; ind++) {
+            final StringBuilder word = new StringBuilder();
+            for (int length = 3 + random.nextInt(8); length > 0; length--) {
+                word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            tst.put(word.toString(), word.toString());
+            adaptiveTrie.put(word.toString(), word.toString());
+        }
+    }
+
+    @Benchmark
+    public List<FuzzyMatch<String>> benchmarkTst() {
+
+        return tst.fuzzyMatches(KEY, distance);
+    }
+
+    @Benchmark
+    public List<FuzzyMatch<String>> benchmarkAdaptiveTrie() {
+
+        return adaptiveTrie.fuzzyMatches(KEY, distance);
+    }
+
+    @Benchmark
+    public List<FuzzyMatch<String>> benchmarkKeySet() {
+
+        return TrieUtil.fuzzyMatches(tst, KEY, distance);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+          .include(FuzzyBenchmark.class.getSimpleName())
+          .forks(1)
+          .warmupIterations(1)
+          .measurementIterations(1)
+          .build();
+
+        new Runner(opt).run();
+    }
+}
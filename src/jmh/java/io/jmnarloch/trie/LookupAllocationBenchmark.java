@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up the tokens of a character buffer through substrings with the in place lookups. Run with the
+ * GC profiler, the {@code gc.alloc.rate.norm} of the in place lookups is expected to be zero.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LookupAllocationBenchmark {
+
+    private static final String[] KEYS = {"/uaa/**", "/user/**", "/account/**", "/api/**", "/notifications/**"};
+
+    private static final String TEXT = "GET /notifications/** HTTP/1.1";
+
+    private static final int OFFSET = 4;
+
+    private static final int LENGTH = 17;
+
+    private Tst<String> tst;
+
+    private HashMapTrie<String> hashMapTrie;
+
+    private char[] chars;
+
+    private CharBuffer buffer;
+
+    @Setup
+    public void before() {
+
+        tst = new Tst<>();
+        hashMapTrie = new HashMapTrie<>();
+        for (String key : KEYS) {
+            tst.put(key, key);
+            hashMapTrie.put(key, key);
+        }
+        chars = TEXT.toCharArray();
+        buffer = CharBuffer.wrap(chars, OFFSET, LENGTH).slice();
+    }
+
+    @Benchmark
+    public String benchmarkTstSubstringGet() {
+
+        return tst.get(new String(chars, OFFSET, LENGTH));
+    }
+
+    @Benchmark
+    public String benchmarkTstCharArrayGet() {
+
+        return tst.get(chars, OFFSET, LENGTH);
+    }
+
+    @Benchmark
+    public String benchmarkTstCharSequenceGet() {
+
+        return tst.get(buffer);
+    }
+
+    @Benchmark
+    public String benchmarkTstCharArrayPrefix() {
+
+        return tst.prefix(chars, OFFSET, chars.length - OFFSET);
+    }
+
+    @Benchmark
+    public String benchmarkHashMapTrieSubstringGet() {
+
+        return hashMapTrie.get(new String(chars, OFFSET, LENGTH));
+    }
+
+    @Benchmark
+    public String benchmarkHashMapTrieCharArrayGet() {
+
+        return hashMapTrie.get(chars, OFFSET, LENGTH);
+    }
+
+    @Benchmark
+    public String benchmarkHashMapTrieCharSequenceGet() {
+
+        return hashMapTrie.get(buffer);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+          .include(LookupAllocationBenchmark.class.getSimpleName())
+          .addProfiler(GCProfiler.class)
+          .forks(1)
+          .warmupIterations(1)
+          .measurementIterations(1)
+          .build();
+
+        new Runner(opt).run();
+    }
+}
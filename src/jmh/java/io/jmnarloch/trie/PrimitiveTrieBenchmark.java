@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares counting the words with the boxed and the primitive valued tries.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PrimitiveTrieBenchmark {
+
+    private static final String ALPHABET = "abcdefghij";
+
+    private static final int WORDS = 10000;
+
+    private String[] words;
+
+    @Setup
+    public void before() {
+
+        final Random random = new Random(42);
+        words = new String[WORDS];
+        for (int ind = 0; ind < WORDS; ind++) {
+            final StringBuilder word = new StringBuilder();
+            for (int length = 2 + random.nextInt(4); length > 0; length--) {
+                word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            words[ind] = word.toString();
+        }
+    }
+
+    @Benchmark
+    public Tst<Integer> benchmarkTstCount() {
+
+        final Tst<Integer> tst = new Tst<>();
+        for (String word : words) {
+            final Integer count = tst.get(word);
+            tst.put(word, count == null ? 1 : count + 1);
+        }
+        return tst;
+    }
+
+    @Benchmark
+    public IntTst benchmarkIntTstCount() {
+
+        final IntTst tst = new IntTst();
+        for (String word : words) {
+            tst.addAndGet(word, 1);
+        }
+        return tst;
+    }
+
+    @Benchmark
+    public TroveCharHashMapTrie<Integer> benchmarkTroveCharHashMapTrieCount() {
+
+        final TroveCharHashMapTrie<Integer> trie = new TroveCharHashMapTrie<>();
+        for (String word : words) {
+            final Integer count = trie.get(word);
+            trie.put(word, count == null ? 1 : count + 1);
+        }
+        return trie;
+    }
+
+    @Benchmark
+    public IntTroveCharHashMapTrie benchmarkIntTroveCharHashMapTrieCount() {
+
+        final IntTroveCharHashMapTrie trie = new IntTroveCharHashMapTrie();
+        for (String word : words) {
+            trie.addAndGet(word, 1);
+        }
+        return trie;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+          .include(PrimitiveTrieBenchmark.class.getSimpleName())
+          .forks(1)
+          .warmupIterations(1)
+          .measurementIterations(1)
+          .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading the tries from their binary form with inserting all of the entries.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SerializationBenchmark {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    @Param({"10000", "100000"})
+    private int words;
+
+    private Map<String, String> entries;
+    private byte[] tstBytes;
+    private byte[] hashMapTrieBytes;
+
+    @Setup
+    public void before() throws IOException {
+
+        final Random random = new Random(42);
+        entries = new HashMap<>();
+        while (entries.size() < words) {
+            final StringBuilder word = new StringBuilder();
+            for (int ind = 3 + random.nextInt(10); ind > 0; ind--) {
+                word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            entries.put(word.toString(), word.toString());
+        }
+
+        final Tst<String> tst = new Tst<>();
+        tst.putAll(entries);
+        tstBytes = write(tst);
+        final HashMapTrie<String> hashMapTrie = new HashMapTrie<>();
+        hashMapTrie.putAll(entries);
+        hashMapTrieBytes = write(hashMapTrie);
+    }
+
+    @Benchmark
+    public Tst<String> benchmarkTstPutAll() {
+
+        final Tst<String> tst = new Tst<>();
+        tst.putAll(entries);
+        return tst;
+    }
+
+    @Benchmark
+    public Tst<String> benchmarkTstReadFrom() throws IOException {
+
+        final Tst<String> tst = new Tst<>();
+        tst.readFrom(input(tstBytes), ValueCodecs.utf8String());
+        return tst;
+    }
+
+    @Benchmark
+    public HashMapTrie<String> benchmarkHashMapTriePutAll() {
+
+        final HashMapTrie<String> trie = new HashMapTrie<>();
+        trie.putAll(entries);
+        return trie;
+    }
+
+    @Benchmark
+    public HashMapTrie<String> benchmarkHashMapTrieReadFrom() throws IOException {
+
+        final HashMapTrie<String> trie = new HashMapTrie<>();
+        trie.readFrom(input(hashMapTrieBytes), ValueCodecs.utf8String());
+        return trie;
+    }
+
+    private static byte[] write(Tst<String> tst) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        tst.writeTo(new DataOutputStream(bytes), ValueCodecs.utf8String());
+        return bytes.toByteArray();
+    }
+
+    private static byte[] write(HashMapTrie<String> trie) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        trie.writeTo(new DataOutputStream(bytes), ValueCodecs.utf8String());
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+          .include(SerializationBenchmark.class.getSimpleName())
+          .forks(1)
+          .warmupIterations(1)
+          .measurementIterations(1)
+          .build();
+
+        new Runner(opt).run();
+    }
+}
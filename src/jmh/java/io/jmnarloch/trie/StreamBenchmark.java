@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Compares counting the keys with the sequential and the parallel streams of the tries to counting them in the
+ * collected key set.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StreamBenchmark {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    private static final int WORDS = 100000;
+
+    private static final Predicate<String> VOWEL_ENDING = new Predicate<String>() {
+        @Override
+        public boolean test(String key) {
+            return "aeiou".indexOf(key.charAt(key.length() - 1)) >= 0;
+        }
+    };
+
+    private Tst<String> tst;
+
+    private AdaptiveTrie<String> trie;
+
+    @Setup
+    public void before() {
+
+        final Random random = new Random(42);
+        tst = new Tst<>();
+        trie = new AdaptiveTrie<>();
+        for (int ind = 0; ind < WORDS; ind++) {
+            final StringBuilder word = new StringBuilder();
+            for (int length = 3 + random.nextInt(8); length > 0; length--) {
+                word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            tst.put(word.toString(), word.toString());
+            trie.put(word.toString(), word.toString());
+        }
+    }
+
+    @Benchmark
+    public long benchmarkTstKeySet() {
+
+        return tst.keySet().stream().filter(VOWEL_ENDING).count();
+    }
+
+    @Benchmark
+    public long benchmarkTstKeys() {
+
+        return tst.keys().filter(VOWEL_ENDING).count();
+    }
+
+    @Benchmark
+    public long benchmarkTstParallelKeys() {
+
+        return tst.keys().parallel().filter(VOWEL_ENDING).count();
+    }
+
+    @Benchmark
+    public long benchmarkAdaptiveTrieKeySet() {
+
+        return trie.keySet().stream().filter(VOWEL_ENDING).count();
+    }
+
+    @Benchmark
+    public long benchmarkAdaptiveTrieKeys() {
+
+        return trie.keys().filter(VOWEL_ENDING).count();
+    }
+
+    @Benchmark
+    public long benchmarkAdaptiveTrieParallelKeys() {
+
+        return trie.keys().parallel().filter(VOWEL_ENDING).count();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+          .include(StreamBenchmark.class.getSimpleName())
+          .forks(1)
+          .warmupIterations(1)
+          .measurementIterations(1)
+          .build();
+
+        new Runner(opt).run();
+    }
+}
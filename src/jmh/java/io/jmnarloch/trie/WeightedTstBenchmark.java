@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares suggesting the best scored keys with the {@link WeightedTst} to enumerating and sorting all of the keys
+ * with the prefix, for the short prefixes that match most of the keys.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WeightedTstBenchmark {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    private static final int WORDS = 100000;
+
+    private static final int K = 10;
+
+    @Param({"a", "ab"})
+    private String prefix;
+
+    private WeightedTst<Double> weightedTst;
+
+    private Tst<Double> tst;
+
+    @Setup
+    public void before() {
+
+        final Random random = new Random(42);
+        weightedTst = new WeightedTst<>();
+        tst = new Tst<>();
+        for (int ind = 0; ind < WORDS; ind++) {
+            final StringBuilder word = new StringBuilder();
+            // the words with the shorter prefixes are more frequent
+            word.append(ALPHABET.charAt(random.nextInt(2)));
+            for (int length = 2 + random.nextInt(8); length > 0; length--) {
+                word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            final double score = random.nextDouble();
+            weightedTst.put(word.toString(), score, score);
+            tst.put(word.toString(), score);
+        }
+    }
+
+    @Benchmark
+    public List<Suggestion<Double>> benchmarkWeightedTstTopK() {
+
+        return weightedTst.topK(prefix, K);
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Double>> benchmarkTstEnumerateAndSort() {
+
+        final List<Map.Entry<String, Double>> entries = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : tst.entriesWithPrefix(prefix)) {
+            entries.add(entry);
+        }
+        Collections.sort(entries, new Comparator<Map.Entry<String, Double>>() {
+            @Override
+            public int compare(Map.Entry<String, Double> left, Map.Entry<String, Double> right) {
+                return Double.compare(right.getValue(), left.getValue());
+            }
+        });
+        return entries.subList(0, Math.min(K, entries.size()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+          .include(WeightedTstBenchmark.class.getSimpleName())
+          .forks(1)
+          .warmupIterations(1)
+          .measurementIterations(1)
+          .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,769 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The base class for the double-array tries. The transition from node {@code s} by character {@code c} leads to node
+ * {@code t = base[s] + c + 1} if {@code check[t] == s}. The key terminal is stored as the transition by code {@code 0}
+ * and refers to the value by a negative base. The subclasses decide where the arrays and the values are stored.
+ *
+ * @author Jakub Narloch
+ */
+abstract class AbstractDoubleArrayTrie<T> implements Trie<T> {
+
+    /**
+     * The root node index.
+     */
+    static final int ROOT = 0;
+
+    /**
+     * Marks the unused array slots.
+     */
+    static final int FREE = -1;
+
+    /**
+     * The check value of the root node, that does not have any parent.
+     */
+    static final int NO_PARENT = -2;
+
+    /**
+     * The code of the key terminal transition.
+     */
+    static final int TERMINAL = 0;
+
+    /**
+     * The greatest transition code used in the arrays, which bounds the search for the children of a node. Computed
+     * lazily by the ordered walks, {@code -1} until then.
+     */
+    private int maxCode = -1;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T put(String key, T value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<String, ? extends T> map) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        notEmpty(key);
+
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(String key) {
+        notEmpty(key);
+
+        final int node = getNode(key);
+        return node != FREE ? value(node) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(String key) {
+        notEmpty(key);
+
+        T value = null;
+        int node = ROOT;
+        for (int index = 0; index < key.length(); index++) {
+            node = next(node, key.charAt(index));
+            if (node == FREE) {
+                break;
+            }
+            final T found = value(node);
+            if (found != null) {
+                value = found;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(String key) {
+        notEmpty(key);
+
+        int longestPrefix = -1;
+        int node = ROOT;
+        for (int index = 0; index < key.length(); index++) {
+            node = next(node, key.charAt(index));
+            if (node == FREE) {
+                break;
+            }
+            if (valueIndex(node) != FREE) {
+                longestPrefix = index + 1;
+            }
+        }
+        if (longestPrefix == -1) {
+            return null;
+        }
+        return key.substring(0, longestPrefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean longestMatch(CharSequence text, int offset, PrefixMatch<? super T> match) {
+        TrieUtil.checkText(text, offset);
+        TrieUtil.notNull(match, "Match can not be null");
+
+        match.clear(offset);
+        int node = ROOT;
+        for (int index = offset; index < text.length(); index++) {
+            node = next(node, text.charAt(index));
+            if (node == FREE) {
+                break;
+            }
+            if (valueIndex(node) != FREE) {
+                match.set(offset, index + 1 - offset, value(node));
+            }
+        }
+        return match.isFound();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void allPrefixes(CharSequence text, int offset, MatchListener<? super T> listener) {
+        TrieUtil.checkText(text, offset);
+        TrieUtil.notNull(listener, "Listener can not be null");
+
+        int node = ROOT;
+        for (int index = offset; index < text.length(); index++) {
+            node = next(node, text.charAt(index));
+            if (node == FREE) {
+                return;
+            }
+            if (valueIndex(node) != FREE && !listener.onMatch(offset, index + 1, value(node))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T remove(String key) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+
+        // the children are not stored explicitly, every node lists them by a single scan of the check array
+        final int length = length();
+        final int[] offsets = new int[length + 1];
+        for (int node = 1; node < length; node++) {
+            if (check(node) >= 0) {
+                offsets[check(node) + 1]++;
+            }
+        }
+        for (int node = 0; node < length; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        final int[] children = new int[offsets[length]];
+        final int[] positions = Arrays.copyOf(offsets, length);
+        for (int node = 1; node < length; node++) {
+            if (check(node) >= 0) {
+                children[positions[check(node)]++] = node;
+            }
+        }
+
+        final Set<String> keys = new HashSet<String>();
+        final StringBuilder path = new StringBuilder();
+        final Deque<Integer> stack = new ArrayDeque<Integer>();
+        stack.push(ROOT);
+        while (!stack.isEmpty()) {
+            final int node = stack.pop();
+            if (node < 0) {
+                path.deleteCharAt(path.length() - 1);
+                continue;
+            }
+            if (node != ROOT) {
+                final int code = node - base(check(node));
+                if (code == TERMINAL) {
+                    keys.add(path.toString());
+                    continue;
+                }
+                path.append((char) (code - 1));
+                stack.push(-1);
+            }
+            for (int ind = offsets[node]; ind < offsets[node + 1]; ind++) {
+                stack.push(children[ind]);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesWithPrefix(final String prefix, final String after, final int limit) {
+        TrieUtil.checkPrefix(prefix, limit);
+
+        return new Iterable<Map.Entry<String, T>>() {
+            @Override
+            public Iterator<Map.Entry<String, T>> iterator() {
+                return new EntryIterator(getNode(prefix), prefix, after, limit);
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countWithPrefix(String prefix) {
+        TrieUtil.notNull(prefix, "Prefix can not be null");
+
+        if (prefix.isEmpty()) {
+            return size();
+        }
+        // the values are indexed in the order of the keys, the subtree of the prefix holds a range of the indexes
+        final int node = getNode(prefix);
+        return node != FREE ? lastIndex(node) - firstIndex(node) + 1 : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int rank(String key) {
+        TrieUtil.notNull(key, "Key can not be null");
+
+        if (key.isEmpty()) {
+            return 0;
+        }
+        // the rank is the first value index of the nearest subtree that follows the path of the key
+        int rank = size();
+        int node = ROOT;
+        for (int index = 0; index < key.length(); index++) {
+            final int following = child(node, key.charAt(index) + 2);
+            if (following != FREE) {
+                rank = firstIndex(following);
+            }
+            node = next(node, key.charAt(index));
+            if (node == FREE) {
+                return rank;
+            }
+        }
+        return firstIndex(node);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String select(int index) {
+        TrieUtil.checkIndex(index, size());
+
+        final StringBuilder key = new StringBuilder();
+        int node = ROOT;
+        while (true) {
+            // descends into the last child which subtree starts at or before the index
+            int child = lastChild(node, Integer.MAX_VALUE);
+            while (firstIndex(child) > index) {
+                child = lastChild(node, child - base(node) - 1);
+            }
+            final int code = child - base(node);
+            if (code == TERMINAL) {
+                return key.toString();
+            }
+            key.append((char) (code - 1));
+            node = child;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String filter(String key, String replace) {
+        StringBuilder result = new StringBuilder();
+        int tempNode = ROOT;
+        int begin = 0;
+        int position = 0;
+        while (position < key.length() || tempNode != ROOT) {
+            if (position < key.length()) {
+                char c = key.charAt(position);
+                if (TrieUtil.isSymbol(c)) {
+                    if (tempNode == ROOT) {
+                        result.append(c);
+                        ++begin;
+                    }
+                    ++position;
+                    continue;
+                }
+                tempNode = next(tempNode, c);
+            } else {
+                // the text ended in the middle of a match
+                tempNode = FREE;
+            }
+            if (tempNode == FREE) {
+                result.append(key.charAt(begin));
+                position = ++begin;
+                tempNode = ROOT;
+            } else if (valueIndex(tempNode) != FREE) {
+                result.append(replace);
+                ++position;
+                begin = position;
+                tempNode = ROOT;
+            } else {
+                ++position;
+            }
+        }
+        result.append(key.substring(begin));
+        return result.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The trie is walked from every start position of the text, without compiling the automaton.
+     */
+    @Override
+    public void filter(Readable source, Writer target, String replace) throws IOException {
+        StreamFilter.filter(source, target, replace, new StreamFilter.Matcher() {
+            @Override
+            public int shortestMatch(char[] text, int start, int end) {
+                return AbstractDoubleArrayTrie.this.shortestMatch(text, start, end);
+            }
+        });
+    }
+
+    private int shortestMatch(char[] text, int start, int end) {
+        int node = ROOT;
+        for (int position = start; position < end; position++) {
+            final char c = text[position];
+            if (TrieUtil.isSymbol(c)) {
+                continue;
+            }
+            node = next(node, c);
+            if (node == FREE) {
+                return StreamFilter.NO_MATCH;
+            }
+            if (valueIndex(node) != FREE) {
+                return position + 1;
+            }
+        }
+        return StreamFilter.UNDECIDED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void scan(CharSequence text, MatchListener<? super T> listener) {
+        TrieUtil.notNull(text, "Text can not be null");
+        TrieUtil.notNull(listener, "Listener can not be null");
+
+        for (int start = 0; start < text.length(); start++) {
+            if (TrieUtil.isSymbol(text.charAt(start))) {
+                continue;
+            }
+            int node = ROOT;
+            for (int end = start; end < text.length(); end++) {
+                final char c = text.charAt(end);
+                if (TrieUtil.isSymbol(c)) {
+                    continue;
+                }
+                node = next(node, c);
+                if (node == FREE) {
+                    break;
+                }
+                if (valueIndex(node) != FREE && !listener.onMatch(start, end + 1, value(node))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private int next(int node, char c) {
+        final int next = base(node) + c + 1;
+        if (next < length() && check(next) == node) {
+            return next;
+        }
+        return FREE;
+    }
+
+    private int getNode(String key) {
+        int node = ROOT;
+        for (int index = 0; index < key.length() && node != FREE; index++) {
+            node = next(node, key.charAt(index));
+        }
+        return node;
+    }
+
+    /**
+     * Finds the first child of the node which code is not less than the given one, the children are probed in the
+     * order of their codes up to the greatest code used in the arrays.
+     *
+     * @param node the node index
+     * @param code the least code
+     * @return the child index, or {@link #FREE} if there is no such child
+     */
+    private int child(int node, int code) {
+        final int base = base(node);
+        final int last = Math.min(maxCode(), length() - 1 - base);
+        for (int next = code; next <= last; next++) {
+            if (check(base + next) == node) {
+                return base + next;
+            }
+        }
+        return FREE;
+    }
+
+    /**
+     * Finds the last child of the node which code is not greater than the given one.
+     *
+     * @param node the node index
+     * @param code the greatest code
+     * @return the child index, or {@link #FREE} if there is no such child
+     */
+    private int lastChild(int node, int code) {
+        final int base = base(node);
+        for (int next = Math.min(code, Math.min(maxCode(), length() - 1 - base)); next >= TERMINAL; next--) {
+            if (check(base + next) == node) {
+                return base + next;
+            }
+        }
+        return FREE;
+    }
+
+    /**
+     * Returns the least value index in the subtree of the node, the key terminals have negative bases.
+     */
+    private int firstIndex(int node) {
+        while (base(node) >= 0) {
+            node = child(node, TERMINAL);
+        }
+        return -base(node) - 1;
+    }
+
+    /**
+     * Returns the greatest value index in the subtree of the node.
+     */
+    private int lastIndex(int node) {
+        while (base(node) >= 0) {
+            node = lastChild(node, Integer.MAX_VALUE);
+        }
+        return -base(node) - 1;
+    }
+
+    private int maxCode() {
+        if (maxCode < 0) {
+            int max = TERMINAL;
+            for (int node = 1; node < length(); node++) {
+                if (check(node) >= 0) {
+                    max = Math.max(max, node - base(check(node)));
+                }
+            }
+            maxCode = max;
+        }
+        return maxCode;
+    }
+
+    private T value(int node) {
+        final int index = valueIndex(node);
+        return index != FREE ? valueAt(index) : null;
+    }
+
+    private int valueIndex(int node) {
+        final int terminal = base(node) + TERMINAL;
+        if (terminal < length() && check(terminal) == node) {
+            return -base(terminal) - 1;
+        }
+        return FREE;
+    }
+
+    static String notEmpty(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Key must be not null or not empty string.");
+        }
+        return key;
+    }
+
+    /**
+     * Returns the base of the node, for the terminal nodes the negated value index decremented by one.
+     *
+     * @param node the node index
+     * @return the node base
+     */
+    abstract int base(int node);
+
+    /**
+     * Returns the check of the node, which is the index of its parent.
+     *
+     * @param node the node index
+     * @return the node check
+     */
+    abstract int check(int node);
+
+    /**
+     * Returns the length of the base and check arrays.
+     *
+     * @return the arrays length
+     */
+    abstract int length();
+
+    /**
+     * Returns the value with the given index, the values are indexed in the order of sorted keys.
+     *
+     * @param index the value index
+     * @return the value
+     */
+    abstract T valueAt(int index);
+
+    /**
+     * Walks the subtree of the prefix depth first, probing the children of every node in the order of their codes.
+     * The key terminal has the lowest code, so the key of a node precedes the keys of its children.
+     */
+    private final class EntryIterator extends PrefixIterator<T> {
+
+        private final Deque<EntryFrame> stack = new ArrayDeque<EntryFrame>();
+
+        EntryIterator(int node, String prefix, String after, int limit) {
+            super(prefix, after, limit);
+            if (node != FREE && !isExhausted()) {
+                stack.push(new EntryFrame(node, prefix.length(), this.after != null));
+            }
+        }
+
+        @Override
+        Map.Entry<String, T> advance() {
+            while (!stack.isEmpty()) {
+                final EntryFrame frame = stack.peek();
+                if (frame.code < 0) {
+                    frame.code = TERMINAL;
+                    // the node on the cursor path is not after the cursor, neither are its children preceding it
+                    if (frame.onPath) {
+                        if (frame.depth < after.length()) {
+                            frame.code = after.charAt(frame.depth) + 1;
+                        } else {
+                            frame.code = TERMINAL + 1;
+                            frame.onPath = false;
+                        }
+                    }
+                    continue;
+                }
+                final int child = child(frame.node, frame.code);
+                if (child == FREE) {
+                    stack.pop();
+                    continue;
+                }
+                final int code = child - base(frame.node);
+                frame.code = code + 1;
+                if (code == TERMINAL) {
+                    return entry(frame.depth, valueAt(-base(child) - 1));
+                }
+                path.setLength(frame.depth);
+                path.append((char) (code - 1));
+                stack.push(new EntryFrame(child, frame.depth + 1,
+                        frame.onPath && code == after.charAt(frame.depth) + 1));
+            }
+            return null;
+        }
+    }
+
+    private static final class EntryFrame {
+
+        private final int node;
+
+        private final int depth;
+
+        private boolean onPath;
+
+        private int code = -1;
+
+        EntryFrame(int node, int depth, boolean onPath) {
+            this.node = node;
+            this.depth = depth;
+            this.onPath = onPath;
+        }
+    }
+
+    /**
+     * Builds the double array from the sorted keys. Every node corresponds to the range of keys sharing the same
+     * prefix, the children are placed at the first base for which all of their slots are free.
+     */
+    static final class Builder {
+
+        private final String[] keys;
+
+        private int[] base;
+
+        private int[] check;
+
+        private int size;
+
+        private int nextCheckPos;
+
+        Builder(String[] keys) {
+            this.keys = keys;
+            this.base = new int[Math.max(16, keys.length * 2)];
+            this.check = new int[base.length];
+            Arrays.fill(check, FREE);
+            check[ROOT] = NO_PARENT;
+            size = 1;
+            nextCheckPos = 1;
+            build();
+        }
+
+        int[] getBase() {
+            return Arrays.copyOf(base, size);
+        }
+
+        int[] getCheck() {
+            return Arrays.copyOf(check, size);
+        }
+
+        private void build() {
+            if (keys.length == 0) {
+                return;
+            }
+            final Deque<int[]> stack = new ArrayDeque<int[]>();
+            // node, depth, first key, last key exclusive
+            stack.push(new int[]{ROOT, 0, 0, keys.length});
+            int[] codes = new int[16];
+            int[] bounds = new int[17];
+
+            while (!stack.isEmpty()) {
+                final int[] range = stack.pop();
+                final int node = range[0];
+                final int depth = range[1];
+
+                int count = 0;
+                for (int ind = range[2]; ind < range[3]; ind++) {
+                    final int code = code(keys[ind], depth);
+                    if (count == 0 || codes[count - 1] != code) {
+                        if (count == codes.length) {
+                            codes = Arrays.copyOf(codes, count * 2);
+                            bounds = Arrays.copyOf(bounds, count * 2 + 1);
+                        }
+                        codes[count] = code;
+                        bounds[count++] = ind;
+                    }
+                }
+                bounds[count] = range[3];
+
+                final int nodeBase = findBase(codes, count);
+                base[node] = nodeBase;
+                for (int ind = 0; ind < count; ind++) {
+                    check[nodeBase + codes[ind]] = node;
+                }
+                for (int ind = 0; ind < count; ind++) {
+                    final int child = nodeBase + codes[ind];
+                    if (codes[ind] == TERMINAL) {
+                        base[child] = -bounds[ind] - 1;
+                    } else {
+                        stack.push(new int[]{child, depth + 1, bounds[ind], bounds[ind + 1]});
+                    }
+                }
+            }
+        }
+
+        private int findBase(int[] codes, int count) {
+            int position = Math.max(nextCheckPos, codes[0] + 1) - 1;
+            int occupied = 0;
+            boolean first = true;
+            while (true) {
+                position++;
+                ensureCapacity(position + 1);
+                if (check[position] != FREE) {
+                    occupied++;
+                    continue;
+                }
+                if (first) {
+                    nextCheckPos = position;
+                    first = false;
+                }
+                final int candidate = position - codes[0];
+                ensureCapacity(candidate + codes[count - 1] + 1);
+                boolean free = true;
+                for (int ind = 1; ind < count && free; ind++) {
+                    free = check[candidate + codes[ind]] == FREE;
+                }
+                if (free) {
+                    // skips the densely occupied beginning of the array in the following searches
+                    if (occupied >= 0.95 * (position - nextCheckPos + 1)) {
+                        nextCheckPos = position;
+                    }
+                    size = Math.max(size, candidate + codes[count - 1] + 1);
+                    return candidate;
+                }
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > base.length) {
+                final int length = Math.max(capacity, base.length + (base.length >> 1));
+                base = Arrays.copyOf(base, length);
+                final int prev = check.length;
+                check = Arrays.copyOf(check, length);
+                Arrays.fill(check, prev, length, FREE);
+            }
+        }
+
+        private static int code(String key, int depth) {
+            return key.length() > depth ? key.charAt(depth) + 1 : TERMINAL;
+        }
+    }
+}
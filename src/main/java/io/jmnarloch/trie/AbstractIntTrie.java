@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.Set;
+
+/**
+ * The base class for all {@link IntTrie} instances. The values are stored by the {@link LongTrie} of the same
+ * structure and narrowed to {@code int} when read, so that the key walks are implemented only once. Narrowing the sum
+ * gives the same result as the {@code int} addition, the overflowing {@link #addAndGet(String, int)} wraps around
+ * the same way.
+ *
+ * @author Jakub Narloch
+ */
+abstract class AbstractIntTrie implements IntTrie {
+
+    /**
+     * The trie that stores the values.
+     */
+    private final LongTrie trie;
+
+    /**
+     * Creates new instance of {@link AbstractIntTrie} backed by the given trie.
+     *
+     * @param trie the trie that stores the values, with the no entry value in the {@code int} range
+     */
+    AbstractIntTrie(LongTrie trie) {
+        this.trie = trie;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNoEntryValue() {
+        return (int) trie.getNoEntryValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return trie.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return trie.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int putInt(String key, int value) {
+        return (int) trie.putLong(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int addAndGet(String key, int delta) {
+        return (int) trie.addAndGet(key, delta);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        return trie.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getInt(String key) {
+        return (int) trie.getLong(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int prefixInt(String key) {
+        return (int) trie.prefixLong(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(String key) {
+        return trie.prefixKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int removeInt(String key) {
+        return (int) trie.removeLong(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+        return trie.keySet();
+    }
+}
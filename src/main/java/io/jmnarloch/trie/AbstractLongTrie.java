@@ -0,0 +1,321 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The base class for all {@link LongTrie} instances.
+ *
+ * @author Jakub Narloch
+ */
+abstract class AbstractLongTrie<N extends AbstractLongTrie.LongTrieNode<N>> implements LongTrie {
+
+    /**
+     * A node factory.
+     */
+    private final LongTrieNodeFactory<N> nodeFactory;
+
+    /**
+     * The value that represents the missing key.
+     */
+    private final long noEntryValue;
+
+    /**
+     * The root node of the tree.
+     */
+    private final N root;
+
+    /**
+     * Creates new instance of {@link AbstractLongTrie} with specific node factory.
+     *
+     * @param nodeFactory  the node factory
+     * @param noEntryValue the value that represents the missing key
+     */
+    public AbstractLongTrie(LongTrieNodeFactory<N> nodeFactory, long noEntryValue) {
+        this.nodeFactory = nodeFactory;
+        this.noEntryValue = noEntryValue;
+        this.root = createTrieNode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getNoEntryValue() {
+        return noEntryValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return root.getSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long putLong(String key, long value) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final N node = createPath(key);
+        final long old = node.hasValue() ? node.getValue() : noEntryValue;
+        node.setValue(value);
+        return old;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long addAndGet(String key, long delta) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final N node = createPath(key);
+        final long value = node.hasValue() ? node.getValue() + delta : delta;
+        node.setValue(value);
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final N node = getNode(key);
+        return node != null && node.hasValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLong(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final N node = getNode(key);
+        if (node == null || !node.hasValue()) {
+            return noEntryValue;
+        }
+        return node.getValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long prefixLong(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        long value = noEntryValue;
+        N node = root;
+        int index = 0;
+        while (node != null) {
+            if (node.hasValue()) {
+                value = node.getValue();
+            }
+            if (index == key.length()) {
+                break;
+            }
+            node = node.getNext(key.charAt(index));
+            index++;
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        int longestPrefix = -1;
+        N node = root;
+        int index = 0;
+        while (node != null) {
+            if (node.hasValue()) {
+                longestPrefix = index;
+            }
+            if (index == key.length()) {
+                break;
+            }
+            node = node.getNext(key.charAt(index));
+            index++;
+        }
+        if (longestPrefix == -1) {
+            return null;
+        }
+        return key.substring(0, longestPrefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long removeLong(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final N found = getNode(key);
+        if (found == null || !found.hasValue()) {
+            return noEntryValue;
+        }
+        final long value = found.getValue();
+        found.removeValue();
+
+        // walks the path again, decrementing the sizes and unlinking the first subtree that became empty
+        N node = root;
+        node.setSize(node.getSize() - 1);
+        for (int index = 0; index < key.length(); index++) {
+            final char c = key.charAt(index);
+            final N next = node.getNext(c);
+            next.setSize(next.getSize() - 1);
+            if (next.isEmpty()) {
+                node.removeNext(c);
+                break;
+            }
+            node = next;
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+
+        final Set<String> keys = new HashSet<String>();
+        final StringBuilder path = new StringBuilder();
+        final Deque<N> nodes = new ArrayDeque<N>();
+        // every entry holds the depth of the node in the upper bits and the character leading to it in the lower
+        final Deque<Integer> edges = new ArrayDeque<Integer>();
+        nodes.push(root);
+        edges.push(0);
+        while (!nodes.isEmpty()) {
+            final N node = nodes.pop();
+            final int edge = edges.pop();
+            final int depth = edge >>> 16;
+            if (depth > 0) {
+                path.setLength(depth - 1);
+                path.append((char) edge);
+            }
+            if (node.hasValue()) {
+                keys.add(path.toString());
+            }
+            for (char c : node.getKeys()) {
+                nodes.push(node.getNext(c));
+                edges.push((depth + 1) << 16 | c);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Finds the node of the key, creating the missing nodes along the path. If the key did not exist yet, the sizes
+     * of the nodes along the path are incremented.
+     *
+     * @param key the key
+     * @return the key node
+     */
+    private N createPath(String key) {
+        N node = root;
+        for (int index = 0; index < key.length(); index++) {
+            final char c = key.charAt(index);
+            N next = node.getNext(c);
+            if (next == null) {
+                next = createTrieNode();
+                node.setNext(c, next);
+            }
+            node = next;
+        }
+        if (!node.hasValue()) {
+            node = root;
+            node.setSize(node.getSize() + 1);
+            for (int index = 0; index < key.length(); index++) {
+                node = node.getNext(key.charAt(index));
+                node.setSize(node.getSize() + 1);
+            }
+        }
+        return node;
+    }
+
+    private N getNode(String key) {
+        N node = root;
+        int index = 0;
+        while (node != null && index < key.length()) {
+            node = node.getNext(key.charAt(index));
+            index++;
+        }
+        return node;
+    }
+
+    private N createTrieNode() {
+        return nodeFactory.createNode();
+    }
+
+    private void notEmpty(String value, String message) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    interface LongTrieNodeFactory<N extends LongTrieNode<N>> {
+
+        N createNode();
+    }
+
+    interface LongTrieNode<N extends LongTrieNode<N>> {
+
+        boolean isEmpty();
+
+        void setSize(int size);
+
+        int getSize();
+
+        void setNext(char c, N next);
+
+        N getNext(char c);
+
+        void removeNext(char c);
+
+        void setValue(long value);
+
+        long getValue();
+
+        boolean hasValue();
+
+        void removeValue();
+
+        char[] getKeys();
+    }
+}
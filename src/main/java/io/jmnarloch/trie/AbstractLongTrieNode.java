@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+/**
+ * The base class that provides the common implementation for every {@code long} valued trie node.
+ *
+ * @author Jakub Narloch
+ */
+abstract class AbstractLongTrieNode<N extends AbstractLongTrieNode<N>> implements AbstractLongTrie.LongTrieNode<N> {
+
+    /**
+     * The node value.
+     */
+    private long value;
+
+    /**
+     * Whether the node holds a value, every long is a legal value so it can not be used as the marker.
+     */
+    private boolean hasValue;
+
+    /**
+     * The total node size.
+     */
+    private int size;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setValue(long value) {
+        this.value = value;
+        this.hasValue = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasValue() {
+        return hasValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeValue() {
+        value = 0;
+        hasValue = false;
+    }
+}
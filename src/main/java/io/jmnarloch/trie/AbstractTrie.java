@@ -15,11 +15,26 @@
  */
 package io.jmnarloch.trie;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The base class for all {@link Trie} instances.
@@ -28,6 +43,16 @@ import java.util.Set;
  */
 abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements Trie<T> {
 
+    /**
+     * The serialized trie magic number, {@code RTRI} in ASCII.
+     */
+    private static final int MAGIC = 0x52545249;
+
+    /**
+     * The serialized trie format version.
+     */
+    private static final int VERSION = 1;
+
     /**
      * A node factory.
      */
@@ -87,6 +112,85 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         }
     }
 
+    /**
+     * Replaces the content of the trie with the entries given in ascending order of their keys, for instance read
+     * from a sorted file or a sorted stream. The trie is built in a single pass: every key shares the path of its
+     * common prefix with the previous key, so only its new suffix is created, and the sizes of the subtrees are
+     * computed once, when the following keys no longer enter them.
+     *
+     * @param entries the entries in strictly ascending order of the keys
+     * @throws IllegalArgumentException if {@code entries} is {@code null}, any key is {@code null} or empty string,
+     *                                  any value is {@code null} or the keys are not in strictly ascending order
+     */
+    public void putAllSorted(Iterator<? extends Map.Entry<String, ? extends T>> entries) {
+        notNull(entries, "Entries can not be null");
+
+        this.root = build(entries);
+    }
+
+    /**
+     * Replaces the content of the trie with the entries, building the subtrees of the leading characters of the keys
+     * concurrently in the pool and then linking them under the new root.
+     *
+     * @param entries the entries in any order
+     * @param pool    the pool that builds the subtrees
+     * @throws IllegalArgumentException if {@code entries} or {@code pool} is {@code null}, any key is {@code null} or
+     *                                  empty string, any value is {@code null} or any key is repeated
+     * @see Tries#parallelBuild(Spliterator, Trie, ForkJoinPool)
+     */
+    void putAllParallel(Spliterator<? extends Map.Entry<String, ? extends T>> entries, ForkJoinPool pool) {
+        final List<ForkJoinTask<N>> tasks = new ArrayList<ForkJoinTask<N>>();
+        for (final List<Map.Entry<String, ? extends T>> partition : ParallelBuilder.<T>partition(entries, pool)) {
+            tasks.add(pool.submit(new Callable<N>() {
+                @Override
+                public N call() {
+                    ParallelBuilder.sort(partition);
+                    return build(partition.iterator());
+                }
+            }));
+        }
+
+        final N root = createTrieNode();
+        for (ForkJoinTask<N> task : tasks) {
+            // the subtree has been built from the keys with the same leading character, under its own root
+            final N subtree = task.join();
+            final char c = subtree.getKeys()[0];
+            root.setNext(c, subtree.getNext(c));
+            root.setSize(root.getSize() + subtree.getSize());
+        }
+        this.root = root;
+    }
+
+    private N build(Iterator<? extends Map.Entry<String, ? extends T>> entries) {
+
+        final N root = createTrieNode();
+        // the nodes of the path of the previous key, indexed by the depth
+        final List<N> path = new ArrayList<N>();
+        path.add(root);
+        String previous = null;
+        while (entries.hasNext()) {
+            final Map.Entry<String, ? extends T> entry = entries.next();
+            final String key = entry.getKey();
+            notEmpty(key, "Key must be not null or not empty string.");
+            notNull(entry.getValue(), "Value can not be null");
+
+            final int common = previous != null ? TrieUtil.checkSorted(previous, key) : 0;
+            completePath(path, common);
+            N node = path.get(common);
+            for (int index = common; index < key.length(); index++) {
+                final N next = createTrieNode();
+                node.setNext(key.charAt(index), next);
+                path.add(next);
+                node = next;
+            }
+            node.setValue(entry.getValue());
+            node.setSize(1);
+            previous = key;
+        }
+        completePath(path, 0);
+        return root;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -97,6 +201,22 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return get(key) != null;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(CharSequence key) {
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(char[] key, int offset, int length) {
+        return get(key, offset, length) != null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -107,6 +227,30 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return get(getRoot(), key);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(CharSequence key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        return get(getRoot(), key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        N node = getRoot();
+        for (int index = offset; index < offset + length && node != null; index++) {
+            node = node.getNext(key[index]);
+        }
+        return node != null ? node.getValue() : null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -117,6 +261,37 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return prefix(getRoot(), key);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(CharSequence key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        return prefix(getRoot(), key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        T value = null;
+        N node = getRoot();
+        for (int index = offset; index < offset + length; index++) {
+            node = node.getNext(key[index]);
+            if (node == null) {
+                break;
+            }
+            if (node.hasValue()) {
+                value = node.getValue();
+            }
+        }
+        return value;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -124,7 +299,82 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
     public String prefixKey(String key) {
         notEmpty(key, "Key must be not null or not empty string.");
 
-        return prefixKey(getRoot(), key);
+        final int length = prefixLength(getRoot(), key);
+        return length != -1 ? key.substring(0, length) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(CharSequence key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final int length = prefixLength(getRoot(), key);
+        return length != -1 ? key.subSequence(0, length).toString() : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        int longestPrefix = -1;
+        N node = getRoot();
+        for (int index = 0; index < length; index++) {
+            node = node.getNext(key[offset + index]);
+            if (node == null) {
+                break;
+            }
+            if (node.hasValue()) {
+                longestPrefix = index + 1;
+            }
+        }
+        return longestPrefix != -1 ? new String(key, offset, longestPrefix) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean longestMatch(CharSequence text, int offset, PrefixMatch<? super T> match) {
+        TrieUtil.checkText(text, offset);
+        notNull(match, "Match can not be null");
+
+        match.clear(offset);
+        N node = getRoot();
+        for (int index = offset; index < text.length(); index++) {
+            node = node.getNext(text.charAt(index));
+            if (node == null) {
+                break;
+            }
+            if (node.hasValue()) {
+                match.set(offset, index + 1 - offset, node.getValue());
+            }
+        }
+        return match.isFound();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void allPrefixes(CharSequence text, int offset, MatchListener<? super T> listener) {
+        TrieUtil.checkText(text, offset);
+        notNull(listener, "Listener can not be null");
+
+        N node = getRoot();
+        for (int index = offset; index < text.length(); index++) {
+            node = node.getNext(text.charAt(index));
+            if (node == null) {
+                return;
+            }
+            if (node.hasValue() && !listener.onMatch(offset, index + 1, node.getValue())) {
+                return;
+            }
+        }
     }
 
     /**
@@ -148,23 +398,147 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return keys;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Map.Entry<String, T>> entries() {
+        return StreamSupport.stream(new SubtreeSpliterator<T, N>(new Subtrees(), getRoot(), ""), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesWithPrefix(final String prefix, final String after, final int limit) {
+        TrieUtil.checkPrefix(prefix, limit);
+
+        return new Iterable<Map.Entry<String, T>>() {
+            @Override
+            public Iterator<Map.Entry<String, T>> iterator() {
+                return new EntryIterator(getNode(getRoot(), prefix), prefix, after, limit);
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countWithPrefix(String prefix) {
+        notNull(prefix, "Prefix can not be null");
+
+        final N node = getNode(getRoot(), prefix);
+        return node != null ? node.getSize() : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int rank(String key) {
+        notNull(key, "Key can not be null");
+
+        int rank = 0;
+        N node = getRoot();
+        for (int index = 0; node != null && index < key.length(); index++) {
+            final char c = key.charAt(index);
+            // the key of the node is a prefix of the given key, the keys of the preceding children precede it as well
+            if (node.hasValue()) {
+                rank++;
+            }
+            for (char next : node.getKeys()) {
+                if (next < c) {
+                    rank += node.getNext(next).getSize();
+                }
+            }
+            node = node.getNext(c);
+        }
+        return rank;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String select(int index) {
+        TrieUtil.checkIndex(index, size());
+
+        final StringBuilder key = new StringBuilder();
+        N node = getRoot();
+        while (!node.hasValue() || index > 0) {
+            if (node.hasValue()) {
+                index--;
+            }
+            final char[] keys = node.getKeys();
+            Arrays.sort(keys);
+            // descends into the child which subtree holds the key of the index
+            for (char c : keys) {
+                final N next = node.getNext(c);
+                if (index < next.getSize()) {
+                    key.append(c);
+                    node = next;
+                    break;
+                }
+                index -= next.getSize();
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesMatching(final WildcardPattern pattern) {
+        notNull(pattern, "Pattern can not be null");
+
+        return new Iterable<Map.Entry<String, T>>() {
+            @Override
+            public Iterator<Map.Entry<String, T>> iterator() {
+                // the walk starts from the node of the literal prefix, every matched key is in its subtree
+                final String prefix = pattern.literalPrefix();
+                final WildcardPattern.Automaton automaton = pattern.automaton();
+                return new EntryIterator(getNode(getRoot(), prefix), prefix, null, Integer.MAX_VALUE, automaton,
+                        automaton.step(automaton.start(), prefix));
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<FuzzyMatch<T>> fuzzyMatches(String key, int maxDistance) {
+        TrieUtil.checkFuzzy(key, maxDistance);
+
+        final List<FuzzyMatch<T>> matches = new ArrayList<FuzzyMatch<T>>();
+        fuzzyMatches(getRoot(), new LevenshteinAutomaton(key, maxDistance), new StringBuilder(), matches);
+        return TrieUtil.sortMatches(matches);
+    }
+
     @Override
     public String filter(String key, String replace) {
         StringBuilder result = new StringBuilder();
         N tempNode = getRoot();
         int begin = 0;
         int position = 0;
-        while (position < key.length()) {
-            char c = key.charAt(position);
-            if (isSymbol(c)) {
-                if (tempNode == root) {
-                    result.append(c);
-                    ++begin;
+        while (position < key.length() || tempNode != root) {
+            if (position < key.length()) {
+                char c = key.charAt(position);
+                if (TrieUtil.isSymbol(c)) {
+                    if (tempNode == root) {
+                        result.append(c);
+                        ++begin;
+                    }
+                    ++position;
+                    continue;
                 }
-                ++position;
-                continue;
+                tempNode = tempNode.getNext(c);
+            } else {
+                // the text ended in the middle of a match
+                tempNode = null;
             }
-            tempNode = tempNode.getNext(c);
             if (tempNode == null) {
                 result.append(key.charAt(begin));
                 position = ++begin;
@@ -182,10 +556,160 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return result.toString();
     }
 
-    private boolean isSymbol(char c) {
-        int ic = (int) c;
-        // return ic < 0x2E80 || ic > 0x9FFF;
-        return (ic < 0x2E80 || ic > 0x9FFF) && (ic < 0x61 || ic > 0x7a) && (ic < 0x41 || ic > 0x5a);
+    /**
+     * {@inheritDoc}
+     *
+     * The trie is walked from every start position of the text, without compiling the automaton.
+     */
+    @Override
+    public void filter(Readable source, Writer target, String replace) throws IOException {
+        StreamFilter.filter(source, target, replace, new StreamFilter.Matcher() {
+            @Override
+            public int shortestMatch(char[] text, int start, int end) {
+                return AbstractTrie.this.shortestMatch(text, start, end);
+            }
+        });
+    }
+
+    /**
+     * Finds the shortest key that starts at the position.
+     *
+     * @see StreamFilter.Matcher#shortestMatch(char[], int, int)
+     */
+    int shortestMatch(char[] text, int start, int end) {
+        N node = getRoot();
+        for (int position = start; position < end; position++) {
+            final char c = text[position];
+            if (TrieUtil.isSymbol(c)) {
+                continue;
+            }
+            node = node.getNext(c);
+            if (node == null) {
+                return StreamFilter.NO_MATCH;
+            }
+            if (node.getValue() != null) {
+                return position + 1;
+            }
+        }
+        return StreamFilter.UNDECIDED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void scan(CharSequence text, MatchListener<? super T> listener) {
+        TrieUtil.notNull(text, "Text can not be null");
+        TrieUtil.notNull(listener, "Listener can not be null");
+
+        final N root = getRoot();
+        for (int start = 0; start < text.length(); start++) {
+            if (TrieUtil.isSymbol(text.charAt(start))) {
+                continue;
+            }
+            N node = root;
+            for (int end = start; end < text.length(); end++) {
+                final char c = text.charAt(end);
+                if (TrieUtil.isSymbol(c)) {
+                    continue;
+                }
+                node = node.getNext(c);
+                if (node == null) {
+                    break;
+                }
+                if (node.hasValue() && !listener.onMatch(start, end + 1, node.getValue())) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the trie into the output. The nodes are written in pre-order, every node as the number of its children
+     * with the value flag followed by the value and the children, each prefixed with its character. The shared
+     * prefixes are written only once and the trie can be read back by {@link #readFrom(DataInput, ValueCodec)}
+     * without inserting the keys one by one. The format does not depend on the node implementation, so the trie can
+     * be read into any other {@link AbstractTrie} based trie.
+     *
+     * @param output the output
+     * @param codec  the value codec
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if {@code output} or {@code codec} is {@code null}
+     */
+    public void writeTo(DataOutput output, ValueCodec<? super T> codec) throws IOException {
+        notNull(output, "Output can not be null");
+        notNull(codec, "Codec can not be null");
+
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+
+        // the characters of the pending nodes, in the same order as the nodes
+        final Deque<N> nodes = new ArrayDeque<N>();
+        char[] chars = new char[16];
+        int pending = 0;
+        nodes.push(getRoot());
+        while (!nodes.isEmpty()) {
+            final N node = nodes.pop();
+            if (node != getRoot()) {
+                TrieUtil.writeVarInt(output, chars[--pending]);
+            }
+            final char[] keys = node.getKeys();
+            TrieUtil.writeVarInt(output, keys.length << 1 | (node.hasValue() ? 1 : 0));
+            if (node.hasValue()) {
+                TrieUtil.writeValue(output, codec, node.getValue());
+            }
+            if (pending + keys.length > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, pending + keys.length));
+            }
+            for (int ind = keys.length - 1; ind >= 0; ind--) {
+                nodes.push(node.getNext(keys[ind]));
+                chars[pending++] = keys[ind];
+            }
+        }
+    }
+
+    /**
+     * Replaces the content of the trie with the trie read from the input, written by
+     * {@link #writeTo(DataOutput, ValueCodec)}.
+     *
+     * @param input the input
+     * @param codec the value codec
+     * @throws IOException              if an I/O error occurs or the input is not a serialized trie
+     * @throws IllegalArgumentException if {@code input} or {@code codec} is {@code null}
+     */
+    public void readFrom(DataInput input, ValueCodec<? extends T> codec) throws IOException {
+        notNull(input, "Input can not be null");
+        notNull(codec, "Codec can not be null");
+
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a serialized trie");
+        }
+        final int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported serialized trie version: " + version);
+        }
+
+        final N root = createTrieNode();
+        final Deque<ReadNode> stack = new ArrayDeque<ReadNode>();
+        stack.push(new ReadNode(root, readNode(input, codec, root)));
+        while (!stack.isEmpty()) {
+            final ReadNode parent = stack.peek();
+            if (parent.children == 0) {
+                // the subtree is complete, its size is added to the parent
+                stack.pop();
+                if (!stack.isEmpty()) {
+                    final N node = stack.peek().node;
+                    node.setSize(node.getSize() + parent.node.getSize());
+                }
+                continue;
+            }
+            parent.children--;
+            final char c = (char) TrieUtil.readVarInt(input);
+            final N node = createTrieNode();
+            parent.node.setNext(c, node);
+            stack.push(new ReadNode(node, readNode(input, codec, node)));
+        }
+        this.root = root;
     }
 
     private T put(N root, String key, T value) {
@@ -221,7 +745,7 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return null;
     }
 
-    private T get(N node, String key) {
+    private T get(N node, CharSequence key) {
 
         final N found = getNode(node, key);
         if(found == null) {
@@ -230,7 +754,7 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return found.getValue();
     }
 
-    private N getNode(N node, String key) {
+    private N getNode(N node, CharSequence key) {
         int index = 0;
         while (node != null) {
             if (index == key.length()) {
@@ -242,7 +766,7 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return null;
     }
 
-    private T prefix(N node, String key) {
+    private T prefix(N node, CharSequence key) {
 
         T value = null;
         int index = 0;
@@ -259,9 +783,8 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return value;
     }
 
-    private String prefixKey(N node, String key) {
+    private int prefixLength(N node, CharSequence key) {
 
-        final StringBuilder path = new StringBuilder();
         int longestPrefix = -1;
         int index = 0;
         while (node != null) {
@@ -271,15 +794,10 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
             if (index == key.length()) {
                 break;
             }
-            final char c = getChar(key, index);
-            path.append(c);
-            node = node.getNext(c);
+            node = node.getNext(getChar(key, index));
             index++;
         }
-        if(longestPrefix == -1) {
-            return null;
-        }
-        return path.substring(0, longestPrefix);
+        return longestPrefix;
     }
 
     private T remove(N root, String key) {
@@ -318,13 +836,37 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return value;
     }
 
+    /**
+     * Removes the nodes deeper than the given depth from the path, their subtrees are complete so their sizes are
+     * added to the parents.
+     *
+     * @param path  the path
+     * @param depth the depth of the deepest node that is kept
+     */
+    private void completePath(List<N> path, int depth) {
+        for (int index = path.size() - 1; index > depth; index--) {
+            final N node = path.remove(index);
+            final N parent = path.get(index - 1);
+            parent.setSize(parent.getSize() + node.getSize());
+        }
+    }
+
+    private int readNode(DataInput input, ValueCodec<? extends T> codec, N node) throws IOException {
+        final int header = TrieUtil.readVarInt(input);
+        if ((header & 1) != 0) {
+            node.setValue(TrieUtil.<T>readValue(input, codec));
+            node.setSize(1);
+        }
+        return header >>> 1;
+    }
+
     private void keys(N root, Set<String> keys) {
 
         N node;
         TraversedPath traversedPath;
 
         final StringBuilder path = new StringBuilder();
-        final Deque<TraversedPath> stack = new LinkedList<TraversedPath>();
+        final Deque<TraversedPath> stack = new ArrayDeque<TraversedPath>();
         stack.push(new TraversedPath(TraversedPathAction.VISIT, -1, root));
 
         while(!stack.isEmpty()) {
@@ -347,11 +889,26 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         }
     }
 
-    private char getChar(String key, int index) {
+    private void fuzzyMatches(N node, LevenshteinAutomaton automaton, StringBuilder path,
+                              List<FuzzyMatch<T>> matches) {
+        final int depth = path.length();
+        if (node.hasValue() && automaton.isMatch(depth)) {
+            matches.add(new FuzzyMatch<T>(path.toString(), node.getValue(), automaton.distance(depth)));
+        }
+        for (char c : node.getKeys()) {
+            if (automaton.step(depth, c)) {
+                path.append(c);
+                fuzzyMatches(node.getNext(c), automaton, path, matches);
+                path.setLength(depth);
+            }
+        }
+    }
+
+    private char getChar(CharSequence key, int index) {
         return key.charAt(index);
     }
 
-    private N getRoot() {
+    N getRoot() {
         return root;
     }
 
@@ -365,9 +922,9 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         }
     }
 
-    private void notEmpty(String value, String message) {
+    private void notEmpty(CharSequence value, String message) {
         notNull(value, message);
-        if(value.isEmpty()) {
+        if(value.length() == 0) {
             throw new IllegalArgumentException(message);
         }
     }
@@ -402,6 +959,137 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         char[] getKeys();
     }
 
+    private final class ReadNode {
+
+        private final N node;
+
+        private int children;
+
+        ReadNode(N node, int children) {
+            this.node = node;
+            this.children = children;
+        }
+    }
+
+    /**
+     * Walks the subtree of the prefix depth first, visiting the children of every node in the order of their
+     * characters.
+     */
+    private final class EntryIterator extends PrefixIterator<T> {
+
+        private final Deque<EntryFrame> stack = new ArrayDeque<EntryFrame>();
+
+        private final WildcardPattern.Automaton automaton;
+
+        EntryIterator(N node, String prefix, String after, int limit) {
+            this(node, prefix, after, limit, null, 0);
+        }
+
+        EntryIterator(N node, String prefix, String after, int limit, WildcardPattern.Automaton automaton,
+                      int state) {
+            super(prefix, after, limit);
+            this.automaton = automaton;
+            if (node != null && !isExhausted() && state != WildcardPattern.Automaton.DEAD) {
+                stack.push(new EntryFrame(node, prefix.length(), this.after != null, state));
+            }
+        }
+
+        @Override
+        Map.Entry<String, T> advance() {
+            while (!stack.isEmpty()) {
+                final EntryFrame frame = stack.peek();
+                if (frame.keys == null) {
+                    frame.keys = frame.node.getKeys();
+                    Arrays.sort(frame.keys);
+                    // the node on the cursor path is not after the cursor, neither are its children preceding it
+                    final boolean emit = !frame.onPath && frame.node.hasValue()
+                            && (automaton == null || automaton.isAccepting(frame.state));
+                    if (frame.onPath) {
+                        if (frame.depth < after.length()) {
+                            final int index = Arrays.binarySearch(frame.keys, after.charAt(frame.depth));
+                            frame.index = index >= 0 ? index : -(index + 1);
+                        } else {
+                            frame.onPath = false;
+                        }
+                    }
+                    if (emit) {
+                        return entry(frame.depth, frame.node.getValue());
+                    }
+                } else if (frame.index < frame.keys.length) {
+                    final char c = frame.keys[frame.index++];
+                    // the branches that can not match the pattern are skipped
+                    final int state = automaton != null ? automaton.step(frame.state, c) : 0;
+                    if (state != WildcardPattern.Automaton.DEAD) {
+                        path.setLength(frame.depth);
+                        path.append(c);
+                        stack.push(new EntryFrame(frame.node.getNext(c), frame.depth + 1,
+                                frame.onPath && c == after.charAt(frame.depth), state));
+                    }
+                } else {
+                    stack.pop();
+                }
+            }
+            return null;
+        }
+    }
+
+    private final class EntryFrame {
+
+        private final N node;
+
+        private final int depth;
+
+        private final int state;
+
+        private boolean onPath;
+
+        private char[] keys;
+
+        private int index;
+
+        EntryFrame(N node, int depth, boolean onPath, int state) {
+            this.node = node;
+            this.depth = depth;
+            this.onPath = onPath;
+            this.state = state;
+        }
+    }
+
+    /**
+     * Splits the stream of the entries on the children of the nodes.
+     */
+    private final class Subtrees implements SubtreeSpliterator.Tree<T, N> {
+
+        @Override
+        public int size(N node) {
+            return node.getSize();
+        }
+
+        @Override
+        public boolean hasValue(N node) {
+            return node.hasValue();
+        }
+
+        @Override
+        public T value(N node) {
+            return node.getValue();
+        }
+
+        @Override
+        public void children(N node, String key, List<SubtreeSpliterator.Subtree<N>> children) {
+            final char[] keys = node.getKeys();
+            Arrays.sort(keys);
+            for (char c : keys) {
+                children.add(new SubtreeSpliterator.Subtree<N>(node.getNext(c), key + c));
+            }
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, T>> iterator(N node, String key) {
+            return new EntryIterator(node, key, null, Integer.MAX_VALUE);
+        }
+    }
+
     private enum TraversedPathAction {
         VISIT, BACKUP
     }
@@ -15,11 +15,25 @@
  */
 package io.jmnarloch.trie;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A base implementation of Ternary Trie Tree.
@@ -28,6 +42,24 @@ import java.util.Set;
  */
 abstract class AbstractTst<T> implements Trie<T> {
 
+    /**
+     * The serialized tree magic number, {@code TTST} in ASCII.
+     */
+    private static final int MAGIC = 0x54545354;
+
+    /**
+     * The serialized tree format version.
+     */
+    private static final int VERSION = 1;
+
+    private static final int HAS_VALUE = 1;
+
+    private static final int HAS_LEFT = 2;
+
+    private static final int HAS_MID = 4;
+
+    private static final int HAS_RIGHT = 8;
+
     private TstNode root;
 
     /**
@@ -68,6 +100,83 @@ abstract class AbstractTst<T> implements Trie<T> {
         }
     }
 
+    /**
+     * Replaces the content of the tree with the entries given in ascending order of their keys, for instance read
+     * from a sorted file or a sorted stream. The tree is built in a single pass: every key shares the path of its
+     * common prefix with the previous key, so only its new suffix is created. The nodes of a level are collected
+     * until the following keys no longer enter it and are then linked into a balanced binary tree, so the tree does
+     * not degenerate into the lists that inserting the sorted keys one by one creates.
+     *
+     * @param entries the entries in strictly ascending order of the keys
+     * @throws IllegalArgumentException if {@code entries} is {@code null}, any key is {@code null} or empty string,
+     *                                  any value is {@code null} or the keys are not in strictly ascending order
+     */
+    public void putAllSorted(Iterator<? extends Map.Entry<String, ? extends T>> entries) {
+        notNull(entries, "Entries can not be null");
+
+        this.root = build(entries);
+    }
+
+    /**
+     * Replaces the content of the tree with the entries, building the subtrees of the leading characters of the keys
+     * concurrently in the pool and then linking them into the balanced first level of the tree.
+     *
+     * @param entries the entries in any order
+     * @param pool    the pool that builds the subtrees
+     * @throws IllegalArgumentException if {@code entries} or {@code pool} is {@code null}, any key is {@code null} or
+     *                                  empty string, any value is {@code null} or any key is repeated
+     * @see Tries#parallelBuild(Spliterator, Trie, ForkJoinPool)
+     */
+    void putAllParallel(Spliterator<? extends Map.Entry<String, ? extends T>> entries, ForkJoinPool pool) {
+        final List<ForkJoinTask<TstNode>> tasks = new ArrayList<ForkJoinTask<TstNode>>();
+        for (final List<Map.Entry<String, ? extends T>> partition : ParallelBuilder.<T>partition(entries, pool)) {
+            tasks.add(pool.submit(new Callable<TstNode>() {
+                @Override
+                public TstNode call() {
+                    ParallelBuilder.sort(partition);
+                    return build(partition.iterator());
+                }
+            }));
+        }
+
+        // every subtree is a single node of the first level, the partitions are in the order of their characters
+        final List<TstNode> nodes = new ArrayList<TstNode>();
+        for (ForkJoinTask<TstNode> task : tasks) {
+            nodes.add(task.join());
+        }
+        this.root = balance(nodes, 0, nodes.size());
+    }
+
+    private TstNode build(Iterator<? extends Map.Entry<String, ? extends T>> entries) {
+
+        // the levels of the path of the previous key, indexed by the depth, the deeper ones are reused
+        final List<Level> levels = new ArrayList<Level>();
+        levels.add(new Level());
+        int depth = 0;
+        String previous = null;
+        while (entries.hasNext()) {
+            final Map.Entry<String, ? extends T> entry = entries.next();
+            final String key = entry.getKey();
+            notEmpty(key, "Key must be not null or not empty string.");
+            notNull(entry.getValue(), "Value can not be null");
+
+            final int common = previous != null ? TrieUtil.checkSorted(previous, key) : 0;
+            completeLevels(levels, depth, common);
+            for (depth = common; depth < key.length(); depth++) {
+                final TstNode node = new TstNode();
+                node.c = key.charAt(depth);
+                levels.get(depth).nodes.add(node);
+                if (levels.size() == depth + 1) {
+                    levels.add(new Level());
+                }
+            }
+            levels.get(depth).value = entry.getValue();
+            previous = key;
+        }
+        completeLevels(levels, depth, 0);
+        return levels.get(0).complete();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -78,6 +187,22 @@ abstract class AbstractTst<T> implements Trie<T> {
         return get(key) != null;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(CharSequence key) {
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(char[] key, int offset, int length) {
+        return get(key, offset, length) != null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -88,6 +213,39 @@ abstract class AbstractTst<T> implements Trie<T> {
         return get(root, key);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(CharSequence key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        return get(root, key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        TstNode node = root;
+        int index = offset;
+        while (node != null) {
+            final char c = key[index];
+            if (c == node.c) {
+                node = node.mid;
+                if (++index == offset + length) {
+                    return node != null ? node.value : null;
+                }
+            } else {
+                node = moveNext(node, c);
+            }
+        }
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -98,6 +256,41 @@ abstract class AbstractTst<T> implements Trie<T> {
         return prefix(root, key);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(CharSequence key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        return prefix(root, key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        T value = null;
+        TstNode node = root;
+        int index = offset;
+        while (node != null && index < offset + length) {
+            final char c = key[index];
+            if (c == node.c) {
+                index++;
+                node = node.mid;
+                if (node != null && node.value != null) {
+                    value = node.value;
+                }
+            } else {
+                node = moveNext(node, c);
+            }
+        }
+        return value;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -105,7 +298,94 @@ abstract class AbstractTst<T> implements Trie<T> {
     public String prefixKey(String key) {
         notEmpty(key, "Key must be not null or not empty string.");
 
-        return prefixKey(root, key);
+        final int length = prefixLength(root, key);
+        return length != -1 ? key.substring(0, length) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(CharSequence key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final int length = prefixLength(root, key);
+        return length != -1 ? key.subSequence(0, length).toString() : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        int longestPrefix = -1;
+        TstNode node = root;
+        int index = 0;
+        while (node != null && index < length) {
+            final char c = key[offset + index];
+            if (c == node.c) {
+                index++;
+                node = node.mid;
+                if (node != null && node.value != null) {
+                    longestPrefix = index;
+                }
+            } else {
+                node = moveNext(node, c);
+            }
+        }
+        return longestPrefix != -1 ? new String(key, offset, longestPrefix) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean longestMatch(CharSequence text, int offset, PrefixMatch<? super T> match) {
+        TrieUtil.checkText(text, offset);
+        notNull(match, "Match can not be null");
+
+        match.clear(offset);
+        TstNode node = root;
+        int index = offset;
+        while (node != null && index < text.length()) {
+            final char c = text.charAt(index);
+            if (c == node.c) {
+                index++;
+                node = node.mid;
+                if (node != null && node.value != null) {
+                    match.set(offset, index - offset, node.value);
+                }
+            } else {
+                node = moveNext(node, c);
+            }
+        }
+        return match.isFound();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void allPrefixes(CharSequence text, int offset, MatchListener<? super T> listener) {
+        TrieUtil.checkText(text, offset);
+        notNull(listener, "Listener can not be null");
+
+        TstNode node = root;
+        int index = offset;
+        while (node != null && index < text.length()) {
+            final char c = text.charAt(index);
+            if (c == node.c) {
+                index++;
+                node = node.mid;
+                if (node != null && node.value != null && !listener.onMatch(offset, index, node.value)) {
+                    return;
+                }
+            } else {
+                node = moveNext(node, c);
+            }
+        }
     }
 
     /**
@@ -128,6 +408,139 @@ abstract class AbstractTst<T> implements Trie<T> {
         return keys;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Map.Entry<String, T>> entries() {
+        return StreamSupport.stream(new SubtreeSpliterator<T, TstNode>(new Levels(), root, ""), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesWithPrefix(final String prefix, final String after, final int limit) {
+        TrieUtil.checkPrefix(prefix, limit);
+
+        return new Iterable<Map.Entry<String, T>>() {
+            @Override
+            public Iterator<Map.Entry<String, T>> iterator() {
+                return new EntryIterator(levelOf(prefix), prefix, after, limit);
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countWithPrefix(String prefix) {
+        notNull(prefix, "Prefix can not be null");
+
+        return size(levelOf(prefix));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int rank(String key) {
+        notNull(key, "Key can not be null");
+
+        int rank = 0;
+        int index = 0;
+        boolean levelRoot = true;
+        TstNode node = root;
+        while (node != null && index < key.length()) {
+            // the value of the level root is a prefix of the given key
+            final int value = levelRoot && node.value != null ? 1 : 0;
+            rank += value;
+            final char c = key.charAt(index);
+            if (c < node.c) {
+                node = node.left;
+                levelRoot = false;
+            } else if (c > node.c) {
+                rank += node.size - value - size(node.right);
+                node = node.right;
+                levelRoot = false;
+            } else {
+                rank += size(node.left);
+                node = node.mid;
+                levelRoot = true;
+                index++;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String select(int index) {
+        TrieUtil.checkIndex(index, size());
+
+        final StringBuilder key = new StringBuilder();
+        boolean levelRoot = true;
+        TstNode node = root;
+        while (true) {
+            if (levelRoot && node.value != null) {
+                if (index == 0) {
+                    return key.toString();
+                }
+                index--;
+            }
+            // the keys of the left subtree precede the keys continuing with the character of the node
+            if (index < size(node.left)) {
+                node = node.left;
+                levelRoot = false;
+                continue;
+            }
+            index -= size(node.left);
+            if (index < size(node.mid)) {
+                key.append(node.c);
+                node = node.mid;
+                levelRoot = true;
+                continue;
+            }
+            index -= size(node.mid);
+            node = node.right;
+            levelRoot = false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesMatching(final WildcardPattern pattern) {
+        notNull(pattern, "Pattern can not be null");
+
+        return new Iterable<Map.Entry<String, T>>() {
+            @Override
+            public Iterator<Map.Entry<String, T>> iterator() {
+                // the walk starts from the level of the literal prefix, every matched key is in its subtree
+                final String prefix = pattern.literalPrefix();
+                final WildcardPattern.Automaton automaton = pattern.automaton();
+                return new EntryIterator(levelOf(prefix), prefix, null, Integer.MAX_VALUE, automaton,
+                        automaton.step(automaton.start(), prefix));
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<FuzzyMatch<T>> fuzzyMatches(String key, int maxDistance) {
+        TrieUtil.checkFuzzy(key, maxDistance);
+
+        final List<FuzzyMatch<T>> matches = new ArrayList<FuzzyMatch<T>>();
+        fuzzyMatches(root, true, new LevenshteinAutomaton(key, maxDistance), new StringBuilder(), matches);
+        return TrieUtil.sortMatches(matches);
+    }
+
     @Override
     public String filter(String key, String replace) {
         StringBuilder result = new StringBuilder();
@@ -163,7 +576,7 @@ abstract class AbstractTst<T> implements Trie<T> {
                     tempNode = moveNext(tempNode, c);
                 }
             }
-            if (tempNode == null) {
+            if (tempNode == null || position == key.length() && tempNode != root) {
                 result.append(key.charAt(begin));
                 position = ++begin;
                 tempNode = root;
@@ -173,6 +586,175 @@ abstract class AbstractTst<T> implements Trie<T> {
         return result.toString();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The trie is walked from every start position of the text, without compiling the automaton.
+     */
+    @Override
+    public void filter(Readable source, Writer target, String replace) throws IOException {
+        StreamFilter.filter(source, target, replace, new StreamFilter.Matcher() {
+            @Override
+            public int shortestMatch(char[] text, int start, int end) {
+                return AbstractTst.this.shortestMatch(text, start, end);
+            }
+        });
+    }
+
+    private int shortestMatch(char[] text, int start, int end) {
+        TstNode node = root;
+        for (int position = start; position < end; position++) {
+            final char c = text[position];
+            if (TrieUtil.isSymbol(c)) {
+                continue;
+            }
+            while (node != null && c != node.c) {
+                node = moveNext(node, c);
+            }
+            if (node == null) {
+                return StreamFilter.NO_MATCH;
+            }
+            // the value of the key is stored in the root of the next level
+            node = node.mid;
+            if (node == null) {
+                return StreamFilter.NO_MATCH;
+            }
+            if (node.value != null) {
+                return position + 1;
+            }
+        }
+        return StreamFilter.UNDECIDED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void scan(CharSequence text, MatchListener<? super T> listener) {
+        TrieUtil.notNull(text, "Text can not be null");
+        TrieUtil.notNull(listener, "Listener can not be null");
+
+        for (int start = 0; start < text.length(); start++) {
+            if (TrieUtil.isSymbol(text.charAt(start))) {
+                continue;
+            }
+            TstNode node = root;
+            for (int end = start; end < text.length() && node != null; end++) {
+                final char c = text.charAt(end);
+                if (TrieUtil.isSymbol(c)) {
+                    continue;
+                }
+                while (node != null && c != node.c) {
+                    node = moveNext(node, c);
+                }
+                if (node == null) {
+                    break;
+                }
+                // the value of the key is stored in the root of the next level
+                node = node.mid;
+                if (node != null && node.value != null && !listener.onMatch(start, end + 1, node.value)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the tree into the output. The nodes are written in pre-order, every node as its character and the flags
+     * of the value and the left, mid and right children followed by the value. The tree can be read back by
+     * {@link #readFrom(DataInput, ValueCodec)} without inserting the keys one by one, preserving its shape.
+     *
+     * @param output the output
+     * @param codec  the value codec
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if {@code output} or {@code codec} is {@code null}
+     */
+    public void writeTo(DataOutput output, ValueCodec<? super T> codec) throws IOException {
+        notNull(output, "Output can not be null");
+        notNull(codec, "Codec can not be null");
+
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeBoolean(root != null);
+        if (root == null) {
+            return;
+        }
+
+        final Deque<TstNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            final TstNode node = stack.pop();
+            TrieUtil.writeVarInt(output, node.c);
+            output.writeByte((node.value != null ? HAS_VALUE : 0) | (node.left != null ? HAS_LEFT : 0)
+                    | (node.mid != null ? HAS_MID : 0) | (node.right != null ? HAS_RIGHT : 0));
+            if (node.value != null) {
+                TrieUtil.writeValue(output, codec, node.value);
+            }
+            if (node.right != null) {
+                stack.push(node.right);
+            }
+            if (node.mid != null) {
+                stack.push(node.mid);
+            }
+            if (node.left != null) {
+                stack.push(node.left);
+            }
+        }
+    }
+
+    /**
+     * Replaces the content of the tree with the tree read from the input, written by
+     * {@link #writeTo(DataOutput, ValueCodec)}.
+     *
+     * @param input the input
+     * @param codec the value codec
+     * @throws IOException              if an I/O error occurs or the input is not a serialized tree
+     * @throws IllegalArgumentException if {@code input} or {@code codec} is {@code null}
+     */
+    public void readFrom(DataInput input, ValueCodec<? extends T> codec) throws IOException {
+        notNull(input, "Input can not be null");
+        notNull(codec, "Codec can not be null");
+
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a serialized ternary search tree");
+        }
+        final int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported serialized ternary search tree version: " + version);
+        }
+        if (!input.readBoolean()) {
+            root = null;
+            return;
+        }
+
+        final TstNode root = new TstNode();
+        final Deque<ReadNode> stack = new ArrayDeque<>();
+        stack.push(new ReadNode(root, readNode(input, codec, root)));
+        while (!stack.isEmpty()) {
+            final ReadNode parent = stack.peek();
+            final TstNode node = parent.node;
+            if ((parent.children & (HAS_LEFT | HAS_MID | HAS_RIGHT)) == 0) {
+                // all of the children have been read, so the subtree size is known
+                stack.pop();
+                node.size = (node.value != null ? 1 : 0) + size(node.left) + size(node.mid) + size(node.right);
+                continue;
+            }
+            final TstNode child = new TstNode();
+            if ((parent.children & HAS_LEFT) != 0) {
+                node.left = child;
+                parent.children &= ~HAS_LEFT;
+            } else if ((parent.children & HAS_MID) != 0) {
+                node.mid = child;
+                parent.children &= ~HAS_MID;
+            } else {
+                node.right = child;
+                parent.children &= ~HAS_RIGHT;
+            }
+            stack.push(new ReadNode(child, readNode(input, codec, child)));
+        }
+        this.root = root;
+    }
+
     private T put(TstNode root, String key, T value) {
 
         int index = 0;
@@ -210,6 +792,13 @@ abstract class AbstractTst<T> implements Trie<T> {
         if (node != null) {
             T oldValue = node.value;
             node.value = value;
+            if (oldValue == null) {
+                // the key is a prefix of the existing keys, its node is already there but the sizes are not counted
+                node.size += 1;
+                while (!stack.isEmpty()) {
+                    stack.pop().size += 1;
+                }
+            }
             return oldValue;
         }
 
@@ -225,7 +814,7 @@ abstract class AbstractTst<T> implements Trie<T> {
         return null;
     }
 
-    private T get(TstNode node, String key) {
+    private T get(TstNode node, CharSequence key) {
 
         int index = 0;
         char c = getChar(key, index);
@@ -245,7 +834,7 @@ abstract class AbstractTst<T> implements Trie<T> {
         return null;
     }
 
-    private T prefix(TstNode node, String key) {
+    private T prefix(TstNode node, CharSequence key) {
 
         int index = 0;
         T value = null;
@@ -269,33 +858,24 @@ abstract class AbstractTst<T> implements Trie<T> {
         return value;
     }
 
-    private String prefixKey(TstNode node, String key) {
+    private int prefixLength(TstNode node, CharSequence key) {
 
-        final StringBuilder path = new StringBuilder();
-        int index = 0;
         int longestPrefix = -1;
-
-        while (node != null) {
-            if (index == key.length()) {
-                if (node.value != null) {
-                    longestPrefix = index;
-                }
-                break;
-            }
+        int index = 0;
+        while (node != null && index < key.length()) {
             final char c = getChar(key, index);
             if (c == node.c) {
-                path.append(c);
                 index++;
-                if (node.value != null) {
+                node = node.mid;
+                // the value of the key is kept by the node that follows its last character
+                if (node != null && node.value != null) {
                     longestPrefix = index;
                 }
+            } else {
+                node = moveNext(node, c);
             }
-            node = moveNext(node, c);
         }
-        if (longestPrefix == -1) {
-            return null;
-        }
-        return path.substring(0, longestPrefix);
+        return longestPrefix;
     }
 
     private T remove(TstNode node, String key) {
@@ -346,9 +926,12 @@ abstract class AbstractTst<T> implements Trie<T> {
     }
 
     private void keys(TstNode root, HashSet<String> keys) {
+        if (root == null) {
+            return;
+        }
 
         final StringBuilder path = new StringBuilder();
-        final Deque<TraversedPath> stack = new LinkedList<>();
+        final Deque<TraversedPath> stack = new ArrayDeque<>();
         stack.push(new TraversedPath(TraversedPathAction.VISIT, -1, root));
 
         while (!stack.isEmpty()) {
@@ -377,6 +960,73 @@ abstract class AbstractTst<T> implements Trie<T> {
         }
     }
 
+    private int readNode(DataInput input, ValueCodec<? extends T> codec, TstNode node) throws IOException {
+        node.c = (char) TrieUtil.readVarInt(input);
+        final int flags = input.readUnsignedByte();
+        if ((flags & HAS_VALUE) != 0) {
+            node.value = TrieUtil.<T>readValue(input, codec);
+        }
+        return flags;
+    }
+
+    private void fuzzyMatches(TstNode node, boolean levelRoot, LevenshteinAutomaton automaton, StringBuilder path,
+                              List<FuzzyMatch<T>> matches) {
+        if (node == null) {
+            return;
+        }
+        final int depth = path.length();
+        // only the level root holds the value of the path, the other nodes of the level are its siblings
+        if (levelRoot && node.value != null && automaton.isMatch(depth)) {
+            matches.add(new FuzzyMatch<T>(path.toString(), node.value, automaton.distance(depth)));
+        }
+        fuzzyMatches(node.left, false, automaton, path, matches);
+        if (node.mid != null && automaton.step(depth, node.c)) {
+            path.append(node.c);
+            fuzzyMatches(node.mid, true, automaton, path, matches);
+            path.setLength(depth);
+        }
+        fuzzyMatches(node.right, false, automaton, path, matches);
+    }
+
+    /**
+     * Completes the levels deeper than the given depth and links them to the last nodes of their parent levels.
+     *
+     * @param levels the levels
+     * @param from   the depth of the deepest level
+     * @param to     the depth of the deepest level that is kept
+     */
+    private void completeLevels(List<Level> levels, int from, int to) {
+        for (int depth = from; depth > to; depth--) {
+            final List<TstNode> parents = levels.get(depth - 1).nodes;
+            parents.get(parents.size() - 1).mid = levels.get(depth).complete();
+        }
+    }
+
+    /**
+     * Links the sorted nodes of a level into a balanced binary tree and computes their sizes, the mid subtrees are
+     * already complete.
+     *
+     * @param nodes the sorted nodes
+     * @param from  the first node, inclusive
+     * @param to    the last node, exclusive
+     * @return the root of the tree
+     */
+    private TstNode balance(List<TstNode> nodes, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        final int middle = (from + to) >>> 1;
+        final TstNode node = nodes.get(middle);
+        node.left = balance(nodes, from, middle);
+        node.right = balance(nodes, middle + 1, to);
+        node.size = size(node.left) + size(node.mid) + size(node.right);
+        return node;
+    }
+
+    private int size(TstNode node) {
+        return node != null ? node.size : 0;
+    }
+
     private TstNode moveNext(TstNode node, char c) {
         if (c < node.c) {
             node = node.left;
@@ -388,7 +1038,7 @@ abstract class AbstractTst<T> implements Trie<T> {
         return node;
     }
 
-    private char getChar(String key, int index) {
+    private char getChar(CharSequence key, int index) {
         return key.charAt(index);
     }
 
@@ -398,13 +1048,177 @@ abstract class AbstractTst<T> implements Trie<T> {
         }
     }
 
-    private void notEmpty(String value, String message) {
+    private void notEmpty(CharSequence value, String message) {
         notNull(value, message);
-        if (value.isEmpty()) {
+        if (value.length() == 0) {
             throw new IllegalArgumentException(message);
         }
     }
 
+    /**
+     * Returns the root of the level that follows the prefix, the node that holds the value of the prefix and which
+     * subtree holds all of the keys starting with the prefix.
+     *
+     * @param prefix the prefix
+     * @return the level root, or {@code null} if no key starts with the prefix
+     */
+    private TstNode levelOf(String prefix) {
+        TstNode node = root;
+        int index = 0;
+        while (node != null && index < prefix.length()) {
+            final char c = prefix.charAt(index);
+            if (c == node.c) {
+                index++;
+                node = node.mid;
+            } else {
+                node = moveNext(node, c);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Walks the subtree of the prefix in order, every node after its left subtree and before its right one. The
+     * value of a level root is the key of the level itself, so it precedes the whole level.
+     */
+    private final class EntryIterator extends PrefixIterator<T> {
+
+        private final Deque<EntryFrame> stack = new ArrayDeque<EntryFrame>();
+
+        private final WildcardPattern.Automaton automaton;
+
+        EntryIterator(TstNode node, String prefix, String after, int limit) {
+            this(node, prefix, after, limit, null, 0);
+        }
+
+        EntryIterator(TstNode node, String prefix, String after, int limit, WildcardPattern.Automaton automaton,
+                      int matchState) {
+            super(prefix, after, limit);
+            this.automaton = automaton;
+            if (node != null && !isExhausted() && matchState != WildcardPattern.Automaton.DEAD) {
+                stack.push(new EntryFrame(node, prefix.length(), this.after != null, true, matchState));
+            }
+        }
+
+        @Override
+        Map.Entry<String, T> advance() {
+            while (!stack.isEmpty()) {
+                final EntryFrame frame = stack.peek();
+                final TstNode node = frame.node;
+                // the nodes on the cursor path skip the branches with the characters preceding the cursor
+                final char a = frame.onPath && frame.depth < after.length() ? after.charAt(frame.depth) : 0;
+                switch (frame.state++) {
+                    case 0:
+                        if (frame.levelRoot) {
+                            final boolean emit = !frame.onPath && node.value != null
+                                    && (automaton == null || automaton.isAccepting(frame.matchState));
+                            if (frame.onPath && frame.depth == after.length()) {
+                                // every other key of the level extends the cursor
+                                frame.onPath = false;
+                            }
+                            if (emit) {
+                                return entry(frame.depth, node.value);
+                            }
+                        }
+                        break;
+                    case 1:
+                        if (node.left != null && (!frame.onPath || node.c > a)) {
+                            stack.push(new EntryFrame(node.left, frame.depth, frame.onPath, false, frame.matchState));
+                        }
+                        break;
+                    case 2:
+                        if (node.mid != null && (!frame.onPath || node.c >= a)) {
+                            // the branches that can not match the pattern are skipped
+                            final int matchState = automaton != null ? automaton.step(frame.matchState, node.c) : 0;
+                            if (matchState != WildcardPattern.Automaton.DEAD) {
+                                path.setLength(frame.depth);
+                                path.append(node.c);
+                                stack.push(new EntryFrame(node.mid, frame.depth + 1, frame.onPath && node.c == a,
+                                        true, matchState));
+                            }
+                        }
+                        break;
+                    default:
+                        stack.pop();
+                        if (node.right != null) {
+                            stack.push(new EntryFrame(node.right, frame.depth, frame.onPath && node.c < a, false,
+                                    frame.matchState));
+                        }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Splits the stream of the entries on the levels, the children of a level are the levels below its nodes.
+     */
+    private final class Levels implements SubtreeSpliterator.Tree<T, TstNode> {
+
+        @Override
+        public int size(TstNode node) {
+            return AbstractTst.this.size(node);
+        }
+
+        @Override
+        public boolean hasValue(TstNode node) {
+            return node.value != null;
+        }
+
+        @Override
+        public T value(TstNode node) {
+            return node.value;
+        }
+
+        @Override
+        public void children(TstNode node, String key, List<SubtreeSpliterator.Subtree<TstNode>> children) {
+            // visits the nodes of the level in order
+            final Deque<TstNode> stack = new ArrayDeque<TstNode>();
+            while (node != null || !stack.isEmpty()) {
+                while (node != null) {
+                    stack.push(node);
+                    node = node.left;
+                }
+                node = stack.pop();
+                if (node.mid != null) {
+                    children.add(new SubtreeSpliterator.Subtree<TstNode>(node.mid, key + node.c));
+                }
+                node = node.right;
+            }
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, T>> iterator(TstNode node, String key) {
+            return new EntryIterator(node, key, null, Integer.MAX_VALUE);
+        }
+    }
+
+    private final class EntryFrame {
+
+        private final TstNode node;
+
+        private final int depth;
+
+        private final boolean levelRoot;
+
+        /**
+         * The state of the pattern automaton after the path preceding the level of the node.
+         */
+        private final int matchState;
+
+        private boolean onPath;
+
+        private int state;
+
+        EntryFrame(TstNode node, int depth, boolean onPath, boolean levelRoot, int matchState) {
+            this.node = node;
+            this.depth = depth;
+            this.onPath = onPath;
+            this.levelRoot = levelRoot;
+            this.matchState = matchState;
+        }
+    }
+
     private enum TraversedPathAction {
         VISIT, BACKUP
     }
@@ -422,6 +1236,56 @@ abstract class AbstractTst<T> implements Trie<T> {
         }
     }
 
+    private final class ReadNode {
+
+        private final TstNode node;
+
+        private int children;
+
+        ReadNode(TstNode node, int children) {
+            this.node = node;
+            this.children = children;
+        }
+    }
+
+    /**
+     * The level of the tree built by {@link #putAllSorted(Iterator)}, the nodes following the same prefix.
+     */
+    private final class Level {
+
+        /**
+         * The nodes in ascending order of their characters.
+         */
+        private final List<TstNode> nodes = new ArrayList<TstNode>();
+
+        /**
+         * The value of the prefix.
+         */
+        private T value;
+
+        /**
+         * Builds the level and clears it, so that it can be reused by the following keys.
+         *
+         * @return the root of the level, or {@code null} if the level is empty
+         */
+        TstNode complete() {
+            TstNode root = null;
+            if (!nodes.isEmpty()) {
+                root = balance(nodes, 0, nodes.size());
+            } else if (value != null) {
+                root = new TstNode();
+            }
+            // the value of the prefix is held by the root of the level
+            if (value != null) {
+                root.value = value;
+                root.size += 1;
+            }
+            nodes.clear();
+            value = null;
+            return root;
+        }
+    }
+
     private final class TstNode {
 
         private char c;
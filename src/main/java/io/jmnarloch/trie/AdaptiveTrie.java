@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+/**
+ * An adaptive radix Trie tree, which nodes grow from the small sorted arrays up to the directly indexed arrays
+ * with the number of children.
+ *
+ * @author Jakub Narloch
+ * @see AdaptiveTrieNode
+ */
+public class AdaptiveTrie<T> extends AbstractTrie<T, AdaptiveTrieNode<T>> {
+
+    /**
+     * Creates new instance of {@link AdaptiveTrie}.
+     */
+    public AdaptiveTrie() {
+        super(new TrieNodeFactory<T, AdaptiveTrieNode<T>>() {
+            @Override
+            public AdaptiveTrieNode<T> createNode() {
+                return new AdaptiveTrieNode<T>();
+            }
+        });
+    }
+}
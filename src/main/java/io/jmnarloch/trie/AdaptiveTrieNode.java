@@ -0,0 +1,345 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.Arrays;
+
+/**
+ * An adaptive radix tree node, that changes its children representation with the number of children.
+ *
+ * The node starts as a Node4 or Node16 holding the sorted child characters in a small array. When all of the child
+ * characters share the same 256 character page, that is the same high byte, the node grows to a Node48 with a 256
+ * entry byte index and finally to a Node256 indexed directly by the low byte of the character. The nodes whose
+ * children span multiple pages are kept as sorted arrays searched with binary search. The node shrinks back when
+ * the children are being removed.
+ *
+ * @author Jakub Narloch
+ */
+class AdaptiveTrieNode<T> extends AbstractTrieNode<T, AdaptiveTrieNode<T>> {
+
+    /**
+     * Up to 4 children in sorted array, searched linearly.
+     */
+    private static final byte NODE4 = 0;
+
+    /**
+     * Up to 16 children in sorted array, searched linearly.
+     */
+    private static final byte NODE16 = 1;
+
+    /**
+     * Up to 48 children from the same page indexed by the low character byte.
+     */
+    private static final byte NODE48 = 2;
+
+    /**
+     * Up to 256 children from the same page stored directly by the low character byte.
+     */
+    private static final byte NODE256 = 3;
+
+    /**
+     * Any number of children spanning multiple pages in sorted array, searched with binary search.
+     */
+    private static final byte SPARSE = 4;
+
+    /**
+     * The number of characters within single page.
+     */
+    private static final int PAGE_SIZE = 256;
+
+    /**
+     * The node type.
+     */
+    private byte type = NODE4;
+
+    /**
+     * The common high byte of the child characters of the Node48 and Node256.
+     */
+    private int page;
+
+    /**
+     * The number of children.
+     */
+    private int count;
+
+    /**
+     * The sorted child characters of the Node4, Node16 and sparse nodes.
+     */
+    private char[] keys;
+
+    /**
+     * The Node48 index, maps the low character byte into the child slot incremented by one.
+     */
+    private byte[] index;
+
+    /**
+     * The child nodes.
+     */
+    private AdaptiveTrieNode<T>[] children;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setNext(char c, AdaptiveTrieNode<T> next) {
+        switch (type) {
+            case NODE48:
+                if (pageOf(c) == page) {
+                    final int slot = index[c & 0xff] & 0xff;
+                    if (slot != 0) {
+                        children[slot - 1] = next;
+                        return;
+                    }
+                    if (count < 48) {
+                        insert48(c, next);
+                        return;
+                    }
+                }
+                grow(c, next);
+                return;
+            case NODE256:
+                if (pageOf(c) == page) {
+                    if (children[c & 0xff] == null) {
+                        count++;
+                    }
+                    children[c & 0xff] = next;
+                    return;
+                }
+                grow(c, next);
+                return;
+            default:
+                final int position = search(c);
+                if (position >= 0) {
+                    children[position] = next;
+                    return;
+                }
+                if (type == SPARSE || keys == null || count < keys.length) {
+                    insertSorted(-(position + 1), c, next);
+                    return;
+                }
+                grow(c, next);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AdaptiveTrieNode<T> getNext(char c) {
+        switch (type) {
+            case NODE48:
+                if (pageOf(c) != page) {
+                    return null;
+                }
+                final int slot = index[c & 0xff] & 0xff;
+                return slot != 0 ? children[slot - 1] : null;
+            case NODE256:
+                return pageOf(c) == page ? children[c & 0xff] : null;
+            default:
+                final int position = search(c);
+                return position >= 0 ? children[position] : null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeNext(char c) {
+        switch (type) {
+            case NODE48:
+                final int slot = pageOf(c) == page ? index[c & 0xff] & 0xff : 0;
+                if (slot == 0) {
+                    return;
+                }
+                index[c & 0xff] = 0;
+                children[slot - 1] = null;
+                count--;
+                break;
+            case NODE256:
+                if (pageOf(c) != page || children[c & 0xff] == null) {
+                    return;
+                }
+                children[c & 0xff] = null;
+                count--;
+                break;
+            default:
+                final int position = search(c);
+                if (position < 0) {
+                    return;
+                }
+                System.arraycopy(keys, position + 1, keys, position, count - position - 1);
+                System.arraycopy(children, position + 1, children, position, count - position - 1);
+                count--;
+                keys[count] = 0;
+                children[count] = null;
+        }
+        shrink();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char[] getKeys() {
+        switch (type) {
+            case NODE48:
+            case NODE256:
+                final char[] result = new char[count];
+                int ind = 0;
+                for (int low = 0; low < PAGE_SIZE; low++) {
+                    if (type == NODE48 ? index[low] != 0 : children[low] != null) {
+                        result[ind++] = (char) (page << 8 | low);
+                    }
+                }
+                return result;
+            default:
+                return count == 0 ? new char[0] : Arrays.copyOf(keys, count);
+        }
+    }
+
+    private int search(char c) {
+        if (type == SPARSE) {
+            return Arrays.binarySearch(keys, 0, count, c);
+        }
+        for (int ind = 0; ind < count; ind++) {
+            if (keys[ind] >= c) {
+                return keys[ind] == c ? ind : -(ind + 1);
+            }
+        }
+        return -(count + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void insertSorted(int position, char c, AdaptiveTrieNode<T> next) {
+        if (keys == null) {
+            keys = new char[4];
+            children = (AdaptiveTrieNode<T>[]) new AdaptiveTrieNode[4];
+        } else if (count == keys.length) {
+            keys = Arrays.copyOf(keys, count * 2);
+            children = Arrays.copyOf(children, count * 2);
+        }
+        System.arraycopy(keys, position, keys, position + 1, count - position);
+        System.arraycopy(children, position, children, position + 1, count - position);
+        keys[position] = c;
+        children[position] = next;
+        count++;
+    }
+
+    private void insert48(char c, AdaptiveTrieNode<T> next) {
+        int slot = 0;
+        while (children[slot] != null) {
+            slot++;
+        }
+        children[slot] = next;
+        index[c & 0xff] = (byte) (slot + 1);
+        count++;
+    }
+
+    private void grow(char c, AdaptiveTrieNode<T> next) {
+        final char[] sortedKeys = Arrays.copyOf(getKeys(), count + 1);
+        final AdaptiveTrieNode<T>[] sortedChildren = sortedChildren(sortedKeys, count + 1);
+        int position = count;
+        while (position > 0 && sortedKeys[position - 1] > c) {
+            sortedKeys[position] = sortedKeys[position - 1];
+            sortedChildren[position] = sortedChildren[position - 1];
+            position--;
+        }
+        sortedKeys[position] = c;
+        sortedChildren[position] = next;
+        adapt(sortedKeys, sortedChildren, count + 1);
+    }
+
+    private void shrink() {
+        final boolean shrink;
+        switch (type) {
+            case NODE16:
+                shrink = count < 4;
+                break;
+            case NODE48:
+                shrink = count < 13;
+                break;
+            case NODE256:
+                shrink = count < 37;
+                break;
+            case SPARSE:
+                shrink = count <= 16;
+                break;
+            default:
+                shrink = count == 0;
+        }
+        if (shrink) {
+            final char[] sortedKeys = getKeys();
+            adapt(sortedKeys, sortedChildren(sortedKeys, count), count);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private AdaptiveTrieNode<T>[] sortedChildren(char[] sortedKeys, int length) {
+        final AdaptiveTrieNode<T>[] result = (AdaptiveTrieNode<T>[]) new AdaptiveTrieNode[length];
+        for (int ind = 0; ind < count; ind++) {
+            result[ind] = getNext(sortedKeys[ind]);
+        }
+        return result;
+    }
+
+    /**
+     * Switches to the smallest node type that fits the given children.
+     *
+     * @param sortedKeys     the sorted child characters
+     * @param sortedChildren the child nodes
+     * @param count          the number of children
+     */
+    @SuppressWarnings("unchecked")
+    private void adapt(char[] sortedKeys, AdaptiveTrieNode<T>[] sortedChildren, int count) {
+        this.count = count;
+        this.index = null;
+        if (count == 0) {
+            type = NODE4;
+            keys = null;
+            children = null;
+            return;
+        }
+        final boolean samePage = pageOf(sortedKeys[0]) == pageOf(sortedKeys[count - 1]);
+        if (count <= 16 || !samePage) {
+            type = count <= 4 ? NODE4 : count <= 16 ? NODE16 : SPARSE;
+            final int capacity = count <= 4 ? 4 : count <= 16 ? 16 : count;
+            keys = Arrays.copyOf(sortedKeys, capacity);
+            children = Arrays.copyOf(sortedChildren, capacity);
+            return;
+        }
+        page = pageOf(sortedKeys[0]);
+        keys = null;
+        if (count <= 48) {
+            type = NODE48;
+            index = new byte[PAGE_SIZE];
+            children = Arrays.copyOf(sortedChildren, 48);
+            for (int ind = 0; ind < count; ind++) {
+                index[sortedKeys[ind] & 0xff] = (byte) (ind + 1);
+            }
+        } else {
+            type = NODE256;
+            children = (AdaptiveTrieNode<T>[]) new AdaptiveTrieNode[PAGE_SIZE];
+            for (int ind = 0; ind < count; ind++) {
+                children[sortedKeys[ind] & 0xff] = sortedChildren[ind];
+            }
+        }
+    }
+
+    private static int pageOf(char c) {
+        return c >>> 8;
+    }
+}
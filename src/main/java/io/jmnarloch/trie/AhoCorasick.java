@@ -0,0 +1,819 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A compiled Aho-Corasick automaton built from the entries of a {@link Trie}. The automaton filters the text in a
+ * single pass using the failure links instead of restarting the trie walk after every mismatch.
+ *
+ * The {@link #filter(String, String)} method has the same replacement semantics as {@link Trie#filter(String, String)}:
+ * the symbols are skipped, the leftmost match wins and for every start position the shortest key is replaced. After
+ * each replacement the automaton rescans at most the length of the longest key. The large documents can be filtered
+ * from a {@link Readable} source into a {@link Writer} in chunks, without loading them into memory.
+ *
+ * The keys and the filtered text are normalized with the {@link CharNormalizer} the automaton is compiled with, a
+ * single table lookup per character decides whether the character is skipped and which transition it takes. With the
+ * {@link CharNormalizer#DEFAULT} normalization the keys containing the skipped symbols are left out, the same way the
+ * trie walking filters never match them, so the automaton replaces exactly what {@link Trie#filter(String, String)}
+ * does. With a custom normalization the skipped characters are removed from the keys the same way as from the text,
+ * so the key "e-mail" matches the text "email" when the hyphen is skipped. The replaced text spans the original
+ * characters of the match.
+ *
+ * The automaton is immutable and safe to use from multiple threads, it does not reflect the later modifications of
+ * the trie it has been built from.
+ *
+ * @author Jakub Narloch
+ */
+public final class AhoCorasick<T> {
+
+    /**
+     * The root state.
+     */
+    private static final int ROOT = 0;
+
+    /**
+     * Marks the states that do not accept any key.
+     */
+    private static final int NO_MATCH = -1;
+
+    /**
+     * The default number of the characters read from the source at once.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * The minimum number of the characters of a segment filtered in parallel.
+     */
+    private static final int SEGMENT_SIZE = 1 << 16;
+
+    /**
+     * The index of the first transition of every state, the transitions of state {@code s} are stored in range
+     * {@code [offsets[s], offsets[s + 1])}.
+     */
+    private final int[] offsets;
+
+    /**
+     * The transition characters, sorted within each state.
+     */
+    private final char[] chars;
+
+    /**
+     * The transition target states.
+     */
+    private final int[] targets;
+
+    /**
+     * The failure links.
+     */
+    private final int[] fail;
+
+    /**
+     * The depth of every state, which is the length of the key prefix it represents.
+     */
+    private final int[] depth;
+
+    /**
+     * The state of the longest key that is a suffix of every state, or {@link #NO_MATCH}.
+     */
+    private final int[] output;
+
+    /**
+     * The values of the accepting states.
+     */
+    private final Object[] values;
+
+    /**
+     * The normalization table of the characters.
+     */
+    private final char[] normalization;
+
+    /**
+     * The length of the longest key.
+     */
+    private final int maxDepth;
+
+    /**
+     * The number of keys.
+     */
+    private final int size;
+
+    private AhoCorasick(Map<String, ? extends T> map, CharNormalizer normalizer) {
+
+        this.normalization = normalizer.table;
+        final Map<String, T> entries = normalize(map, normalizer);
+        final BuildNode root = new BuildNode();
+        int states = 1;
+        int longest = 0;
+        int count = 0;
+        for (Map.Entry<String, T> entry : entries.entrySet()) {
+            final String key = entry.getKey();
+            BuildNode node = root;
+            for (int ind = 0; ind < key.length(); ind++) {
+                BuildNode next = node.getLast(key.charAt(ind));
+                if (next == null) {
+                    next = node.append(key.charAt(ind));
+                    states++;
+                }
+                node = next;
+            }
+            node.value = entry.getValue();
+            longest = Math.max(longest, key.length());
+            count++;
+        }
+
+        this.offsets = new int[states + 1];
+        this.chars = new char[states - 1];
+        this.targets = new int[states - 1];
+        this.fail = new int[states];
+        this.depth = new int[states];
+        this.output = new int[states];
+        this.values = new Object[states];
+        this.maxDepth = longest;
+        this.size = count;
+
+        // numbers the states in breadth first order, so that the transitions of every state are stored together
+        final BuildNode[] queue = new BuildNode[states];
+        queue[0] = root;
+        int tail = 1;
+        for (int state = 0; state < states; state++) {
+            final BuildNode node = queue[state];
+            values[state] = node.value;
+            offsets[state + 1] = offsets[state] + node.count;
+            for (int ind = 0; ind < node.count; ind++) {
+                chars[offsets[state] + ind] = node.chars[ind];
+                targets[offsets[state] + ind] = tail;
+                depth[tail] = depth[state] + 1;
+                queue[tail++] = node.next[ind];
+            }
+            queue[state] = null;
+        }
+
+        output[ROOT] = NO_MATCH;
+        for (int state = 0; state < states; state++) {
+            for (int ind = offsets[state]; ind < offsets[state + 1]; ind++) {
+                final int target = targets[ind];
+                fail[target] = state == ROOT ? ROOT : transition(fail[state], chars[ind]);
+                output[target] = values[target] != null ? target : output[fail[target]];
+            }
+        }
+    }
+
+    /**
+     * Compiles the automaton from all of the entries of the given trie, with the {@link CharNormalizer#DEFAULT}
+     * normalization.
+     *
+     * @param trie the trie
+     * @param <T>  the element type
+     * @return the compiled automaton
+     * @throws IllegalArgumentException if {@code trie} is {@code null}
+     */
+    public static <T> AhoCorasick<T> compile(Trie<? extends T> trie) {
+        return compile(trie, CharNormalizer.DEFAULT);
+    }
+
+    /**
+     * Compiles the automaton from all of the entries of the given trie. The keys and the filtered texts are
+     * normalized with the normalizer.
+     *
+     * @param trie       the trie
+     * @param normalizer the normalizer
+     * @param <T>        the element type
+     * @return the compiled automaton
+     * @throws IllegalArgumentException if {@code trie} or {@code normalizer} is {@code null}
+     */
+    public static <T> AhoCorasick<T> compile(Trie<? extends T> trie, CharNormalizer normalizer) {
+        if (trie == null) {
+            throw new IllegalArgumentException("Trie can not be null");
+        }
+        TrieUtil.notNull(normalizer, "Normalizer can not be null");
+        final Map<String, T> entries = new TreeMap<String, T>();
+        for (Map.Entry<String, ? extends T> entry : trie.entriesWithPrefix("")) {
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        return new AhoCorasick<T>(entries, normalizer);
+    }
+
+    /**
+     * Compiles the automaton from the given entries, with the {@link CharNormalizer#DEFAULT} normalization.
+     *
+     * @param map the entries
+     * @param <T> the element type
+     * @return the compiled automaton
+     * @throws IllegalArgumentException if {@code map} is {@code null}
+     */
+    public static <T> AhoCorasick<T> compile(Map<String, ? extends T> map) {
+        return compile(map, CharNormalizer.DEFAULT);
+    }
+
+    /**
+     * Compiles the automaton from the given entries. The keys and the filtered texts are normalized with the
+     * normalizer.
+     *
+     * @param map        the entries
+     * @param normalizer the normalizer
+     * @param <T>        the element type
+     * @return the compiled automaton
+     * @throws IllegalArgumentException if {@code map} or {@code normalizer} is {@code null}
+     */
+    public static <T> AhoCorasick<T> compile(Map<String, ? extends T> map, CharNormalizer normalizer) {
+        if (map == null) {
+            throw new IllegalArgumentException("Map can not be null");
+        }
+        TrieUtil.notNull(normalizer, "Normalizer can not be null");
+        return new AhoCorasick<T>(new TreeMap<String, T>(map), normalizer);
+    }
+
+    /**
+     * Returns the number of keys recognized by the automaton. The keys that can never be matched, because they
+     * consist only of skipped characters or contain the symbols skipped by the {@link CharNormalizer#DEFAULT}
+     * normalization, are not included, the keys that are normalized to the same key are counted once.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Replaces every dictionary word found in the text with the replacement.
+     *
+     * @param text    the text to filter
+     * @param replace the replacement
+     * @return the filtered text
+     * @see Trie#filter(String, String)
+     */
+    public String filter(String text, String replace) {
+        if (size == 0) {
+            return text;
+        }
+
+        final Matches matches = new Matches();
+        select(text, 0, text.length(), matches);
+        return replace(text, replace, matches);
+    }
+
+    /**
+     * Replaces every dictionary word found in the text with the replacement, filtering the segments of the text in
+     * parallel. Every segment is scanned speculatively as if no match crossed its start. The segments are then merged
+     * in order: when the match selected in the preceding segment ends within the segment, the segment is rescanned
+     * from the end of that match only until it reaches a position the speculative scan has passed through, from then
+     * on the speculative scan has selected the same matches as the sequential one. The filtered text is therefore
+     * the same as the one returned by {@link #filter(String, String)}.
+     *
+     * The short texts are filtered sequentially.
+     *
+     * @param text    the text to filter
+     * @param replace the replacement
+     * @param pool    the pool that filters the segments
+     * @return the filtered text
+     * @throws IllegalArgumentException if {@code pool} is {@code null}
+     */
+    public String filter(String text, String replace, ForkJoinPool pool) {
+        return filter(text, replace, pool, SEGMENT_SIZE);
+    }
+
+    /**
+     * Replaces every dictionary word found in the text with the replacement, filtering the segments of the text in
+     * parallel.
+     *
+     * @param text        the text to filter
+     * @param replace     the replacement
+     * @param pool        the pool that filters the segments
+     * @param segmentSize the minimum number of the characters of a segment
+     * @return the filtered text
+     * @throws IllegalArgumentException if {@code pool} is {@code null}
+     */
+    String filter(final String text, String replace, ForkJoinPool pool, int segmentSize) {
+        TrieUtil.notNull(pool, "Pool can not be null");
+
+        final int segments = Math.min(pool.getParallelism() * 4, text.length() / segmentSize);
+        if (size == 0 || segments < 2) {
+            return filter(text, replace);
+        }
+
+        final int[] bounds = new int[segments + 1];
+        for (int segment = 1; segment <= segments; segment++) {
+            bounds[segment] = (int) ((long) text.length() * segment / segments);
+        }
+        final List<ForkJoinTask<Matches>> tasks = new ArrayList<ForkJoinTask<Matches>>(segments);
+        for (int segment = 0; segment < segments; segment++) {
+            final int from = bounds[segment];
+            final int to = bounds[segment + 1];
+            tasks.add(pool.submit(new Callable<Matches>() {
+                @Override
+                public Matches call() {
+                    final Matches matches = new Matches();
+                    select(text, from, to, matches);
+                    return matches;
+                }
+            }));
+        }
+
+        final Matches matches = new Matches();
+        int position = 0;
+        for (int segment = 0; segment < segments; segment++) {
+            final Matches speculative = tasks.get(segment).join();
+            int index = 0;
+            while (position < bounds[segment + 1]) {
+                while (index < speculative.count && speculative.end(index) <= position) {
+                    index++;
+                }
+                if (index == speculative.count || speculative.start(index) >= position) {
+                    // the speculative scan has passed through the position, the rest of its matches are selected
+                    for (; index < speculative.count; index++) {
+                        position = speculative.end(index);
+                        matches.add(speculative.start(index), position, speculative.state(index));
+                    }
+                    position = Math.max(position, bounds[segment + 1]);
+                    break;
+                }
+                // the position is inside a speculative match, so the next match is selected sequentially
+                final int end = shortestMatch(text, position, matches);
+                if (end != NO_MATCH) {
+                    position = end;
+                } else {
+                    position++;
+                }
+            }
+        }
+        return replace(text, replace, matches);
+    }
+
+    /**
+     * Reports every dictionary word found in the text, the overlapping words included, without building any strings.
+     * The symbols are skipped the same way as by {@link #filter(String, String)}. The matches are reported ordered by
+     * their ends, the matches with the same end from the longest one.
+     *
+     * @param text     the text
+     * @param listener the listener notified about every match, until it stops the scan
+     * @throws IllegalArgumentException if {@code text} or {@code listener} is {@code null}
+     * @see Trie#scan(CharSequence, MatchListener)
+     */
+    @SuppressWarnings("unchecked")
+    public void scan(CharSequence text, MatchListener<? super T> listener) {
+        TrieUtil.notNull(text, "Text can not be null");
+        TrieUtil.notNull(listener, "Listener can not be null");
+        if (size == 0) {
+            return;
+        }
+
+        // the positions in the text of at least the last maxDepth non symbol characters
+        final int[] positions = new int[Integer.highestOneBit(maxDepth) << 1];
+        final int mask = positions.length - 1;
+        int state = ROOT;
+        int stripped = 0;
+        for (int position = 0; position < text.length(); position++) {
+            final char c = normalization[text.charAt(position)];
+            if (c == CharNormalizer.SKIP) {
+                continue;
+            }
+            state = transition(state, c);
+            positions[stripped & mask] = position;
+            // every key that is a suffix of the state is matched
+            for (int accepted = output[state]; accepted != NO_MATCH; accepted = output[fail[accepted]]) {
+                final int start = positions[(stripped - depth[accepted] + 1) & mask];
+                if (!listener.onMatch(start, position + 1, (T) values[accepted])) {
+                    return;
+                }
+            }
+            ++stripped;
+        }
+    }
+
+    /**
+     * Reports the matches replaced by {@link #filter(String, String)} in the order of the text, together with the
+     * values of the keys. The selection stops when the listener returns false.
+     *
+     * @param text     the text
+     * @param listener the listener notified about every selected match
+     */
+    @SuppressWarnings("unchecked")
+    void select(CharSequence text, MatchListener<? super T> listener) {
+        if (size == 0) {
+            return;
+        }
+
+        final Matches matches = new Matches();
+        select(text, 0, text.length(), matches);
+        for (int index = 0; index < matches.count; index++) {
+            if (!listener.onMatch(matches.start(index), matches.end(index), (T) values[matches.state(index)])) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns whether any dictionary word is found in the text. The scan stops at the first match.
+     *
+     * @param text the text
+     * @return true if any word is found
+     * @throws IllegalArgumentException if {@code text} is {@code null}
+     * @see Trie#containsAnyMatch(CharSequence)
+     */
+    public boolean containsAnyMatch(CharSequence text) {
+        TrieUtil.notNull(text, "Text can not be null");
+        if (size == 0) {
+            return false;
+        }
+
+        int state = ROOT;
+        for (int position = 0; position < text.length(); position++) {
+            final char c = normalization[text.charAt(position)];
+            if (c != CharNormalizer.SKIP) {
+                state = transition(state, c);
+                if (output[state] != NO_MATCH) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces every dictionary word found in the text read from the source with the replacement and writes the
+     * filtered text into the target.
+     *
+     * @param source  the source of the text, for instance a {@link java.io.Reader} or a {@link CharBuffer}
+     * @param target  the target of the filtered text
+     * @param replace the replacement
+     * @throws IOException              if reading the source or writing the target fails
+     * @throws IllegalArgumentException if {@code source}, {@code target} or {@code replace} is {@code null}
+     * @see #filter(Readable, Writer, String, int)
+     */
+    public void filter(Readable source, Writer target, String replace) throws IOException {
+        filter(source, target, replace, CHUNK_SIZE);
+    }
+
+    /**
+     * Replaces every dictionary word found in the text read from the source with the replacement and writes the
+     * filtered text into the target. The text is read in chunks into a window, after every chunk has been scanned
+     * the text preceding the earliest match that may still be replaced is written and dropped from the window. The
+     * matches crossing the chunk boundaries are kept in the window until they are decided, so the memory use does
+     * not depend on the length of the text. The window grows only when a single partial match, together with the
+     * symbols skipped inside it, is longer than the window. The target is neither flushed nor closed.
+     *
+     * The filtered text is the same as the one returned by {@link #filter(String, String)}.
+     *
+     * @param source    the source of the text, for instance a {@link java.io.Reader} or a {@link CharBuffer}
+     * @param target    the target of the filtered text
+     * @param replace   the replacement
+     * @param chunkSize the number of the characters read from the source at once
+     * @throws IOException              if reading the source or writing the target fails
+     * @throws IllegalArgumentException if {@code source}, {@code target} or {@code replace} is {@code null}, or
+     *                                  {@code chunkSize} is not positive
+     */
+    public void filter(Readable source, Writer target, String replace, int chunkSize) throws IOException {
+        TrieUtil.notNull(source, "Source can not be null");
+        TrieUtil.notNull(target, "Target can not be null");
+        TrieUtil.notNull(replace, "Replacement can not be null");
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+
+        char[] window = new char[chunkSize];
+        if (size == 0) {
+            int read;
+            while ((read = source.read(CharBuffer.wrap(window))) >= 0) {
+                target.write(window, 0, read);
+            }
+            return;
+        }
+
+        // the positions in the window of at least the last maxDepth non symbol characters
+        final int[] positions = new int[Integer.highestOneBit(maxDepth) << 1];
+        final int mask = positions.length - 1;
+        int length = 0;
+        boolean eof = false;
+        int emitted = 0;
+        int state = ROOT;
+        int stripped = 0;
+        int position = 0;
+
+        int pendingStart = -1;
+        int pendingEnd = -1;
+
+        while (true) {
+            if (position == length) {
+                if (!eof) {
+                    // the text preceding the start of the pending or the partial match can not be replaced any more
+                    final int partial = stripped - depth[state];
+                    final int live = pendingStart != -1 ? Math.min(pendingStart, partial) : partial;
+                    final int written = live < stripped ? positions[live & mask] : position;
+                    target.write(window, emitted, written - emitted);
+                    System.arraycopy(window, written, window, 0, length - written);
+                    for (int ind = 0; ind < positions.length; ind++) {
+                        positions[ind] -= written;
+                    }
+                    length -= written;
+                    position -= written;
+                    emitted = 0;
+                    if (length == window.length) {
+                        window = Arrays.copyOf(window, window.length * 2);
+                    }
+                    final int read = source.read(CharBuffer.wrap(window, length, window.length - length));
+                    if (read < 0) {
+                        eof = true;
+                    } else {
+                        length += read;
+                    }
+                    continue;
+                }
+                if (pendingStart == -1) {
+                    break;
+                }
+            } else {
+                final char c = normalization[window[position]];
+                if (c == CharNormalizer.SKIP) {
+                    ++position;
+                    continue;
+                }
+                state = transition(state, c);
+                positions[stripped & mask] = position;
+                final int accepted = output[state];
+                if (accepted != NO_MATCH) {
+                    final int start = stripped - depth[accepted] + 1;
+                    if (pendingStart == -1 || start < pendingStart) {
+                        pendingStart = start;
+                        pendingEnd = stripped;
+                    }
+                }
+                ++stripped;
+                ++position;
+                // the pending match is final once no live partial match starts before it
+                if (pendingStart == -1 || stripped - depth[state] < pendingStart) {
+                    continue;
+                }
+            }
+
+            final int matchEnd = positions[pendingEnd & mask];
+            target.write(window, emitted, positions[pendingStart & mask] - emitted);
+            target.write(replace);
+            emitted = matchEnd + 1;
+            position = emitted;
+            stripped = pendingEnd + 1;
+            state = ROOT;
+            pendingStart = -1;
+        }
+        target.write(window, emitted, length - emitted);
+    }
+
+    /**
+     * Selects the matches replaced by the filter, that start within the range. The leftmost match wins and for every
+     * start position the shortest key is selected, the text is scanned from the start of the range as if no match
+     * crossed it, the last selected match may end after the range.
+     *
+     * @param text    the text
+     * @param from    the start of the range, inclusive
+     * @param to      the end of the range, exclusive
+     * @param matches the selected matches
+     */
+    private void select(CharSequence text, int from, int to, Matches matches) {
+        // the positions in the text of at least the last maxDepth non symbol characters
+        final int[] positions = new int[Integer.highestOneBit(maxDepth) << 1];
+        final int mask = positions.length - 1;
+        int state = ROOT;
+        int stripped = 0;
+        int position = from;
+
+        int pendingStart = -1;
+        int pendingEnd = -1;
+        int pendingState = NO_MATCH;
+
+        while (true) {
+            if (position == text.length()) {
+                if (pendingStart == -1) {
+                    break;
+                }
+            } else {
+                final char c = normalization[text.charAt(position)];
+                if (c == CharNormalizer.SKIP) {
+                    ++position;
+                    continue;
+                }
+                // every following match starts at the start of the partial match at the earliest
+                if (pendingStart == -1
+                        && (depth[state] == 0 ? position : positions[(stripped - depth[state]) & mask]) >= to) {
+                    break;
+                }
+                state = transition(state, c);
+                positions[stripped & mask] = position;
+                final int accepted = output[state];
+                if (accepted != NO_MATCH) {
+                    final int start = stripped - depth[accepted] + 1;
+                    if (pendingStart == -1 || start < pendingStart) {
+                        pendingStart = start;
+                        pendingEnd = stripped;
+                        pendingState = accepted;
+                    }
+                }
+                ++stripped;
+                ++position;
+                // the pending match is final once no live partial match starts before it
+                if (pendingStart == -1 || stripped - depth[state] < pendingStart) {
+                    continue;
+                }
+            }
+
+            position = positions[pendingEnd & mask] + 1;
+            matches.add(positions[pendingStart & mask], position, pendingState);
+            stripped = pendingEnd + 1;
+            state = ROOT;
+            pendingStart = -1;
+        }
+    }
+
+    /**
+     * Selects the shortest key that starts at the position.
+     *
+     * @param text    the text
+     * @param start   the start of the key
+     * @param matches the selected matches, the key is added to
+     * @return the end of the key, exclusive, or {@link #NO_MATCH} if no key starts at the position
+     */
+    private int shortestMatch(CharSequence text, int start, Matches matches) {
+        if (normalization[text.charAt(start)] == CharNormalizer.SKIP) {
+            return NO_MATCH;
+        }
+        int state = ROOT;
+        for (int position = start; position < text.length(); position++) {
+            final char c = normalization[text.charAt(position)];
+            if (c == CharNormalizer.SKIP) {
+                continue;
+            }
+            state = next(state, c);
+            if (state == NO_MATCH) {
+                return NO_MATCH;
+            }
+            if (values[state] != null) {
+                matches.add(start, position + 1, state);
+                return position + 1;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    private static String replace(String text, String replace, Matches matches) {
+        final StringBuilder result = new StringBuilder(text.length());
+        int emitted = 0;
+        for (int index = 0; index < matches.count; index++) {
+            result.append(text, emitted, matches.start(index)).append(replace);
+            emitted = matches.end(index);
+        }
+        return result.append(text, emitted, text.length()).toString();
+    }
+
+    private int transition(int state, char c) {
+        while (true) {
+            final int next = next(state, c);
+            if (next != NO_MATCH) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int next(int state, char c) {
+        int low = offsets[state];
+        int high = offsets[state + 1] - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final char midC = chars[mid];
+            if (midC < c) {
+                low = mid + 1;
+            } else if (midC > c) {
+                high = mid - 1;
+            } else {
+                return targets[mid];
+            }
+        }
+        return NO_MATCH;
+    }
+
+    /**
+     * Normalizes the keys the same way as the filtered text. The keys that can never be matched are left out. When
+     * multiple keys are normalized to the same one, the value of the first one in lexicographic order is kept.
+     */
+    private static <T> Map<String, T> normalize(Map<String, ? extends T> entries, CharNormalizer normalizer) {
+        final Map<String, T> normalized = new TreeMap<String, T>();
+        for (Map.Entry<String, ? extends T> entry : entries.entrySet()) {
+            final String key = normalize(entry.getKey(), normalizer);
+            if (key != null && !key.isEmpty() && entry.getValue() != null && !normalized.containsKey(key)) {
+                normalized.put(key, entry.getValue());
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * Normalizes the key and removes the skipped characters from it. The {@link CharNormalizer#DEFAULT} normalization
+     * does not remove them, the key that contains a skipped symbol is never matched by the trie walking filters.
+     *
+     * @param key        the key
+     * @param normalizer the normalizer
+     * @return the normalized key, or {@code null} if the key can not be matched
+     */
+    static String normalize(String key, CharNormalizer normalizer) {
+        final char[] normalization = normalizer.table;
+        final char[] chars = new char[key.length()];
+        int length = 0;
+        for (int ind = 0; ind < key.length(); ind++) {
+            final char c = normalization[key.charAt(ind)];
+            if (c != CharNormalizer.SKIP) {
+                chars[length++] = c;
+            } else if (normalizer == CharNormalizer.DEFAULT) {
+                return null;
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * The start and end positions and the accepting states of the selected matches, in order.
+     */
+    private static final class Matches {
+
+        private int[] bounds = new int[24];
+
+        private int count;
+
+        void add(int start, int end, int state) {
+            if (count * 3 == bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[count * 3] = start;
+            bounds[count * 3 + 1] = end;
+            bounds[count * 3 + 2] = state;
+            count++;
+        }
+
+        int start(int index) {
+            return bounds[index * 3];
+        }
+
+        int end(int index) {
+            return bounds[index * 3 + 1];
+        }
+
+        int state(int index) {
+            return bounds[index * 3 + 2];
+        }
+    }
+
+    /**
+     * The trie node used only while building the automaton, the entries are inserted in the sorted order so the
+     * children are always appended at the end.
+     */
+    private static final class BuildNode {
+
+        private char[] chars = new char[1];
+
+        private BuildNode[] next = new BuildNode[1];
+
+        private int count;
+
+        private Object value;
+
+        BuildNode getLast(char c) {
+            return count > 0 && chars[count - 1] == c ? next[count - 1] : null;
+        }
+
+        BuildNode append(char c) {
+            if (count == chars.length) {
+                chars = Arrays.copyOf(chars, count * 2);
+                next = Arrays.copyOf(next, count * 2);
+            }
+            final BuildNode node = new BuildNode();
+            chars[count] = c;
+            next[count++] = node;
+            return node;
+        }
+    }
+}
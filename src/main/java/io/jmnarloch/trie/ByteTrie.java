@@ -0,0 +1,963 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A Trie tree keyed by the UTF-8 encoded bytes, that can be searched directly with the byte arrays and the byte
+ * buffers received from the network without decoding them into strings.
+ *
+ * Every node has up to 256 children, one for each byte value, kept in the {@link AdaptiveTrieNode} layouts that grow
+ * from the small sorted arrays up to the directly indexed array. The {@link Trie} methods encode the string keys into
+ * UTF-8, so that the same entries can be searched either by the strings or by the bytes. The character sequence and
+ * character array overloads are encoded as well, only the byte overloads search without allocating. The string keys
+ * that contain unpaired surrogates can not be encoded and are rejected.
+ *
+ * @author Jakub Narloch
+ */
+public class ByteTrie<T> extends AbstractTrie<T, AdaptiveTrieNode<T>> {
+
+    /**
+     * Creates new instance of {@link ByteTrie}.
+     */
+    public ByteTrie() {
+        super(new TrieNodeFactory<T, AdaptiveTrieNode<T>>() {
+            @Override
+            public AdaptiveTrieNode<T> createNode() {
+                return new AdaptiveTrieNode<T>();
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T put(String key, T value) {
+        notEmpty(key);
+
+        return super.put(encode(key), value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<String, ? extends T> map) {
+        if (map == null) {
+            throw new IllegalArgumentException("Map can not be null");
+        }
+
+        for (Map.Entry<String, ? extends T> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The keys must be in ascending order of their UTF-8 bytes, that is of their code points.
+     */
+    @Override
+    public void putAllSorted(final Iterator<? extends Map.Entry<String, ? extends T>> entries) {
+        TrieUtil.notNull(entries, "Entries can not be null");
+
+        super.putAllSorted(new Iterator<Map.Entry<String, T>>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public Map.Entry<String, T> next() {
+                final Map.Entry<String, ? extends T> entry = entries.next();
+                final String key = entry.getKey();
+                return new AbstractMap.SimpleImmutableEntry<String, T>(key != null ? encode(key) : null,
+                        entry.getValue());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        });
+    }
+
+    @Override
+    void putAllParallel(Spliterator<? extends Map.Entry<String, ? extends T>> entries, ForkJoinPool pool) {
+        TrieUtil.notNull(entries, "Entries can not be null");
+
+        super.putAllParallel(new EncodingSpliterator<T>(entries), pool);
+    }
+
+    /**
+     * Associates the value with the key given as UTF-8 bytes.
+     *
+     * @param key   the key bytes
+     * @param value the value to insert
+     * @return the previous value associated with the specific key
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty
+     */
+    public T put(byte[] key, T value) {
+        notEmpty(key);
+
+        return super.put(new String(key, StandardCharsets.ISO_8859_1), value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        notEmpty(key);
+
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(String key) {
+        notEmpty(key);
+
+        return super.get(encode(key));
+    }
+
+    /**
+     * Returns the value associated with the key given as UTF-8 bytes.
+     *
+     * @param key the key bytes
+     * @return the associated key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty
+     */
+    public T get(byte[] key) {
+        notEmpty(key);
+
+        return get(key, 0, key.length);
+    }
+
+    /**
+     * Returns the value associated with the key given as the range of UTF-8 bytes.
+     *
+     * @param key    the bytes
+     * @param offset the offset of the key
+     * @param length the length of the key
+     * @return the associated key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or the range is empty or out of bounds
+     */
+    public T get(byte[] key, int offset, int length) {
+        checkRange(key, offset, length);
+
+        AdaptiveTrieNode<T> node = getRoot();
+        for (int ind = offset; ind < offset + length && node != null; ind++) {
+            node = next(node, key[ind]);
+        }
+        return node != null ? node.getValue() : null;
+    }
+
+    /**
+     * Returns the value associated with the key given as the remaining UTF-8 bytes of the buffer. The buffer
+     * position is not changed.
+     *
+     * @param key the key buffer
+     * @return the associated key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or has no remaining bytes
+     */
+    public T get(ByteBuffer key) {
+        notEmpty(key);
+
+        AdaptiveTrieNode<T> node = getRoot();
+        for (int ind = key.position(); ind < key.limit() && node != null; ind++) {
+            node = next(node, key.get(ind));
+        }
+        return node != null ? node.getValue() : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(String key) {
+        notEmpty(key);
+
+        return super.prefix(encode(key));
+    }
+
+    /**
+     * Returns the value of the longest key that is a prefix of the key given as UTF-8 bytes.
+     *
+     * @param key the key bytes
+     * @return the prefix key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty
+     */
+    public T prefix(byte[] key) {
+        notEmpty(key);
+
+        return prefix(key, 0, key.length);
+    }
+
+    /**
+     * Returns the value of the longest key that is a prefix of the key given as the range of UTF-8 bytes.
+     *
+     * @param key    the bytes
+     * @param offset the offset of the key
+     * @param length the length of the key
+     * @return the prefix key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or the range is empty or out of bounds
+     */
+    public T prefix(byte[] key, int offset, int length) {
+        checkRange(key, offset, length);
+
+        T value = null;
+        AdaptiveTrieNode<T> node = getRoot();
+        for (int ind = offset; ind < offset + length; ind++) {
+            node = next(node, key[ind]);
+            if (node == null) {
+                break;
+            }
+            if (node.hasValue()) {
+                value = node.getValue();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value of the longest key that is a prefix of the remaining UTF-8 bytes of the buffer. The buffer
+     * position is not changed.
+     *
+     * @param key the key buffer
+     * @return the prefix key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or has no remaining bytes
+     */
+    public T prefix(ByteBuffer key) {
+        notEmpty(key);
+
+        T value = null;
+        AdaptiveTrieNode<T> node = getRoot();
+        for (int ind = key.position(); ind < key.limit(); ind++) {
+            node = next(node, key.get(ind));
+            if (node == null) {
+                break;
+            }
+            if (node.hasValue()) {
+                value = node.getValue();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the length of the longest key that is a prefix of the key given as UTF-8 bytes.
+     *
+     * @param key the key bytes
+     * @return the number of bytes of the longest prefix key or {@code -1} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty
+     */
+    public int longestMatch(byte[] key) {
+        notEmpty(key);
+
+        return longestMatch(key, 0, key.length);
+    }
+
+    /**
+     * Returns the length of the longest key that is a prefix of the key given as the range of UTF-8 bytes. The
+     * caller can use the length to split the matched key off the remaining bytes.
+     *
+     * @param key    the bytes
+     * @param offset the offset of the key
+     * @param length the length of the key
+     * @return the number of bytes of the longest prefix key or {@code -1} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or the range is empty or out of bounds
+     */
+    public int longestMatch(byte[] key, int offset, int length) {
+        checkRange(key, offset, length);
+
+        int longest = -1;
+        AdaptiveTrieNode<T> node = getRoot();
+        for (int ind = 0; ind < length; ind++) {
+            node = next(node, key[offset + ind]);
+            if (node == null) {
+                break;
+            }
+            if (node.hasValue()) {
+                longest = ind + 1;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Returns the length of the longest key that is a prefix of the remaining UTF-8 bytes of the buffer. The buffer
+     * position is not changed.
+     *
+     * @param key the key buffer
+     * @return the number of bytes of the longest prefix key or {@code -1} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or has no remaining bytes
+     */
+    public int longestMatch(ByteBuffer key) {
+        notEmpty(key);
+
+        int longest = -1;
+        AdaptiveTrieNode<T> node = getRoot();
+        for (int ind = 0; ind < key.remaining(); ind++) {
+            node = next(node, key.get(key.position() + ind));
+            if (node == null) {
+                break;
+            }
+            if (node.hasValue()) {
+                longest = ind + 1;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(String key) {
+        notEmpty(key);
+
+        final String prefix = super.prefixKey(encode(key));
+        return prefix != null ? decode(prefix) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean longestMatch(CharSequence text, int offset, PrefixMatch<? super T> match) {
+        TrieUtil.checkText(text, offset);
+        TrieUtil.notNull(match, "Match can not be null");
+
+        match.clear(offset);
+        AdaptiveTrieNode<T> node = getRoot();
+        int index = offset;
+        while (index < text.length()) {
+            final int codePoint = Character.codePointAt(text, index);
+            node = nextCodePoint(node, codePoint);
+            if (node == null) {
+                break;
+            }
+            index += Character.charCount(codePoint);
+            if (node.hasValue()) {
+                match.set(offset, index - offset, node.getValue());
+            }
+        }
+        return match.isFound();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void allPrefixes(CharSequence text, int offset, MatchListener<? super T> listener) {
+        TrieUtil.checkText(text, offset);
+        TrieUtil.notNull(listener, "Listener can not be null");
+
+        AdaptiveTrieNode<T> node = getRoot();
+        int index = offset;
+        while (index < text.length()) {
+            final int codePoint = Character.codePointAt(text, index);
+            node = nextCodePoint(node, codePoint);
+            if (node == null) {
+                return;
+            }
+            index += Character.charCount(codePoint);
+            if (node.hasValue() && !listener.onMatch(offset, index, node.getValue())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T remove(String key) {
+        notEmpty(key);
+
+        return super.remove(encode(key));
+    }
+
+    /**
+     * Removes the value associated with the key given as UTF-8 bytes.
+     *
+     * @param key the key bytes
+     * @return the removed value, or null if no entry existed for given key
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty
+     */
+    public T remove(byte[] key) {
+        notEmpty(key);
+
+        return super.remove(new String(key, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+
+        final Set<String> keys = new HashSet<String>();
+        for (String key : super.keySet()) {
+            keys.add(decode(key));
+        }
+        return keys;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(CharSequence key) {
+        return containsKey(TrieUtil.toString(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        return containsKey(new String(key, offset, length));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(CharSequence key) {
+        return get(TrieUtil.toString(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        return get(new String(key, offset, length));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(CharSequence key) {
+        return prefix(TrieUtil.toString(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        return prefix(new String(key, offset, length));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(CharSequence key) {
+        return prefixKey(TrieUtil.toString(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        return prefixKey(new String(key, offset, length));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The keys are ordered by their UTF-8 bytes, that is by their code points.
+     */
+    @Override
+    public Stream<Map.Entry<String, T>> entries() {
+        return StreamSupport.stream(new DecodingSpliterator<T>(super.entries().spliterator()), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The keys are ordered by their UTF-8 bytes, that is by their code points.
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesWithPrefix(String prefix, String after, int limit) {
+        TrieUtil.checkPrefix(prefix, limit);
+
+        final Iterable<Map.Entry<String, T>> entries = super.entriesWithPrefix(encode(prefix),
+                after != null ? encode(after) : null, limit);
+        return new Iterable<Map.Entry<String, T>>() {
+            @Override
+            public Iterator<Map.Entry<String, T>> iterator() {
+                final Iterator<Map.Entry<String, T>> iterator = entries.iterator();
+                return new Iterator<Map.Entry<String, T>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, T> next() {
+                        final Map.Entry<String, T> entry = iterator.next();
+                        return new AbstractMap.SimpleImmutableEntry<String, T>(decode(entry.getKey()),
+                                entry.getValue());
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countWithPrefix(String prefix) {
+        TrieUtil.notNull(prefix, "Prefix can not be null");
+
+        return super.countWithPrefix(encode(prefix));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The keys are ordered by their UTF-8 bytes, that is by their code points.
+     */
+    @Override
+    public int rank(String key) {
+        TrieUtil.notNull(key, "Key can not be null");
+
+        return super.rank(encode(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The keys are ordered by their UTF-8 bytes, that is by their code points.
+     */
+    @Override
+    public String select(int index) {
+        return decode(super.select(index));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The pattern matches the characters of the keys, so only the subtree of the literal prefix is walked and the
+     * decoded keys are matched against the pattern.
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesMatching(final WildcardPattern pattern) {
+        TrieUtil.notNull(pattern, "Pattern can not be null");
+
+        final Iterable<Map.Entry<String, T>> entries = entriesWithPrefix(pattern.literalPrefix());
+        return new Iterable<Map.Entry<String, T>>() {
+            @Override
+            public Iterator<Map.Entry<String, T>> iterator() {
+                final Iterator<Map.Entry<String, T>> iterator = entries.iterator();
+                return new Iterator<Map.Entry<String, T>>() {
+
+                    private Map.Entry<String, T> next;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (next == null && iterator.hasNext()) {
+                            final Map.Entry<String, T> entry = iterator.next();
+                            if (pattern.matches(entry.getKey())) {
+                                next = entry;
+                            }
+                        }
+                        return next != null;
+                    }
+
+                    @Override
+                    public Map.Entry<String, T> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Map.Entry<String, T> entry = next;
+                        next = null;
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The distance is measured in the characters of the keys, the bytes of a character are followed together before
+     * the automaton is moved.
+     */
+    @Override
+    public List<FuzzyMatch<T>> fuzzyMatches(String key, int maxDistance) {
+        TrieUtil.checkFuzzy(key, maxDistance);
+
+        final List<FuzzyMatch<T>> matches = new ArrayList<FuzzyMatch<T>>();
+        fuzzyMatches(getRoot(), 0, 0, new LevenshteinAutomaton(key, maxDistance), new StringBuilder(), matches);
+        return TrieUtil.sortMatches(matches);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String filter(String key, String replace) {
+        final AdaptiveTrieNode<T> root = getRoot();
+        final StringBuilder result = new StringBuilder();
+        AdaptiveTrieNode<T> tempNode = root;
+        int begin = 0;
+        int position = 0;
+        while (position < key.length() || tempNode != root) {
+            if (position < key.length()) {
+                char c = key.charAt(position);
+                if (TrieUtil.isSymbol(c)) {
+                    if (tempNode == root) {
+                        result.append(c);
+                        ++begin;
+                    }
+                    ++position;
+                    continue;
+                }
+                tempNode = nextCodePoint(tempNode, c);
+            } else {
+                // the text ended in the middle of a match
+                tempNode = null;
+            }
+            if (tempNode == null) {
+                result.append(key.charAt(begin));
+                position = ++begin;
+                tempNode = root;
+            } else if (tempNode.getValue() != null) {
+                result.append(replace);
+                ++position;
+                begin = position;
+                tempNode = root;
+            } else {
+                ++position;
+            }
+        }
+        result.append(key.substring(begin));
+        return result.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void scan(CharSequence text, MatchListener<? super T> listener) {
+        TrieUtil.notNull(text, "Text can not be null");
+        TrieUtil.notNull(listener, "Listener can not be null");
+
+        final AdaptiveTrieNode<T> root = getRoot();
+        for (int start = 0; start < text.length(); start++) {
+            if (TrieUtil.isSymbol(text.charAt(start))) {
+                continue;
+            }
+            AdaptiveTrieNode<T> node = root;
+            for (int end = start; end < text.length(); end++) {
+                final char c = text.charAt(end);
+                if (TrieUtil.isSymbol(c)) {
+                    continue;
+                }
+                node = nextCodePoint(node, c);
+                if (node == null) {
+                    break;
+                }
+                if (node.hasValue() && !listener.onMatch(start, end + 1, node.getValue())) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks the subtree together with the automaton, decoding the UTF-8 bytes of the path on the way.
+     *
+     * @param node      the node
+     * @param codePoint the bits of the partially read code point
+     * @param remaining the number of the continuation bytes of the code point that were not read yet
+     * @param automaton the automaton
+     * @param path      the characters of the path
+     * @param matches   the found matches
+     */
+    private void fuzzyMatches(AdaptiveTrieNode<T> node, int codePoint, int remaining, LevenshteinAutomaton automaton,
+                              StringBuilder path, List<FuzzyMatch<T>> matches) {
+        final int depth = path.length();
+        if (remaining == 0 && node.hasValue() && automaton.isMatch(depth)) {
+            matches.add(new FuzzyMatch<T>(path.toString(), node.getValue(), automaton.distance(depth)));
+        }
+        for (char b : node.getKeys()) {
+            final AdaptiveTrieNode<T> next = node.getNext(b);
+            if (remaining > 1) {
+                fuzzyMatches(next, codePoint << 6 | b & 0x3f, remaining - 1, automaton, path, matches);
+            } else if (remaining == 1) {
+                fuzzyMatchesCodePoint(next, codePoint << 6 | b & 0x3f, automaton, path, matches);
+            } else if (b < 0x80) {
+                fuzzyMatchesCodePoint(next, b, automaton, path, matches);
+            } else if (b >= 0xf0) {
+                fuzzyMatches(next, b & 0x07, 3, automaton, path, matches);
+            } else if (b >= 0xe0) {
+                fuzzyMatches(next, b & 0x0f, 2, automaton, path, matches);
+            } else {
+                fuzzyMatches(next, b & 0x1f, 1, automaton, path, matches);
+            }
+        }
+    }
+
+    private void fuzzyMatchesCodePoint(AdaptiveTrieNode<T> node, int codePoint, LevenshteinAutomaton automaton,
+                                       StringBuilder path, List<FuzzyMatch<T>> matches) {
+        final int depth = path.length();
+        path.appendCodePoint(codePoint);
+        // the supplementary code points are compared as their two surrogates, the same way as the string keys
+        boolean matching = true;
+        for (int index = depth; matching && index < path.length(); index++) {
+            matching = automaton.step(index, path.charAt(index));
+        }
+        if (matching) {
+            fuzzyMatches(node, 0, 0, automaton, path, matches);
+        }
+        path.setLength(depth);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int shortestMatch(char[] text, int start, int end) {
+        AdaptiveTrieNode<T> node = getRoot();
+        for (int position = start; position < end; position++) {
+            final char c = text[position];
+            if (TrieUtil.isSymbol(c)) {
+                continue;
+            }
+            node = nextCodePoint(node, c);
+            if (node == null) {
+                return StreamFilter.NO_MATCH;
+            }
+            if (node.getValue() != null) {
+                return position + 1;
+            }
+        }
+        return StreamFilter.UNDECIDED;
+    }
+
+    /**
+     * Follows the UTF-8 bytes of the code point. The surrogates that are not paired are never followed, the keys can
+     * not contain them.
+     *
+     * @param node      the node
+     * @param codePoint the code point
+     * @return the next node or {@code null} if there is none
+     */
+    private AdaptiveTrieNode<T> nextCodePoint(AdaptiveTrieNode<T> node, int codePoint) {
+        if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            return null;
+        }
+        if (codePoint < 0x80) {
+            return next(node, codePoint);
+        } else if (codePoint < 0x800) {
+            node = next(node, 0xc0 | codePoint >> 6);
+        } else if (codePoint < 0x10000) {
+            node = next(node, 0xe0 | codePoint >> 12);
+            node = next(node, 0x80 | codePoint >> 6 & 0x3f);
+        } else {
+            node = next(node, 0xf0 | codePoint >> 18);
+            node = next(node, 0x80 | codePoint >> 12 & 0x3f);
+            node = next(node, 0x80 | codePoint >> 6 & 0x3f);
+        }
+        return next(node, 0x80 | codePoint & 0x3f);
+    }
+
+    private AdaptiveTrieNode<T> next(AdaptiveTrieNode<T> node, int b) {
+        return node != null ? node.getNext((char) (b & 0xff)) : null;
+    }
+
+    /**
+     * Encodes the key into UTF-8 and maps every byte into a single character, the way the bytes are stored in the
+     * nodes.
+     *
+     * @param key the key
+     * @return the encoded key
+     * @throws IllegalArgumentException if {@code key} contains a surrogate that is not paired
+     */
+    private static String encode(String key) {
+        for (int ind = 0; ind < key.length(); ind++) {
+            final char c = key.charAt(ind);
+            if (Character.isHighSurrogate(c) && ind + 1 < key.length()
+                    && Character.isLowSurrogate(key.charAt(ind + 1))) {
+                ind++;
+            } else if (Character.isSurrogate(c)) {
+                throw new IllegalArgumentException("Key can not contain unpaired surrogates");
+            }
+        }
+        return new String(key.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Encodes the keys of the entries while they are partitioned.
+     *
+     * @param <T> the value type
+     */
+    private static final class EncodingSpliterator<T> implements Spliterator<Map.Entry<String, T>> {
+
+        private final Spliterator<? extends Map.Entry<String, ? extends T>> entries;
+
+        EncodingSpliterator(Spliterator<? extends Map.Entry<String, ? extends T>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super Map.Entry<String, T>> action) {
+            return entries.tryAdvance(new Consumer<Map.Entry<String, ? extends T>>() {
+                @Override
+                public void accept(Map.Entry<String, ? extends T> entry) {
+                    final String key = entry.getKey();
+                    action.accept(new AbstractMap.SimpleImmutableEntry<String, T>(key != null ? encode(key) : null,
+                            entry.getValue()));
+                }
+            });
+        }
+
+        @Override
+        public Spliterator<Map.Entry<String, T>> trySplit() {
+            final Spliterator<? extends Map.Entry<String, ? extends T>> split = entries.trySplit();
+            return split != null ? new EncodingSpliterator<T>(split) : null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return entries.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return entries.characteristics() & ~SORTED;
+        }
+    }
+
+    /**
+     * Decodes the keys of the streamed entries, the entries are split on the subtrees of the encoded keys.
+     *
+     * @param <T> the value type
+     */
+    private static final class DecodingSpliterator<T> implements Spliterator<Map.Entry<String, T>> {
+
+        private final Spliterator<Map.Entry<String, T>> entries;
+
+        DecodingSpliterator(Spliterator<Map.Entry<String, T>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super Map.Entry<String, T>> action) {
+            return entries.tryAdvance(new Consumer<Map.Entry<String, T>>() {
+                @Override
+                public void accept(Map.Entry<String, T> entry) {
+                    action.accept(new AbstractMap.SimpleImmutableEntry<String, T>(decode(entry.getKey()),
+                            entry.getValue()));
+                }
+            });
+        }
+
+        @Override
+        public Spliterator<Map.Entry<String, T>> trySplit() {
+            final Spliterator<Map.Entry<String, T>> split = entries.trySplit();
+            return split != null ? new DecodingSpliterator<T>(split) : null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return entries.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return entries.characteristics();
+        }
+    }
+
+    private static String decode(String key) {
+        return new String(key.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+    }
+
+    private static void checkRange(byte[] key, int offset, int length) {
+        if (key == null || length <= 0) {
+            throw new IllegalArgumentException("Key must be not null or not empty.");
+        }
+        if (offset < 0 || offset > key.length - length) {
+            throw new IllegalArgumentException("Key range exceeds bounds.");
+        }
+    }
+
+    private static void notEmpty(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Key must be not null or not empty string.");
+        }
+    }
+
+    private static void notEmpty(byte[] key) {
+        if (key == null || key.length == 0) {
+            throw new IllegalArgumentException("Key must be not null or not empty.");
+        }
+    }
+
+    private static void notEmpty(ByteBuffer key) {
+        if (key == null || !key.hasRemaining()) {
+            throw new IllegalArgumentException("Key must be not null or not empty.");
+        }
+    }
+}
@@ -0,0 +1,428 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Filters the text with the dictionaries of several categories, for instance the profanity, spam and personal data,
+ * with the {@link AhoCorasick} automata compiled from all of them at once. Every key carries the bitmask of its
+ * categories and every category has its own replacement policy: the matches are replaced with a string, masked
+ * character by character or only reported. The number of the matches of every category is returned together with
+ * the filtered text.
+ *
+ * The matches of every category are counted independently of each other, including the overlapping ones, so that
+ * the categories that only report their matches never hide the matches of the other categories. The replaced text
+ * is selected only among the keys of the categories that replace or mask their matches, with the semantics of
+ * {@link Trie#filter(String, String)}: the leftmost match wins and for every start position the shortest key is
+ * selected. A key that belongs to several categories is counted in each of them and is replaced by the policy of its
+ * lowest numbered category that does not only report the matches.
+ *
+ * <pre>
+ * CategoryFilter filter = CategoryFilter.builder()
+ *         .replace(PROFANITY, "***")
+ *         .mask(PERSONAL_DATA, '#')
+ *         .report(SPAM)
+ *         .addAll(profanity, 1 &lt;&lt; PROFANITY)
+ *         .addAll(spam, 1 &lt;&lt; SPAM)
+ *         .build();
+ * </pre>
+ *
+ * The filter is immutable and safe to use from multiple threads.
+ *
+ * @author Jakub Narloch
+ */
+public final class CategoryFilter {
+
+    /**
+     * The maximal number of the categories.
+     */
+    public static final int MAX_CATEGORIES = Integer.SIZE;
+
+    /**
+     * The automaton of all of the keys, which values are the bitmasks of the categories.
+     */
+    private final AhoCorasick<Integer> automaton;
+
+    /**
+     * The automaton of the keys of the categories that replace or mask the matches.
+     */
+    private final AhoCorasick<Integer> replacing;
+
+    /**
+     * The replacements of the categories, or {@code null} for the categories that mask or report the matches.
+     */
+    private final String[] replacements;
+
+    /**
+     * The bitmask of the categories that mask the matches.
+     */
+    private final int masked;
+
+    /**
+     * The mask characters of the categories that mask the matches.
+     */
+    private final char[] masks;
+
+    private CategoryFilter(Builder builder) {
+        this.replacements = builder.replacements.clone();
+        this.masked = builder.masked;
+        this.masks = builder.masks.clone();
+
+        final Map<String, Integer> entries = builder.merge();
+        final Map<String, Integer> replaced = new TreeMap<String, Integer>();
+        for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+            if (policy(entry.getValue()) != -1) {
+                replaced.put(entry.getKey(), entry.getValue());
+            }
+        }
+        this.automaton = AhoCorasick.compile(entries, builder.normalizer);
+        this.replacing = AhoCorasick.compile(replaced, builder.normalizer);
+    }
+
+    /**
+     * Creates the builder of the filter.
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the number of keys recognized by the filter.
+     *
+     * @return the number of keys
+     * @see AhoCorasick#size()
+     */
+    public int size() {
+        return automaton.size();
+    }
+
+    /**
+     * Filters the text applying the replacement policies of all of the categories.
+     *
+     * @param text the text to filter
+     * @return the filtered text and the number of the matches, including the overlapping ones, of every category
+     * @throws IllegalArgumentException if {@code text} is {@code null}
+     */
+    public Result filter(final String text) {
+        TrieUtil.notNull(text, "Text can not be null");
+
+        final int[] hits = new int[MAX_CATEGORIES];
+        automaton.scan(text, new MatchListener<Integer>() {
+            @Override
+            public boolean onMatch(int start, int end, Integer value) {
+                int categories = value;
+                while (categories != 0) {
+                    hits[Integer.numberOfTrailingZeros(categories)]++;
+                    categories &= categories - 1;
+                }
+                return true;
+            }
+        });
+
+        final StringBuilder filtered = new StringBuilder(text.length());
+        final int[] emitted = new int[1];
+        replacing.select(text, new MatchListener<Integer>() {
+            @Override
+            public boolean onMatch(int start, int end, Integer value) {
+                filtered.append(text, emitted[0], start);
+                replace(filtered, policy(value), start, end);
+                emitted[0] = end;
+                return true;
+            }
+        });
+        return new Result(filtered.append(text, emitted[0], text.length()).toString(), hits);
+    }
+
+    /**
+     * Returns the lowest numbered category that replaces or masks the matches.
+     */
+    private int policy(int categories) {
+        for (int category = 0; categories != 0; category++, categories >>>= 1) {
+            if ((categories & 1) != 0 && (replacements[category] != null || (masked & (1 << category)) != 0)) {
+                return category;
+            }
+        }
+        return -1;
+    }
+
+    private void replace(StringBuilder filtered, int category, int start, int end) {
+        if (replacements[category] != null) {
+            filtered.append(replacements[category]);
+        } else {
+            for (int ind = start; ind < end; ind++) {
+                filtered.append(masks[category]);
+            }
+        }
+    }
+
+    /**
+     * The filtered text together with the number of the matches of every category.
+     */
+    public static final class Result {
+
+        /**
+         * The filtered text.
+         */
+        private final String text;
+
+        /**
+         * The number of the matches indexed by the categories.
+         */
+        private final int[] hits;
+
+        private Result(String text, int[] hits) {
+            this.text = text;
+            this.hits = hits;
+        }
+
+        /**
+         * Returns the filtered text.
+         *
+         * @return the filtered text
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Returns the number of the matches of the category.
+         *
+         * @param category the category
+         * @return the number of the matches
+         * @throws IllegalArgumentException if {@code category} is not between 0 and {@link #MAX_CATEGORIES}
+         *                                  exclusive
+         */
+        public int getHits(int category) {
+            checkCategory(category);
+            return hits[category];
+        }
+
+        /**
+         * Returns the bitmask of the categories that have been matched at least once.
+         *
+         * @return the bitmask of the matched categories
+         */
+        public int getCategories() {
+            int categories = 0;
+            for (int category = 0; category < MAX_CATEGORIES; category++) {
+                if (hits[category] != 0) {
+                    categories |= 1 << category;
+                }
+            }
+            return categories;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{text='" + text + "', hits=" + Arrays.toString(hits) + '}';
+        }
+    }
+
+    /**
+     * The builder of the {@link CategoryFilter}. The replacement policy of every category has to be defined before
+     * the keys of the category are added.
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> entries = new HashMap<String, Integer>();
+
+        private final String[] replacements = new String[MAX_CATEGORIES];
+
+        private final char[] masks = new char[MAX_CATEGORIES];
+
+        private int masked;
+
+        private int defined;
+
+        private CharNormalizer normalizer = CharNormalizer.DEFAULT;
+
+        private Builder() {
+        }
+
+        /**
+         * Replaces the matches of the category with the replacement.
+         *
+         * @param category the category
+         * @param replace  the replacement
+         * @return the builder
+         * @throws IllegalArgumentException if {@code category} is not between 0 and {@link #MAX_CATEGORIES}
+         *                                  exclusive, or {@code replace} is {@code null}
+         */
+        public Builder replace(int category, String replace) {
+            checkCategory(category);
+            TrieUtil.notNull(replace, "Replacement can not be null");
+            define(category, replace, false, '\0');
+            return this;
+        }
+
+        /**
+         * Replaces every character of the matches of the category with the mask, so that the length of the text does
+         * not change.
+         *
+         * @param category the category
+         * @param mask     the mask character
+         * @return the builder
+         * @throws IllegalArgumentException if {@code category} is not between 0 and {@link #MAX_CATEGORIES}
+         *                                  exclusive
+         */
+        public Builder mask(int category, char mask) {
+            checkCategory(category);
+            define(category, null, true, mask);
+            return this;
+        }
+
+        /**
+         * Keeps the matches of the category in the text, they are only counted.
+         *
+         * @param category the category
+         * @return the builder
+         * @throws IllegalArgumentException if {@code category} is not between 0 and {@link #MAX_CATEGORIES}
+         *                                  exclusive
+         */
+        public Builder report(int category) {
+            checkCategory(category);
+            define(category, null, false, '\0');
+            return this;
+        }
+
+        /**
+         * Sets the normalization of the keys and the filtered texts, {@link CharNormalizer#DEFAULT} unless specified
+         * otherwise.
+         *
+         * @param normalizer the normalizer
+         * @return the builder
+         * @throws IllegalArgumentException if {@code normalizer} is {@code null}
+         */
+        public Builder normalizer(CharNormalizer normalizer) {
+            TrieUtil.notNull(normalizer, "Normalizer can not be null");
+            this.normalizer = normalizer;
+            return this;
+        }
+
+        /**
+         * Adds the key to the categories. The categories of the key added multiple times are merged.
+         *
+         * @param key        the key
+         * @param categories the bitmask of the categories, where the category {@code n} is the bit {@code 1 << n}
+         * @return the builder
+         * @throws IllegalArgumentException if {@code key} is {@code null}, {@code categories} is 0 or contains a
+         *                                  category which policy is not defined
+         */
+        public Builder add(String key, int categories) {
+            TrieUtil.notNull(key, "Key can not be null");
+            checkCategories(categories);
+            final Integer previous = entries.get(key);
+            entries.put(key, previous != null ? previous | categories : categories);
+            return this;
+        }
+
+        /**
+         * Adds all of the keys to the categories.
+         *
+         * @param keys       the keys
+         * @param categories the bitmask of the categories
+         * @return the builder
+         * @throws IllegalArgumentException if {@code keys} is {@code null}, {@code categories} is 0 or contains a
+         *                                  category which policy is not defined
+         */
+        public Builder addAll(Iterable<String> keys, int categories) {
+            TrieUtil.notNull(keys, "Keys can not be null");
+            checkCategories(categories);
+            for (String key : keys) {
+                add(key, categories);
+            }
+            return this;
+        }
+
+        /**
+         * Adds all of the keys of the trie to the categories.
+         *
+         * @param trie       the trie
+         * @param categories the bitmask of the categories
+         * @return the builder
+         * @throws IllegalArgumentException if {@code trie} is {@code null}, {@code categories} is 0 or contains a
+         *                                  category which policy is not defined
+         */
+        public Builder addAll(Trie<?> trie, int categories) {
+            TrieUtil.notNull(trie, "Trie can not be null");
+            return addAll(trie.keySet(), categories);
+        }
+
+        /**
+         * Builds the filter.
+         *
+         * @return the filter
+         */
+        public CategoryFilter build() {
+            return new CategoryFilter(this);
+        }
+
+        /**
+         * Merges the categories of the keys that are normalized to the same key, the automaton keeps only one of
+         * them.
+         */
+        private Map<String, Integer> merge() {
+            final Map<String, String> representatives = new HashMap<String, String>();
+            final Map<String, Integer> merged = new TreeMap<String, Integer>();
+            for (Map.Entry<String, Integer> entry : new TreeMap<String, Integer>(entries).entrySet()) {
+                final String normalized = AhoCorasick.normalize(entry.getKey(), normalizer);
+                if (normalized == null) {
+                    continue;
+                }
+                final String representative = representatives.get(normalized);
+                if (representative == null) {
+                    representatives.put(normalized, entry.getKey());
+                    merged.put(entry.getKey(), entry.getValue());
+                } else {
+                    merged.put(representative, merged.get(representative) | entry.getValue());
+                }
+            }
+            return merged;
+        }
+
+        private void define(int category, String replace, boolean mask, char c) {
+            replacements[category] = replace;
+            masks[category] = c;
+            if (mask) {
+                masked |= 1 << category;
+            } else {
+                masked &= ~(1 << category);
+            }
+            defined |= 1 << category;
+        }
+
+        private void checkCategories(int categories) {
+            if (categories == 0) {
+                throw new IllegalArgumentException("Categories can not be empty");
+            }
+            if ((categories & ~defined) != 0) {
+                throw new IllegalArgumentException("Categories policy is not defined");
+            }
+        }
+    }
+
+    private static void checkCategory(int category) {
+        if (category < 0 || category >= MAX_CATEGORIES) {
+            throw new IllegalArgumentException("Category has to be between 0 and " + MAX_CATEGORIES + " exclusive");
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.Arrays;
+
+/**
+ * The normalization of the characters applied by the {@link AhoCorasick} filter both to the keys of the dictionary
+ * and to the filtered text. Every character is either skipped, kept or mapped to another character, so that the text
+ * written with different case, in the full width forms or with look-alike characters matches the same keys. The
+ * normalization is compiled into a table indexed by the characters, so it costs a single array load per character.
+ *
+ * The {@link #DEFAULT} normalization skips the symbols, that are neither the CJK characters nor the latin letters,
+ * and keeps every other character. The custom normalization is built starting from the default one:
+ *
+ * <pre>
+ * CharNormalizer normalizer = CharNormalizer.builder()
+ *         .foldCase()
+ *         .foldWidth()
+ *         .map('0', 'o')
+ *         .build();
+ * </pre>
+ *
+ * The normalizer is immutable and can be shared between the threads.
+ *
+ * @author Jakub Narloch
+ */
+public final class CharNormalizer {
+
+    /**
+     * The table entry of the skipped characters. The character itself is a noncharacter and is always skipped.
+     */
+    static final char SKIP = '\uffff';
+
+    /**
+     * The offset of the full width forms of the ASCII characters.
+     */
+    private static final int FULL_WIDTH_OFFSET = 0xfee0;
+
+    /**
+     * The normalization that skips the symbols and keeps every other character.
+     */
+    public static final CharNormalizer DEFAULT = new CharNormalizer(defaultTable());
+
+    /**
+     * The normalized characters, or {@link #SKIP}, indexed by the characters.
+     */
+    final char[] table;
+
+    private CharNormalizer(char[] table) {
+        this.table = table;
+    }
+
+    /**
+     * Creates the builder of the normalization, that starts from the {@link #DEFAULT} one.
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder(defaultTable());
+    }
+
+    /**
+     * Returns whether the character is skipped.
+     *
+     * @param c the character
+     * @return true if the character is skipped
+     */
+    public boolean isSkipped(char c) {
+        return table[c] == SKIP;
+    }
+
+    /**
+     * Returns the normalized character.
+     *
+     * @param c the character
+     * @return the normalized character, or the character itself if it is skipped
+     */
+    public char normalize(char c) {
+        final char normalized = table[c];
+        return normalized != SKIP ? normalized : c;
+    }
+
+    /**
+     * Normalizes every character of the text and removes the skipped ones.
+     *
+     * @param text the text
+     * @return the normalized text
+     * @throws IllegalArgumentException if {@code text} is {@code null}
+     */
+    public String normalize(CharSequence text) {
+        TrieUtil.notNull(text, "Text can not be null");
+
+        final StringBuilder normalized = new StringBuilder(text.length());
+        for (int ind = 0; ind < text.length(); ind++) {
+            final char c = table[text.charAt(ind)];
+            if (c != SKIP) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static char[] defaultTable() {
+        final char[] table = new char[Character.MAX_VALUE + 1];
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            final boolean symbol = (c < 0x2E80 || c > 0x9FFF) && (c < 0x61 || c > 0x7a) && (c < 0x41 || c > 0x5a);
+            table[c] = symbol ? SKIP : (char) c;
+        }
+        return table;
+    }
+
+    /**
+     * The builder of the {@link CharNormalizer}. The characters are skipped, kept or mapped in the order the methods
+     * are called, the full width and the case folding are applied to the result when the normalizer is built.
+     */
+    public static final class Builder {
+
+        private final char[] table;
+
+        private boolean foldWidth;
+
+        private boolean foldCase;
+
+        private Builder(char[] table) {
+            this.table = table;
+        }
+
+        /**
+         * Skips the characters of the range.
+         *
+         * @param first the first character, inclusive
+         * @param last  the last character, inclusive
+         * @return the builder
+         * @throws IllegalArgumentException if {@code first} is greater than {@code last}
+         */
+        public Builder skip(char first, char last) {
+            checkRange(first, last);
+            Arrays.fill(table, first, last + 1, SKIP);
+            return this;
+        }
+
+        /**
+         * Keeps the characters of the range unchanged.
+         *
+         * @param first the first character, inclusive
+         * @param last  the last character, inclusive
+         * @return the builder
+         * @throws IllegalArgumentException if {@code first} is greater than {@code last}
+         */
+        public Builder keep(char first, char last) {
+            checkRange(first, last);
+            for (int c = first; c <= last; c++) {
+                table[c] = c != SKIP ? (char) c : SKIP;
+            }
+            return this;
+        }
+
+        /**
+         * Maps the character to another one, for instance the look-alike character to the letter it imitates.
+         *
+         * @param c  the character
+         * @param to the character it is mapped to
+         * @return the builder
+         * @throws IllegalArgumentException if {@code c} or {@code to} is the noncharacter U+FFFF
+         */
+        public Builder map(char c, char to) {
+            if (c == SKIP || to == SKIP) {
+                throw new IllegalArgumentException("Character can not be mapped");
+            }
+            table[c] = to;
+            return this;
+        }
+
+        /**
+         * Maps every character of the string to the character.
+         *
+         * @param chars the characters
+         * @param to    the character they are mapped to
+         * @return the builder
+         * @throws IllegalArgumentException if {@code chars} is {@code null} or any character is the noncharacter
+         *                                  U+FFFF
+         */
+        public Builder map(String chars, char to) {
+            TrieUtil.notNull(chars, "Characters can not be null");
+            for (int ind = 0; ind < chars.length(); ind++) {
+                map(chars.charAt(ind), to);
+            }
+            return this;
+        }
+
+        /**
+         * Normalizes the full width forms of the ASCII characters and the ideographic space the same way as their
+         * ASCII counterparts.
+         *
+         * @return the builder
+         */
+        public Builder foldWidth() {
+            foldWidth = true;
+            return this;
+        }
+
+        /**
+         * Maps the normalized characters to their lower case.
+         *
+         * @return the builder
+         */
+        public Builder foldCase() {
+            foldCase = true;
+            return this;
+        }
+
+        /**
+         * Builds the normalizer.
+         *
+         * @return the normalizer
+         */
+        public CharNormalizer build() {
+            final char[] table = this.table.clone();
+            if (foldWidth) {
+                for (int c = '\uff01'; c <= '\uff5e'; c++) {
+                    table[c] = table[c - FULL_WIDTH_OFFSET];
+                }
+                table['\u3000'] = table[' '];
+            }
+            if (foldCase) {
+                for (int c = 0; c <= Character.MAX_VALUE; c++) {
+                    if (table[c] != SKIP) {
+                        table[c] = Character.toLowerCase(table[c]);
+                    }
+                }
+            }
+            return new CharNormalizer(table);
+        }
+
+        private static void checkRange(char first, char last) {
+            if (first > last) {
+                throw new IllegalArgumentException("First character can not be greater than the last one");
+            }
+        }
+    }
+}
@@ -0,0 +1,970 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.stream.Stream;
+
+/**
+ * A concurrent, lock-free trie based on the Ctrie by Prokopec, Bronson, Bagwell and Odersky. Every trie node is
+ * referenced through an indirection node, the updates copy the node below the indirection node and swap it with a
+ * single compare-and-set, so that the {@link #put(String, Object)}, {@link #remove(String)} and {@link #get(String)}
+ * operations are linearizable and never block each other.
+ *
+ * The trie supports constant time snapshots. The {@link #readOnlySnapshot()} returns a consistent, immutable view of
+ * the trie that is not affected by the later updates, the {@link #snapshot()} returns an independent, modifiable copy.
+ * The snapshots are lazy, the nodes are copied only when they are being modified after the snapshot has been taken.
+ * The {@link #keySet()} and {@link #size()} are computed from a read-only snapshot, so they always reflect a single
+ * point in time even though the writers continue to modify the trie.
+ *
+ * The {@link #prefix(String)}, {@link #prefixKey(String)} and {@link #filter(String, String)} operations read the
+ * live trie, each node is read atomically, but the operation as a whole may observe the concurrent updates.
+ *
+ * The trie does not permit {@code null} values.
+ *
+ * @author Jakub Narloch
+ */
+public class ConcurrentTrie<T> implements Trie<T> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ConcurrentTrie, Object> ROOT_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentTrie.class, Object.class, "root");
+
+    /**
+     * Marks the operation that has to be restarted from the root.
+     */
+    private static final Object RESTART = new Object();
+
+    private static final char[] EMPTY_KEYS = new char[0];
+
+    @SuppressWarnings("rawtypes")
+    private static final INode[] EMPTY_CHILDREN = new INode[0];
+
+    /**
+     * The root indirection node, or the descriptor of the pending root swap.
+     */
+    private volatile Object root;
+
+    /**
+     * Whether the trie is a read-only snapshot.
+     */
+    private final boolean readOnly;
+
+    /**
+     * Creates new instance of {@link ConcurrentTrie}.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentTrie() {
+        this(new INode<T>(new Generation(), new CNode<T>(null, EMPTY_KEYS, EMPTY_CHILDREN)), false);
+    }
+
+    private ConcurrentTrie(INode<T> root, boolean readOnly) {
+        this.root = root;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        if (!readOnly) {
+            return readOnlySnapshot().size();
+        }
+        return ((CNode<T>) gcasRead(readRoot(false))).size(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException      if {@code value} is {@code null}
+     * @throws UnsupportedOperationException if the trie is a read-only snapshot
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T put(String key, T value) {
+        notEmpty(key, "Key must be not null or not empty string.");
+        notNull(value, "Value can not be null");
+        writable();
+
+        while (true) {
+            final INode<T> r = readRoot(false);
+            final Object result = insert(r, key, value, r.gen);
+            if (result != RESTART) {
+                return (T) result;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException if the trie is a read-only snapshot
+     */
+    @Override
+    public void putAll(Map<String, ? extends T> map) {
+        notNull(map, "Map can not be null");
+
+        for (Map.Entry<String, ? extends T> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        INode<T> node = readRoot(false);
+        int index = 0;
+        while (true) {
+            final MainNode<T> main = gcasRead(node);
+            if (!(main instanceof CNode)) {
+                return null;
+            }
+            final CNode<T> cn = (CNode<T>) main;
+            if (index == key.length()) {
+                return cn.value;
+            }
+            node = cn.getChild(key.charAt(index++));
+            if (node == null) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        T value = null;
+        CNode<T> node = read(readRoot(false));
+        int index = 0;
+        while (node != null) {
+            if (node.value != null) {
+                value = node.value;
+            }
+            if (index == key.length()) {
+                break;
+            }
+            node = read(node.getChild(key.charAt(index++)));
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        int longestPrefix = -1;
+        CNode<T> node = read(readRoot(false));
+        int index = 0;
+        while (node != null) {
+            if (node.value != null) {
+                longestPrefix = index;
+            }
+            if (index == key.length()) {
+                break;
+            }
+            node = read(node.getChild(key.charAt(index++)));
+        }
+        if (longestPrefix == -1) {
+            return null;
+        }
+        return key.substring(0, longestPrefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean longestMatch(CharSequence text, int offset, PrefixMatch<? super T> match) {
+        TrieUtil.checkText(text, offset);
+        TrieUtil.notNull(match, "Match can not be null");
+
+        match.clear(offset);
+        CNode<T> node = read(readRoot(false));
+        for (int index = offset; index < text.length(); index++) {
+            node = read(node.getChild(text.charAt(index)));
+            if (node == null) {
+                break;
+            }
+            if (node.value != null) {
+                match.set(offset, index + 1 - offset, node.value);
+            }
+        }
+        return match.isFound();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void allPrefixes(CharSequence text, int offset, MatchListener<? super T> listener) {
+        TrieUtil.checkText(text, offset);
+        TrieUtil.notNull(listener, "Listener can not be null");
+
+        CNode<T> node = read(readRoot(false));
+        for (int index = offset; index < text.length(); index++) {
+            node = read(node.getChild(text.charAt(index)));
+            if (node == null) {
+                return;
+            }
+            if (node.value != null && !listener.onMatch(offset, index + 1, node.value)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException if the trie is a read-only snapshot
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T remove(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+        writable();
+
+        while (true) {
+            final INode<T> r = readRoot(false);
+            final Object result = remove(r, key, r.gen);
+            if (result != RESTART) {
+                return (T) result;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+
+        final Set<String> keys = new HashSet<String>();
+        final ConcurrentTrie<T> snapshot = readOnlySnapshot();
+        snapshot.keys(snapshot.readRoot(false), keys);
+        return keys;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The entries are read from a read-only snapshot taken when this method is called.
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesWithPrefix(String prefix, String after, int limit) {
+        return TrieUtil.entriesWithPrefix(isReadOnly() ? this : readOnlySnapshot(), prefix, after, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The entries are read from a read-only snapshot taken when this method is called.
+     */
+    @Override
+    public Stream<Map.Entry<String, T>> entries() {
+        return TrieUtil.entries(isReadOnly() ? this : readOnlySnapshot());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The keys are read from a read-only snapshot taken when this method is called.
+     */
+    @Override
+    public String floorKey(String key) {
+        return isReadOnly() ? Trie.super.floorKey(key) : readOnlySnapshot().floorKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The keys are read from a read-only snapshot taken when this method is called.
+     */
+    @Override
+    public String ceilingKey(String key) {
+        return isReadOnly() ? Trie.super.ceilingKey(key) : readOnlySnapshot().ceilingKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The entries are read from a read-only snapshot taken when this method is called.
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesMatching(WildcardPattern pattern) {
+        return TrieUtil.entriesMatching(isReadOnly() ? this : readOnlySnapshot(), pattern);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The keys are read from a read-only snapshot taken when this method is called.
+     */
+    @Override
+    public List<FuzzyMatch<T>> fuzzyMatches(String key, int maxDistance) {
+        return TrieUtil.fuzzyMatches(isReadOnly() ? this : readOnlySnapshot(), key, maxDistance);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The text is filtered with a read-only snapshot taken when this method is called, walked from every start
+     * position of the text without compiling the automaton.
+     */
+    @Override
+    public void filter(Readable source, Writer target, String replace) throws IOException {
+        final ConcurrentTrie<T> snapshot = isReadOnly() ? this : readOnlySnapshot();
+        StreamFilter.filter(source, target, replace, new StreamFilter.Matcher() {
+            @Override
+            public int shortestMatch(char[] text, int start, int end) {
+                return snapshot.shortestMatch(text, start, end);
+            }
+        });
+    }
+
+    private int shortestMatch(char[] text, int start, int end) {
+        CNode<T> node = read(readRoot(false));
+        for (int position = start; position < end; position++) {
+            final char c = text[position];
+            if (TrieUtil.isSymbol(c)) {
+                continue;
+            }
+            node = read(node.getChild(c));
+            if (node == null) {
+                return StreamFilter.NO_MATCH;
+            }
+            if (node.value != null) {
+                return position + 1;
+            }
+        }
+        return StreamFilter.UNDECIDED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String filter(String key, String replace) {
+        StringBuilder result = new StringBuilder();
+        final CNode<T> root = read(readRoot(false));
+        CNode<T> tempNode = root;
+        int begin = 0;
+        int position = 0;
+        while (position < key.length() || tempNode != root) {
+            if (position < key.length()) {
+                char c = key.charAt(position);
+                if (TrieUtil.isSymbol(c)) {
+                    if (tempNode == root) {
+                        result.append(c);
+                        ++begin;
+                    }
+                    ++position;
+                    continue;
+                }
+                tempNode = read(tempNode.getChild(c));
+            } else {
+                // the text ended in the middle of a match
+                tempNode = null;
+            }
+            if (tempNode == null) {
+                result.append(key.charAt(begin));
+                position = ++begin;
+                tempNode = root;
+            } else if (tempNode.value != null) {
+                result.append(replace);
+                ++position;
+                begin = position;
+                tempNode = root;
+            } else {
+                ++position;
+            }
+        }
+        result.append(key.substring(begin));
+        return result.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void scan(CharSequence text, MatchListener<? super T> listener) {
+        TrieUtil.notNull(text, "Text can not be null");
+        TrieUtil.notNull(listener, "Listener can not be null");
+
+        final CNode<T> root = read(readRoot(false));
+        for (int start = 0; start < text.length(); start++) {
+            if (TrieUtil.isSymbol(text.charAt(start))) {
+                continue;
+            }
+            CNode<T> node = root;
+            for (int end = start; end < text.length(); end++) {
+                final char c = text.charAt(end);
+                if (TrieUtil.isSymbol(c)) {
+                    continue;
+                }
+                node = read(node.getChild(c));
+                if (node == null) {
+                    break;
+                }
+                if (node.value != null && !listener.onMatch(start, end + 1, node.value)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a modifiable snapshot of the trie in constant time. The snapshot and this trie are independent, the
+     * modifications of one of them are not visible in the other.
+     *
+     * @return the snapshot of the trie
+     */
+    public ConcurrentTrie<T> snapshot() {
+        while (true) {
+            final INode<T> r = readRoot(false);
+            final MainNode<T> expected = gcasRead(r);
+            if (readOnly || rdcssRoot(r, expected, r.copyToGen(new Generation(), this))) {
+                return new ConcurrentTrie<T>(r.copyToGen(new Generation(), this), false);
+            }
+        }
+    }
+
+    /**
+     * Creates a read-only snapshot of the trie in constant time. The snapshot is not affected by the later
+     * modifications of this trie, all of its mutating operations throw {@link UnsupportedOperationException}.
+     *
+     * @return the read-only snapshot of the trie
+     */
+    public ConcurrentTrie<T> readOnlySnapshot() {
+        if (readOnly) {
+            return this;
+        }
+        while (true) {
+            final INode<T> r = readRoot(false);
+            final MainNode<T> expected = gcasRead(r);
+            if (rdcssRoot(r, expected, r.copyToGen(new Generation(), this))) {
+                return new ConcurrentTrie<T>(r, true);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the trie is a read-only snapshot.
+     *
+     * @return true if the trie is read-only, false otherwise
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    private Object insert(INode<T> root, String key, T value, Generation startGen) {
+
+        INode<T> parent = null;
+        INode<T> node = root;
+        int index = 0;
+        while (true) {
+            final MainNode<T> main = gcasRead(node);
+            if (!(main instanceof CNode)) {
+                // the node has been removed, its parent has to be cleaned before retrying
+                clean(parent, key, index - 1);
+                return RESTART;
+            }
+            final CNode<T> cn = (CNode<T>) main;
+            if (index == key.length()) {
+                return gcas(node, cn, cn.updated(value)) ? cn.value : RESTART;
+            }
+            final char c = key.charAt(index);
+            final int position = cn.indexOf(c);
+            if (position < 0) {
+                final CNode<T> updated = cn.inserted(-(position + 1), c, newBranch(key, index + 1, value, node.gen));
+                return gcas(node, cn, updated) ? null : RESTART;
+            }
+            final INode<T> child = cn.children[position];
+            if (child.gen == startGen) {
+                parent = node;
+                node = child;
+                index++;
+            } else if (!gcas(node, cn, cn.renewed(startGen, this))) {
+                return RESTART;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object remove(INode<T> root, String key, Generation startGen) {
+
+        final INode<T>[] path = (INode<T>[]) new INode[key.length() + 1];
+        INode<T> node = root;
+        int index = 0;
+        T value;
+        while (true) {
+            path[index] = node;
+            final MainNode<T> main = gcasRead(node);
+            if (!(main instanceof CNode)) {
+                clean(path[index - 1], key, index - 1);
+                return RESTART;
+            }
+            final CNode<T> cn = (CNode<T>) main;
+            if (index == key.length()) {
+                if (cn.value == null) {
+                    return null;
+                }
+                if (!gcas(node, cn, contracted(cn.updated(null), index))) {
+                    return RESTART;
+                }
+                value = cn.value;
+                break;
+            }
+            final int position = cn.indexOf(key.charAt(index));
+            if (position < 0) {
+                return null;
+            }
+            final INode<T> child = cn.children[position];
+            if (child.gen == startGen) {
+                node = child;
+                index++;
+            } else if (!gcas(node, cn, cn.renewed(startGen, this))) {
+                return RESTART;
+            }
+        }
+
+        // removes the emptied nodes towards the root, if this fails the nodes are cleaned by the later updates
+        while (index > 0 && gcasRead(path[index]) instanceof TNode) {
+            index--;
+            clean(path[index], key, index);
+        }
+        return value;
+    }
+
+    private void clean(INode<T> parent, String key, int index) {
+        final MainNode<T> main = gcasRead(parent);
+        if (main instanceof CNode) {
+            final CNode<T> cn = (CNode<T>) main;
+            final int position = cn.indexOf(key.charAt(index));
+            if (position >= 0 && gcasRead(cn.children[position]) instanceof TNode) {
+                gcas(parent, cn, contracted(cn.removed(position), index));
+            }
+        }
+    }
+
+    private void keys(INode<T> root, Set<String> keys) {
+
+        CNode<T> node;
+        TraversedPath traversedPath;
+
+        final StringBuilder path = new StringBuilder();
+        final Deque<TraversedPath> stack = new ArrayDeque<TraversedPath>();
+        stack.push(new TraversedPath(TraversedPathAction.VISIT, -1, read(root)));
+
+        while (!stack.isEmpty()) {
+            traversedPath = stack.pop();
+            if (traversedPath.action == TraversedPathAction.BACKUP) {
+                path.deleteCharAt(path.length() - 1);
+            } else {
+                node = traversedPath.node;
+                if (traversedPath.key != -1) {
+                    path.append((char) traversedPath.key);
+                }
+                if (node.value != null) {
+                    keys.add(path.toString());
+                }
+                for (int ind = 0; ind < node.keys.length; ind++) {
+                    final CNode<T> child = read(node.children[ind]);
+                    if (child != null) {
+                        stack.push(new TraversedPath(TraversedPathAction.BACKUP, -1, null));
+                        stack.push(new TraversedPath(TraversedPathAction.VISIT, node.keys[ind], child));
+                    }
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private INode<T> newBranch(String key, int index, T value, Generation gen) {
+        INode<T> node = new INode<T>(gen, new CNode<T>(value, EMPTY_KEYS, EMPTY_CHILDREN));
+        for (int ind = key.length() - 1; ind >= index; ind--) {
+            node = new INode<T>(gen, new CNode<T>(null, new char[]{key.charAt(ind)}, new INode[]{node}));
+        }
+        return node;
+    }
+
+    /**
+     * Replaces the node that does not have neither value nor children with a tomb, so that it can be removed from
+     * its parent. The root node is never being removed.
+     */
+    private MainNode<T> contracted(CNode<T> node, int index) {
+        if (index > 0 && node.value == null && node.keys.length == 0) {
+            return new TNode<T>();
+        }
+        return node;
+    }
+
+    private CNode<T> read(INode<T> node) {
+        if (node == null) {
+            return null;
+        }
+        final MainNode<T> main = gcasRead(node);
+        return main instanceof CNode ? (CNode<T>) main : null;
+    }
+
+    private void writable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("The trie is a read-only snapshot");
+        }
+    }
+
+    // the generation compare-and-set, which succeeds only if the trie has not been snapshot in the meantime
+
+    private boolean gcas(INode<T> node, MainNode<T> old, MainNode<T> updated) {
+        updated.prev = old;
+        if (node.casMain(old, updated)) {
+            gcasComplete(node, updated);
+            return updated.prev == null;
+        }
+        return false;
+    }
+
+    private MainNode<T> gcasRead(INode<T> node) {
+        final MainNode<T> main = node.main;
+        if (main.prev == null) {
+            return main;
+        }
+        return gcasComplete(node, main);
+    }
+
+    private MainNode<T> gcasComplete(INode<T> node, MainNode<T> main) {
+        while (true) {
+            final MainNode<T> prev = main.prev;
+            final INode<T> r = readRoot(true);
+            if (prev == null) {
+                return main;
+            }
+            if (prev instanceof FailedNode) {
+                final MainNode<T> restored = prev.prev;
+                if (node.casMain(main, restored)) {
+                    return restored;
+                }
+                main = node.main;
+            } else if (r.gen == node.gen && !readOnly) {
+                if (main.casPrev(prev, null)) {
+                    return main;
+                }
+            } else {
+                main.casPrev(prev, new FailedNode<T>(prev));
+                main = node.main;
+            }
+        }
+    }
+
+    // the restricted double compare single swap, which swaps the root only if its main node has not changed
+
+    @SuppressWarnings("unchecked")
+    private INode<T> readRoot(boolean abort) {
+        final Object r = root;
+        if (r instanceof INode) {
+            return (INode<T>) r;
+        }
+        return rdcssComplete(abort);
+    }
+
+    private boolean rdcssRoot(INode<T> old, MainNode<T> expected, INode<T> updated) {
+        final RootDescriptor<T> descriptor = new RootDescriptor<T>(old, expected, updated);
+        if (ROOT_UPDATER.compareAndSet(this, old, descriptor)) {
+            rdcssComplete(false);
+            return descriptor.committed;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private INode<T> rdcssComplete(boolean abort) {
+        while (true) {
+            final Object r = root;
+            if (r instanceof INode) {
+                return (INode<T>) r;
+            }
+            final RootDescriptor<T> descriptor = (RootDescriptor<T>) r;
+            if (abort) {
+                if (ROOT_UPDATER.compareAndSet(this, descriptor, descriptor.old)) {
+                    return descriptor.old;
+                }
+            } else if (gcasRead(descriptor.old) == descriptor.expected) {
+                if (ROOT_UPDATER.compareAndSet(this, descriptor, descriptor.updated)) {
+                    descriptor.committed = true;
+                    return descriptor.updated;
+                }
+            } else if (ROOT_UPDATER.compareAndSet(this, descriptor, descriptor.old)) {
+                return descriptor.old;
+            }
+        }
+    }
+
+    private void notNull(Object value, String message) {
+        if (value == null) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private void notEmpty(String value, String message) {
+        notNull(value, message);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private enum TraversedPathAction {
+        VISIT, BACKUP
+    }
+
+    private final class TraversedPath {
+
+        private final TraversedPathAction action;
+
+        private final int key;
+
+        private final CNode<T> node;
+
+        TraversedPath(TraversedPathAction action, int key, CNode<T> node) {
+            this.action = action;
+            this.key = key;
+            this.node = node;
+        }
+    }
+
+    /**
+     * The generation of the indirection nodes, every snapshot starts new generation.
+     */
+    private static final class Generation {
+    }
+
+    /**
+     * The indirection node, the only mutable node of the trie.
+     */
+    private static final class INode<T> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<INode, MainNode> MAIN_UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(INode.class, MainNode.class, "main");
+
+        private final Generation gen;
+
+        private volatile MainNode<T> main;
+
+        INode(Generation gen, MainNode<T> main) {
+            this.gen = gen;
+            this.main = main;
+        }
+
+        boolean casMain(MainNode<T> expected, MainNode<T> updated) {
+            return MAIN_UPDATER.compareAndSet(this, expected, updated);
+        }
+
+        INode<T> copyToGen(Generation gen, ConcurrentTrie<T> trie) {
+            return new INode<T>(gen, trie.gcasRead(this));
+        }
+    }
+
+    /**
+     * The node referenced by the indirection node.
+     */
+    private abstract static class MainNode<T> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<MainNode, MainNode> PREV_UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(MainNode.class, MainNode.class, "prev");
+
+        /**
+         * The replaced node while the generation compare-and-set is pending.
+         */
+        volatile MainNode<T> prev;
+
+        boolean casPrev(MainNode<T> expected, MainNode<T> updated) {
+            return PREV_UPDATER.compareAndSet(this, expected, updated);
+        }
+    }
+
+    /**
+     * The immutable trie node, holds the value and the children sorted by their characters.
+     */
+    private static final class CNode<T> extends MainNode<T> {
+
+        private final T value;
+
+        private final char[] keys;
+
+        private final INode<T>[] children;
+
+        /**
+         * The cached number of entries, computed only within the read-only snapshots.
+         */
+        private volatile int size = -1;
+
+        CNode(T value, char[] keys, INode<T>[] children) {
+            this.value = value;
+            this.keys = keys;
+            this.children = children;
+        }
+
+        INode<T> getChild(char c) {
+            final int index = indexOf(c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        int indexOf(char c) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final char midC = keys[mid];
+                if (midC < c) {
+                    low = mid + 1;
+                } else if (midC > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        CNode<T> updated(T value) {
+            return new CNode<T>(value, keys, children);
+        }
+
+        @SuppressWarnings("unchecked")
+        CNode<T> inserted(int index, char c, INode<T> child) {
+            final char[] nextKeys = new char[keys.length + 1];
+            final INode<T>[] nextChildren = (INode<T>[]) new INode[children.length + 1];
+            System.arraycopy(keys, 0, nextKeys, 0, index);
+            System.arraycopy(children, 0, nextChildren, 0, index);
+            nextKeys[index] = c;
+            nextChildren[index] = child;
+            System.arraycopy(keys, index, nextKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, nextChildren, index + 1, children.length - index);
+            return new CNode<T>(value, nextKeys, nextChildren);
+        }
+
+        @SuppressWarnings("unchecked")
+        CNode<T> removed(int index) {
+            final char[] nextKeys = new char[keys.length - 1];
+            final INode<T>[] nextChildren = (INode<T>[]) new INode[children.length - 1];
+            System.arraycopy(keys, 0, nextKeys, 0, index);
+            System.arraycopy(children, 0, nextChildren, 0, index);
+            System.arraycopy(keys, index + 1, nextKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, nextChildren, index, children.length - index - 1);
+            return new CNode<T>(value, nextKeys, nextChildren);
+        }
+
+        @SuppressWarnings("unchecked")
+        CNode<T> renewed(Generation gen, ConcurrentTrie<T> trie) {
+            final INode<T>[] nextChildren = (INode<T>[]) new INode[children.length];
+            for (int ind = 0; ind < children.length; ind++) {
+                // the children of the current generation can still be modified, so they must not be copied
+                final INode<T> child = children[ind];
+                nextChildren[ind] = child.gen == gen ? child : child.copyToGen(gen, trie);
+            }
+            return new CNode<T>(value, keys, nextChildren);
+        }
+
+        int size(ConcurrentTrie<T> trie) {
+            int result = size;
+            if (result == -1) {
+                result = value != null ? 1 : 0;
+                for (INode<T> child : children) {
+                    final CNode<T> node = trie.read(child);
+                    if (node != null) {
+                        result += node.size(trie);
+                    }
+                }
+                size = result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The tomb node, marks the indirection node that has been emptied and is waiting to be removed from its parent.
+     */
+    private static final class TNode<T> extends MainNode<T> {
+    }
+
+    /**
+     * The marker of the failed generation compare-and-set, holds the node that has to be restored.
+     */
+    private static final class FailedNode<T> extends MainNode<T> {
+
+        FailedNode(MainNode<T> prev) {
+            this.prev = prev;
+        }
+    }
+
+    /**
+     * The descriptor of the pending root swap.
+     */
+    private static final class RootDescriptor<T> {
+
+        private final INode<T> old;
+
+        private final MainNode<T> expected;
+
+        private final INode<T> updated;
+
+        private volatile boolean committed;
+
+        RootDescriptor(INode<T> old, MainNode<T> expected, INode<T> updated) {
+            this.old = old;
+            this.expected = expected;
+            this.updated = updated;
+        }
+    }
+}
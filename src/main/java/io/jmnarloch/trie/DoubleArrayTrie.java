@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable double-array trie. The whole tree is stored in two int arrays, see {@link AbstractDoubleArrayTrie}.
+ * There are no per node objects, which makes this data structure suitable for large read-only dictionaries.
+ *
+ * Once this data structure has been initialized, there won't be possibility to modify it.
+ *
+ * @author Jakub Narloch
+ */
+public class DoubleArrayTrie<T> extends AbstractDoubleArrayTrie<T> {
+
+    /**
+     * The base array, for the terminal nodes stores the negated value index decremented by one.
+     */
+    private final int[] base;
+
+    /**
+     * The check array, stores the parent of every node.
+     */
+    private final int[] check;
+
+    /**
+     * The values in the order of sorted keys.
+     */
+    private final Object[] values;
+
+    /**
+     * Creates new instance of {@link DoubleArrayTrie} class.
+     *
+     * @param map the entries map
+     * @throws IllegalArgumentException if map is {@code null} or any key is {@code null} or empty string
+     */
+    public DoubleArrayTrie(Map<String, T> map) {
+        if (map == null) {
+            throw new IllegalArgumentException("Parameter 'map' can not be null.");
+        }
+        final List<String> keys = new ArrayList<String>(map.size());
+        for (Map.Entry<String, T> entry : map.entrySet()) {
+            if (entry.getValue() != null) {
+                keys.add(notEmpty(entry.getKey()));
+            }
+        }
+        final String[] sorted = keys.toArray(new String[keys.size()]);
+        Arrays.sort(sorted);
+        final Object[] values = new Object[sorted.length];
+        for (int ind = 0; ind < sorted.length; ind++) {
+            values[ind] = map.get(sorted[ind]);
+        }
+
+        final Builder builder = new Builder(sorted);
+        this.base = builder.getBase();
+        this.check = builder.getCheck();
+        this.values = values;
+    }
+
+    /**
+     * Creates new instance of {@link DoubleArrayTrie} class from the entries sorted by their keys.
+     *
+     * @param sortedEntries the entries in strictly ascending order of keys
+     * @throws IllegalArgumentException if {@code sortedEntries} is {@code null}, any key is {@code null} or empty
+     *                                  string, or the keys are not in strictly ascending order
+     */
+    public DoubleArrayTrie(Iterator<? extends Map.Entry<String, ? extends T>> sortedEntries) {
+        if (sortedEntries == null) {
+            throw new IllegalArgumentException("Parameter 'sortedEntries' can not be null.");
+        }
+        final List<String> keys = new ArrayList<String>();
+        final List<Object> values = new ArrayList<Object>();
+        String prev = null;
+        while (sortedEntries.hasNext()) {
+            final Map.Entry<String, ? extends T> entry = sortedEntries.next();
+            final String key = notEmpty(entry.getKey());
+            if (prev != null && prev.compareTo(key) >= 0) {
+                throw new IllegalArgumentException(
+                        String.format("Keys are not in ascending order: '%s' is followed by '%s'.", prev, key));
+            }
+            prev = key;
+            if (entry.getValue() != null) {
+                keys.add(key);
+                values.add(entry.getValue());
+            }
+        }
+
+        final Builder builder = new Builder(keys.toArray(new String[keys.size()]));
+        this.base = builder.getBase();
+        this.check = builder.getCheck();
+        this.values = values.toArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    int base(int node) {
+        return base[node];
+    }
+
+    @Override
+    int check(int node) {
+        return check[node];
+    }
+
+    @Override
+    int length() {
+        return check.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    T valueAt(int index) {
+        return (T) values[index];
+    }
+}
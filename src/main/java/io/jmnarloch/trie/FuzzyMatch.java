@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+/**
+ * A key found by {@link Trie#fuzzyMatches(String, int)} together with its value and the edit distance from the
+ * searched key.
+ *
+ * @param <T> the value type
+ * @author Jakub Narloch
+ */
+public final class FuzzyMatch<T> {
+
+    /**
+     * The key.
+     */
+    private final String key;
+
+    /**
+     * The value.
+     */
+    private final T value;
+
+    /**
+     * The edit distance from the searched key.
+     */
+    private final int distance;
+
+    /**
+     * Creates new instance of {@link FuzzyMatch}.
+     *
+     * @param key      the key
+     * @param value    the value
+     * @param distance the edit distance
+     */
+    FuzzyMatch(String key, T value, int distance) {
+        this.key = key;
+        this.value = value;
+        this.distance = distance;
+    }
+
+    /**
+     * Returns the matched key.
+     *
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the value of the matched key.
+     *
+     * @return the value
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the Levenshtein distance between the matched and the searched key, the number of the inserted, deleted
+     * or substituted characters.
+     *
+     * @return the edit distance
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return "FuzzyMatch{key='" + key + "', value=" + value + ", distance=" + distance + '}';
+    }
+}
@@ -15,7 +15,13 @@
  */
 package io.jmnarloch.trie;
 
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * An immutable implementation of Ternary Trie Tree. Once this data structure has been initialized,
@@ -25,6 +31,11 @@ import java.util.Map;
  */
 public class ImmutableTst<T> extends AbstractTst<T> {
 
+    /**
+     * The automaton used for filtering, compiled on first use.
+     */
+    private volatile AhoCorasick<T> automaton;
+
     /**
      * Creates new instance of {@link ImmutableTst} class.
      *
@@ -40,6 +51,32 @@ public class ImmutableTst<T> extends AbstractTst<T> {
         }
     }
 
+    /**
+     * Creates new instance of {@link ImmutableTst} class from the entries given in ascending order of their keys,
+     * built in a single pass.
+     *
+     * @param entries the entries in strictly ascending order of the keys
+     * @throws IllegalArgumentException if {@code entries} is {@code null}, any key is {@code null} or empty string,
+     *                                  any value is {@code null} or the keys are not in strictly ascending order
+     * @see AbstractTst#putAllSorted(Iterator)
+     */
+    public ImmutableTst(Iterator<? extends Map.Entry<String, ? extends T>> entries) {
+        super.putAllSorted(entries);
+    }
+
+    /**
+     * Creates new instance of {@link ImmutableTst} class from the tree written by
+     * {@link AbstractTst#writeTo(java.io.DataOutput, ValueCodec)}.
+     *
+     * @param input the input
+     * @param codec the value codec
+     * @throws IOException              if an I/O error occurs or the input is not a serialized tree
+     * @throws IllegalArgumentException if {@code input} or {@code codec} is {@code null}
+     */
+    public ImmutableTst(DataInput input, ValueCodec<? extends T> codec) throws IOException {
+        super.readFrom(input, codec);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -56,6 +93,19 @@ public class ImmutableTst<T> extends AbstractTst<T> {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAllSorted(Iterator<? extends Map.Entry<String, ? extends T>> entries) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    void putAllParallel(Spliterator<? extends Map.Entry<String, ? extends T>> entries, ForkJoinPool pool) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -63,4 +113,57 @@ public class ImmutableTst<T> extends AbstractTst<T> {
     public T remove(String key) {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readFrom(DataInput input, ValueCodec<? extends T> codec) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Since the trie can not be modified the text is filtered with the {@link AhoCorasick} automaton compiled from
+     * the trie entries on the first call.
+     */
+    @Override
+    public String filter(String key, String replace) {
+        return automaton().filter(key, replace);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The automaton compiled on the first call is reused.
+     */
+    @Override
+    public void filter(Readable source, Writer target, String replace) throws IOException {
+        automaton().filter(source, target, replace);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The automaton compiled on the first call is reused.
+     */
+    @Override
+    public boolean containsAnyMatch(CharSequence text) {
+        return automaton().containsAnyMatch(text);
+    }
+
+    /**
+     * Returns the filtering automaton, compiles it if it has not been compiled yet.
+     *
+     * @return the automaton
+     */
+    AhoCorasick<T> automaton() {
+        AhoCorasick<T> automaton = this.automaton;
+        if (automaton == null) {
+            automaton = AhoCorasick.compile(this);
+            this.automaton = automaton;
+        }
+        return automaton;
+    }
 }
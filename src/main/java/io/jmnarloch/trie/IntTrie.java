@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.Set;
+
+/**
+ * A trie tree abstraction that maps the keys to primitive {@code int} values without boxing them.
+ *
+ * Since there is no {@code null} primitive value, the missing keys are reported with the no entry value specified
+ * when the trie is created. The no entry value itself can still be stored, in which case
+ * {@link #containsKey(String)} distinguishes it from the missing key.
+ *
+ * @author Jakub Narloch
+ */
+public interface IntTrie {
+
+    /**
+     * Returns the value that represents the missing key.
+     *
+     * @return the no entry value
+     */
+    int getNoEntryValue();
+
+    /**
+     * Returns whether the trie does not contain any entries.
+     *
+     * @return true if trie does not have any entries, false otherwise
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns the total number of entries.
+     *
+     * @return the total number of entries
+     */
+    int size();
+
+    /**
+     * Associates the value with specific key.
+     *
+     * @param key   the key that the value will be associated
+     * @param value the value to insert
+     * @return the previous value associated with the specific key, or the no entry value if there was none
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    int putInt(String key, int value);
+
+    /**
+     * Adds the delta to the value associated with specific key, if the key does not exist it is inserted with the
+     * delta as its value.
+     *
+     * @param key   the key
+     * @param delta the value to add
+     * @return the updated value
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    int addAndGet(String key, int delta);
+
+    /**
+     * Returns whether the trie contains the specific key.
+     *
+     * @param key the key to search
+     * @return true if key exists, false otherwise
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    boolean containsKey(String key);
+
+    /**
+     * Returns the value associated with the specific key.
+     *
+     * @param key the key to search
+     * @return the associated key value or the no entry value if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    int getInt(String key);
+
+    /**
+     * Returns the value of the longest stored key that is a prefix of the specified key.
+     *
+     * @param key the key to search
+     * @return the prefix key value or the no entry value if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    int prefixInt(String key);
+
+    /**
+     * Returns the longest stored key that is a prefix of the specified key.
+     *
+     * @param key the key to search
+     * @return the prefix key or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    String prefixKey(String key);
+
+    /**
+     * Removes the value associated with specific key.
+     *
+     * @param key the key to remove
+     * @return the removed value, or the no entry value if no entry existed for given key
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    int removeInt(String key);
+
+    /**
+     * Returns all keys in the trie.
+     *
+     * @return all keys in the trie
+     */
+    Set<String> keySet();
+}
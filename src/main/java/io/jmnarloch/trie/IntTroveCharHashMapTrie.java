@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+/**
+ * A {@code int} valued Trie tree backed by Trove's {@link gnu.trove.map.hash.TCharObjectHashMap}, the counterpart of
+ * {@link TroveCharHashMapTrie}. The values are stored by the {@link LongTroveCharHashMapTrie}.
+ *
+ * @author Jakub Narloch
+ */
+public class IntTroveCharHashMapTrie extends AbstractIntTrie {
+
+    /**
+     * Creates new instance of {@link IntTroveCharHashMapTrie} class, that uses {@code 0} as the no entry value.
+     */
+    public IntTroveCharHashMapTrie() {
+        super(new LongTroveCharHashMapTrie());
+    }
+
+    /**
+     * Creates new instance of {@link IntTroveCharHashMapTrie} class with initial capacity and no entry value.
+     *
+     * @param initialCapacity the initial capacity of every node
+     * @param noEntryValue    the value that represents the missing key
+     */
+    public IntTroveCharHashMapTrie(int initialCapacity, int noEntryValue) {
+        super(new LongTroveCharHashMapTrie(initialCapacity, noEntryValue));
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+/**
+ * A {@code int} valued ternary search tree, the counterpart of {@link Tst}. The values are stored by the
+ * {@link LongTst}, directly in the node of the last key character.
+ *
+ * @author Jakub Narloch
+ */
+public class IntTst extends AbstractIntTrie {
+
+    /**
+     * Creates new instance of {@link IntTst} class, that uses {@code 0} as the no entry value.
+     */
+    public IntTst() {
+        this(0);
+    }
+
+    /**
+     * Creates new instance of {@link IntTst} class with specific no entry value.
+     *
+     * @param noEntryValue the value that represents the missing key
+     */
+    public IntTst(int noEntryValue) {
+        super(new LongTst(noEntryValue));
+    }
+}
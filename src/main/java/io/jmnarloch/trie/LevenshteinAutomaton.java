@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.Arrays;
+
+/**
+ * The Levenshtein automaton of a word, which accepts the strings within the maximum edit distance from it. The
+ * automaton is simulated with the rows of the edit distance matrix, one row per character of the walked path, so that
+ * a trie can be walked depth first together with it: the row of a node is computed once from the row of its parent
+ * and the whole subtree is skipped as soon as every cell of the row exceeds the maximum distance.
+ *
+ * The rows are reused between the branches of the walk, the state of the given depth is valid until a sibling path
+ * overwrites it.
+ *
+ * @author Jakub Narloch
+ */
+final class LevenshteinAutomaton {
+
+    /**
+     * The searched word.
+     */
+    private final String word;
+
+    /**
+     * The maximum edit distance.
+     */
+    private final int maxDistance;
+
+    /**
+     * The largest maximum distance, the distances are capped at one more than the maximum and are incremented once
+     * more while computing the rows, so neither of them overflows.
+     */
+    private static final int MAX_DISTANCE = Integer.MAX_VALUE - 2;
+
+    /**
+     * The rows of the edit distance matrix, indexed by the length of the walked path. The rows are allocated as the
+     * walk goes deeper, the paths longer than the word by more than the maximum distance can not be accepted, which
+     * bounds the number of the rows.
+     */
+    private int[][] rows;
+
+    /**
+     * Creates new instance of {@link LevenshteinAutomaton}.
+     *
+     * @param word        the searched word
+     * @param maxDistance the maximum edit distance
+     */
+    LevenshteinAutomaton(String word, int maxDistance) {
+        this.word = word;
+        this.maxDistance = Math.min(maxDistance, MAX_DISTANCE);
+        this.rows = new int[word.length() + 2][];
+        rows[0] = new int[word.length() + 1];
+        for (int index = 0; index <= word.length(); index++) {
+            rows[0][index] = Math.min(index, this.maxDistance + 1);
+        }
+    }
+
+    /**
+     * Moves from the state of the path of the given length by the next character of the path.
+     *
+     * @param depth the length of the path
+     * @param c     the next character
+     * @return true if the extended path or any of its extensions can be accepted, false otherwise
+     */
+    boolean step(int depth, char c) {
+        if (depth + 1 == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+        final int[] previous = rows[depth];
+        int[] row = rows[depth + 1];
+        if (row == null) {
+            row = rows[depth + 1] = new int[word.length() + 1];
+        }
+        // the distances exceeding the maximum are capped, their exact value does not matter
+        final int limit = maxDistance + 1;
+        row[0] = Math.min(depth + 1, limit);
+        int min = row[0];
+        for (int index = 1; index <= word.length(); index++) {
+            final int substitution = previous[index - 1] + (word.charAt(index - 1) == c ? 0 : 1);
+            final int distance = Math.min(substitution, Math.min(previous[index], row[index - 1]) + 1);
+            row[index] = Math.min(distance, limit);
+            min = Math.min(min, row[index]);
+        }
+        return min <= maxDistance;
+    }
+
+    /**
+     * Returns whether the path of the given length is accepted.
+     *
+     * @param depth the length of the path
+     * @return true if the path is within the maximum distance from the word, false otherwise
+     */
+    boolean isMatch(int depth) {
+        return distance(depth) <= maxDistance;
+    }
+
+    /**
+     * Returns the edit distance between the path of the given length and the word.
+     *
+     * @param depth the length of the path
+     * @return the edit distance, any value exceeding the maximum distance if the path is not accepted
+     */
+    int distance(int depth) {
+        return rows[depth][word.length()];
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+/**
+ * A {@code long} valued Trie tree backed by arrays, the counterpart of {@link ArrayTrie}.
+ *
+ * @author Jakub Narloch
+ */
+public class LongArrayTrie extends AbstractLongTrie<LongArrayTrieNode> {
+
+    /**
+     * Creates new instance of {@link LongArrayTrie} class, that uses {@code 0} as the no entry value.
+     */
+    public LongArrayTrie() {
+        super(new LongTrieNodeFactory<LongArrayTrieNode>() {
+            @Override
+            public LongArrayTrieNode createNode() {
+                return new LongArrayTrieNode();
+            }
+        }, 0);
+    }
+
+    /**
+     * Creates new instance of {@link LongArrayTrie} class with specific node capacity and no entry value.
+     *
+     * @param capacity     the node capacity, the maximum number of distinct characters stored by every node
+     * @param noEntryValue the value that represents the missing key
+     */
+    public LongArrayTrie(final int capacity, long noEntryValue) {
+        super(new LongTrieNodeFactory<LongArrayTrieNode>() {
+            @Override
+            public LongArrayTrieNode createNode() {
+                return new LongArrayTrieNode(capacity);
+            }
+        }, noEntryValue);
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import gnu.trove.map.TCharObjectMap;
+import gnu.trove.map.hash.TCharObjectHashMap;
+
+/**
+ * A Trove {@link TCharObjectMap} backed {@code long} valued Trie node.
+ *
+ * @author Jakub Narloch
+ */
+class LongTroveCharHashMapTrieNode extends AbstractLongTrieNode<LongTroveCharHashMapTrieNode> {
+
+    /**
+     * The map of children nodes.
+     */
+    private final TCharObjectMap<LongTroveCharHashMapTrieNode> next;
+
+    /**
+     * Creates new instance of {@link LongTroveCharHashMapTrieNode}.
+     */
+    public LongTroveCharHashMapTrieNode() {
+        next = new TCharObjectHashMap<LongTroveCharHashMapTrieNode>();
+    }
+
+    /**
+     * Creates new instance of {@link LongTroveCharHashMapTrieNode} with specific initial capacity.
+     *
+     * @param initialCapacity the initial capacity
+     */
+    public LongTroveCharHashMapTrieNode(int initialCapacity) {
+        next = new TCharObjectHashMap<LongTroveCharHashMapTrieNode>(initialCapacity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setNext(char c, LongTroveCharHashMapTrieNode next) {
+        this.next.put(c, next);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LongTroveCharHashMapTrieNode getNext(char c) {
+        return next.get(c);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeNext(char c) {
+        next.remove(c);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char[] getKeys() {
+        return next.keys();
+    }
+}
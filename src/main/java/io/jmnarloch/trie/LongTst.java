@@ -0,0 +1,389 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@code long} valued ternary search tree, the counterpart of {@link Tst}. Unlike {@link Tst} the value is stored
+ * directly in the node of the last key character, so that no extra node is needed per key.
+ *
+ * @author Jakub Narloch
+ */
+public class LongTst implements LongTrie {
+
+    /**
+     * The value that represents the missing key.
+     */
+    private final long noEntryValue;
+
+    /**
+     * The root node of the tree.
+     */
+    private TstNode root;
+
+    /**
+     * Creates new instance of {@link LongTst} class, that uses {@code 0} as the no entry value.
+     */
+    public LongTst() {
+        this(0);
+    }
+
+    /**
+     * Creates new instance of {@link LongTst} class with specific no entry value.
+     *
+     * @param noEntryValue the value that represents the missing key
+     */
+    public LongTst(long noEntryValue) {
+        this.noEntryValue = noEntryValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getNoEntryValue() {
+        return noEntryValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return root != null ? root.size : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long putLong(String key, long value) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final TstNode node = createPath(key);
+        final long old = node.hasValue ? node.value : noEntryValue;
+        node.value = value;
+        node.hasValue = true;
+        return old;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long addAndGet(String key, long delta) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final TstNode node = createPath(key);
+        node.value = node.hasValue ? node.value + delta : delta;
+        node.hasValue = true;
+        return node.value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final TstNode node = getNode(key);
+        return node != null && node.hasValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLong(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final TstNode node = getNode(key);
+        if (node == null || !node.hasValue) {
+            return noEntryValue;
+        }
+        return node.value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long prefixLong(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final TstNode node = getPrefixNode(key);
+        return node != null ? node.value : noEntryValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        int longestPrefix = -1;
+        TstNode node = root;
+        int index = 0;
+        while (node != null) {
+            final char c = key.charAt(index);
+            if (c < node.c) {
+                node = node.left;
+            } else if (c > node.c) {
+                node = node.right;
+            } else {
+                index++;
+                if (node.hasValue) {
+                    longestPrefix = index;
+                }
+                if (index == key.length()) {
+                    break;
+                }
+                node = node.mid;
+            }
+        }
+        if (longestPrefix == -1) {
+            return null;
+        }
+        return key.substring(0, longestPrefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long removeLong(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final TstNode found = getNode(key);
+        if (found == null || !found.hasValue) {
+            return noEntryValue;
+        }
+        final long value = found.value;
+        found.value = 0;
+        found.hasValue = false;
+
+        // walks the path again, decrementing the sizes and unlinking the first subtree that became empty
+        TstNode parent = null;
+        TstNode node = root;
+        int index = 0;
+        while (true) {
+            node.size--;
+            if (node.size == 0) {
+                unlink(parent, node);
+                break;
+            }
+            parent = node;
+            final char c = key.charAt(index);
+            if (c < node.c) {
+                node = node.left;
+            } else if (c > node.c) {
+                node = node.right;
+            } else {
+                if (++index == key.length()) {
+                    break;
+                }
+                node = node.mid;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+
+        final Set<String> keys = new HashSet<String>();
+        if (root == null) {
+            return keys;
+        }
+        final StringBuilder path = new StringBuilder();
+        final Deque<TstNode> nodes = new ArrayDeque<TstNode>();
+        final Deque<Integer> depths = new ArrayDeque<Integer>();
+        nodes.push(root);
+        depths.push(0);
+        while (!nodes.isEmpty()) {
+            final TstNode node = nodes.pop();
+            final int depth = depths.pop();
+            path.setLength(depth);
+            path.append(node.c);
+            if (node.hasValue) {
+                keys.add(path.toString());
+            }
+            push(nodes, depths, node.right, depth);
+            push(nodes, depths, node.left, depth);
+            push(nodes, depths, node.mid, depth + 1);
+        }
+        return keys;
+    }
+
+    /**
+     * Finds the node of the key, creating the missing nodes along the path. If the key did not exist yet, the sizes
+     * of the nodes along the path are incremented.
+     *
+     * @param key the key
+     * @return the key node
+     */
+    private TstNode createPath(String key) {
+        if (root == null) {
+            root = new TstNode(key.charAt(0));
+        }
+        TstNode node = root;
+        int index = 0;
+        while (true) {
+            final char c = key.charAt(index);
+            if (c < node.c) {
+                if (node.left == null) {
+                    node.left = new TstNode(c);
+                }
+                node = node.left;
+            } else if (c > node.c) {
+                if (node.right == null) {
+                    node.right = new TstNode(c);
+                }
+                node = node.right;
+            } else {
+                if (++index == key.length()) {
+                    break;
+                }
+                if (node.mid == null) {
+                    node.mid = new TstNode(key.charAt(index));
+                }
+                node = node.mid;
+            }
+        }
+        if (!node.hasValue) {
+            TstNode next = root;
+            index = 0;
+            while (true) {
+                next.size++;
+                final char c = key.charAt(index);
+                if (c < next.c) {
+                    next = next.left;
+                } else if (c > next.c) {
+                    next = next.right;
+                } else {
+                    if (++index == key.length()) {
+                        break;
+                    }
+                    next = next.mid;
+                }
+            }
+        }
+        return node;
+    }
+
+    private TstNode getNode(String key) {
+        TstNode node = root;
+        int index = 0;
+        while (node != null) {
+            final char c = key.charAt(index);
+            if (c < node.c) {
+                node = node.left;
+            } else if (c > node.c) {
+                node = node.right;
+            } else {
+                if (++index == key.length()) {
+                    return node;
+                }
+                node = node.mid;
+            }
+        }
+        return null;
+    }
+
+    private TstNode getPrefixNode(String key) {
+        TstNode prefix = null;
+        TstNode node = root;
+        int index = 0;
+        while (node != null) {
+            final char c = key.charAt(index);
+            if (c < node.c) {
+                node = node.left;
+            } else if (c > node.c) {
+                node = node.right;
+            } else {
+                if (node.hasValue) {
+                    prefix = node;
+                }
+                if (++index == key.length()) {
+                    break;
+                }
+                node = node.mid;
+            }
+        }
+        return prefix;
+    }
+
+    private void unlink(TstNode parent, TstNode node) {
+        if (parent == null) {
+            root = null;
+        } else if (parent.left == node) {
+            parent.left = null;
+        } else if (parent.right == node) {
+            parent.right = null;
+        } else {
+            parent.mid = null;
+        }
+    }
+
+    private static void push(Deque<TstNode> nodes, Deque<Integer> depths, TstNode node, int depth) {
+        if (node != null) {
+            nodes.push(node);
+            depths.push(depth);
+        }
+    }
+
+    private static void notEmpty(String value, String message) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static final class TstNode {
+
+        private final char c;
+
+        private long value;
+
+        private boolean hasValue;
+
+        private int size;
+
+        private TstNode left;
+        private TstNode right;
+        private TstNode mid;
+
+        TstNode(char c) {
+            this.c = c;
+        }
+    }
+}
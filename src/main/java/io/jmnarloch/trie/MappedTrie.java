@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only double-array trie served directly from a memory mapped file. The lookups read the base and check
+ * arrays from the mapped file without deserializing them into the heap, only the values returned by
+ * {@link #get(String)} and {@link #prefix(String)} are decoded by the {@link ValueCodec}. Opening the trie takes
+ * constant time and the processes mapping the same file share its pages through the operating system page cache.
+ *
+ * The file is created by {@link #write(Map, ValueCodec, Path)} and consists of the following sections, all of the
+ * numbers are stored as big endian ints:
+ * <ul>
+ * <li>header: magic, version, number of nodes, number of values, length of the values section</li>
+ * <li>the base array</li>
+ * <li>the check array</li>
+ * <li>the encoded values in the order of sorted keys</li>
+ * <li>the offsets of the values within the values section, followed by the section length</li>
+ * </ul>
+ * Every section is mapped separately, so each of them is limited to 2 GB.
+ *
+ * The mapping is released once the trie is garbage collected. The trie is safe to use from multiple threads.
+ *
+ * @author Jakub Narloch
+ */
+public class MappedTrie<T> extends AbstractDoubleArrayTrie<T> {
+
+    /**
+     * The file magic number, {@code TRIE} in ASCII.
+     */
+    private static final int MAGIC = 0x54524945;
+
+    /**
+     * The file format version.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the file header.
+     */
+    private static final int HEADER_SIZE = 5 * 4;
+
+    /**
+     * The base array.
+     */
+    private final IntBuffer base;
+
+    /**
+     * The check array.
+     */
+    private final IntBuffer check;
+
+    /**
+     * The value offsets.
+     */
+    private final IntBuffer offsets;
+
+    /**
+     * The encoded values.
+     */
+    private final ByteBuffer data;
+
+    /**
+     * The value codec.
+     */
+    private final ValueCodec<? extends T> codec;
+
+    /**
+     * The number of entries.
+     */
+    private final int size;
+
+    private MappedTrie(IntBuffer base, IntBuffer check, IntBuffer offsets, ByteBuffer data,
+                       ValueCodec<? extends T> codec) {
+        this.base = base;
+        this.check = check;
+        this.offsets = offsets;
+        this.data = data;
+        this.codec = codec;
+        this.size = offsets.limit() - 1;
+    }
+
+    /**
+     * Opens the trie stored in the given file.
+     *
+     * @param path  the file path
+     * @param codec the value codec
+     * @param <T>   the element type
+     * @return the mapped trie
+     * @throws IOException              if the file can not be read or is not a trie file
+     * @throws IllegalArgumentException if {@code path} or {@code codec} is {@code null}
+     */
+    public static <T> MappedTrie<T> open(Path path, ValueCodec<? extends T> codec) throws IOException {
+        notNull(path, "Path can not be null");
+        notNull(codec, "Codec can not be null");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a trie file: " + path);
+            }
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a trie file: " + path);
+            }
+            final int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trie file version: " + version);
+            }
+            final long length = header.getInt();
+            final long size = header.getInt();
+            final long dataLength = header.getInt();
+            if (channel.size() != HEADER_SIZE + 4 * (2 * length + size + 1) + dataLength) {
+                throw new IOException("Corrupted trie file: " + path);
+            }
+
+            long position = HEADER_SIZE;
+            final IntBuffer base = map(channel, position, 4 * length).asIntBuffer();
+            position += 4 * length;
+            final IntBuffer check = map(channel, position, 4 * length).asIntBuffer();
+            position += 4 * length;
+            final ByteBuffer data = map(channel, position, dataLength);
+            position += dataLength;
+            final IntBuffer offsets = map(channel, position, 4 * (size + 1)).asIntBuffer();
+            return new MappedTrie<T>(base, check, offsets, data, codec);
+        }
+    }
+
+    /**
+     * Writes the entries of the given trie into the file, that can be later opened by
+     * {@link #open(Path, ValueCodec)}.
+     *
+     * @param trie  the trie
+     * @param codec the value codec
+     * @param path  the file path
+     * @param <T>   the element type
+     * @throws IOException              if the file can not be written
+     * @throws IllegalArgumentException if {@code trie}, {@code codec} or {@code path} is {@code null}
+     */
+    public static <T> void write(Trie<? extends T> trie, ValueCodec<? super T> codec, Path path) throws IOException {
+        notNull(trie, "Trie can not be null");
+
+        final String[] keys = trie.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        final Object[] values = new Object[keys.length];
+        for (int ind = 0; ind < keys.length; ind++) {
+            values[ind] = trie.get(keys[ind]);
+        }
+        write(keys, values, codec, path);
+    }
+
+    /**
+     * Writes the given entries into the file, that can be later opened by {@link #open(Path, ValueCodec)}. The
+     * entries with {@code null} values are skipped.
+     *
+     * @param map   the entries
+     * @param codec the value codec
+     * @param path  the file path
+     * @param <T>   the element type
+     * @throws IOException              if the file can not be written
+     * @throws IllegalArgumentException if {@code map}, {@code codec} or {@code path} is {@code null}, or any key is
+     *                                  {@code null} or empty string
+     */
+    public static <T> void write(Map<String, ? extends T> map, ValueCodec<? super T> codec, Path path)
+            throws IOException {
+        notNull(map, "Map can not be null");
+
+        final List<String> keys = new ArrayList<String>(map.size());
+        for (Map.Entry<String, ? extends T> entry : map.entrySet()) {
+            if (entry.getValue() != null) {
+                keys.add(notEmpty(entry.getKey()));
+            }
+        }
+        final String[] sorted = keys.toArray(new String[keys.size()]);
+        Arrays.sort(sorted);
+        final Object[] values = new Object[sorted.length];
+        for (int ind = 0; ind < sorted.length; ind++) {
+            values[ind] = map.get(sorted[ind]);
+        }
+        write(sorted, values, codec, path);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    int base(int node) {
+        return base.get(node);
+    }
+
+    @Override
+    int check(int node) {
+        return check.get(node);
+    }
+
+    @Override
+    int length() {
+        return check.limit();
+    }
+
+    @Override
+    T valueAt(int index) {
+        final int offset = offsets.get(index);
+        return codec.decode(data, offset, offsets.get(index + 1) - offset);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void write(String[] sortedKeys, Object[] values, ValueCodec<? super T> codec, Path path)
+            throws IOException {
+        notNull(codec, "Codec can not be null");
+        notNull(path, "Path can not be null");
+
+        final Builder builder = new Builder(sortedKeys);
+        final int[] base = builder.getBase();
+        final int[] check = builder.getCheck();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+            // the length of the values is known once they are written, the header is rewritten at the end
+            output.write(header(base.length, values.length, 0).array());
+            for (int value : base) {
+                output.writeInt(value);
+            }
+            for (int value : check) {
+                output.writeInt(value);
+            }
+            final int[] offsets = new int[values.length + 1];
+            long dataLength = 0;
+            for (int ind = 0; ind < values.length; ind++) {
+                final byte[] encoded = codec.encode((T) values[ind]);
+                output.write(encoded);
+                dataLength += encoded.length;
+                if (dataLength > Integer.MAX_VALUE) {
+                    throw new IOException("The encoded values exceed the maximum section size");
+                }
+                offsets[ind + 1] = (int) dataLength;
+            }
+            for (int offset : offsets) {
+                output.writeInt(offset);
+            }
+            output.flush();
+
+            final ByteBuffer header = header(base.length, values.length, (int) dataLength);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    private static ByteBuffer header(int length, int size, int dataLength) {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(size).putInt(dataLength);
+        header.flip();
+        return header;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The trie file section exceeds the maximum mapping size");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    private static void notNull(Object value, String message) {
+        if (value == null) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
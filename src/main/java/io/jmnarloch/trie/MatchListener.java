@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+/**
+ * A callback notified about the keys matched within the text.
+ *
+ * @param <T> the value type
+ * @author Jakub Narloch
+ */
+public interface MatchListener<T> {
+
+    /**
+     * Called for every matched key.
+     *
+     * @param start the start of the matched key within the text, inclusive
+     * @param end   the end of the matched key within the text, exclusive
+     * @param value the value of the matched key
+     * @return true to continue the matching, false to stop it
+     */
+    boolean onMatch(int start, int end, T value);
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Partitions the entries of the parallel build by the leading characters of their keys. Every partition holds the
+ * keys of a single subtree of the root, so that the subtrees can be built concurrently and then linked under the root.
+ *
+ * @author Jakub Narloch
+ */
+final class ParallelBuilder {
+
+    /**
+     * The number of the entries below which the spliterator is not split any more.
+     */
+    private static final int THRESHOLD = 1 << 13;
+
+    /**
+     * Orders the entries by their keys.
+     */
+    private static final Comparator<Map.Entry<String, ?>> KEY_ORDER = new Comparator<Map.Entry<String, ?>>() {
+        @Override
+        public int compare(Map.Entry<String, ?> left, Map.Entry<String, ?> right) {
+            return left.getKey().compareTo(right.getKey());
+        }
+    };
+
+    /**
+     * Creates new instances of {@link ParallelBuilder}.
+     *
+     * Private constructor prevents from instantiation outside this class.
+     */
+    private ParallelBuilder() {
+        // empty constructor
+    }
+
+    /**
+     * Partitions the entries by the leading characters of their keys, splitting the spliterator between the threads
+     * of the pool.
+     *
+     * @param entries the entries
+     * @param pool    the pool
+     * @param <T>     the value type
+     * @return the partitions in ascending order of their leading characters
+     * @throws IllegalArgumentException if any key is {@code null} or empty string, or any value is {@code null}
+     */
+    static <T> List<List<Map.Entry<String, ? extends T>>> partition(
+            Spliterator<? extends Map.Entry<String, ? extends T>> entries, ForkJoinPool pool) {
+        TrieUtil.notNull(entries, "Entries can not be null");
+        TrieUtil.notNull(pool, "Pool can not be null");
+
+        final Map<Character, List<Map.Entry<String, ? extends T>>> partitions =
+                pool.invoke(new PartitionTask<T>(entries));
+        return new ArrayList<List<Map.Entry<String, ? extends T>>>(
+                new TreeMap<Character, List<Map.Entry<String, ? extends T>>>(partitions).values());
+    }
+
+    /**
+     * Sorts the entries of the partition by their keys.
+     *
+     * @param partition the partition
+     * @param <T>       the value type
+     */
+    static <T> void sort(List<Map.Entry<String, ? extends T>> partition) {
+        Collections.sort(partition, KEY_ORDER);
+    }
+
+    /**
+     * Groups the entries of the spliterator, forking the groupings of the parts split off from it.
+     *
+     * @param <T> the value type
+     */
+    private static final class PartitionTask<T>
+            extends RecursiveTask<Map<Character, List<Map.Entry<String, ? extends T>>>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<? extends Map.Entry<String, ? extends T>> entries;
+
+        PartitionTask(Spliterator<? extends Map.Entry<String, ? extends T>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        protected Map<Character, List<Map.Entry<String, ? extends T>>> compute() {
+            final Spliterator<? extends Map.Entry<String, ? extends T>> split =
+                    entries.estimateSize() > THRESHOLD ? entries.trySplit() : null;
+            if (split != null) {
+                final PartitionTask<T> forked = new PartitionTask<T>(split);
+                forked.fork();
+                final Map<Character, List<Map.Entry<String, ? extends T>>> partitions = compute();
+                for (Map.Entry<Character, List<Map.Entry<String, ? extends T>>> partition : forked.join().entrySet()) {
+                    final List<Map.Entry<String, ? extends T>> merged = partitions.get(partition.getKey());
+                    if (merged == null) {
+                        partitions.put(partition.getKey(), partition.getValue());
+                    } else {
+                        merged.addAll(partition.getValue());
+                    }
+                }
+                return partitions;
+            }
+
+            final Map<Character, List<Map.Entry<String, ? extends T>>> partitions =
+                    new HashMap<Character, List<Map.Entry<String, ? extends T>>>();
+            entries.forEachRemaining(new Consumer<Map.Entry<String, ? extends T>>() {
+                @Override
+                public void accept(Map.Entry<String, ? extends T> entry) {
+                    final String key = entry.getKey();
+                    if (key == null || key.isEmpty()) {
+                        throw new IllegalArgumentException("Key must be not null or not empty string.");
+                    }
+                    TrieUtil.notNull(entry.getValue(), "Value can not be null");
+
+                    List<Map.Entry<String, ? extends T>> partition = partitions.get(key.charAt(0));
+                    if (partition == null) {
+                        partition = new ArrayList<Map.Entry<String, ? extends T>>();
+                        partitions.put(key.charAt(0), partition);
+                    }
+                    partition.add(entry);
+                }
+            });
+            return partitions;
+        }
+    }
+}
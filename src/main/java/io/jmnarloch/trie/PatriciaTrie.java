@@ -0,0 +1,852 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compressed (Patricia) Trie tree. Every chain of nodes that have only single child and no value is collapsed
+ * into a single edge labeled with the whole character sequence, which significantly reduces the number of nodes
+ * and the number of pointer hops needed to find long keys.
+ *
+ * @author Jakub Narloch
+ */
+public class PatriciaTrie<T> implements Trie<T> {
+
+    /**
+     * The empty edge label.
+     */
+    private static final char[] EMPTY_LABEL = new char[0];
+
+    /**
+     * The root node of the tree, the root node always has an empty label.
+     */
+    private final PatriciaNode<T> root = new PatriciaNode<T>(EMPTY_LABEL);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return root.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T put(String key, T value) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final PatriciaNode<T> found = getNode(root, key);
+        if (found != null && found.value != null) {
+            final T old = found.value;
+            found.value = value;
+            return old;
+        }
+        insert(root, key, value);
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<String, ? extends T> map) {
+        notNull(map, "Map can not be null");
+
+        for (Map.Entry<String, ? extends T> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        final PatriciaNode<T> found = getNode(root, key);
+        if (found == null) {
+            return null;
+        }
+        return found.value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        T value = null;
+        PatriciaNode<T> node = root;
+        int index = 0;
+        while (index < key.length()) {
+            node = node.getChild(key.charAt(index));
+            if (node == null || !matches(node.label, key, index)) {
+                break;
+            }
+            index += node.label.length;
+            if (node.value != null) {
+                value = node.value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        int longestPrefix = -1;
+        PatriciaNode<T> node = root;
+        int index = 0;
+        while (index < key.length()) {
+            node = node.getChild(key.charAt(index));
+            if (node == null || !matches(node.label, key, index)) {
+                break;
+            }
+            index += node.label.length;
+            if (node.value != null) {
+                longestPrefix = index;
+            }
+        }
+        if (longestPrefix == -1) {
+            return null;
+        }
+        return key.substring(0, longestPrefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean longestMatch(CharSequence text, int offset, PrefixMatch<? super T> match) {
+        TrieUtil.checkText(text, offset);
+        TrieUtil.notNull(match, "Match can not be null");
+
+        match.clear(offset);
+        PatriciaNode<T> node = root;
+        int edge = 0;
+        for (int index = offset; index < text.length(); index++) {
+            final char c = text.charAt(index);
+            if (edge < node.label.length) {
+                node = node.label[edge++] == c ? node : null;
+            } else {
+                node = node.getChild(c);
+                edge = 1;
+            }
+            if (node == null) {
+                break;
+            }
+            if (edge == node.label.length && node.value != null) {
+                match.set(offset, index + 1 - offset, node.value);
+            }
+        }
+        return match.isFound();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void allPrefixes(CharSequence text, int offset, MatchListener<? super T> listener) {
+        TrieUtil.checkText(text, offset);
+        TrieUtil.notNull(listener, "Listener can not be null");
+
+        PatriciaNode<T> node = root;
+        int edge = 0;
+        for (int index = offset; index < text.length(); index++) {
+            final char c = text.charAt(index);
+            if (edge < node.label.length) {
+                node = node.label[edge++] == c ? node : null;
+            } else {
+                node = node.getChild(c);
+                edge = 1;
+            }
+            if (node == null) {
+                return;
+            }
+            if (edge == node.label.length && node.value != null && !listener.onMatch(offset, index + 1, node.value)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T remove(String key) {
+        notEmpty(key, "Key must be not null or not empty string.");
+
+        return remove(root, key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+
+        final Set<String> keys = new HashSet<String>();
+        keys(root, keys);
+        return keys;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesWithPrefix(final String prefix, final String after, final int limit) {
+        TrieUtil.checkPrefix(prefix, limit);
+
+        return new Iterable<Map.Entry<String, T>>() {
+            @Override
+            public Iterator<Map.Entry<String, T>> iterator() {
+                return new EntryIterator(prefix, after, limit);
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countWithPrefix(String prefix) {
+        notNull(prefix, "Prefix can not be null");
+
+        final PatriciaNode<T> node = getPrefixNode(prefix, null);
+        return node != null ? node.size : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int rank(String key) {
+        notNull(key, "Key can not be null");
+
+        int rank = 0;
+        PatriciaNode<T> node = root;
+        int index = 0;
+        while (index < key.length()) {
+            final char c = key.charAt(index);
+            // the key of the node is a prefix of the given key, the keys of the preceding children precede it as well
+            if (node.value != null) {
+                rank++;
+            }
+            final int slot = node.indexOf(c);
+            final int next = slot >= 0 ? slot : -(slot + 1);
+            for (int ind = 0; ind < next; ind++) {
+                rank += node.children[ind].size;
+            }
+            if (slot < 0) {
+                break;
+            }
+            node = node.children[slot];
+            final int common = commonPrefix(node.label, key, index);
+            index += common;
+            if (common < node.label.length) {
+                // the label leaves the key path, the whole subtree either precedes or follows the key
+                if (index < key.length() && node.label[common] < key.charAt(index)) {
+                    rank += node.size;
+                }
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String select(int index) {
+        TrieUtil.checkIndex(index, size());
+
+        final StringBuilder key = new StringBuilder();
+        PatriciaNode<T> node = root;
+        while (node.value == null || index > 0) {
+            if (node.value != null) {
+                index--;
+            }
+            // descends into the child which subtree holds the key of the index
+            for (PatriciaNode<T> child : node.children) {
+                if (index < child.size) {
+                    key.append(child.label);
+                    node = child;
+                    break;
+                }
+                index -= child.size;
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String filter(String key, String replace) {
+        StringBuilder result = new StringBuilder();
+        PatriciaNode<T> tempNode = root;
+        int edge = 0;
+        int begin = 0;
+        int position = 0;
+        while (position < key.length() || tempNode != root) {
+            if (position == key.length()) {
+                // the text ended in the middle of a match
+                tempNode = null;
+            } else {
+                char c = key.charAt(position);
+                if (TrieUtil.isSymbol(c)) {
+                    if (tempNode == root) {
+                        result.append(c);
+                        ++begin;
+                    }
+                    ++position;
+                    continue;
+                }
+                if (edge < tempNode.label.length) {
+                    tempNode = tempNode.label[edge] == c ? tempNode : null;
+                    edge++;
+                } else {
+                    tempNode = tempNode.getChild(c);
+                    edge = 1;
+                }
+            }
+            if (tempNode == null) {
+                result.append(key.charAt(begin));
+                position = ++begin;
+                tempNode = root;
+                edge = 0;
+            } else if (edge == tempNode.label.length && tempNode.value != null) {
+                result.append(replace);
+                ++position;
+                begin = position;
+                tempNode = root;
+                edge = 0;
+            } else {
+                ++position;
+            }
+        }
+        result.append(key.substring(begin));
+        return result.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The trie is walked from every start position of the text, without compiling the automaton.
+     */
+    @Override
+    public void filter(Readable source, Writer target, String replace) throws IOException {
+        StreamFilter.filter(source, target, replace, new StreamFilter.Matcher() {
+            @Override
+            public int shortestMatch(char[] text, int start, int end) {
+                return PatriciaTrie.this.shortestMatch(text, start, end);
+            }
+        });
+    }
+
+    private int shortestMatch(char[] text, int start, int end) {
+        PatriciaNode<T> node = root;
+        int edge = 0;
+        for (int position = start; position < end; position++) {
+            final char c = text[position];
+            if (TrieUtil.isSymbol(c)) {
+                continue;
+            }
+            if (edge < node.label.length) {
+                if (node.label[edge++] != c) {
+                    return StreamFilter.NO_MATCH;
+                }
+            } else {
+                node = node.getChild(c);
+                if (node == null) {
+                    return StreamFilter.NO_MATCH;
+                }
+                edge = 1;
+            }
+            if (edge == node.label.length && node.value != null) {
+                return position + 1;
+            }
+        }
+        return StreamFilter.UNDECIDED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void scan(CharSequence text, MatchListener<? super T> listener) {
+        TrieUtil.notNull(text, "Text can not be null");
+        TrieUtil.notNull(listener, "Listener can not be null");
+
+        for (int start = 0; start < text.length(); start++) {
+            if (TrieUtil.isSymbol(text.charAt(start))) {
+                continue;
+            }
+            PatriciaNode<T> node = root;
+            int edge = 0;
+            for (int end = start; end < text.length(); end++) {
+                final char c = text.charAt(end);
+                if (TrieUtil.isSymbol(c)) {
+                    continue;
+                }
+                if (edge < node.label.length) {
+                    if (node.label[edge++] != c) {
+                        break;
+                    }
+                } else {
+                    node = node.getChild(c);
+                    if (node == null) {
+                        break;
+                    }
+                    edge = 1;
+                }
+                if (edge == node.label.length && node.value != null
+                        && !listener.onMatch(start, end + 1, node.value)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void insert(PatriciaNode<T> root, String key, T value) {
+
+        PatriciaNode<T> node = root;
+        int index = 0;
+        node.size++;
+
+        while (index < key.length()) {
+            final int slot = node.indexOf(key.charAt(index));
+            if (slot < 0) {
+                node.addChild(newLeaf(key, index, value));
+                return;
+            }
+            final PatriciaNode<T> child = node.children[slot];
+            final int common = commonPrefix(child.label, key, index);
+            index += common;
+            if (common == child.label.length) {
+                child.size++;
+                node = child;
+                continue;
+            }
+
+            final PatriciaNode<T> split = child.split(common);
+            node.children[slot] = split;
+            split.size++;
+            if (index == key.length()) {
+                split.value = value;
+            } else {
+                split.addChild(newLeaf(key, index, value));
+            }
+            return;
+        }
+        node.value = value;
+    }
+
+    private PatriciaNode<T> getNode(PatriciaNode<T> node, String key) {
+
+        int index = 0;
+        while (index < key.length()) {
+            node = node.getChild(key.charAt(index));
+            if (node == null || !matches(node.label, key, index)) {
+                return null;
+            }
+            index += node.label.length;
+        }
+        return node;
+    }
+
+    /**
+     * Finds the node which subtree holds exactly the keys with the prefix, the prefix can end in the middle of the
+     * node label.
+     *
+     * @param prefix the prefix
+     * @param path   the path to append the rest of the node label to, or {@code null}
+     * @return the node, or {@code null} if no key starts with the prefix
+     */
+    private PatriciaNode<T> getPrefixNode(String prefix, StringBuilder path) {
+
+        PatriciaNode<T> node = root;
+        int index = 0;
+        int edge = 0;
+        while (index < prefix.length()) {
+            node = node.getChild(prefix.charAt(index));
+            if (node == null) {
+                return null;
+            }
+            edge = commonPrefix(node.label, prefix, index);
+            index += edge;
+            if (edge < node.label.length && index < prefix.length()) {
+                return null;
+            }
+        }
+        if (path != null) {
+            path.append(node.label, edge, node.label.length - edge);
+        }
+        return node;
+    }
+
+    private T remove(PatriciaNode<T> root, String key) {
+
+        PatriciaNode<T> node = root;
+        final Deque<PatriciaNode<T>> stack = new ArrayDeque<PatriciaNode<T>>();
+        int index = 0;
+
+        while (index < key.length()) {
+            stack.push(node);
+            node = node.getChild(key.charAt(index));
+            if (node == null || !matches(node.label, key, index)) {
+                return null;
+            }
+            index += node.label.length;
+        }
+        if (node.value == null) {
+            return null;
+        }
+        final T value = node.value;
+        node.value = null;
+        node.size--;
+        for (PatriciaNode<T> parent : stack) {
+            parent.size--;
+        }
+
+        final PatriciaNode<T> parent = stack.pop();
+        if (node.children.length == 0) {
+            parent.removeChild(node.label[0]);
+            if (parent != root && parent.value == null && parent.children.length == 1) {
+                stack.peek().replaceChild(parent.merge());
+            }
+        } else if (node.children.length == 1) {
+            parent.replaceChild(node.merge());
+        }
+        return value;
+    }
+
+    private void keys(PatriciaNode<T> root, Set<String> keys) {
+
+        final StringBuilder path = new StringBuilder();
+        final Deque<TraversedPath> stack = new ArrayDeque<TraversedPath>();
+        stack.push(new TraversedPath(TraversedPathAction.VISIT, root));
+
+        while (!stack.isEmpty()) {
+            final TraversedPath traversedPath = stack.pop();
+            final PatriciaNode<T> node = traversedPath.node;
+            if (traversedPath.action == TraversedPathAction.BACKUP) {
+                path.setLength(path.length() - node.label.length);
+                continue;
+            }
+            path.append(node.label);
+            if (node.value != null) {
+                keys.add(path.toString());
+            }
+            stack.push(new TraversedPath(TraversedPathAction.BACKUP, node));
+            for (PatriciaNode<T> child : node.children) {
+                stack.push(new TraversedPath(TraversedPathAction.VISIT, child));
+            }
+        }
+    }
+
+    private PatriciaNode<T> newLeaf(String key, int index, T value) {
+        final PatriciaNode<T> leaf = new PatriciaNode<T>(key.substring(index).toCharArray());
+        leaf.value = value;
+        leaf.size = 1;
+        return leaf;
+    }
+
+    private static boolean matches(char[] label, String key, int index) {
+        if (key.length() - index < label.length) {
+            return false;
+        }
+        for (int ind = 0; ind < label.length; ind++) {
+            if (label[ind] != key.charAt(index + ind)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int commonPrefix(char[] label, String key, int index) {
+        final int length = Math.min(label.length, key.length() - index);
+        int common = 0;
+        while (common < length && label[common] == key.charAt(index + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    private void notNull(Object value, String message) {
+        if (value == null) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private void notEmpty(String value, String message) {
+        notNull(value, message);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private enum TraversedPathAction {
+        VISIT, BACKUP
+    }
+
+    private final class TraversedPath {
+
+        private final TraversedPathAction action;
+
+        private final PatriciaNode<T> node;
+
+        TraversedPath(TraversedPathAction action, PatriciaNode<T> node) {
+            this.action = action;
+            this.node = node;
+        }
+    }
+
+    /**
+     * Walks the subtree of the prefix depth first, visiting the children of every node in the order of their labels.
+     * The prefix can end in the middle of the label, the rest of that label is appended to the path of every key.
+     */
+    private final class EntryIterator extends PrefixIterator<T> {
+
+        private final Deque<EntryFrame> stack = new ArrayDeque<EntryFrame>();
+
+        EntryIterator(String prefix, String after, int limit) {
+            super(prefix, after, limit);
+            final PatriciaNode<T> node = getPrefixNode(prefix, path);
+            if (node != null && !isExhausted()) {
+                push(node, this.after != null, prefix.length());
+            }
+        }
+
+        @Override
+        Map.Entry<String, T> advance() {
+            while (!stack.isEmpty()) {
+                final EntryFrame frame = stack.peek();
+                if (frame.index < 0) {
+                    frame.index = 0;
+                    // the node on the cursor path is not after the cursor, neither are its children preceding it
+                    final boolean emit = !frame.onPath && frame.node.value != null;
+                    if (frame.onPath) {
+                        if (frame.depth < after.length()) {
+                            final int index = frame.node.indexOf(after.charAt(frame.depth));
+                            frame.index = index >= 0 ? index : -(index + 1);
+                        } else {
+                            frame.onPath = false;
+                        }
+                    }
+                    if (emit) {
+                        return entry(frame.depth, frame.node.value);
+                    }
+                } else if (frame.index < frame.node.children.length) {
+                    final PatriciaNode<T> child = frame.node.children[frame.index++];
+                    path.setLength(frame.depth);
+                    path.append(child.label);
+                    push(child, frame.onPath && child.label[0] == after.charAt(frame.depth), frame.depth + 1);
+                } else {
+                    stack.pop();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Pushes the node of the current path, unless the node was reached along the cursor path and its label
+         * leaves it towards the preceding keys.
+         */
+        private void push(PatriciaNode<T> node, boolean onPath, int offset) {
+            final int compare = onPath ? compareToCursor(offset) : 1;
+            if (compare >= 0) {
+                stack.push(new EntryFrame(node, path.length(), compare == 0));
+            }
+        }
+
+        /**
+         * Compares the path with the cursor, given that their characters before the offset are equal. Returns zero if
+         * the cursor starts with the path.
+         */
+        private int compareToCursor(int offset) {
+            final int length = Math.min(path.length(), after.length());
+            for (int index = offset; index < length; index++) {
+                if (path.charAt(index) != after.charAt(index)) {
+                    return path.charAt(index) - after.charAt(index);
+                }
+            }
+            return path.length() > after.length() ? 1 : 0;
+        }
+    }
+
+    private final class EntryFrame {
+
+        private final PatriciaNode<T> node;
+
+        private final int depth;
+
+        private boolean onPath;
+
+        private int index = -1;
+
+        EntryFrame(PatriciaNode<T> node, int depth, boolean onPath) {
+            this.node = node;
+            this.depth = depth;
+            this.onPath = onPath;
+        }
+    }
+
+    /**
+     * The compressed trie node. The children are kept in array sorted by the first character of their labels.
+     */
+    private static final class PatriciaNode<T> {
+
+        @SuppressWarnings("rawtypes")
+        private static final PatriciaNode[] EMPTY_CHILDREN = new PatriciaNode[0];
+
+        private char[] label;
+
+        private T value;
+
+        private int size;
+
+        private PatriciaNode<T>[] children;
+
+        @SuppressWarnings("unchecked")
+        PatriciaNode(char[] label) {
+            this.label = label;
+            this.children = (PatriciaNode<T>[]) EMPTY_CHILDREN;
+        }
+
+        PatriciaNode<T> getChild(char c) {
+            final int index = indexOf(c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        void addChild(PatriciaNode<T> child) {
+            final int index = -(indexOf(child.label[0]) + 1);
+            final PatriciaNode<T>[] next = (PatriciaNode<T>[]) new PatriciaNode[children.length + 1];
+            System.arraycopy(children, 0, next, 0, index);
+            System.arraycopy(children, index, next, index + 1, children.length - index);
+            next[index] = child;
+            children = next;
+        }
+
+        void replaceChild(PatriciaNode<T> child) {
+            children[indexOf(child.label[0])] = child;
+        }
+
+        @SuppressWarnings("unchecked")
+        void removeChild(char c) {
+            final int index = indexOf(c);
+            if (children.length == 1) {
+                children = (PatriciaNode<T>[]) EMPTY_CHILDREN;
+                return;
+            }
+            final PatriciaNode<T>[] next = (PatriciaNode<T>[]) new PatriciaNode[children.length - 1];
+            System.arraycopy(children, 0, next, 0, index);
+            System.arraycopy(children, index + 1, next, index, children.length - index - 1);
+            children = next;
+        }
+
+        /**
+         * Splits this node at the given label position, the returned node takes over the label prefix and
+         * has this node as its only child.
+         *
+         * @param length the length of the label prefix
+         * @return the new parent node
+         */
+        @SuppressWarnings("unchecked")
+        PatriciaNode<T> split(int length) {
+            final PatriciaNode<T> parent = new PatriciaNode<T>(copyOfRange(label, 0, length));
+            parent.size = size;
+            parent.children = (PatriciaNode<T>[]) new PatriciaNode[]{this};
+            label = copyOfRange(label, length, label.length);
+            return parent;
+        }
+
+        /**
+         * Merges this node with its only child, the returned node replaces this node in the parent.
+         *
+         * @return the merged node
+         */
+        PatriciaNode<T> merge() {
+            final PatriciaNode<T> child = children[0];
+            final char[] merged = new char[label.length + child.label.length];
+            System.arraycopy(label, 0, merged, 0, label.length);
+            System.arraycopy(child.label, 0, merged, label.length, child.label.length);
+            child.label = merged;
+            return child;
+        }
+
+        int indexOf(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final char midC = children[mid].label[0];
+                if (midC < c) {
+                    low = mid + 1;
+                } else if (midC > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private static char[] copyOfRange(char[] array, int from, int to) {
+            final char[] copy = new char[to - from];
+            System.arraycopy(array, from, copy, 0, copy.length);
+            return copy;
+        }
+    }
+}
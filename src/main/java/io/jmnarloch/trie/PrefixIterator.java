@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The base class for the iterators that lazily walk the subtree of the prefix in lexicographic order. The iterator
+ * resolves the pagination cursor: when the cursor starts with the prefix, the subclasses prune every branch that
+ * precedes it while walking along the cursor path, otherwise either all or none of the keys follow the cursor.
+ *
+ * @param <T> the value type
+ * @author Jakub Narloch
+ */
+abstract class PrefixIterator<T> implements Iterator<Map.Entry<String, T>> {
+
+    /**
+     * The key of the current node.
+     */
+    final StringBuilder path;
+
+    /**
+     * The exclusive cursor that starts with the prefix, or {@code null} if the keys are not pruned.
+     */
+    final String after;
+
+    /**
+     * The number of entries that can still be returned.
+     */
+    private int remaining;
+
+    /**
+     * The next entry.
+     */
+    private Map.Entry<String, T> next;
+
+    /**
+     * Creates new instance of {@link PrefixIterator}.
+     *
+     * @param prefix the prefix
+     * @param after  the exclusive cursor, or {@code null}
+     * @param limit  the maximum number of entries
+     */
+    PrefixIterator(String prefix, String after, int limit) {
+        this.path = new StringBuilder(prefix);
+        this.remaining = limit;
+        if (after != null && !after.startsWith(prefix)) {
+            if (after.compareTo(prefix) > 0) {
+                // every key with the prefix precedes the cursor
+                this.remaining = 0;
+            }
+            after = null;
+        }
+        this.after = after;
+    }
+
+    /**
+     * Returns whether the iteration can return any entries, checked by the subclasses before the walk is started.
+     *
+     * @return true if entries can be returned
+     */
+    boolean isExhausted() {
+        return remaining == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null && remaining > 0) {
+            next = advance();
+            remaining = next != null ? remaining - 1 : 0;
+        }
+        return next != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map.Entry<String, T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Map.Entry<String, T> entry = next;
+        next = null;
+        return entry;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Walks the tree up to the next entry.
+     *
+     * @return the next entry, or {@code null} if there are no more entries
+     */
+    abstract Map.Entry<String, T> advance();
+
+    /**
+     * Creates the entry of the current path.
+     *
+     * @param length the length of the key
+     * @param value  the value
+     * @return the entry
+     */
+    Map.Entry<String, T> entry(int length, T value) {
+        path.setLength(length);
+        return new AbstractMap.SimpleImmutableEntry<String, T>(path.toString(), value);
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+/**
+ * A mutable holder of the key matched at some offset of the text, filled by
+ * {@link Trie#longestMatch(CharSequence, int, PrefixMatch)}. The same instance can be reused for every lookup, so
+ * that the matching does not allocate.
+ *
+ * @param <T> the value type
+ * @author Jakub Narloch
+ */
+public final class PrefixMatch<T> {
+
+    /**
+     * The offset of the match within the text.
+     */
+    private int offset;
+
+    /**
+     * The length of the matched key, or {@code -1} if there is no match.
+     */
+    private int length = -1;
+
+    /**
+     * The value of the matched key.
+     */
+    private T value;
+
+    /**
+     * Returns whether the key has been matched.
+     *
+     * @return true if key was matched, false otherwise
+     */
+    public boolean isFound() {
+        return length != -1;
+    }
+
+    /**
+     * Returns the offset of the match within the text.
+     *
+     * @return the match offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the length of the matched key.
+     *
+     * @return the key length, or {@code -1} if there is no match
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the end of the match within the text, exclusive.
+     *
+     * @return the match end, or {@code -1} if there is no match
+     */
+    public int getEnd() {
+        return isFound() ? offset + length : -1;
+    }
+
+    /**
+     * Returns the value of the matched key.
+     *
+     * @return the value, or {@code null} if there is no match
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Sets the match.
+     *
+     * @param offset the offset of the match
+     * @param length the length of the matched key
+     * @param value  the value of the matched key
+     */
+    void set(int offset, int length, T value) {
+        this.offset = offset;
+        this.length = length;
+        this.value = value;
+    }
+
+    /**
+     * Clears the match.
+     *
+     * @param offset the offset of the lookup
+     */
+    void clear(int offset) {
+        set(offset, -1, null);
+    }
+
+    @Override
+    public String toString() {
+        return "PrefixMatch{offset=" + offset + ", length=" + length + ", value=" + value + '}';
+    }
+}
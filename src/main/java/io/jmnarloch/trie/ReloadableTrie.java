@@ -0,0 +1,471 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * A read-only trie, that delegates to a dictionary which can be atomically replaced. The new dictionary is built
+ * by the caller or in background and published with a single volatile write, so that the readers never block and
+ * always see either the old or the new dictionary, but never one that is half built. The old dictionary can be
+ * garbage collected once the readers that are still using it complete.
+ *
+ * When multiple reloads run at the same time the dictionary from the most recently started reload wins, the
+ * dictionaries of the earlier reloads that complete later are discarded.
+ *
+ * The mutating operations throw {@link UnsupportedOperationException}, the dictionary is modified only by reloading.
+ *
+ * @author Jakub Narloch
+ */
+public class ReloadableTrie<T> implements Trie<T> {
+
+    /**
+     * The sequence of the started reloads.
+     */
+    private final AtomicLong reloads = new AtomicLong();
+
+    /**
+     * The current dictionary.
+     */
+    private volatile Trie<T> trie;
+
+    /**
+     * The sequence number of the reload that published the current dictionary.
+     */
+    private long published;
+
+    /**
+     * Creates new instance of {@link ReloadableTrie} with empty dictionary.
+     */
+    public ReloadableTrie() {
+        this(new ImmutableTst<T>(Collections.<String, T>emptyMap()));
+    }
+
+    /**
+     * Creates new instance of {@link ReloadableTrie} with the initial dictionary.
+     *
+     * @param trie the initial dictionary
+     * @throws IllegalArgumentException if {@code trie} is {@code null}
+     */
+    public ReloadableTrie(Trie<T> trie) {
+        notNull(trie, "Trie can not be null");
+        this.trie = trie;
+    }
+
+    /**
+     * Returns the current dictionary. The returned trie is not affected by the later reloads.
+     *
+     * @return the current dictionary
+     */
+    public Trie<T> current() {
+        return trie;
+    }
+
+    /**
+     * Replaces the dictionary with the given trie. The trie must not be modified after it has been published.
+     *
+     * The returned trie is no longer served and can be released, for instance closed if it is a {@link MappedTrie}.
+     * Every replaced dictionary is returned by exactly one swap, even when multiple swaps run at the same time.
+     *
+     * @param trie the new dictionary
+     * @return the previous dictionary, or the given trie if a more recent reload has already been published
+     * @throws IllegalArgumentException if {@code trie} is {@code null}
+     */
+    public Trie<T> swap(Trie<T> trie) {
+        notNull(trie, "Trie can not be null");
+
+        return publish(reloads.incrementAndGet(), trie);
+    }
+
+    /**
+     * Builds the {@link ImmutableTst} from the entries in the calling thread and replaces the dictionary. The
+     * filtering automaton of the new dictionary is compiled before it is published.
+     *
+     * @param map the entries
+     * @return the dictionary served after the reload, the new one unless a more recent reload has been published in
+     * the meantime
+     * @throws IllegalArgumentException if {@code map} is {@code null}
+     */
+    public Trie<T> reload(Map<String, T> map) {
+        notNull(map, "Map can not be null");
+
+        final long reload = reloads.incrementAndGet();
+        return served(reload, build(map));
+    }
+
+    /**
+     * Builds the {@link ImmutableTst} from the entries using the executor and replaces the dictionary once it is
+     * built. The current dictionary is used until then.
+     *
+     * @param map      the entries
+     * @param executor the executor used for building the dictionary
+     * @return the future completed with the dictionary served after the reload, the new one unless a more recent
+     * reload has been published in the meantime
+     * @throws IllegalArgumentException if {@code map} or {@code executor} is {@code null}
+     */
+    public CompletableFuture<Trie<T>> reloadAsync(final Map<String, T> map, Executor executor) {
+        notNull(map, "Map can not be null");
+
+        return reloadAsync(new Callable<Trie<T>>() {
+            @Override
+            public Trie<T> call() {
+                return build(map);
+            }
+        }, executor);
+    }
+
+    /**
+     * Loads the dictionary using the executor and replaces the current one once it is loaded, for instance reads it
+     * from a file. If the loader fails the current dictionary is kept and the returned future completes
+     * exceptionally.
+     *
+     * @param loader   the dictionary loader, must return a trie that is not modified afterwards
+     * @param executor the executor used for loading the dictionary
+     * @return the future completed with the dictionary served after the reload, the new one unless a more recent
+     * reload has been published in the meantime
+     * @throws IllegalArgumentException if {@code loader} or {@code executor} is {@code null}
+     */
+    public CompletableFuture<Trie<T>> reloadAsync(final Callable<? extends Trie<T>> loader, Executor executor) {
+        notNull(loader, "Loader can not be null");
+        notNull(executor, "Executor can not be null");
+
+        final long reload = reloads.incrementAndGet();
+        final CompletableFuture<Trie<T>> result = new CompletableFuture<Trie<T>>();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final Trie<T> trie = loader.call();
+                    notNull(trie, "Loader returned null trie");
+                    result.complete(served(reload, trie));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return trie.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return trie.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T put(String key, T value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<String, ? extends T> map) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        return trie.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(String key) {
+        return trie.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(String key) {
+        return trie.prefix(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(String key) {
+        return trie.prefixKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(CharSequence key) {
+        return trie.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(char[] key, int offset, int length) {
+        return trie.containsKey(key, offset, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(CharSequence key) {
+        return trie.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(char[] key, int offset, int length) {
+        return trie.get(key, offset, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(CharSequence key) {
+        return trie.prefix(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(char[] key, int offset, int length) {
+        return trie.prefix(key, offset, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(CharSequence key) {
+        return trie.prefixKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String prefixKey(char[] key, int offset, int length) {
+        return trie.prefixKey(key, offset, length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean longestMatch(CharSequence text, int offset, PrefixMatch<? super T> match) {
+        return trie.longestMatch(text, offset, match);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void allPrefixes(CharSequence text, int offset, MatchListener<? super T> listener) {
+        trie.allPrefixes(text, offset, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T remove(String key) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> keySet() {
+        return trie.keySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesWithPrefix(String prefix, String after, int limit) {
+        return trie.entriesWithPrefix(prefix, after, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Map.Entry<String, T>> entries() {
+        return trie.entries();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int countWithPrefix(String prefix) {
+        return trie.countWithPrefix(prefix);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int rank(String key) {
+        return trie.rank(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String select(int index) {
+        return trie.select(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String floorKey(String key) {
+        return trie.floorKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String ceilingKey(String key) {
+        return trie.ceilingKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterable<Map.Entry<String, T>> entriesMatching(WildcardPattern pattern) {
+        return trie.entriesMatching(pattern);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<FuzzyMatch<T>> fuzzyMatches(String key, int maxDistance) {
+        return trie.fuzzyMatches(key, maxDistance);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String filter(String key, String replace) {
+        return trie.filter(key, replace);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void filter(Readable source, Writer target, String replace) throws IOException {
+        trie.filter(source, target, replace);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void scan(CharSequence text, MatchListener<? super T> listener) {
+        trie.scan(text, listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsAnyMatch(CharSequence text) {
+        return trie.containsAnyMatch(text);
+    }
+
+    private Trie<T> build(Map<String, T> map) {
+        final ImmutableTst<T> trie = new ImmutableTst<T>(map);
+        // compiles the filtering automaton before publishing, so that the readers do not have to
+        trie.automaton();
+        return trie;
+    }
+
+    /**
+     * Publishes the dictionary unless a more recent reload has already been published.
+     *
+     * @return the replaced dictionary, or the given one if it has not been published
+     */
+    private synchronized Trie<T> publish(long reload, Trie<T> trie) {
+        if (reload <= published) {
+            return trie;
+        }
+        final Trie<T> previous = this.trie;
+        published = reload;
+        this.trie = trie;
+        return previous;
+    }
+
+    /**
+     * Publishes the dictionary and returns the dictionary served afterwards.
+     */
+    private synchronized Trie<T> served(long reload, Trie<T> trie) {
+        publish(reload, trie);
+        return this.trie;
+    }
+
+    private static void notNull(Object value, String message) {
+        if (value == null) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Filters the text read from a {@link Readable} source in chunks by walking the trie from every start position, the
+ * same way as the {@code filter(String, String)} of the tries. The text is read into a window, the text preceding the
+ * first start position that is not yet decided is written after every chunk and dropped from the window, so the
+ * memory use does not depend on the length of the text. The window grows only when a single walk, together with the
+ * symbols skipped inside it, is longer than the window.
+ *
+ * @author Jakub Narloch
+ */
+final class StreamFilter {
+
+    /**
+     * The number of the characters read from the source at once.
+     */
+    static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Returned by the {@link Matcher} when no key starts at the position.
+     */
+    static final int NO_MATCH = -1;
+
+    /**
+     * Returned by the {@link Matcher} when the text ends before the key that starts at the position is decided.
+     */
+    static final int UNDECIDED = -2;
+
+    /**
+     * Creates new instance of {@link StreamFilter}.
+     *
+     * Private constructor prevents from instantiation outside this class.
+     */
+    private StreamFilter() {
+        // empty constructor
+    }
+
+    /**
+     * Replaces the dictionary words found in the text read from the source and writes the filtered text into the
+     * target. The target is neither flushed nor closed.
+     *
+     * @param source  the source of the text
+     * @param target  the target of the filtered text
+     * @param replace the replacement
+     * @param matcher the walk of the trie
+     * @throws IOException              if reading the source or writing the target fails
+     * @throws IllegalArgumentException if {@code source}, {@code target} or {@code replace} is {@code null}
+     */
+    static void filter(Readable source, Writer target, String replace, Matcher matcher) throws IOException {
+        filter(source, target, replace, matcher, CHUNK_SIZE);
+    }
+
+    /**
+     * Replaces the dictionary words found in the text read from the source in chunks of the given size.
+     *
+     * @param source    the source of the text
+     * @param target    the target of the filtered text
+     * @param replace   the replacement
+     * @param matcher   the walk of the trie
+     * @param chunkSize the number of the characters read from the source at once
+     * @throws IOException if reading the source or writing the target fails
+     */
+    static void filter(Readable source, Writer target, String replace, Matcher matcher, int chunkSize)
+            throws IOException {
+        TrieUtil.notNull(source, "Source can not be null");
+        TrieUtil.notNull(target, "Target can not be null");
+        TrieUtil.notNull(replace, "Replacement can not be null");
+
+        char[] window = new char[chunkSize];
+        int length = 0;
+        boolean eof = false;
+        while (!eof || length > 0) {
+            if (!eof) {
+                if (length == window.length) {
+                    window = Arrays.copyOf(window, window.length * 2);
+                }
+                final int read = source.read(CharBuffer.wrap(window, length, window.length - length));
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    length += read;
+                }
+            }
+
+            int emitted = 0;
+            int start = 0;
+            while (start < length) {
+                if (TrieUtil.isSymbol(window[start])) {
+                    ++start;
+                    continue;
+                }
+                final int end = matcher.shortestMatch(window, start, length);
+                if (end == UNDECIDED && !eof) {
+                    break;
+                }
+                if (end < 0) {
+                    ++start;
+                } else {
+                    target.write(window, emitted, start - emitted);
+                    target.write(replace);
+                    emitted = end;
+                    start = end;
+                }
+            }
+            // the text preceding the first undecided start position is final
+            target.write(window, emitted, start - emitted);
+            System.arraycopy(window, start, window, 0, length - start);
+            length -= start;
+        }
+    }
+
+    /**
+     * The walk of the trie from a start position of the text.
+     */
+    interface Matcher {
+
+        /**
+         * Finds the shortest key that starts at the position, skipping the symbols.
+         *
+         * @param text  the text
+         * @param start the start of the key, a position of a character that is not a symbol
+         * @param end   the end of the text, exclusive
+         * @return the end of the key, exclusive, {@link #NO_MATCH} if no key starts at the position or
+         * {@link #UNDECIDED} if the text ends before the key is decided
+         */
+        int shortestMatch(char[] text, int start, int end);
+    }
+}
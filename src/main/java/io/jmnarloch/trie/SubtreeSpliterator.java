@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * The spliterator of the entries of a tree, that covers a sequence of the adjacent subtrees in lexicographic order.
+ * The spliterator is split by handing over the leading subtrees that hold about half of the remaining keys, the
+ * single remaining subtree is first replaced by the key of its root and the subtrees of its children. The sizes of
+ * the subtrees are read from the nodes, so that the spliterator is sized without visiting the keys.
+ *
+ * The tree must not be modified while the spliterator is used.
+ *
+ * @param <T> the value type
+ * @param <N> the node type
+ * @author Jakub Narloch
+ */
+final class SubtreeSpliterator<T, N> implements Spliterator<Map.Entry<String, T>> {
+
+    /**
+     * The characteristics of the spliterator.
+     */
+    private static final int CHARACTERISTICS = ORDERED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+
+    /**
+     * The tree.
+     */
+    private final Tree<T, N> tree;
+
+    /**
+     * The subtrees that are not yet traversed, in lexicographic order.
+     */
+    private final Deque<Subtree<N>> pending;
+
+    /**
+     * The iterator of the subtree that is being traversed, or {@code null}.
+     */
+    private Iterator<Map.Entry<String, T>> current;
+
+    /**
+     * The number of the remaining entries of the subtree that is being traversed.
+     */
+    private long currentSize;
+
+    /**
+     * The number of the remaining entries.
+     */
+    private long size;
+
+    /**
+     * Creates new instance of {@link SubtreeSpliterator}.
+     *
+     * @param tree the tree
+     * @param node the root of the subtree, or {@code null} if the subtree is empty
+     * @param key  the key of the root of the subtree
+     */
+    SubtreeSpliterator(Tree<T, N> tree, N node, String key) {
+        this.tree = tree;
+        this.pending = new ArrayDeque<Subtree<N>>();
+        if (node != null) {
+            add(new Subtree<N>(node, key));
+        }
+    }
+
+    private SubtreeSpliterator(Tree<T, N> tree, Deque<Subtree<N>> pending, Iterator<Map.Entry<String, T>> current,
+                               long currentSize, long size) {
+        this.tree = tree;
+        this.pending = pending;
+        this.current = current;
+        this.currentSize = currentSize;
+        this.size = size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super Map.Entry<String, T>> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+
+        while (currentSize == 0) {
+            current = null;
+            final Subtree<N> subtree = pending.poll();
+            if (subtree == null) {
+                return false;
+            }
+            if (subtree.valueOnly) {
+                size--;
+                action.accept(new AbstractMap.SimpleImmutableEntry<String, T>(subtree.key, tree.value(subtree.node)));
+                return true;
+            }
+            current = tree.iterator(subtree.node, subtree.key);
+            currentSize = subtree.size;
+        }
+        currentSize--;
+        size--;
+        action.accept(current.next());
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator<Map.Entry<String, T>> trySplit() {
+        if (current != null && currentSize > 0) {
+            // the traversed subtree precedes the pending ones, so it can only be handed over as a whole
+            if (pending.isEmpty()) {
+                return null;
+            }
+            final SubtreeSpliterator<T, N> prefix = new SubtreeSpliterator<T, N>(tree,
+                    new ArrayDeque<Subtree<N>>(), current, currentSize, currentSize);
+            size -= currentSize;
+            current = null;
+            currentSize = 0;
+            return prefix;
+        }
+        while (pending.size() == 1 && !pending.peek().valueOnly) {
+            expand(pending.poll());
+        }
+        if (pending.size() < 2) {
+            return null;
+        }
+        final Deque<Subtree<N>> split = new ArrayDeque<Subtree<N>>();
+        long splitSize = 0;
+        do {
+            final Subtree<N> subtree = pending.poll();
+            split.add(subtree);
+            splitSize += subtree.size;
+        } while (pending.size() > 1 && splitSize + pending.peek().size <= size / 2);
+        size -= splitSize;
+        return new SubtreeSpliterator<T, N>(tree, split, null, 0, splitSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long estimateSize() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    private void expand(Subtree<N> subtree) {
+        size -= subtree.size;
+        if (tree.hasValue(subtree.node)) {
+            final Subtree<N> value = new Subtree<N>(subtree.node, subtree.key);
+            value.valueOnly = true;
+            value.size = 1;
+            pending.add(value);
+            size++;
+        }
+        final List<Subtree<N>> children = new ArrayList<Subtree<N>>();
+        tree.children(subtree.node, subtree.key, children);
+        for (Subtree<N> child : children) {
+            add(child);
+        }
+    }
+
+    private void add(Subtree<N> subtree) {
+        subtree.size = tree.size(subtree.node);
+        if (subtree.size > 0) {
+            pending.add(subtree);
+            size += subtree.size;
+        }
+    }
+
+    /**
+     * The tree walked by the spliterator.
+     *
+     * @param <T> the value type
+     * @param <N> the node type
+     */
+    interface Tree<T, N> {
+
+        /**
+         * Returns the number of the keys in the subtree.
+         *
+         * @param node the root of the subtree
+         * @return the number of the keys
+         */
+        int size(N node);
+
+        /**
+         * Returns whether the key of the root of the subtree is stored.
+         *
+         * @param node the root of the subtree
+         * @return true if the key is stored
+         */
+        boolean hasValue(N node);
+
+        /**
+         * Returns the value of the key of the root of the subtree.
+         *
+         * @param node the root of the subtree
+         * @return the value
+         */
+        T value(N node);
+
+        /**
+         * Adds the subtrees of the children of the root in lexicographic order, the key of the root itself excluded.
+         *
+         * @param node     the root of the subtree
+         * @param key      the key of the root
+         * @param children the list of the subtrees of the children
+         */
+        void children(N node, String key, List<Subtree<N>> children);
+
+        /**
+         * Returns the iterator of all entries of the subtree in lexicographic order.
+         *
+         * @param node the root of the subtree
+         * @param key  the key of the root
+         * @return the iterator
+         */
+        Iterator<Map.Entry<String, T>> iterator(N node, String key);
+    }
+
+    /**
+     * The subtree with the key of its root.
+     *
+     * @param <N> the node type
+     */
+    static final class Subtree<N> {
+
+        private final N node;
+
+        private final String key;
+
+        private boolean valueOnly;
+
+        private long size;
+
+        /**
+         * Creates new instance of {@link Subtree}.
+         *
+         * @param node the root of the subtree
+         * @param key  the key of the root
+         */
+        Subtree(N node, String key) {
+            this.node = node;
+            this.key = key;
+        }
+    }
+}
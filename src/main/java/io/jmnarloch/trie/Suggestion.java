@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+/**
+ * A key suggested by {@link WeightedTst#topK(String, int)} together with its value and score.
+ *
+ * @param <T> the value type
+ * @author Jakub Narloch
+ */
+public final class Suggestion<T> {
+
+    /**
+     * The key.
+     */
+    private final String key;
+
+    /**
+     * The value.
+     */
+    private final T value;
+
+    /**
+     * The score.
+     */
+    private final double score;
+
+    /**
+     * Creates new instance of {@link Suggestion}.
+     *
+     * @param key   the key
+     * @param value the value
+     * @param score the score
+     */
+    Suggestion(String key, T value, double score) {
+        this.key = key;
+        this.value = value;
+        this.score = score;
+    }
+
+    /**
+     * Returns the suggested key.
+     *
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the value of the suggested key.
+     *
+     * @return the value
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the score of the suggested key.
+     *
+     * @return the score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "Suggestion{key='" + key + "', value=" + value + ", score=" + score + '}';
+    }
+}
@@ -15,8 +15,12 @@
  */
 package io.jmnarloch.trie;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * A trie tree abstraction. Trie is a R way tree that is designed for efficient string searches.
@@ -67,6 +71,34 @@ public interface Trie<T> {
      */
     boolean containsKey(String key);
 
+    /**
+     * Returns whether the trie contains the key given as the character sequence. The implementations search the
+     * sequence in place, without converting it into a string.
+     *
+     * @param key the key to search
+     * @return true if key exists, false otherwise
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty
+     */
+    default boolean containsKey(CharSequence key) {
+        return containsKey(TrieUtil.toString(key));
+    }
+
+    /**
+     * Returns whether the trie contains the key given as the range of the character array. The implementations
+     * search the range in place, without copying it into a string.
+     *
+     * @param key    the characters
+     * @param offset the offset of the key
+     * @param length the length of the key
+     * @return true if key exists, false otherwise
+     * @throws IllegalArgumentException if {@code key} is {@code null} or the range is empty or out of bounds
+     */
+    default boolean containsKey(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        return containsKey(new String(key, offset, length));
+    }
+
     /**
      * Returns the values associated with the specific key, or {@code null} otherwise.
      *
@@ -76,6 +108,34 @@ public interface Trie<T> {
      */
     T get(String key);
 
+    /**
+     * Returns the value associated with the key given as the character sequence. The implementations search the
+     * sequence in place, without converting it into a string.
+     *
+     * @param key the key to search
+     * @return the associated key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty
+     */
+    default T get(CharSequence key) {
+        return get(TrieUtil.toString(key));
+    }
+
+    /**
+     * Returns the value associated with the key given as the range of the character array. The implementations
+     * search the range in place, without copying it into a string.
+     *
+     * @param key    the characters
+     * @param offset the offset of the key
+     * @param length the length of the key
+     * @return the associated key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or the range is empty or out of bounds
+     */
+    default T get(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        return get(new String(key, offset, length));
+    }
+
     /**
      * Returns the value of the longest common prefix for specified key.
      *
@@ -88,6 +148,33 @@ public interface Trie<T> {
      */
     T prefix(String key);
 
+    /**
+     * Returns the value of the longest stored key that is a prefix of the key given as the character sequence.
+     *
+     * @param key the key to search
+     * @return the prefix key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty
+     */
+    default T prefix(CharSequence key) {
+        return prefix(TrieUtil.toString(key));
+    }
+
+    /**
+     * Returns the value of the longest stored key that is a prefix of the key given as the range of the character
+     * array.
+     *
+     * @param key    the characters
+     * @param offset the offset of the key
+     * @param length the length of the key
+     * @return the prefix key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or the range is empty or out of bounds
+     */
+    default T prefix(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        return prefix(new String(key, offset, length));
+    }
+
     /**
      * Returns the key of the longest common prefix for specified key.
      *
@@ -100,6 +187,96 @@ public interface Trie<T> {
      */
     String prefixKey(String key);
 
+    /**
+     * Returns the longest stored key that is a prefix of the key given as the character sequence. Only the returned
+     * key is allocated.
+     *
+     * @param key the key to search
+     * @return the prefix key or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty
+     */
+    default String prefixKey(CharSequence key) {
+        return prefixKey(TrieUtil.toString(key));
+    }
+
+    /**
+     * Returns the longest stored key that is a prefix of the key given as the range of the character array. Only
+     * the returned key is allocated.
+     *
+     * @param key    the characters
+     * @param offset the offset of the key
+     * @param length the length of the key
+     * @return the prefix key or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or the range is empty or out of bounds
+     */
+    default String prefixKey(char[] key, int offset, int length) {
+        TrieUtil.checkRange(key, offset, length);
+
+        return prefixKey(new String(key, offset, length));
+    }
+
+    /**
+     * Finds the longest stored key that is a prefix of the text starting at the given offset. The match length and
+     * value are written into the given holder, so that the holder can be reused and the lookup does not allocate.
+     *
+     * The default implementation copies the remaining text and looks up the value of the matched key, the trie
+     * implementations walk the text in place.
+     *
+     * @param text   the text to search
+     * @param offset the offset within the text
+     * @param match  the holder of the match
+     * @return true if a key was matched, false otherwise
+     * @throws IllegalArgumentException if {@code text} or {@code match} is {@code null} or the offset is out of bounds
+     */
+    default boolean longestMatch(CharSequence text, int offset, PrefixMatch<? super T> match) {
+        TrieUtil.checkText(text, offset);
+        TrieUtil.notNull(match, "Match can not be null");
+
+        match.clear(offset);
+        if (offset == text.length()) {
+            return false;
+        }
+        final String key = prefixKey(text.subSequence(offset, text.length()));
+        if (key == null) {
+            return false;
+        }
+        match.set(offset, key.length(), get(key));
+        return true;
+    }
+
+    /**
+     * Reports every stored key that is a prefix of the text starting at the given offset, from the shortest to the
+     * longest, within a single traversal. The listener can stop the traversal by returning {@code false}.
+     *
+     * The default implementation finds the longest matching key first and then looks up every shorter prefix of it,
+     * the trie implementations walk the text in place.
+     *
+     * @param text     the text to search
+     * @param offset   the offset within the text
+     * @param listener the listener notified about the matched keys
+     * @throws IllegalArgumentException if {@code text} or {@code listener} is {@code null} or the offset is out of
+     *                                  bounds
+     */
+    default void allPrefixes(CharSequence text, int offset, MatchListener<? super T> listener) {
+        TrieUtil.checkText(text, offset);
+        TrieUtil.notNull(listener, "Listener can not be null");
+
+        if (offset == text.length()) {
+            return;
+        }
+        // no key is longer than the longest one that is a prefix of the text
+        final String longest = prefixKey(text.subSequence(offset, text.length()));
+        if (longest == null) {
+            return;
+        }
+        for (int end = offset + 1; end <= offset + longest.length(); end++) {
+            final T value = get(text.subSequence(offset, end));
+            if (value != null && !listener.onMatch(offset, end, value)) {
+                return;
+            }
+        }
+    }
+
     /**
      * Removes the value associated with specific key.
      *
@@ -116,10 +293,259 @@ public interface Trie<T> {
      */
     Set<String> keySet();
 
+    /**
+     * Returns the keys that start with the prefix in lexicographic order. The keys are found lazily while iterating,
+     * so that only the subtree of the prefix is visited.
+     *
+     * @param prefix the prefix, the empty prefix matches all of the keys
+     * @return the keys with the prefix
+     * @throws IllegalArgumentException if {@code prefix} is {@code null}
+     */
+    default Iterable<String> keysWithPrefix(String prefix) {
+        return keysWithPrefix(prefix, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the page of the keys that start with the prefix in lexicographic order. The page starts with the
+     * first key that follows the cursor, which is usually the last key of the previous page.
+     *
+     * @param prefix the prefix, the empty prefix matches all of the keys
+     * @param after  the exclusive cursor, or {@code null} to start with the first key
+     * @param limit  the maximum number of keys
+     * @return the keys with the prefix
+     * @throws IllegalArgumentException if {@code prefix} is {@code null} or {@code limit} is negative
+     */
+    default Iterable<String> keysWithPrefix(String prefix, String after, int limit) {
+        return TrieUtil.keys(entriesWithPrefix(prefix, after, limit));
+    }
+
+    /**
+     * Returns the entries which keys start with the prefix in lexicographic order of the keys. The entries are found
+     * lazily while iterating, so that only the subtree of the prefix is visited.
+     *
+     * @param prefix the prefix, the empty prefix matches all of the keys
+     * @return the entries with the prefix
+     * @throws IllegalArgumentException if {@code prefix} is {@code null}
+     */
+    default Iterable<Map.Entry<String, T>> entriesWithPrefix(String prefix) {
+        return entriesWithPrefix(prefix, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the page of the entries which keys start with the prefix in lexicographic order of the keys. The page
+     * starts with the first key that follows the cursor, which is usually the last key of the previous page.
+     *
+     * The default implementation sorts the whole {@link #keySet()}, the trie implementations walk only the subtree
+     * of the prefix and skip the branches preceding the cursor.
+     *
+     * @param prefix the prefix, the empty prefix matches all of the keys
+     * @param after  the exclusive cursor, or {@code null} to start with the first key
+     * @param limit  the maximum number of entries
+     * @return the entries with the prefix
+     * @throws IllegalArgumentException if {@code prefix} is {@code null} or {@code limit} is negative
+     */
+    default Iterable<Map.Entry<String, T>> entriesWithPrefix(String prefix, String after, int limit) {
+        return TrieUtil.entriesWithPrefix(this, prefix, after, limit);
+    }
+
+    /**
+     * Returns the sequential stream of all entries in lexicographic order of the keys. The entries are found lazily
+     * while the stream is consumed, without collecting them first. The stream can be made parallel, the trie
+     * implementations split it on the subtrees of the children using the number of the keys in every subtree.
+     *
+     * The default implementation iterates over the {@link #entriesWithPrefix(String)} of the empty prefix.
+     *
+     * @return the entries
+     */
+    default Stream<Map.Entry<String, T>> entries() {
+        return TrieUtil.entries(this);
+    }
+
+    /**
+     * Returns the sequential stream of all keys in lexicographic order.
+     *
+     * @return the keys
+     * @see #entries()
+     */
+    default Stream<String> keys() {
+        return entries().map(TrieUtil.<T>key());
+    }
+
+    /**
+     * Returns the sequential stream of all values in lexicographic order of their keys.
+     *
+     * @return the values
+     * @see #entries()
+     */
+    default Stream<T> values() {
+        return entries().map(TrieUtil.<T>value());
+    }
+
+    /**
+     * Returns the number of the keys that start with the prefix.
+     *
+     * The default implementation checks every key of the {@link #keySet()}, the trie implementations read the size of
+     * the subtree of the prefix.
+     *
+     * @param prefix the prefix, the empty prefix matches all of the keys
+     * @return the number of the keys with the prefix
+     * @throws IllegalArgumentException if {@code prefix} is {@code null}
+     */
+    default int countWithPrefix(String prefix) {
+        return TrieUtil.countWithPrefix(this, prefix);
+    }
+
+    /**
+     * Returns the number of the keys that precede the given key in lexicographic order, which is the index of the key
+     * if it is stored. The key does not have to be stored.
+     *
+     * The default implementation checks every key of the {@link #keySet()}, the trie implementations sum the sizes of
+     * the subtrees preceding the path of the key.
+     *
+     * @param key the key
+     * @return the number of the preceding keys
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     */
+    default int rank(String key) {
+        return TrieUtil.rank(this, key);
+    }
+
+    /**
+     * Returns the key at the given index in lexicographic order.
+     *
+     * The default implementation sorts the whole {@link #keySet()}, the trie implementations descend into the subtree
+     * that contains the index using the sizes of the subtrees.
+     *
+     * @param index the index of the key
+     * @return the key
+     * @throws IllegalArgumentException if {@code index} is negative or not less than the {@link #size()}
+     */
+    default String select(int index) {
+        return TrieUtil.select(this, index);
+    }
+
+    /**
+     * Returns the greatest key less than or equal to the given key.
+     *
+     * @param key the key
+     * @return the greatest key less than or equal to the key, or {@code null} if there is no such key
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     */
+    default String floorKey(String key) {
+        final int rank = rank(key);
+        if (!key.isEmpty() && containsKey(key)) {
+            return key;
+        }
+        return rank > 0 ? select(rank - 1) : null;
+    }
+
+    /**
+     * Returns the least key greater than or equal to the given key.
+     *
+     * @param key the key
+     * @return the least key greater than or equal to the key, or {@code null} if there is no such key
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     */
+    default String ceilingKey(String key) {
+        final int rank = rank(key);
+        return rank < size() ? select(rank) : null;
+    }
+
+    /**
+     * Returns the keys that match the wildcard pattern in lexicographic order. The keys are found lazily while
+     * iterating, the trie is walked together with the automaton of the pattern so that only the branches that can
+     * still match are visited.
+     *
+     * @param pattern the pattern
+     * @return the matching keys
+     * @throws IllegalArgumentException if {@code pattern} is {@code null}
+     */
+    default Iterable<String> keysMatching(WildcardPattern pattern) {
+        return TrieUtil.keys(entriesMatching(pattern));
+    }
+
+    /**
+     * Returns the entries which keys match the wildcard pattern in lexicographic order of the keys. The entries are
+     * found lazily while iterating.
+     *
+     * The default implementation checks every key of the {@link #keySet()}.
+     *
+     * @param pattern the pattern
+     * @return the matching entries
+     * @throws IllegalArgumentException if {@code pattern} is {@code null}
+     */
+    default Iterable<Map.Entry<String, T>> entriesMatching(WildcardPattern pattern) {
+        return TrieUtil.entriesMatching(this, pattern);
+    }
+
+    /**
+     * Finds the keys within the Levenshtein distance from the given key, for instance to suggest the correct
+     * spelling of a misspelled word. The trie is walked together with the Levenshtein automaton of the key, so that
+     * a subtree is skipped as soon as none of its keys can be within the distance.
+     *
+     * The default implementation checks every key of the {@link #keySet()}.
+     *
+     * @param key         the searched key
+     * @param maxDistance the maximum number of the inserted, deleted or substituted characters
+     * @return the matches ordered by the distance and then by the key
+     * @throws IllegalArgumentException if {@code key} is {@code null} or {@code maxDistance} is negative
+     */
+    default List<FuzzyMatch<T>> fuzzyMatches(String key, int maxDistance) {
+        return TrieUtil.fuzzyMatches(this, key, maxDistance);
+    }
+
     /**
      * replace sensitive word in key string.
      * @return after filter string
      */
     String filter(String key, String replace);
 
+    /**
+     * Replaces the dictionary words found in the text read from the source and writes the filtered text into the
+     * target. The text is filtered in chunks, so that the large documents are not loaded into memory, the matches
+     * crossing the chunk boundaries are replaced the same way as by {@link #filter(String, String)}.
+     *
+     * The default implementation compiles the {@link AhoCorasick} automaton of the trie on every call, the tries
+     * provided by this library walk the trie instead. When the same dictionary filters many documents, the automaton
+     * can be compiled once with {@link AhoCorasick#compile(Trie)} and reused.
+     *
+     * @param source  the source of the text, for instance a {@link java.io.Reader} or a {@link java.nio.CharBuffer}
+     * @param target  the target of the filtered text
+     * @param replace the replacement
+     * @throws IOException              if reading the source or writing the target fails
+     * @throws IllegalArgumentException if {@code source}, {@code target} or {@code replace} is {@code null}
+     */
+    default void filter(Readable source, Writer target, String replace) throws IOException {
+        AhoCorasick.<T>compile(this).filter(source, target, replace);
+    }
+
+    /**
+     * Reports every dictionary word found in the text, the overlapping words included, without building any strings.
+     * The words are found the same way as by {@link #filter(String, String)}: the symbols are skipped, so the text of
+     * a match may contain symbols between the characters of its key. The trie implementations report the matches
+     * ordered by their starts and then by their ends.
+     *
+     * The default implementation scans the text with the {@link AhoCorasick} automaton compiled on every call, which
+     * reports the matches ordered by their ends.
+     *
+     * @param text     the text
+     * @param listener the listener notified about every match, until it stops the scan
+     * @throws IllegalArgumentException if {@code text} or {@code listener} is {@code null}
+     */
+    default void scan(CharSequence text, MatchListener<? super T> listener) {
+        AhoCorasick.<T>compile(this).scan(text, listener);
+    }
+
+    /**
+     * Returns whether any dictionary word is found in the text, which is whether the {@link #filter(String, String)}
+     * would replace anything. The scan stops at the first match.
+     *
+     * @param text the text
+     * @return true if any word is found
+     * @throws IllegalArgumentException if {@code text} is {@code null}
+     */
+    default boolean containsAnyMatch(CharSequence text) {
+        return TrieUtil.containsAnyMatch(this, text);
+    }
+
 }
@@ -0,0 +1,502 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The helper methods shared by the trie implementations.
+ *
+ * @author Jakub Narloch
+ */
+final class TrieUtil {
+
+    /**
+     * The table of the default normalization, that skips the symbols.
+     */
+    private static final char[] SYMBOLS = CharNormalizer.DEFAULT.table;
+
+    /**
+     * Creates new instances of {@link TrieUtil}.
+     *
+     * Private constructor prevents from instantiation outside this class.
+     */
+    private TrieUtil() {
+        // empty constructor
+    }
+
+    /**
+     * Returns whether the character is a symbol that is skipped while filtering the text, that is neither
+     * a CJK character nor a latin letter.
+     *
+     * @param c the character
+     * @return true if character is a symbol, false otherwise
+     */
+    static boolean isSymbol(char c) {
+        return SYMBOLS[c] == CharNormalizer.SKIP;
+    }
+
+    /**
+     * Returns the string of the character sequence, or {@code null} if the sequence is {@code null}.
+     *
+     * @param sequence the character sequence
+     * @return the string
+     */
+    static String toString(CharSequence sequence) {
+        return sequence != null ? sequence.toString() : null;
+    }
+
+    /**
+     * Validates the key given as the range of the character array.
+     *
+     * @param key    the characters
+     * @param offset the offset of the key
+     * @param length the length of the key
+     * @throws IllegalArgumentException if {@code key} is {@code null} or the range is empty or out of bounds
+     */
+    static void checkRange(char[] key, int offset, int length) {
+        if (key == null || length <= 0) {
+            throw new IllegalArgumentException("Key must be not null or not empty.");
+        }
+        if (offset < 0 || offset > key.length - length) {
+            throw new IllegalArgumentException("Key range exceeds bounds.");
+        }
+    }
+
+    /**
+     * Validates the text searched from the given offset.
+     *
+     * @param text   the text
+     * @param offset the offset within the text
+     * @throws IllegalArgumentException if {@code text} is {@code null} or the offset is out of bounds
+     */
+    static void checkText(CharSequence text, int offset) {
+        notNull(text, "Text can not be null");
+        if (offset < 0 || offset > text.length()) {
+            throw new IllegalArgumentException("Offset exceeds bounds.");
+        }
+    }
+
+    /**
+     * Validates that the value is not {@code null}.
+     *
+     * @param value   the value
+     * @param message the error message
+     * @throws IllegalArgumentException if {@code value} is {@code null}
+     */
+    static void notNull(Object value, String message) {
+        if (value == null) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * Validates the prefix query.
+     *
+     * @param prefix the prefix
+     * @param limit  the maximum number of results
+     * @throws IllegalArgumentException if {@code prefix} is {@code null} or {@code limit} is negative
+     */
+    static void checkPrefix(String prefix, int limit) {
+        notNull(prefix, "Prefix can not be null");
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit can not be negative");
+        }
+    }
+
+    /**
+     * Finds the entries with the prefix by sorting all of the trie keys, used by the tries that can not walk their
+     * keys in order.
+     *
+     * @param trie   the trie
+     * @param prefix the prefix
+     * @param after  the exclusive cursor, or {@code null}
+     * @param limit  the maximum number of entries
+     * @param <T>    the value type
+     * @return the entries with the prefix
+     */
+    static <T> Iterable<Map.Entry<String, T>> entriesWithPrefix(Trie<T> trie, String prefix, String after, int limit) {
+        checkPrefix(prefix, limit);
+
+        final TreeMap<String, T> sorted = new TreeMap<String, T>();
+        for (String key : trie.keySet()) {
+            if (key.startsWith(prefix) && (after == null || key.compareTo(after) > 0)) {
+                sorted.put(key, null);
+            }
+        }
+        final List<Map.Entry<String, T>> entries = new ArrayList<Map.Entry<String, T>>();
+        for (String key : sorted.keySet()) {
+            if (entries.size() == limit) {
+                break;
+            }
+            entries.add(new AbstractMap.SimpleImmutableEntry<String, T>(key, trie.get(key)));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Validates that the key follows the previous one in the sorted input.
+     *
+     * @param previous the previous key
+     * @param key      the key
+     * @return the length of the common prefix of the keys
+     * @throws IllegalArgumentException if the key does not follow the previous key
+     */
+    static int checkSorted(String previous, String key) {
+        final int length = Math.min(previous.length(), key.length());
+        int common = 0;
+        while (common < length && previous.charAt(common) == key.charAt(common)) {
+            common++;
+        }
+        if (common == key.length() || common < previous.length() && previous.charAt(common) > key.charAt(common)) {
+            throw new IllegalArgumentException("Keys must be in ascending order without duplicates: '" + previous
+                    + "' is followed by '" + key + "'");
+        }
+        return common;
+    }
+
+    /**
+     * Validates the index of the key.
+     *
+     * @param index the index
+     * @param size  the number of the keys
+     * @throws IllegalArgumentException if {@code index} is negative or not less than {@code size}
+     */
+    static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Index exceeds bounds.");
+        }
+    }
+
+    /**
+     * Counts the keys with the prefix by checking all of the trie keys.
+     *
+     * @param trie   the trie
+     * @param prefix the prefix
+     * @return the number of the keys with the prefix
+     */
+    static int countWithPrefix(Trie<?> trie, String prefix) {
+        notNull(prefix, "Prefix can not be null");
+
+        int count = 0;
+        for (String key : trie.keySet()) {
+            if (key.startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the keys preceding the key by checking all of the trie keys.
+     *
+     * @param trie the trie
+     * @param key  the key
+     * @return the number of the preceding keys
+     */
+    static int rank(Trie<?> trie, String key) {
+        notNull(key, "Key can not be null");
+
+        int rank = 0;
+        for (String candidate : trie.keySet()) {
+            if (candidate.compareTo(key) < 0) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Finds the key at the index by sorting all of the trie keys.
+     *
+     * @param trie  the trie
+     * @param index the index
+     * @return the key
+     */
+    static String select(Trie<?> trie, int index) {
+        final List<String> keys = new ArrayList<String>(trie.keySet());
+        checkIndex(index, keys.size());
+
+        Collections.sort(keys);
+        return keys.get(index);
+    }
+
+    /**
+     * Finds the entries matching the pattern by checking all of the trie keys, used by the tries that can not be
+     * walked together with the automaton.
+     *
+     * @param trie    the trie
+     * @param pattern the pattern
+     * @param <T>     the value type
+     * @return the matching entries
+     */
+    static <T> Iterable<Map.Entry<String, T>> entriesMatching(Trie<T> trie, WildcardPattern pattern) {
+        notNull(pattern, "Pattern can not be null");
+
+        final TreeMap<String, T> sorted = new TreeMap<String, T>();
+        for (String key : trie.keySet()) {
+            if (pattern.matches(key)) {
+                sorted.put(key, null);
+            }
+        }
+        final List<Map.Entry<String, T>> entries = new ArrayList<Map.Entry<String, T>>();
+        for (String key : sorted.keySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<String, T>(key, trie.get(key)));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Returns the view of the keys of the entries.
+     *
+     * @param entries the entries
+     * @param <T>     the value type
+     * @return the keys
+     */
+    static <T> Iterable<String> keys(final Iterable<Map.Entry<String, T>> entries) {
+        return new Iterable<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                final Iterator<Map.Entry<String, T>> iterator = entries.iterator();
+                return new Iterator<String>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return iterator.next().getKey();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Returns the stream of all entries of the trie in lexicographic order of the keys, used by the tries that can
+     * not be split on their subtrees. The parallel stream is split into the batches of the iterated entries.
+     *
+     * @param trie the trie
+     * @param <T>  the value type
+     * @return the entries
+     */
+    static <T> Stream<Map.Entry<String, T>> entries(Trie<T> trie) {
+        return StreamSupport.stream(Spliterators.spliterator(trie.entriesWithPrefix("").iterator(), trie.size(),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Returns the function that maps the entry to its key.
+     *
+     * @param <T> the value type
+     * @return the key function
+     */
+    static <T> Function<Map.Entry<String, T>, String> key() {
+        return new Function<Map.Entry<String, T>, String>() {
+            @Override
+            public String apply(Map.Entry<String, T> entry) {
+                return entry.getKey();
+            }
+        };
+    }
+
+    /**
+     * Returns the function that maps the entry to its value.
+     *
+     * @param <T> the value type
+     * @return the value function
+     */
+    static <T> Function<Map.Entry<String, T>, T> value() {
+        return new Function<Map.Entry<String, T>, T>() {
+            @Override
+            public T apply(Map.Entry<String, T> entry) {
+                return entry.getValue();
+            }
+        };
+    }
+
+    /**
+     * Returns whether the scan of the text reports any match, the scan is stopped at the first one.
+     *
+     * @param trie the trie
+     * @param text the text
+     * @return true if any match is reported
+     */
+    static boolean containsAnyMatch(Trie<?> trie, CharSequence text) {
+        final FirstMatch match = new FirstMatch();
+        trie.scan(text, match);
+        return match.found;
+    }
+
+    /**
+     * Validates the fuzzy search.
+     *
+     * @param key         the searched key
+     * @param maxDistance the maximum edit distance
+     * @throws IllegalArgumentException if {@code key} is {@code null} or {@code maxDistance} is negative
+     */
+    static void checkFuzzy(String key, int maxDistance) {
+        notNull(key, "Key can not be null");
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Distance can not be negative");
+        }
+    }
+
+    /**
+     * Finds the keys within the edit distance by checking every key of the trie, used by the tries that can not be
+     * walked together with the automaton.
+     *
+     * @param trie        the trie
+     * @param key         the searched key
+     * @param maxDistance the maximum edit distance
+     * @param <T>         the value type
+     * @return the matches ordered by the distance and the key
+     */
+    static <T> List<FuzzyMatch<T>> fuzzyMatches(Trie<T> trie, String key, int maxDistance) {
+        checkFuzzy(key, maxDistance);
+
+        final LevenshteinAutomaton automaton = new LevenshteinAutomaton(key, maxDistance);
+        final List<FuzzyMatch<T>> matches = new ArrayList<FuzzyMatch<T>>();
+        for (String candidate : trie.keySet()) {
+            int depth = 0;
+            while (depth < candidate.length() && automaton.step(depth, candidate.charAt(depth))) {
+                depth++;
+            }
+            if (depth == candidate.length() && automaton.isMatch(depth)) {
+                matches.add(new FuzzyMatch<T>(candidate, trie.get(candidate), automaton.distance(depth)));
+            }
+        }
+        return sortMatches(matches);
+    }
+
+    /**
+     * Orders the fuzzy matches by the distance and then by the key.
+     *
+     * @param matches the matches
+     * @param <T>     the value type
+     * @return the sorted matches
+     */
+    static <T> List<FuzzyMatch<T>> sortMatches(List<FuzzyMatch<T>> matches) {
+        Collections.sort(matches, new Comparator<FuzzyMatch<T>>() {
+            @Override
+            public int compare(FuzzyMatch<T> left, FuzzyMatch<T> right) {
+                final int result = Integer.compare(left.getDistance(), right.getDistance());
+                return result != 0 ? result : left.getKey().compareTo(right.getKey());
+            }
+        });
+        return matches;
+    }
+
+    /**
+     * Writes the non negative int using from one to five bytes, seven bits per byte.
+     *
+     * @param output the output
+     * @param value  the value to write
+     * @throws IOException if an I/O error occurs
+     */
+    static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            output.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    /**
+     * Reads the int written by {@link #writeVarInt(DataOutput, int)}.
+     *
+     * @param input the input
+     * @return the read value
+     * @throws IOException if an I/O error occurs
+     */
+    static int readVarInt(DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = input.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length int");
+    }
+
+    /**
+     * Writes the value encoded by the codec prefixed with its length.
+     *
+     * @param output the output
+     * @param codec  the value codec
+     * @param value  the value to write
+     * @param <T>    the value type
+     * @throws IOException if an I/O error occurs
+     */
+    static <T> void writeValue(DataOutput output, ValueCodec<? super T> codec, T value) throws IOException {
+        final byte[] encoded = codec.encode(value);
+        writeVarInt(output, encoded.length);
+        output.write(encoded);
+    }
+
+    /**
+     * Reads the value written by {@link #writeValue(DataOutput, ValueCodec, Object)}.
+     *
+     * @param input the input
+     * @param codec the value codec
+     * @param <T>   the value type
+     * @return the read value
+     * @throws IOException if an I/O error occurs
+     */
+    static <T> T readValue(DataInput input, ValueCodec<? extends T> codec) throws IOException {
+        final byte[] encoded = new byte[readVarInt(input)];
+        input.readFully(encoded);
+        return codec.decode(ByteBuffer.wrap(encoded), 0, encoded.length);
+    }
+
+    /**
+     * Stops the scan at the first match.
+     */
+    private static final class FirstMatch implements MatchListener<Object> {
+
+        private boolean found;
+
+        @Override
+        public boolean onMatch(int start, int end, Object value) {
+            found = true;
+            return false;
+        }
+    }
+}
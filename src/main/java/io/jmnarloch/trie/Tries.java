@@ -15,6 +15,11 @@
  */
 package io.jmnarloch.trie;
 
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
 /**
  * A convenient class for instantiating the Trie tries.
  *
@@ -140,4 +145,193 @@ public final class Tries {
     public static <T> HashMapTrie<T> newHashMapTrie(int initialCapacity, float loadFactor) {
         return new HashMapTrie<T>(initialCapacity, loadFactor);
     }
+
+    /**
+     * Creates new instance of {@link PatriciaTrie}.
+     *
+     * @param <T> the element type
+     * @return the instance of {@link PatriciaTrie}
+     */
+    public static <T> PatriciaTrie<T> newPatriciaTrie() {
+        return new PatriciaTrie<T>();
+    }
+
+    /**
+     * Creates new instance of {@link AdaptiveTrie}.
+     *
+     * @param <T> the element type
+     * @return the instance of {@link AdaptiveTrie}
+     */
+    public static <T> AdaptiveTrie<T> newAdaptiveTrie() {
+        return new AdaptiveTrie<T>();
+    }
+
+    /**
+     * Creates new instance of {@link ByteTrie}.
+     *
+     * @param <T> the element type
+     * @return the instance of {@link ByteTrie}
+     */
+    public static <T> ByteTrie<T> newByteTrie() {
+        return new ByteTrie<T>();
+    }
+
+    /**
+     * Creates new instance of {@link ConcurrentTrie}.
+     *
+     * @param <T> the element type
+     * @return the instance of {@link ConcurrentTrie}
+     */
+    public static <T> ConcurrentTrie<T> newConcurrentTrie() {
+        return new ConcurrentTrie<T>();
+    }
+
+    /**
+     * Creates new instance of {@link ReloadableTrie} with the initial dictionary.
+     *
+     * @param trie the initial dictionary
+     * @param <T>  the element type
+     * @return the instance of {@link ReloadableTrie}
+     */
+    public static <T> ReloadableTrie<T> newReloadableTrie(Trie<T> trie) {
+        return new ReloadableTrie<T>(trie);
+    }
+
+    /**
+     * Creates new instance of {@link IntArrayTrie}, that uses {@code 0} as the no entry value.
+     *
+     * @return the instance of {@link IntArrayTrie}
+     */
+    public static IntArrayTrie newIntArrayTrie() {
+        return new IntArrayTrie();
+    }
+
+    /**
+     * Creates new instance of {@link IntTroveCharHashMapTrie}, that uses {@code 0} as the no entry value.
+     *
+     * @return the instance of {@link IntTroveCharHashMapTrie}
+     */
+    public static IntTroveCharHashMapTrie newIntTroveCharHashMapTrie() {
+        return new IntTroveCharHashMapTrie();
+    }
+
+    /**
+     * Creates new instance of {@link LongArrayTrie}, that uses {@code 0} as the no entry value.
+     *
+     * @return the instance of {@link LongArrayTrie}
+     */
+    public static LongArrayTrie newLongArrayTrie() {
+        return new LongArrayTrie();
+    }
+
+    /**
+     * Creates new instance of {@link LongTroveCharHashMapTrie}, that uses {@code 0} as the no entry value.
+     *
+     * @return the instance of {@link LongTroveCharHashMapTrie}
+     */
+    public static LongTroveCharHashMapTrie newLongTroveCharHashMapTrie() {
+        return new LongTroveCharHashMapTrie();
+    }
+
+    /**
+     * Builds the entries of the map into the empty trie using the common fork join pool.
+     *
+     * @param map  the entries
+     * @param trie the empty trie
+     * @param <T>  the element type
+     * @param <R>  the trie type
+     * @return the trie
+     * @throws IllegalArgumentException if {@code map} or {@code trie} is {@code null}, the trie is not empty or any
+     *                                  key is {@code null} or empty string or any value is {@code null}
+     * @see #parallelBuild(Spliterator, Trie, ForkJoinPool)
+     */
+    public static <T, R extends Trie<T>> R parallelBuild(Map<String, ? extends T> map, R trie) {
+        TrieUtil.notNull(map, "Map can not be null");
+
+        return parallelBuild(map.entrySet().spliterator(), trie, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the entries into the empty trie using the fork join pool. The entries are partitioned by the leading
+     * characters of their keys and the subtree of every leading character is built concurrently from its sorted
+     * keys, the subtrees are then linked under a shared root. The tries that are not built from the nodes of
+     * {@link AbstractTrie} or {@link AbstractTst}, such as the {@link PatriciaTrie} or {@link ConcurrentTrie}, are
+     * filled by putting the entries one by one.
+     *
+     * @param entries the entries, which keys are unique
+     * @param trie    the empty trie
+     * @param pool    the pool that partitions the entries and builds the subtrees
+     * @param <T>     the element type
+     * @param <R>     the trie type
+     * @return the trie
+     * @throws IllegalArgumentException if {@code entries}, {@code trie} or {@code pool} is {@code null}, the trie is
+     *                                  not empty or any key is {@code null}, empty string or repeated or any value is
+     *                                  {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R extends Trie<T>> R parallelBuild(Spliterator<? extends Map.Entry<String, ? extends T>> entries,
+                                                         final R trie, ForkJoinPool pool) {
+        TrieUtil.notNull(trie, "Trie can not be null");
+        if (!trie.isEmpty()) {
+            throw new IllegalArgumentException("Trie must be empty");
+        }
+
+        if (trie instanceof AbstractTrie) {
+            ((AbstractTrie<T, ?>) trie).putAllParallel(entries, pool);
+        } else if (trie instanceof AbstractTst) {
+            ((AbstractTst<T>) trie).putAllParallel(entries, pool);
+        } else {
+            TrieUtil.notNull(entries, "Entries can not be null");
+            entries.forEachRemaining(new Consumer<Map.Entry<String, ? extends T>>() {
+                @Override
+                public void accept(Map.Entry<String, ? extends T> entry) {
+                    trie.put(entry.getKey(), entry.getValue());
+                }
+            });
+        }
+        return trie;
+    }
+
+    /**
+     * Filters the text using the common fork join pool.
+     *
+     * @param trie    the trie
+     * @param text    the text to filter
+     * @param replace the replacement
+     * @return the filtered text
+     * @throws IllegalArgumentException if {@code trie} is {@code null}
+     * @see #parallelFilter(Trie, String, String, ForkJoinPool)
+     */
+    public static String parallelFilter(Trie<?> trie, String text, String replace) {
+        return parallelFilter(trie, text, replace, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Filters the segments of the text in parallel using the fork join pool, the filtered text is the same as the one
+     * returned by {@link Trie#filter(String, String)}. The text is filtered with the {@link AhoCorasick} automaton,
+     * which is compiled from the trie on every call, except for the {@link ImmutableTst}, also the current one of the
+     * {@link ReloadableTrie}, that reuses its automaton.
+     * When many texts are filtered with the same dictionary the automaton should be compiled once and used with
+     * {@link AhoCorasick#filter(String, String, ForkJoinPool)}.
+     *
+     * @param trie    the trie
+     * @param text    the text to filter
+     * @param replace the replacement
+     * @param pool    the pool that filters the segments
+     * @return the filtered text
+     * @throws IllegalArgumentException if {@code trie} or {@code pool} is {@code null}
+     */
+    public static String parallelFilter(Trie<?> trie, String text, String replace, ForkJoinPool pool) {
+        TrieUtil.notNull(trie, "Trie can not be null");
+
+        if (trie instanceof ReloadableTrie) {
+            trie = ((ReloadableTrie<?>) trie).current();
+        }
+        if (trie.isEmpty()) {
+            return text;
+        }
+        final AhoCorasick<?> automaton = trie instanceof ImmutableTst
+                ? ((ImmutableTst<?>) trie).automaton() : AhoCorasick.compile(trie);
+        return automaton.filter(text, replace, pool);
+    }
 }
@@ -41,4 +41,33 @@ public class Tsts {
     public static <T> Tst<T> newTst() {
         return new Tst<T>();
     }
+
+    /**
+     * Creates new instance of {@code int} valued ternary trie tree, that uses {@code 0} as the no entry value.
+     *
+     * @return a int valued ternary trie tree.
+     */
+    public static IntTst newIntTst() {
+        return new IntTst();
+    }
+
+    /**
+     * Creates new instance of {@code long} valued ternary trie tree, that uses {@code 0} as the no entry value.
+     *
+     * @return a long valued ternary trie tree.
+     */
+    public static LongTst newLongTst() {
+        return new LongTst();
+    }
+
+    /**
+     * Creates new instance of weighted ternary trie tree, that suggests the best scored keys.
+     *
+     * @param <T> the element type
+     *
+     * @return a weighted ternary trie tree.
+     */
+    public static <T> WeightedTst<T> newWeightedTst() {
+        return new WeightedTst<T>();
+    }
 }
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts the trie values to and from their binary representation, used when the trie is being stored outside of
+ * the heap.
+ *
+ * @author Jakub Narloch
+ * @see ValueCodecs
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * Encodes the value into bytes.
+     *
+     * @param value the value to encode, never {@code null}
+     * @return the encoded value
+     */
+    byte[] encode(T value);
+
+    /**
+     * Decodes the value from the given buffer region. The buffer is shared between the threads, so the implementation
+     * must use only the absolute get operations and must not modify the buffer position or limit.
+     *
+     * @param buffer the buffer
+     * @param offset the offset of the encoded value
+     * @param length the length of the encoded value
+     * @return the decoded value
+     */
+    T decode(ByteBuffer buffer, int offset, int length);
+}
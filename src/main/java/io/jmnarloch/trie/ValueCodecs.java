@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A convenient class for obtaining the common {@link ValueCodec} instances.
+ *
+ * @author Jakub Narloch
+ */
+public final class ValueCodecs {
+
+    /**
+     * The UTF-8 string codec.
+     */
+    private static final ValueCodec<String> UTF8_STRING = new ValueCodec<String>() {
+        @Override
+        public byte[] encode(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer, int offset, int length) {
+            if (buffer.hasArray()) {
+                return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+            }
+            final byte[] bytes = new byte[length];
+            for (int ind = 0; ind < length; ind++) {
+                bytes[ind] = buffer.get(offset + ind);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Creates new instances of {@link ValueCodecs}.
+     *
+     * Private constructor prevents from instantiation outside this class.
+     */
+    private ValueCodecs() {
+        // empty constructor
+    }
+
+    /**
+     * Returns the codec that stores the strings in UTF-8.
+     *
+     * @return the string codec
+     */
+    public static ValueCodec<String> utf8String() {
+        return UTF8_STRING;
+    }
+}
@@ -0,0 +1,363 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A ternary search tree that stores a score with every key and suggests the best scored keys starting with a
+ * prefix, for instance for the search box autocomplete.
+ *
+ * Every node caches the maximum score of its subtree, so that {@link #topK(String, int)} walks the subtree of the
+ * prefix best first with a priority queue and stops once the requested number of keys is found. Only the branches
+ * that can still hold one of the best keys are visited, regardless of how many keys start with the prefix.
+ *
+ * @param <T> the value type
+ * @author Jakub Narloch
+ */
+public class WeightedTst<T> {
+
+    /**
+     * Orders the candidates by the score and the keys before the subtrees with the same score, so that the search
+     * stops as soon as possible.
+     */
+    private static final Comparator<Candidate<?>> CANDIDATE_ORDER = new Comparator<Candidate<?>>() {
+        @Override
+        public int compare(Candidate<?> left, Candidate<?> right) {
+            final int score = Double.compare(right.score, left.score);
+            if (score != 0) {
+                return score;
+            }
+            if ((left.node == null) != (right.node == null)) {
+                return left.node == null ? -1 : 1;
+            }
+            return left.path.compareTo(right.path);
+        }
+    };
+
+    /**
+     * The root node of the tree.
+     */
+    private TstNode<T> root;
+
+    /**
+     * The number of keys.
+     */
+    private int size;
+
+    /**
+     * Returns whether the tree does not contain any entries.
+     *
+     * @return true if tree does not have any entries, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total number of entries.
+     *
+     * @return the total number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Associates the value and the score with the specific key, replacing the previous ones.
+     *
+     * @param key   the key
+     * @param value the value
+     * @param score the score
+     * @return the previous value associated with the key, or {@code null} if there was none
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string, {@code value} is {@code null}
+     *                                  or {@code score} is not a number
+     */
+    public T put(String key, T value, double score) {
+        notEmpty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Value can not be null");
+        }
+        if (Double.isNaN(score)) {
+            throw new IllegalArgumentException("Score must be a number");
+        }
+
+        if (root == null) {
+            root = new TstNode<T>(key.charAt(0));
+        }
+        final Deque<TstNode<T>> path = new ArrayDeque<TstNode<T>>();
+        TstNode<T> node = root;
+        int index = 0;
+        while (true) {
+            path.push(node);
+            final char c = key.charAt(index);
+            if (c < node.c) {
+                if (node.left == null) {
+                    node.left = new TstNode<T>(c);
+                }
+                node = node.left;
+            } else if (c > node.c) {
+                if (node.right == null) {
+                    node.right = new TstNode<T>(c);
+                }
+                node = node.right;
+            } else {
+                if (++index == key.length()) {
+                    break;
+                }
+                if (node.mid == null) {
+                    node.mid = new TstNode<T>(key.charAt(index));
+                }
+                node = node.mid;
+            }
+        }
+        final T previous = node.value;
+        if (previous == null) {
+            size++;
+        }
+        node.value = value;
+        node.score = score;
+        updateMaxScores(path);
+        return previous;
+    }
+
+    /**
+     * Returns whether the tree contains the specific key.
+     *
+     * @param key the key to search
+     * @return true if key exists, false otherwise
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    public boolean containsKey(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns the value associated with the specific key.
+     *
+     * @param key the key to search
+     * @return the associated key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    public T get(String key) {
+        notEmpty(key);
+
+        final TstNode<T> node = getNode(key);
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Returns the score of the specific key.
+     *
+     * @param key the key to search
+     * @return the score or {@link Double#NaN} if nothing was found
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    public double getScore(String key) {
+        notEmpty(key);
+
+        final TstNode<T> node = getNode(key);
+        return node != null && node.value != null ? node.score : Double.NaN;
+    }
+
+    /**
+     * Removes the value and score associated with specific key.
+     *
+     * @param key the key to remove
+     * @return the removed value, or {@code null} if no entry existed for given key
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    public T remove(String key) {
+        notEmpty(key);
+
+        final Deque<TstNode<T>> path = new ArrayDeque<TstNode<T>>();
+        TstNode<T> node = root;
+        int index = 0;
+        while (node != null) {
+            path.push(node);
+            final char c = key.charAt(index);
+            if (c < node.c) {
+                node = node.left;
+            } else if (c > node.c) {
+                node = node.right;
+            } else if (++index == key.length()) {
+                break;
+            } else {
+                node = node.mid;
+            }
+        }
+        if (node == null || node.value == null) {
+            return null;
+        }
+        final T value = node.value;
+        node.value = null;
+        size--;
+        updateMaxScores(path);
+        return value;
+    }
+
+    /**
+     * Returns the best scored keys that start with the prefix, including the prefix itself, from the highest score
+     * to the lowest. The order of the keys with the same score is not specified.
+     *
+     * @param prefix the prefix, the empty prefix matches all of the keys
+     * @param k      the maximum number of keys
+     * @return the best scored keys
+     * @throws IllegalArgumentException if {@code prefix} is {@code null} or {@code k} is negative
+     */
+    public List<Suggestion<T>> topK(String prefix, int k) {
+        TrieUtil.checkPrefix(prefix, k);
+
+        final PriorityQueue<Candidate<T>> queue = new PriorityQueue<Candidate<T>>(16, CANDIDATE_ORDER);
+        if (prefix.isEmpty()) {
+            offer(queue, root, prefix);
+        } else {
+            final TstNode<T> node = getNode(prefix);
+            if (node != null) {
+                if (node.value != null) {
+                    queue.add(new Candidate<T>(null, prefix, node.score, node.value));
+                }
+                offer(queue, node.mid, prefix);
+            }
+        }
+
+        final List<Suggestion<T>> suggestions = new ArrayList<Suggestion<T>>(Math.min(k, size));
+        while (suggestions.size() < k && !queue.isEmpty()) {
+            final Candidate<T> candidate = queue.poll();
+            final TstNode<T> node = candidate.node;
+            if (node == null) {
+                suggestions.add(new Suggestion<T>(candidate.path, candidate.value, candidate.score));
+                continue;
+            }
+            // the subtree is expanded into its own key and the subtrees of its children
+            final String path = candidate.path + node.c;
+            if (node.value != null) {
+                queue.add(new Candidate<T>(null, path, node.score, node.value));
+            }
+            offer(queue, node.left, candidate.path);
+            offer(queue, node.mid, path);
+            offer(queue, node.right, candidate.path);
+        }
+        return Collections.unmodifiableList(suggestions);
+    }
+
+    private void offer(PriorityQueue<Candidate<T>> queue, TstNode<T> node, String path) {
+        if (node != null) {
+            queue.add(new Candidate<T>(node, path, node.maxScore, null));
+        }
+    }
+
+    /**
+     * Recomputes the maximum scores of the nodes along the path, from the deepest node up to the root, and unlinks
+     * the nodes that no longer hold any key.
+     *
+     * @param path the path, with the deepest node on the top
+     */
+    private void updateMaxScores(Deque<TstNode<T>> path) {
+        while (!path.isEmpty()) {
+            final TstNode<T> node = path.pop();
+            node.left = prune(node.left);
+            node.mid = prune(node.mid);
+            node.right = prune(node.right);
+            double maxScore = node.value != null ? node.score : Double.NEGATIVE_INFINITY;
+            maxScore = Math.max(maxScore, maxScore(node.left));
+            maxScore = Math.max(maxScore, maxScore(node.mid));
+            node.maxScore = Math.max(maxScore, maxScore(node.right));
+        }
+        root = prune(root);
+    }
+
+    private TstNode<T> getNode(String key) {
+        TstNode<T> node = root;
+        int index = 0;
+        while (node != null) {
+            final char c = key.charAt(index);
+            if (c < node.c) {
+                node = node.left;
+            } else if (c > node.c) {
+                node = node.right;
+            } else if (++index == key.length()) {
+                return node;
+            } else {
+                node = node.mid;
+            }
+        }
+        return null;
+    }
+
+    private static <T> TstNode<T> prune(TstNode<T> node) {
+        if (node == null || node.value != null || node.left != null || node.mid != null || node.right != null) {
+            return node;
+        }
+        return null;
+    }
+
+    private static double maxScore(TstNode<?> node) {
+        return node != null ? node.maxScore : Double.NEGATIVE_INFINITY;
+    }
+
+    private static void notEmpty(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Key must be not null or not empty string.");
+        }
+    }
+
+    private static final class TstNode<T> {
+
+        private final char c;
+
+        private T value;
+
+        private double score;
+
+        private double maxScore = Double.NEGATIVE_INFINITY;
+
+        private TstNode<T> left;
+        private TstNode<T> right;
+        private TstNode<T> mid;
+
+        TstNode(char c) {
+            this.c = c;
+        }
+    }
+
+    /**
+     * Either a key or a subtree, which priority is the maximum score of its keys.
+     */
+    private static final class Candidate<T> {
+
+        private final TstNode<T> node;
+
+        private final String path;
+
+        private final double score;
+
+        private final T value;
+
+        Candidate(TstNode<T> node, String path, double score, T value) {
+            this.node = node;
+            this.path = path;
+            this.score = score;
+            this.value = value;
+        }
+    }
+}
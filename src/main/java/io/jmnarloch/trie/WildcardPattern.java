@@ -0,0 +1,399 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled wildcard pattern, that matches the whole key:
+ *
+ * <ul>
+ *     <li>{@code ?} - any single character</li>
+ *     <li>{@code *} - any sequence of characters, including the empty one</li>
+ *     <li>{@code [abc]}, {@code [a-z]} - any character of the class, {@code [!a-z]} or {@code [^a-z]} any character
+ *     outside of it</li>
+ *     <li>{@code \} - escapes the following character</li>
+ * </ul>
+ *
+ * The tries match the pattern while walking their nodes, so that only the branches that can still match are visited,
+ * see {@link Trie#keysMatching(WildcardPattern)}. The pattern is immutable and can be shared between the threads.
+ *
+ * @author Jakub Narloch
+ */
+public final class WildcardPattern {
+
+    /**
+     * The pattern.
+     */
+    private final String pattern;
+
+    /**
+     * Whether the element matches any sequence of characters, indexed by the element position.
+     */
+    private final boolean[] stars;
+
+    /**
+     * The sorted inclusive character ranges of the element class, as the pairs of the first and last character.
+     */
+    private final char[][] ranges;
+
+    /**
+     * Whether the element matches the characters outside of its ranges.
+     */
+    private final boolean[] negated;
+
+    /**
+     * The characters that every matched key starts with.
+     */
+    private final String literalPrefix;
+
+    private WildcardPattern(String pattern, List<Object> elements) {
+        this.pattern = pattern;
+        this.stars = new boolean[elements.size()];
+        this.ranges = new char[elements.size()][];
+        this.negated = new boolean[elements.size()];
+
+        final StringBuilder prefix = new StringBuilder();
+        boolean literal = true;
+        for (int index = 0; index < elements.size(); index++) {
+            final Object element = elements.get(index);
+            if (element == null) {
+                stars[index] = true;
+            } else {
+                final CharClass charClass = (CharClass) element;
+                ranges[index] = charClass.ranges;
+                negated[index] = charClass.negated;
+            }
+            literal &= element != null && !negated[index] && ranges[index].length == 2
+                    && ranges[index][0] == ranges[index][1];
+            if (literal) {
+                prefix.append(ranges[index][0]);
+            }
+        }
+        this.literalPrefix = prefix.toString();
+    }
+
+    /**
+     * Compiles the wildcard pattern.
+     *
+     * @param pattern the pattern
+     * @return the compiled pattern
+     * @throws IllegalArgumentException if {@code pattern} is {@code null} or malformed
+     */
+    public static WildcardPattern compile(String pattern) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("Pattern can not be null");
+        }
+
+        // the star is represented by null, the other elements by their character classes
+        final List<Object> elements = new ArrayList<Object>();
+        int index = 0;
+        while (index < pattern.length()) {
+            final char c = pattern.charAt(index++);
+            if (c == '*') {
+                if (elements.isEmpty() || elements.get(elements.size() - 1) != null) {
+                    elements.add(null);
+                }
+            } else if (c == '?') {
+                elements.add(new CharClass(new char[0], true));
+            } else if (c == '[') {
+                index = parseClass(pattern, index, elements);
+            } else if (c == '\\') {
+                if (index == pattern.length()) {
+                    throw new IllegalArgumentException("Dangling escape at index " + (index - 1) + ": " + pattern);
+                }
+                final char escaped = pattern.charAt(index++);
+                elements.add(new CharClass(new char[]{escaped, escaped}, false));
+            } else {
+                elements.add(new CharClass(new char[]{c, c}, false));
+            }
+        }
+        return new WildcardPattern(pattern, elements);
+    }
+
+    /**
+     * Returns whether the whole text matches the pattern.
+     *
+     * @param text the text
+     * @return true if the text matches, false otherwise
+     * @throws IllegalArgumentException if {@code text} is {@code null}
+     */
+    public boolean matches(CharSequence text) {
+        TrieUtil.notNull(text, "Text can not be null");
+
+        final Automaton automaton = automaton();
+        int state = automaton.start();
+        for (int index = 0; index < text.length() && state != Automaton.DEAD; index++) {
+            state = automaton.step(state, text.charAt(index));
+        }
+        return state != Automaton.DEAD && automaton.isAccepting(state);
+    }
+
+    /**
+     * Returns the pattern.
+     *
+     * @return the pattern
+     */
+    public String pattern() {
+        return pattern;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    /**
+     * Returns the characters that every matched key starts with, so that the tries can start the walk from the node
+     * of the prefix.
+     *
+     * @return the literal prefix, possibly empty
+     */
+    String literalPrefix() {
+        return literalPrefix;
+    }
+
+    /**
+     * Creates the automaton of the pattern. The automaton is built lazily while it is used and is not thread safe,
+     * every walk has to create its own.
+     *
+     * @return the automaton
+     */
+    Automaton automaton() {
+        return new Automaton();
+    }
+
+    private boolean matches(int element, char c) {
+        final char[] range = ranges[element];
+        boolean found = false;
+        for (int index = 0; index < range.length && !found && c >= range[index]; index += 2) {
+            found = c <= range[index + 1];
+        }
+        return found != negated[element];
+    }
+
+    private static int parseClass(String pattern, int index, List<Object> elements) {
+        final int start = index - 1;
+        boolean negated = false;
+        if (index < pattern.length() && (pattern.charAt(index) == '!' || pattern.charAt(index) == '^')) {
+            negated = true;
+            index++;
+        }
+        final List<char[]> ranges = new ArrayList<char[]>();
+        boolean first = true;
+        while (true) {
+            if (index == pattern.length()) {
+                throw new IllegalArgumentException("Unclosed character class at index " + start + ": " + pattern);
+            }
+            char c = pattern.charAt(index++);
+            // the closing bracket right after the opening one is matched literally
+            if (c == ']' && !first) {
+                break;
+            }
+            first = false;
+            if (c == '\\' && index < pattern.length()) {
+                c = pattern.charAt(index++);
+            }
+            char last = c;
+            if (index + 1 < pattern.length() && pattern.charAt(index) == '-' && pattern.charAt(index + 1) != ']') {
+                last = pattern.charAt(index + 1);
+                index += 2;
+                if (last == '\\' && index < pattern.length()) {
+                    last = pattern.charAt(index++);
+                }
+                if (last < c) {
+                    throw new IllegalArgumentException("Illegal character range at index " + start + ": "
+                            + pattern);
+                }
+            }
+            ranges.add(new char[]{c, last});
+        }
+        elements.add(new CharClass(merge(ranges), negated));
+        return index;
+    }
+
+    private static char[] merge(List<char[]> ranges) {
+        final char[][] sorted = ranges.toArray(new char[ranges.size()][]);
+        Arrays.sort(sorted, new Comparator<char[]>() {
+            @Override
+            public int compare(char[] left, char[] right) {
+                return Character.compare(left[0], right[0]);
+            }
+        });
+        final char[] merged = new char[sorted.length * 2];
+        int length = 0;
+        for (char[] range : sorted) {
+            if (length > 0 && range[0] <= merged[length - 1] + 1) {
+                merged[length - 1] = (char) Math.max(merged[length - 1], range[1]);
+            } else {
+                merged[length++] = range[0];
+                merged[length++] = range[1];
+            }
+        }
+        return Arrays.copyOf(merged, length);
+    }
+
+    private static final class CharClass {
+
+        private final char[] ranges;
+
+        private final boolean negated;
+
+        CharClass(char[] ranges, boolean negated) {
+            this.ranges = ranges;
+            this.negated = negated;
+        }
+    }
+
+    /**
+     * The deterministic automaton of the pattern, built lazily by the subset construction: every state is the set of
+     * the pattern positions reached by the walked path, created the first time some path reaches it. A trie shares
+     * the state of a node between all of its keys, so the subtree is skipped once the state is dead.
+     */
+    final class Automaton {
+
+        /**
+         * The state that does not accept any path.
+         */
+        static final int DEAD = -1;
+
+        /**
+         * The transition that has not been computed yet.
+         */
+        private static final int UNKNOWN = -2;
+
+        /**
+         * The number of characters which transitions are kept in the arrays.
+         */
+        private static final int ASCII = 128;
+
+        private final List<BitSet> states = new ArrayList<BitSet>();
+
+        private final Map<BitSet, Integer> ids = new HashMap<BitSet, Integer>();
+
+        private final List<int[]> asciiTransitions = new ArrayList<int[]>();
+
+        private final List<Map<Character, Integer>> transitions = new ArrayList<Map<Character, Integer>>();
+
+        private Automaton() {
+            final BitSet start = new BitSet();
+            start.set(0);
+            state(closure(start));
+        }
+
+        /**
+         * Returns the start state, of the empty path.
+         *
+         * @return the start state
+         */
+        int start() {
+            return 0;
+        }
+
+        /**
+         * Moves from the state by the next character of the path.
+         *
+         * @param state the state
+         * @param c     the character
+         * @return the next state, or {@link #DEAD} if no path with this prefix matches
+         */
+        int step(int state, char c) {
+            if (c < ASCII) {
+                final int[] transition = asciiTransitions.get(state);
+                if (transition[c] == UNKNOWN) {
+                    transition[c] = next(state, c);
+                }
+                return transition[c];
+            }
+            final Map<Character, Integer> transition = transitions.get(state);
+            Integer next = transition.get(c);
+            if (next == null) {
+                next = next(state, c);
+                transition.put(c, next);
+            }
+            return next;
+        }
+
+        /**
+         * Moves from the state by the characters of the path.
+         *
+         * @param state the state
+         * @param path  the characters
+         * @return the next state, or {@link #DEAD} if no path with this prefix matches
+         */
+        int step(int state, CharSequence path) {
+            for (int index = 0; index < path.length() && state != DEAD; index++) {
+                state = step(state, path.charAt(index));
+            }
+            return state;
+        }
+
+        /**
+         * Returns whether the path that reached the state matches the pattern.
+         *
+         * @param state the state
+         * @return true if the state is accepting, false otherwise
+         */
+        boolean isAccepting(int state) {
+            return states.get(state).get(stars.length);
+        }
+
+        private int next(int state, char c) {
+            final BitSet current = states.get(state);
+            final BitSet next = new BitSet();
+            for (int position = current.nextSetBit(0); position >= 0 && position < stars.length;
+                 position = current.nextSetBit(position + 1)) {
+                if (stars[position]) {
+                    next.set(position);
+                } else if (matches(position, c)) {
+                    next.set(position + 1);
+                }
+            }
+            return next.isEmpty() ? DEAD : state(closure(next));
+        }
+
+        private BitSet closure(BitSet positions) {
+            // the star can match the empty sequence, so the position after it is reached as well
+            for (int position = positions.nextSetBit(0); position >= 0 && position < stars.length;
+                 position = positions.nextSetBit(position + 1)) {
+                if (stars[position]) {
+                    positions.set(position + 1);
+                }
+            }
+            return positions;
+        }
+
+        private int state(BitSet positions) {
+            Integer id = ids.get(positions);
+            if (id == null) {
+                id = states.size();
+                states.add(positions);
+                ids.put(positions, id);
+                final int[] transition = new int[ASCII];
+                Arrays.fill(transition, UNKNOWN);
+                asciiTransitions.add(transition);
+                transitions.add(new HashMap<Character, Integer>());
+            }
+            return id;
+        }
+    }
+}
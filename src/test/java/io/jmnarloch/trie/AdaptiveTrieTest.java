@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link AdaptiveTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class AdaptiveTrieTest extends BaseTrieTest {
+
+    @Override
+    protected Trie<String> createTrie() {
+        return new AdaptiveTrie<String>();
+    }
+
+    @Test
+    public void shouldBuildFromSortedEntries() {
+
+        // given
+        final AdaptiveTrie<String> trie = new AdaptiveTrie<String>();
+        trie.put("old", "old");
+        final Random random = new Random(42);
+        final TreeMap<String, String> entries = new TreeMap<String, String>();
+        for (int ind = 0; ind < 2000; ind++) {
+            final StringBuilder key = new StringBuilder();
+            for (int length = 1 + random.nextInt(8); length > 0; length--) {
+                key.append((char) ('a' + random.nextInt(4)));
+            }
+            entries.put(key.toString(), key.toString());
+        }
+
+        // when
+        trie.putAllSorted(entries.entrySet().iterator());
+
+        // then
+        assertEquals(entries.size(), trie.size());
+        assertNull(trie.get("old"));
+        final List<String> keys = new ArrayList<String>(entries.keySet());
+        for (int index = 0; index < keys.size(); index++) {
+            assertEquals(keys.get(index), trie.get(keys.get(index)));
+            assertEquals(keys.get(index), trie.select(index));
+        }
+        final List<String> scanned = new ArrayList<String>();
+        for (String key : trie.keysWithPrefix("")) {
+            scanned.add(key);
+        }
+        assertEquals(keys, scanned);
+
+        // and
+        final int removed = keys.size() / 2;
+        for (String key : keys.subList(0, removed)) {
+            trie.remove(key);
+        }
+        trie.put("z", "z");
+        assertEquals(keys.size() - removed + 1, trie.size());
+        assertEquals("z", trie.get("z"));
+        assertEquals(keys.get(removed), trie.select(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBuildFromUnsortedEntries() {
+
+        // given
+        final Map<String, String> entries = new LinkedHashMap<String, String>();
+        entries.put("abc", "abc");
+        entries.put("ab", "ab");
+
+        // then
+        new AdaptiveTrie<String>().putAllSorted(entries.entrySet().iterator());
+    }
+
+    @Test
+    public void shouldGrowAndShrinkNodes() {
+
+        // given
+        final Trie<String> trie = createTrie();
+        final Set<String> keys = new HashSet<String>();
+        for (char c = 0x20; c < 0x120; c++) {
+            keys.add("k" + c);
+            keys.add("k" + (char) (c + 0x4e00));
+        }
+
+        for (String key : keys) {
+            // when
+            trie.put(key, key);
+
+            // then
+            assertEquals(key, trie.get(key));
+        }
+
+        // then
+        assertEquals(keys, trie.keySet());
+
+        for (String key : keys) {
+            // when
+            trie.remove(key);
+
+            // then
+            assertNull(trie.get(key));
+        }
+
+        // then
+        assertTrue(trie.isEmpty());
+    }
+
+    @Test
+    public void shouldStoreSinglePageChildren() {
+
+        // given
+        final Trie<String> trie = createTrie();
+        for (char c = 0; c < 0x100; c++) {
+            trie.put("a" + c, "a" + c);
+        }
+
+        // when
+        for (char c = 0; c < 0x100; c += 2) {
+            trie.remove("a" + c);
+        }
+
+        // then
+        for (char c = 0; c < 0x100; c++) {
+            assertEquals(c % 2 == 0 ? null : "a" + c, trie.get("a" + c));
+        }
+        assertNull(trie.get("a" + (char) 0x101));
+        assertEquals(0x80, trie.size());
+    }
+}
@@ -0,0 +1,348 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link AhoCorasick} class.
+ *
+ * @author Jakub Narloch
+ */
+public class AhoCorasickTest {
+
+    @Test
+    public void shouldNotAlterTextWithoutEntries() {
+
+        // given
+        final AhoCorasick<String> instance = AhoCorasick.compile(Collections.<String, String>emptyMap());
+
+        // expect
+        assertEquals("some text", instance.filter("some text", "*"));
+    }
+
+    @Test
+    public void shouldReplaceLeftmostMatch() {
+
+        // given
+        final Tst<String> trie = new Tst<>();
+        trie.put("abcd", "abcd");
+        trie.put("bc", "bc");
+
+        // when
+        final AhoCorasick<String> instance = AhoCorasick.compile(trie);
+
+        // then
+        assertEquals("*", instance.filter("abcd", "*"));
+        assertEquals("a*e", instance.filter("abce", "*"));
+        assertEquals(trie.filter("xabcabcd", "*"), instance.filter("xabcabcd", "*"));
+    }
+
+    @Test
+    public void shouldSkipSymbols() {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        map.put("bad", "bad");
+        map.put("a.b", "a.b");
+        map.put("...", "...");
+
+        // when
+        final AhoCorasick<String> instance = AhoCorasick.compile(map);
+
+        // then
+        assertEquals(1, instance.size());
+        assertEquals(". ** (**) ab", instance.filter(". b.a.d (b a d) ab", "**"));
+    }
+
+    @Test
+    public void shouldRemoveSkippedCharactersFromKeys() {
+
+        // given
+        final CharNormalizer normalizer = CharNormalizer.builder()
+                .skip('-', '-')
+                .keep('@', '@')
+                .build();
+
+        // when
+        final AhoCorasick<String> instance = AhoCorasick.compile(Collections.singletonMap("e-mail@", "e-mail@"),
+                normalizer);
+
+        // then
+        assertEquals(1, instance.size());
+        assertEquals("* *, e.mail", instance.filter("email@ e-ma-il@, e.mail", "*"));
+    }
+
+    @Test
+    public void shouldNormalizeKeysAndText() {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        map.put("Bad", "bad");
+        map.put("b4d", "b4d");
+        final CharNormalizer normalizer = CharNormalizer.builder()
+                .foldWidth()
+                .foldCase()
+                .map('4', 'a')
+                .build();
+
+        // when
+        final AhoCorasick<String> instance = AhoCorasick.compile(map, normalizer);
+
+        // then
+        assertEquals(1, instance.size());
+        assertEquals("* * (*) *!", instance.filter("BAD b.4.d (\uff42\uff21\uff24) bad!", "*"));
+        assertEquals(Collections.singleton("2:5:bad"), scan(instance, "a B4D"));
+        assertTrue(instance.containsAnyMatch("\uff22\u3000A d"));
+    }
+
+    @Test
+    public void shouldFilterSameAsTrie() {
+
+        final Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            // given
+            final Map<String, String> map = new HashMap<>();
+            for (int ind = random.nextInt(6); ind >= 0; ind--) {
+                final String key = randomText(random, "abc.", 1 + random.nextInt(4));
+                map.put(key, key);
+            }
+            final Tst<String> tst = new Tst<>();
+            tst.putAll(map);
+            final HashMapTrie<String> trie = new HashMapTrie<>();
+            trie.putAll(map);
+            final AhoCorasick<String> instance = AhoCorasick.compile(map);
+            final String text = randomText(random, "abc. ", random.nextInt(30));
+
+            // when
+            final String result = instance.filter(text, "*");
+
+            // then
+            assertEquals(text + " " + map.keySet(), tst.filter(text, "*"), result);
+            assertEquals(text + " " + map.keySet(), trie.filter(text, "*"), result);
+        }
+    }
+
+    @Test
+    public void shouldFilterKeysWithSymbolsSameAsEveryTrie() {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        for (String key : new String[]{"bad", "b.a.d", "\u00e9vW", "w-orse"}) {
+            map.put(key, key);
+        }
+        final Tst<String> tst = new Tst<>();
+        tst.putAll(map);
+        final HashMapTrie<String> trie = new HashMapTrie<>();
+        trie.putAll(map);
+        final String text = "a bad b.a.d vW \u00e9vW worse w-orse";
+        final String expected = "a ** ** vW \u00e9vW worse w-orse";
+
+        // expect
+        assertEquals(expected, tst.filter(text, "**"));
+        assertEquals(expected, trie.filter(text, "**"));
+        assertEquals(expected, AhoCorasick.compile(map).filter(text, "**"));
+        assertEquals(expected, AhoCorasick.compile(tst).filter(text, "**"));
+        assertEquals(expected, new ImmutableTst<>(map).filter(text, "**"));
+        assertEquals(expected, new ReloadableTrie<>(new ImmutableTst<>(map)).filter(text, "**"));
+        assertEquals(expected, Tries.parallelFilter(tst, text, "**"));
+        assertFalse(new ImmutableTst<>(map).containsAnyMatch("vW orse"));
+    }
+
+    @Test
+    public void shouldCopyStreamWithoutEntries() throws IOException {
+
+        // given
+        final AhoCorasick<String> instance = AhoCorasick.compile(Collections.<String, String>emptyMap());
+        final StringWriter writer = new StringWriter();
+
+        // when
+        instance.filter(CharBuffer.wrap("some text"), writer, "*", 4);
+
+        // then
+        assertEquals("some text", writer.toString());
+    }
+
+    @Test
+    public void shouldReplaceMatchesCrossingChunks() throws IOException {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        map.put("abcd", "abcd");
+        map.put("bc", "bc");
+        map.put("bad", "bad");
+        final AhoCorasick<String> instance = AhoCorasick.compile(map);
+        final StringWriter writer = new StringWriter();
+
+        // when
+        instance.filter(new StringReader("xabcd abce b.a.d abcabcd"), writer, "*", 3);
+
+        // then
+        assertEquals("x* a*e * a**", writer.toString());
+    }
+
+    @Test
+    public void shouldKeepPartialMatchLongerThanChunk() throws IOException {
+
+        // given
+        final AhoCorasick<String> instance = AhoCorasick.compile(Collections.singletonMap("ab", "ab"));
+        final StringBuilder text = new StringBuilder("x a");
+        for (int ind = 0; ind < 100; ind++) {
+            text.append('.');
+        }
+        text.append("b y");
+        final StringWriter writer = new StringWriter();
+
+        // when
+        instance.filter(new StringReader(text.toString()), writer, "*", 4);
+
+        // then
+        assertEquals("x * y", writer.toString());
+    }
+
+    @Test
+    public void shouldFilterStreamSameAsText() throws IOException {
+
+        final Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            // given
+            final Map<String, String> map = new HashMap<>();
+            for (int ind = random.nextInt(6); ind >= 0; ind--) {
+                final String key = randomText(random, "abc", 1 + random.nextInt(4));
+                map.put(key, key);
+            }
+            final AhoCorasick<String> instance = AhoCorasick.compile(map);
+            final String text = randomText(random, "abc. ", random.nextInt(60));
+            final StringWriter writer = new StringWriter();
+
+            // when
+            instance.filter(new StringReader(text), writer, "*", 1 + random.nextInt(5));
+
+            // then
+            assertEquals(text + " " + map.keySet(), instance.filter(text, "*"), writer.toString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotFilterStreamInEmptyChunks() throws IOException {
+
+        // given
+        final AhoCorasick<String> instance = AhoCorasick.compile(Collections.singletonMap("ab", "ab"));
+
+        // then
+        instance.filter(new StringReader("ab"), new StringWriter(), "*", 0);
+    }
+
+    @Test
+    public void shouldScanSameAsTrie() {
+
+        final Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            // given
+            final Map<String, String> map = new HashMap<>();
+            for (int ind = random.nextInt(6); ind >= 0; ind--) {
+                final String key = randomText(random, "abc", 1 + random.nextInt(4));
+                map.put(key, key);
+            }
+            final Tst<String> tst = new Tst<>();
+            tst.putAll(map);
+            final AhoCorasick<String> instance = AhoCorasick.compile(map);
+            final String text = randomText(random, "abc. ", random.nextInt(30));
+
+            // when
+            final Set<String> result = scan(instance, text);
+
+            // then
+            assertEquals(text + " " + map.keySet(), matches(tst, text), result);
+            assertEquals(text + " " + map.keySet(), !result.isEmpty(), instance.containsAnyMatch(text));
+        }
+    }
+
+    @Test
+    public void shouldFilterInParallelSameAsSequentially() {
+
+        final Random random = new Random(42);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 500; round++) {
+                // given
+                final Map<String, String> map = new HashMap<>();
+                for (int ind = random.nextInt(6); ind >= 0; ind--) {
+                    final String key = randomText(random, "abc", 1 + random.nextInt(4));
+                    map.put(key, key);
+                }
+                final AhoCorasick<String> instance = AhoCorasick.compile(map);
+                final String text = randomText(random, "abc. ", random.nextInt(100));
+
+                // when
+                final String result = instance.filter(text, "*", pool, 1 + random.nextInt(6));
+
+                // then
+                assertEquals(text + " " + map.keySet(), instance.filter(text, "*"), result);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Set<String> scan(AhoCorasick<String> automaton, String text) {
+        final Set<String> matches = new HashSet<>();
+        automaton.scan(text, new MatchListener<String>() {
+            @Override
+            public boolean onMatch(int start, int end, String value) {
+                assertTrue(matches.add(start + ":" + end + ":" + value));
+                return true;
+            }
+        });
+        return matches;
+    }
+
+    private static Set<String> matches(Trie<String> trie, String text) {
+        final Set<String> matches = new HashSet<>();
+        trie.scan(text, new MatchListener<String>() {
+            @Override
+            public boolean onMatch(int start, int end, String value) {
+                matches.add(start + ":" + end + ":" + value);
+                return true;
+            }
+        });
+        return matches;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        final StringBuilder text = new StringBuilder();
+        for (int ind = 0; ind < length; ind++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The base class for all {@link IntTrie} tests.
+ *
+ * @author Jakub Narloch
+ */
+public abstract class BaseIntTrieTest {
+
+    private IntTrie instance;
+
+    @Before
+    public void setUp() {
+
+        instance = createTrie();
+        for (String value : getValues()) {
+            instance.putInt(value, value.length());
+        }
+    }
+
+    @Test
+    public void shouldBeEmpty() {
+
+        // given
+        instance = createTrie();
+
+        // expect
+        assertTrue(instance.isEmpty());
+        assertEquals(0, instance.size());
+        assertEquals(0, instance.getInt("/uaa"));
+        assertTrue(instance.keySet().isEmpty());
+    }
+
+    @Test
+    public void shouldReturnsCorrectTrieSize() {
+
+        // expect
+        assertEquals(getValues().size(), instance.size());
+    }
+
+    @Test
+    public void shouldNotAlterSizeOnDuplicates() {
+
+        // given
+        for (String value : getValues()) {
+            instance.putInt(value, 1);
+        }
+
+        // expect
+        assertEquals(getValues().size(), instance.size());
+    }
+
+    @Test
+    public void shouldFindAllMatchingKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final int result = instance.getInt(value);
+
+            // then
+            assertEquals(value.length(), result);
+        }
+        assertEquals(instance.getNoEntryValue(), instance.getInt("/ua"));
+        assertEquals(instance.getNoEntryValue(), instance.getInt("/uaa/**/"));
+    }
+
+    @Test
+    public void shouldFindAllPrefixKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final String result = instance.prefixKey(value + "/next");
+
+            // then
+            assertEquals(value, result);
+        }
+        assertNull(instance.prefixKey("/ua"));
+    }
+
+    @Test
+    public void shouldFindAllPrefixKeysValues() {
+
+        for (String value : getValues()) {
+            // when
+            final int result = instance.prefixInt(value + "/next");
+
+            // then
+            assertEquals(value.length(), result);
+        }
+        assertEquals(instance.getNoEntryValue(), instance.prefixInt("/ua"));
+    }
+
+    @Test
+    public void shouldFindAllExistingKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final boolean exists = instance.containsKey(value);
+
+            // then
+            assertTrue(exists);
+        }
+        assertFalse(instance.containsKey("/"));
+    }
+
+    @Test
+    public void shouldReplaceKeyValues() {
+
+        for (String value : getValues()) {
+            // when
+            final int previous = instance.putInt(value, -1);
+
+            // then
+            assertEquals(value.length(), previous);
+            assertEquals(-1, instance.getInt(value));
+        }
+    }
+
+    @Test
+    public void shouldReturnNoEntryValueForNewKey() {
+
+        // when
+        final int previous = instance.putInt("/other/**", 1);
+
+        // then
+        assertEquals(instance.getNoEntryValue(), previous);
+        assertEquals(getValues().size() + 1, instance.size());
+    }
+
+    @Test
+    public void shouldStoreNoEntryValue() {
+
+        // given
+        instance = createTrie();
+
+        // when
+        instance.putInt("key", instance.getNoEntryValue());
+
+        // then
+        assertEquals(1, instance.size());
+        assertTrue(instance.containsKey("key"));
+        assertEquals("key", instance.prefixKey("keys"));
+    }
+
+    @Test
+    public void shouldCountOccurrences() {
+
+        // given
+        instance = createTrie();
+
+        // when
+        for (String word : "to be or not to be".split(" ")) {
+            instance.addAndGet(word, 1);
+        }
+
+        // then
+        assertEquals(4, instance.size());
+        assertEquals(2, instance.getInt("to"));
+        assertEquals(2, instance.getInt("be"));
+        assertEquals(1, instance.getInt("or"));
+        assertEquals(1, instance.getInt("not"));
+        assertEquals(-3, instance.addAndGet("not", -4));
+    }
+
+    @Test
+    public void shouldOverflowLikeInt() {
+
+        // given
+        instance = createTrie();
+        instance.putInt("max", Integer.MAX_VALUE);
+
+        // expect
+        assertEquals(Integer.MIN_VALUE, instance.addAndGet("max", 1));
+        assertEquals(Integer.MIN_VALUE, instance.getInt("max"));
+        assertEquals(Integer.MIN_VALUE, instance.prefixInt("maximum"));
+        assertEquals(Integer.MAX_VALUE, instance.addAndGet("max", -1));
+        assertEquals(Integer.MAX_VALUE, instance.removeInt("max"));
+    }
+
+    @Test
+    public void shouldRemoveAllEntries() {
+
+        for (String value : getValues()) {
+            // when
+            final int removed = instance.removeInt(value);
+
+            // then
+            assertEquals(value.length(), removed);
+            assertFalse(instance.containsKey(value));
+        }
+        assertTrue(instance.isEmpty());
+        assertTrue(instance.keySet().isEmpty());
+    }
+
+    @Test
+    public void shouldRemoveKeysSharingPrefix() {
+
+        // given
+        instance = createTrie();
+        instance.putInt("a", 1);
+        instance.putInt("ab", 2);
+        instance.putInt("abc", 3);
+        instance.putInt("b", 4);
+
+        // when
+        final int removed = instance.removeInt("ab");
+
+        // then
+        assertEquals(2, removed);
+        assertEquals(instance.getNoEntryValue(), instance.removeInt("ab"));
+        assertEquals(3, instance.size());
+        assertEquals(1, instance.getInt("a"));
+        assertEquals(3, instance.getInt("abc"));
+        assertEquals(1, instance.prefixInt("abd"));
+        assertEquals(new HashSet<String>(Arrays.asList("a", "abc", "b")), instance.keySet());
+    }
+
+    @Test
+    public void shouldGetAllKeys() {
+
+        // expect
+        assertEquals(getValues(), instance.keySet());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptEmptyKey() {
+
+        // then
+        instance.putInt("", 1);
+    }
+
+    protected abstract IntTrie createTrie();
+
+    protected Set<String> getValues() {
+
+        return new HashSet<String>(Arrays.asList(
+                "/uaa/**",
+                "/user/**",
+                "/account/**",
+                "/api/**",
+                "/notifications/**",
+                "/ws/**"
+        ));
+    }
+}
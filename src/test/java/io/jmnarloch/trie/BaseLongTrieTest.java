@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The base class for all {@link LongTrie} tests.
+ *
+ * @author Jakub Narloch
+ */
+public abstract class BaseLongTrieTest {
+
+    private LongTrie instance;
+
+    @Before
+    public void setUp() {
+
+        instance = createTrie();
+        for (String value : getValues()) {
+            instance.putLong(value, value.length());
+        }
+    }
+
+    @Test
+    public void shouldBeEmpty() {
+
+        // given
+        instance = createTrie();
+
+        // expect
+        assertTrue(instance.isEmpty());
+        assertEquals(0, instance.size());
+        assertEquals(0, instance.getLong("/uaa"));
+        assertTrue(instance.keySet().isEmpty());
+    }
+
+    @Test
+    public void shouldReturnsCorrectTrieSize() {
+
+        // expect
+        assertEquals(getValues().size(), instance.size());
+    }
+
+    @Test
+    public void shouldNotAlterSizeOnDuplicates() {
+
+        // given
+        for (String value : getValues()) {
+            instance.putLong(value, 1);
+        }
+
+        // expect
+        assertEquals(getValues().size(), instance.size());
+    }
+
+    @Test
+    public void shouldFindAllMatchingKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final long result = instance.getLong(value);
+
+            // then
+            assertEquals(value.length(), result);
+        }
+        assertEquals(instance.getNoEntryValue(), instance.getLong("/ua"));
+        assertEquals(instance.getNoEntryValue(), instance.getLong("/uaa/**/"));
+    }
+
+    @Test
+    public void shouldFindAllPrefixKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final String result = instance.prefixKey(value + "/next");
+
+            // then
+            assertEquals(value, result);
+        }
+        assertNull(instance.prefixKey("/ua"));
+    }
+
+    @Test
+    public void shouldFindAllPrefixKeysValues() {
+
+        for (String value : getValues()) {
+            // when
+            final long result = instance.prefixLong(value + "/next");
+
+            // then
+            assertEquals(value.length(), result);
+        }
+        assertEquals(instance.getNoEntryValue(), instance.prefixLong("/ua"));
+    }
+
+    @Test
+    public void shouldFindAllExistingKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final boolean exists = instance.containsKey(value);
+
+            // then
+            assertTrue(exists);
+        }
+        assertFalse(instance.containsKey("/"));
+    }
+
+    @Test
+    public void shouldReplaceKeyValues() {
+
+        for (String value : getValues()) {
+            // when
+            final long previous = instance.putLong(value, -1);
+
+            // then
+            assertEquals(value.length(), previous);
+            assertEquals(-1, instance.getLong(value));
+        }
+    }
+
+    @Test
+    public void shouldReturnNoEntryValueForNewKey() {
+
+        // when
+        final long previous = instance.putLong("/other/**", 1);
+
+        // then
+        assertEquals(instance.getNoEntryValue(), previous);
+        assertEquals(getValues().size() + 1, instance.size());
+    }
+
+    @Test
+    public void shouldStoreNoEntryValue() {
+
+        // given
+        instance = createTrie();
+
+        // when
+        instance.putLong("key", instance.getNoEntryValue());
+
+        // then
+        assertEquals(1, instance.size());
+        assertTrue(instance.containsKey("key"));
+        assertEquals("key", instance.prefixKey("keys"));
+    }
+
+    @Test
+    public void shouldCountOccurrences() {
+
+        // given
+        instance = createTrie();
+
+        // when
+        for (String word : "to be or not to be".split(" ")) {
+            instance.addAndGet(word, 1);
+        }
+
+        // then
+        assertEquals(4, instance.size());
+        assertEquals(2, instance.getLong("to"));
+        assertEquals(2, instance.getLong("be"));
+        assertEquals(1, instance.getLong("or"));
+        assertEquals(1, instance.getLong("not"));
+        assertEquals(-3, instance.addAndGet("not", -4));
+    }
+
+    @Test
+    public void shouldRemoveAllEntries() {
+
+        for (String value : getValues()) {
+            // when
+            final long removed = instance.removeLong(value);
+
+            // then
+            assertEquals(value.length(), removed);
+            assertFalse(instance.containsKey(value));
+        }
+        assertTrue(instance.isEmpty());
+        assertTrue(instance.keySet().isEmpty());
+    }
+
+    @Test
+    public void shouldRemoveKeysSharingPrefix() {
+
+        // given
+        instance = createTrie();
+        instance.putLong("a", 1);
+        instance.putLong("ab", 2);
+        instance.putLong("abc", 3);
+        instance.putLong("b", 4);
+
+        // when
+        final long removed = instance.removeLong("ab");
+
+        // then
+        assertEquals(2, removed);
+        assertEquals(instance.getNoEntryValue(), instance.removeLong("ab"));
+        assertEquals(3, instance.size());
+        assertEquals(1, instance.getLong("a"));
+        assertEquals(3, instance.getLong("abc"));
+        assertEquals(1, instance.prefixLong("abd"));
+        assertEquals(new HashSet<String>(Arrays.asList("a", "abc", "b")), instance.keySet());
+    }
+
+    @Test
+    public void shouldGetAllKeys() {
+
+        // expect
+        assertEquals(getValues(), instance.keySet());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptEmptyKey() {
+
+        // then
+        instance.putLong("", 1);
+    }
+
+    protected abstract LongTrie createTrie();
+
+    protected Set<String> getValues() {
+
+        return new HashSet<String>(Arrays.asList(
+                "/uaa/**",
+                "/user/**",
+                "/account/**",
+                "/api/**",
+                "/notifications/**",
+                "/ws/**"
+        ));
+    }
+}
@@ -18,13 +18,27 @@ package io.jmnarloch.trie;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -210,6 +224,695 @@ public abstract class BaseTrieTest {
         }
     }
 
+    @Test
+    public void shouldFindKeysInCharSequence() {
+
+        for (String value : getValues()) {
+            // given
+            final StringBuilder key = new StringBuilder(value);
+
+            // expect
+            assertTrue(instance.containsKey(key));
+            assertEquals(value, instance.get(key));
+            assertEquals(value, instance.prefix(key.append("/next")));
+            assertEquals(value, instance.prefixKey(key));
+            assertNull(instance.get(key));
+        }
+    }
+
+    @Test
+    public void shouldFindKeysInCharArrayRange() {
+
+        for (String value : getValues()) {
+            // given
+            final char[] text = ("GET " + value + "/next").toCharArray();
+
+            // expect
+            assertTrue(instance.containsKey(text, 4, value.length()));
+            assertFalse(instance.containsKey(text, 4, value.length() - 1));
+            assertEquals(value, instance.get(text, 4, value.length()));
+            assertEquals(value, instance.prefix(text, 4, text.length - 4));
+            assertEquals(value, instance.prefixKey(text, 4, text.length - 4));
+            assertNull(instance.prefixKey(text, 0, text.length));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptCharArrayRangeOutOfBounds() {
+
+        // then
+        instance.get(new char[4], 2, 3);
+    }
+
+    @Test
+    public void shouldFindLongestMatch() {
+
+        // given
+        instance = createTrie();
+        instance.put("new", "new");
+        instance.put("newyork", "newyork");
+        instance.put("york", "york");
+        final PrefixMatch<String> match = new PrefixMatch<String>();
+
+        // when
+        final boolean found = instance.longestMatch("in newyorker", 3, match);
+
+        // then
+        assertTrue(found);
+        assertEquals(3, match.getOffset());
+        assertEquals(7, match.getLength());
+        assertEquals(10, match.getEnd());
+        assertEquals("newyork", match.getValue());
+        assertFalse(instance.longestMatch("in newyorker", 0, match));
+        assertFalse(match.isFound());
+        assertNull(match.getValue());
+        assertFalse(instance.longestMatch("in newyorker", 12, match));
+    }
+
+    @Test
+    public void shouldFindAllPrefixes() {
+
+        // given
+        instance = createTrie();
+        instance.put("a", "a");
+        instance.put("abc", "abc");
+        instance.put("abcde", "abcde");
+        instance.put("b", "b");
+        final List<String> matches = new ArrayList<String>();
+
+        // when
+        instance.allPrefixes("xabcdef", 1, new MatchListener<String>() {
+            @Override
+            public boolean onMatch(int start, int end, String value) {
+                matches.add(start + ":" + end + ":" + value);
+                return true;
+            }
+        });
+
+        // then
+        assertEquals(Arrays.asList("1:2:a", "1:4:abc", "1:6:abcde"), matches);
+    }
+
+    @Test
+    public void shouldStopReportingPrefixes() {
+
+        // given
+        instance = createTrie();
+        instance.put("a", "a");
+        instance.put("abc", "abc");
+        final List<String> matches = new ArrayList<String>();
+
+        // when
+        instance.allPrefixes("abc", 0, new MatchListener<String>() {
+            @Override
+            public boolean onMatch(int start, int end, String value) {
+                matches.add(value);
+                return false;
+            }
+        });
+
+        // then
+        assertEquals(Collections.singletonList("a"), matches);
+    }
+
+    @Test
+    public void shouldIterateKeysWithPrefixInOrder() {
+
+        // given
+        instance = createTrie();
+        for (String key : Arrays.asList("car", "cart", "carbon", "care", "cat", "ca", "dog")) {
+            instance.put(key, key.toUpperCase());
+        }
+
+        // expect
+        assertEquals(Arrays.asList("car", "carbon", "care", "cart"), toList(instance.keysWithPrefix("car")));
+        assertEquals(Arrays.asList("ca", "car", "carbon", "care", "cart", "cat", "dog"),
+                toList(instance.keysWithPrefix("")));
+        assertTrue(toList(instance.keysWithPrefix("cow")).isEmpty());
+        final Map.Entry<String, String> entry = instance.entriesWithPrefix("cat").iterator().next();
+        assertEquals("cat", entry.getKey());
+        assertEquals("CAT", entry.getValue());
+    }
+
+    @Test
+    public void shouldPageKeysWithPrefix() {
+
+        // given
+        instance = createTrie();
+        for (String key : Arrays.asList("car", "cart", "carbon", "care", "cat", "ca", "dog")) {
+            instance.put(key, key);
+        }
+
+        // expect
+        assertEquals(Arrays.asList("ca", "car"), toList(instance.keysWithPrefix("ca", null, 2)));
+        assertEquals(Arrays.asList("carbon", "care"), toList(instance.keysWithPrefix("ca", "car", 2)));
+        assertEquals(Arrays.asList("cart", "cat"), toList(instance.keysWithPrefix("ca", "care", 2)));
+        assertEquals(Arrays.asList("care", "cart"), toList(instance.keysWithPrefix("ca", "carc", 2)));
+        assertEquals(Arrays.asList("ca", "car"), toList(instance.keysWithPrefix("ca", "b", 2)));
+        assertTrue(toList(instance.keysWithPrefix("ca", "cb", 2)).isEmpty());
+        assertTrue(toList(instance.keysWithPrefix("ca", "cat", 2)).isEmpty());
+        assertTrue(toList(instance.keysWithPrefix("ca", null, 0)).isEmpty());
+    }
+
+    @Test
+    public void shouldPageAllKeysWithPrefix() {
+
+        // given
+        instance = createTrie();
+        final TreeMap<String, String> expected = new TreeMap<String, String>();
+        final Random random = new Random(42);
+        for (int ind = 0; ind < 300; ind++) {
+            final String key = randomKey(random);
+            instance.put(key, key);
+            expected.put(key, key);
+        }
+
+        for (int ind = 0; ind < 300; ind++) {
+            // given
+            final String prefix = ind % 3 == 0 ? "" : randomKey(random).substring(0, 1);
+            final String after = ind % 2 == 0 ? null : randomKey(random);
+            final int limit = random.nextInt(20);
+            final List<String> keys = new ArrayList<String>();
+            for (String key : expected.keySet()) {
+                if (key.startsWith(prefix) && (after == null || key.compareTo(after) > 0) && keys.size() < limit) {
+                    keys.add(key);
+                }
+            }
+
+            // when
+            final List<String> result = toList(instance.keysWithPrefix(prefix, after, limit));
+
+            // then
+            assertEquals(prefix + " after " + after, keys, result);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNegativeLimit() {
+
+        // then
+        instance.keysWithPrefix("", null, -1);
+    }
+
+    @Test
+    public void shouldNavigateKeysInOrder() {
+
+        // given
+        instance = createTrie();
+        for (String key : Arrays.asList("car", "card", "care", "cat", "dog")) {
+            instance.put(key, key);
+        }
+
+        // expect
+        assertEquals(0, instance.rank("car"));
+        assertEquals(1, instance.rank("card"));
+        assertEquals(1, instance.rank("caravan"));
+        assertEquals(3, instance.rank("carf"));
+        assertEquals(5, instance.rank("zebra"));
+        assertEquals("care", instance.select(2));
+        assertEquals("dog", instance.select(4));
+        assertEquals("care", instance.floorKey("cars"));
+        assertEquals("cat", instance.ceilingKey("cars"));
+        assertEquals("card", instance.floorKey("card"));
+        assertNull(instance.floorKey("bus"));
+        assertNull(instance.ceilingKey("eel"));
+        assertEquals(4, instance.countWithPrefix("ca"));
+        assertEquals(3, instance.countWithPrefix("car"));
+        assertEquals(5, instance.countWithPrefix(""));
+        assertEquals(0, instance.countWithPrefix("cow"));
+    }
+
+    @Test
+    public void shouldNavigateRandomKeysInOrder() {
+
+        // given
+        instance = createTrie();
+        final Random random = new Random(42);
+        final TreeMap<String, String> expected = new TreeMap<String, String>();
+        for (int ind = 0; ind < 1000; ind++) {
+            final String key = randomKey(random);
+            if (random.nextInt(4) == 0) {
+                instance.remove(key);
+                expected.remove(key);
+            } else {
+                instance.put(key, key);
+                expected.put(key, key);
+            }
+        }
+        final List<String> keys = new ArrayList<String>(expected.keySet());
+
+        // expect
+        assertEquals(expected.size(), instance.size());
+        for (int index = 0; index < keys.size(); index++) {
+            assertEquals(keys.get(index), instance.select(index));
+            assertEquals(index, instance.rank(keys.get(index)));
+        }
+        for (int ind = 0; ind < 200; ind++) {
+            final String key = randomKey(random);
+            assertEquals(key, expected.headMap(key).size(), instance.rank(key));
+            assertEquals(key, expected.floorKey(key), instance.floorKey(key));
+            assertEquals(key, expected.ceilingKey(key), instance.ceilingKey(key));
+            assertEquals(key, expected.subMap(key, key + Character.MAX_VALUE).size(), instance.countWithPrefix(key));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotSelectIndexOutOfBounds() {
+
+        // then
+        instance.select(instance.size());
+    }
+
+    @Test
+    public void shouldScanAllMatches() {
+
+        // given
+        instance = createTrie();
+        for (String key : Arrays.asList("cat", "cats", "at", "dog")) {
+            instance.put(key, key);
+        }
+        final List<String> matches = new ArrayList<String>();
+
+        // when
+        instance.scan("the cats, c.a.t", new MatchListener<String>() {
+            @Override
+            public boolean onMatch(int start, int end, String value) {
+                matches.add(start + ":" + end + ":" + value);
+                return true;
+            }
+        });
+
+        // then
+        assertEquals(Arrays.asList("4:7:cat", "4:8:cats", "5:7:at", "10:15:cat", "12:15:at"), matches);
+    }
+
+    @Test
+    public void shouldStopScan() {
+
+        // given
+        instance = createTrie();
+        instance.put("a", "a");
+        final List<Integer> starts = new ArrayList<Integer>();
+
+        // when
+        instance.scan("banana", new MatchListener<String>() {
+            @Override
+            public boolean onMatch(int start, int end, String value) {
+                starts.add(start);
+                return starts.size() < 2;
+            }
+        });
+
+        // then
+        assertEquals(Arrays.asList(1, 3), starts);
+    }
+
+    @Test
+    public void shouldContainAnyMatchWhenFilterReplaces() {
+
+        // given
+        instance = createTrie();
+        final Random random = new Random(42);
+        for (int ind = 0; ind < 20; ind++) {
+            final String key = randomKey(random);
+            instance.put(key, key);
+        }
+
+        // expect
+        assertFalse(instance.containsAnyMatch(""));
+        for (int ind = 0; ind < 200; ind++) {
+            final String text = randomKey(random) + (random.nextBoolean() ? ". " : "") + randomKey(random);
+            assertEquals(text, !instance.filter(text, "*").equals(text), instance.containsAnyMatch(text));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotScanNullText() {
+
+        // then
+        instance.containsAnyMatch(null);
+    }
+
+    @Test
+    public void shouldFilterStream() throws IOException {
+
+        // given
+        instance = createTrie();
+        instance.put("bad", "bad");
+        instance.put("worse", "worse");
+        final String text = "bad, b.a.d and worse; not bald";
+        final StringWriter writer = new StringWriter();
+
+        // when
+        instance.filter(new StringReader(text), writer, "***");
+
+        // then
+        assertEquals(instance.filter(text, "***"), writer.toString());
+        assertEquals("***, *** and ***; not bald", writer.toString());
+    }
+
+    @Test
+    public void shouldFilterLongStreamSameAsText() throws IOException {
+
+        // given
+        instance = createTrie();
+        final Random random = new Random(42);
+        for (int ind = 0; ind < 20; ind++) {
+            final String key = randomText(random, "abc", 2 + random.nextInt(4));
+            instance.put(key, key);
+        }
+        final String text = randomText(random, "abc. ", 50000);
+        final StringWriter writer = new StringWriter();
+
+        // when
+        instance.filter(new StringReader(text), writer, "*");
+
+        // then
+        assertEquals(instance.filter(text, "*"), writer.toString());
+    }
+
+    @Test
+    public void shouldFilterStreamWithMatchLongerThanChunk() throws IOException {
+
+        // given
+        instance = createTrie();
+        instance.put("ab", "ab");
+        final StringBuilder text = new StringBuilder("xa");
+        for (int ind = 0; ind < 20000; ind++) {
+            text.append('.');
+        }
+        text.append("by a");
+        final StringWriter writer = new StringWriter();
+
+        // when
+        instance.filter(new StringReader(text.toString()), writer, "*");
+
+        // then
+        assertEquals("x*y a", writer.toString());
+    }
+
+    @Test
+    public void shouldStreamEntriesInOrder() {
+
+        // given
+        instance = createTrie();
+        for (String key : Arrays.asList("car", "cart", "ca", "dog", "do", "cat")) {
+            instance.put(key, key.toUpperCase());
+        }
+
+        // expect
+        assertEquals(Arrays.asList("ca", "car", "cart", "cat", "do", "dog"),
+                instance.keys().collect(Collectors.toList()));
+        assertEquals(Arrays.asList("CA", "CAR", "CART", "CAT", "DO", "DOG"),
+                instance.values().collect(Collectors.toList()));
+        assertEquals(6, instance.entries().count());
+        assertEquals(3, instance.keys().parallel().filter(new Predicate<String>() {
+            @Override
+            public boolean test(String key) {
+                return key.startsWith("car") || key.equals("do");
+            }
+        }).count());
+    }
+
+    @Test
+    public void shouldStreamRandomEntriesInParallel() {
+
+        // given
+        instance = createTrie();
+        final Random random = new Random(42);
+        final TreeMap<String, String> expected = new TreeMap<String, String>();
+        for (int ind = 0; ind < 5000; ind++) {
+            final String key = randomKey(random);
+            if (random.nextInt(4) == 0) {
+                instance.remove(key);
+                expected.remove(key);
+            } else {
+                instance.put(key, key);
+                expected.put(key, key);
+            }
+        }
+        final List<String> keys = new ArrayList<String>(expected.keySet());
+
+        // when
+        final List<String> result = instance.keys().parallel().collect(Collectors.toList());
+
+        // then
+        assertEquals(keys, result);
+        assertEquals(keys, instance.values().parallel().collect(Collectors.toList()));
+        assertEquals(keys.size(), instance.entries().parallel().count());
+    }
+
+    @Test
+    public void shouldSplitEntriesInOrder() {
+
+        // given
+        instance = createTrie();
+        final Random random = new Random(7);
+        final TreeSet<String> expected = new TreeSet<String>();
+        for (int ind = 0; ind < 3000; ind++) {
+            final String key = randomKey(random);
+            instance.put(key, key);
+            expected.add(key);
+        }
+
+        // when
+        final List<Spliterator<Map.Entry<String, String>>> parts = new ArrayList<Spliterator<Map.Entry<String, String>>>();
+        split(instance.entries().spliterator(), parts);
+
+        // then
+        final List<String> keys = new ArrayList<String>();
+        for (Spliterator<Map.Entry<String, String>> part : parts) {
+            final long size = part.estimateSize();
+            final int count = keys.size();
+            part.forEachRemaining(new Consumer<Map.Entry<String, String>>() {
+                @Override
+                public void accept(Map.Entry<String, String> entry) {
+                    keys.add(entry.getKey());
+                }
+            });
+            if (part.hasCharacteristics(Spliterator.SIZED)) {
+                assertEquals(size, keys.size() - count);
+            }
+        }
+        assertTrue(parts.size() > 1);
+        assertEquals(new ArrayList<String>(expected), keys);
+    }
+
+    @Test
+    public void shouldFindKeysMatchingPattern() {
+
+        // given
+        instance = createTrie();
+        for (String key : Arrays.asList("abcd", "abd", "abxd", "abcde", "abxyzd", "acd", "bbcd")) {
+            instance.put(key, key);
+        }
+
+        // expect
+        assertEquals(Arrays.asList("abcd", "abxd"), toList(instance.keysMatching(WildcardPattern.compile("ab?d"))));
+        assertEquals(Arrays.asList("abcd", "abd", "abxd", "abxyzd"),
+                toList(instance.keysMatching(WildcardPattern.compile("ab*d"))));
+        assertEquals(Arrays.asList("abcd", "abxd", "abxyzd", "bbcd"),
+                toList(instance.keysMatching(WildcardPattern.compile("[ab][bc]*[!e]d"))));
+        assertTrue(toList(instance.keysMatching(WildcardPattern.compile("x*"))).isEmpty());
+    }
+
+    @Test
+    public void shouldFindKeysMatchingRandomPatterns() {
+
+        // given
+        instance = createTrie();
+        final Random random = new Random(42);
+        for (int ind = 0; ind < 500; ind++) {
+            final String key = randomKey(random);
+            instance.put(key, key);
+        }
+        final String[] elements = {"a", "b", "?", "*", "[ab]", "[!a]"};
+
+        for (int ind = 0; ind < 100; ind++) {
+            final StringBuilder builder = new StringBuilder();
+            for (int length = random.nextInt(5); length >= 0; length--) {
+                builder.append(elements[random.nextInt(elements.length)]);
+            }
+            final WildcardPattern pattern = WildcardPattern.compile(builder.toString());
+
+            // when
+            final List<String> keys = toList(instance.keysMatching(pattern));
+
+            // then
+            final List<String> expected = new ArrayList<String>();
+            for (String key : new TreeSet<String>(instance.keySet())) {
+                if (key.matches(builder.toString().replace("?", ".").replace("*", ".*").replace("!", "^"))) {
+                    expected.add(key);
+                }
+            }
+            assertEquals(pattern.pattern(), expected, keys);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNullPattern() {
+
+        // then
+        instance.keysMatching(null);
+    }
+
+    @Test
+    public void shouldFindFuzzyMatches() {
+
+        // given
+        instance = createTrie();
+        for (String key : Arrays.asList("car", "cart", "card", "care", "cat", "bar", "scar", "cargo")) {
+            instance.put(key, key);
+        }
+
+        // when
+        final List<FuzzyMatch<String>> matches = instance.fuzzyMatches("car", 1);
+
+        // then
+        final List<String> keys = new ArrayList<String>();
+        final List<Integer> distances = new ArrayList<Integer>();
+        for (FuzzyMatch<String> match : matches) {
+            keys.add(match.getKey());
+            distances.add(match.getDistance());
+            assertEquals(match.getKey(), match.getValue());
+        }
+        assertEquals(Arrays.asList("car", "bar", "card", "care", "cart", "cat", "scar"), keys);
+        assertEquals(Arrays.asList(0, 1, 1, 1, 1, 1, 1), distances);
+        assertTrue(instance.fuzzyMatches("dog", 1).isEmpty());
+    }
+
+    @Test
+    public void shouldFindFuzzyMatchesWithinDistance() {
+
+        // given
+        instance = createTrie();
+        final Random random = new Random(42);
+        for (int ind = 0; ind < 500; ind++) {
+            final String key = randomKey(random);
+            instance.put(key, key);
+        }
+
+        for (int ind = 0; ind < 50; ind++) {
+            final String key = random.nextBoolean() ? randomKey(random) : "";
+            final int maxDistance = random.nextInt(3);
+
+            // when
+            final List<FuzzyMatch<String>> matches = instance.fuzzyMatches(key, maxDistance);
+
+            // then
+            final List<String> expected = new ArrayList<String>();
+            for (String candidate : new TreeSet<String>(instance.keySet())) {
+                if (distance(key, candidate) <= maxDistance) {
+                    expected.add(candidate);
+                }
+            }
+            final Set<String> actual = new TreeSet<String>();
+            for (FuzzyMatch<String> match : matches) {
+                assertEquals(distance(key, match.getKey()), match.getDistance());
+                actual.add(match.getKey());
+            }
+            assertEquals(expected, new ArrayList<String>(actual));
+            assertEquals(expected.size(), matches.size());
+        }
+    }
+
+    @Test
+    public void shouldFindAllKeysWithinLargeDistance() {
+
+        // given
+        instance = createTrie();
+        for (String key : Arrays.asList("a", "abc", "abcdefghijklmnopqrstuvwxyz", "xyz")) {
+            instance.put(key, key);
+        }
+
+        // when
+        final List<FuzzyMatch<String>> matches = instance.fuzzyMatches("abc", Integer.MAX_VALUE);
+
+        // then
+        assertEquals(4, matches.size());
+        assertEquals("abc", matches.get(0).getKey());
+        assertEquals(23, matches.get(3).getDistance());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNegativeDistance() {
+
+        // then
+        instance.fuzzyMatches("car", -1);
+    }
+
+    @Test
+    public void shouldFilterWords() {
+
+        // given
+        instance = createTrie();
+        instance.put("bad", "bad");
+        instance.put("badger", "badger");
+        instance.put("worse", "worse");
+
+        // when
+        final String result = instance.filter("a bad b.b-a-d worse badge", "**");
+
+        // then
+        assertEquals("a ** b.** ** **ge", result);
+    }
+
+    @Test
+    public void shouldFilterWordsAtTheEndOfText() {
+
+        // given
+        instance = createTrie();
+        instance.put("abc", "abc");
+        instance.put("b", "b");
+
+        // when
+        final String result = instance.filter("xab", "*");
+
+        // then
+        assertEquals("xa*", result);
+    }
+
+    private static <E> void split(Spliterator<E> spliterator, List<Spliterator<E>> parts) {
+        final Spliterator<E> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            parts.add(spliterator);
+        } else {
+            split(prefix, parts);
+            split(spliterator, parts);
+        }
+    }
+
+    private static String randomKey(Random random) {
+        final StringBuilder key = new StringBuilder();
+        for (int length = 1 + random.nextInt(5); length > 0; length--) {
+            key.append((char) ('a' + random.nextInt(3)));
+        }
+        return key.toString();
+    }
+
+    private static int distance(String left, String right) {
+        final int[][] distances = new int[left.length() + 1][right.length() + 1];
+        for (int i = 0; i <= left.length(); i++) {
+            for (int j = 0; j <= right.length(); j++) {
+                if (i == 0 || j == 0) {
+                    distances[i][j] = i + j;
+                } else {
+                    distances[i][j] = Math.min(Math.min(distances[i - 1][j], distances[i][j - 1]) + 1,
+                            distances[i - 1][j - 1] + (left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1));
+                }
+            }
+        }
+        return distances[left.length()][right.length()];
+    }
+
+    private static List<String> toList(Iterable<String> keys) {
+        final List<String> list = new ArrayList<String>();
+        for (String key : keys) {
+            list.add(key);
+        }
+        return list;
+    }
+
     protected Set<String> getValues() {
 
         return new HashSet<String>(Arrays.asList(
@@ -223,4 +926,12 @@ public abstract class BaseTrieTest {
     }
 
     protected abstract Trie<String> createTrie();
+
+    private static String randomText(Random random, String alphabet, int length) {
+        final StringBuilder text = new StringBuilder();
+        for (int ind = 0; ind < length; ind++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
 }
\ No newline at end of file
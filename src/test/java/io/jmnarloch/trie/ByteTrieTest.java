@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ByteTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class ByteTrieTest extends BaseTrieTest {
+
+    @Test
+    public void shouldFindKeysByBytes() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+
+        // expect
+        assertEquals("/api/**", trie.get(bytes("/api/**")));
+        assertEquals("\u4e2d\u6587", trie.get(bytes("\u4e2d\u6587")));
+        assertNull(trie.get(bytes("\u4e2d")));
+        assertNull(trie.get(bytes("/ap")));
+    }
+
+    @Test
+    public void shouldContainUnicodeKeys() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+        trie.put("caf\u00e9", "coffee");
+        trie.put("\u4e00", "one");
+
+        // expect
+        assertTrue(trie.containsKey("caf\u00e9"));
+        assertTrue(trie.containsKey("\u4e00"));
+        assertTrue(trie.containsKey("\u4e2d\u6587"));
+        assertTrue(trie.containsKey(new StringBuilder("caf\u00e9")));
+        assertTrue(trie.containsKey("x\u4e00".toCharArray(), 1, 1));
+        assertFalse(trie.containsKey("caf"));
+        assertFalse(trie.containsKey("\u4e2d"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptUnpairedSurrogates() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+        trie.put("?", "?");
+
+        // then
+        trie.put("\ud83d", "surrogate");
+    }
+
+    @Test
+    public void shouldNotMatchUnpairedSurrogates() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+        trie.put("?", "?");
+
+        // expect
+        assertFalse(trie.longestMatch("\ud83d", 0, new PrefixMatch<String>()));
+        assertEquals("?", trie.get("?"));
+    }
+
+    @Test
+    public void shouldFindKeysByByteRange() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+        final byte[] request = bytes("GET /api/** HTTP/1.1");
+
+        // expect
+        assertEquals("/api/**", trie.get(request, 4, 7));
+        assertNull(trie.get(request, 4, 6));
+        assertEquals("/api/**", trie.prefix(request, 4, 16));
+        assertEquals("/api", trie.prefix(request, 4, 6));
+        assertEquals(7, trie.longestMatch(request, 4, 7));
+        assertEquals(4, trie.longestMatch(request, 4, 6));
+        assertEquals(-1, trie.longestMatch(request, 0, 4));
+    }
+
+    @Test
+    public void shouldFindKeysByBufferWithoutMovingPosition() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(32);
+        buffer.put(bytes("xx\u4e2d\u6587\u5b57"));
+        buffer.flip();
+        buffer.position(2);
+
+        // when
+        final String value = trie.get(buffer.slice());
+        final String prefix = trie.prefix(buffer);
+        final int length = trie.longestMatch(buffer);
+
+        // then
+        assertNull(value);
+        assertEquals("\u4e2d\u6587", prefix);
+        assertEquals(6, length);
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void shouldPutAndRemoveKeysByBytes() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+
+        // when
+        trie.put(bytes("caf\u00e9"), "coffee");
+
+        // then
+        assertEquals("coffee", trie.get("caf\u00e9"));
+        assertEquals("caf\u00e9", trie.prefixKey("caf\u00e9s"));
+        assertEquals("coffee", trie.remove(bytes("caf\u00e9")));
+        assertNull(trie.get("caf\u00e9"));
+        assertEquals(new HashSet<String>(Arrays.asList("/api", "/api/**", "\u4e2d\u6587")), trie.keySet());
+    }
+
+    @Test
+    public void shouldFilterUnicodeWords() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+
+        // when
+        final String result = trie.filter("\u4e2d\u6587\u5b57 \u4e2d \u4e2d.\u6587", "**");
+
+        // then
+        assertEquals("**\u5b57 \u4e2d **", result);
+    }
+
+    @Test
+    public void shouldMatchUnicodeKeysByCharacters() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+        trie.put("\ud83d\ude00", "smile");
+        final PrefixMatch<String> match = new PrefixMatch<String>();
+
+        // expect
+        assertTrue(trie.longestMatch("x\u4e2d\u6587\u5b57", 1, match));
+        assertEquals(2, match.getLength());
+        assertTrue(trie.longestMatch("\ud83d\ude00!", 0, match));
+        assertEquals(2, match.getLength());
+        assertEquals("smile", match.getValue());
+    }
+
+    @Test
+    public void shouldBuildFromEntriesSortedByCodePoints() {
+
+        // given
+        final ByteTrie<String> trie = new ByteTrie<String>();
+        final Map<String, String> entries = new LinkedHashMap<String, String>();
+        for (String key : Arrays.asList("a", "ab", "\u00e9", "\u4e2d", "\u4e2d\u6587", "\uff01", "\ud83d\ude00")) {
+            entries.put(key, key);
+        }
+
+        // when
+        trie.putAllSorted(entries.entrySet().iterator());
+
+        // then
+        assertEquals(entries.keySet(), trie.keySet());
+        assertEquals("\ud83d\ude00", trie.select(6));
+        assertEquals("\u4e2d\u6587", trie.get(bytes("\u4e2d\u6587")));
+    }
+
+    @Test
+    public void shouldNavigateToStoredUnicodeKeys() {
+
+        // given
+        final ByteTrie<String> trie = new ByteTrie<String>();
+        for (String key : Arrays.asList("a", "\u00e9", "\u4e2d", "\u4e2d\u6587", "\ud83d\ude00")) {
+            trie.put(key, key);
+        }
+
+        // expect
+        assertEquals("\u00e9", trie.floorKey("\u00e9"));
+        assertEquals("\u00e9", trie.ceilingKey("\u00e9"));
+        assertEquals("\u4e2d", trie.floorKey("\u4e2d"));
+        assertEquals("\u4e2d", trie.ceilingKey("\u4e2d"));
+        assertEquals("\ud83d\ude00", trie.floorKey("\ud83d\ude00"));
+        assertEquals("\u4e2d", trie.floorKey("\u4e2da"));
+        assertEquals("\u4e2d\u6587", trie.ceilingKey("\u4e2da"));
+    }
+
+    @Test
+    public void shouldMatchPatternByCharacters() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+        trie.put("\u4e2d\u6587\u5b57", "\u4e2d\u6587\u5b57");
+
+        // when
+        final Iterator<String> keys = trie.keysMatching(WildcardPattern.compile("\u4e2d?")).iterator();
+
+        // then
+        assertEquals("\u4e2d\u6587", keys.next());
+        assertFalse(keys.hasNext());
+    }
+
+    @Test
+    public void shouldMeasureFuzzyDistanceInCharacters() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+        trie.put("\u00e9t\u00e9", "summer");
+        trie.put("a\ud83d\ude00", "smile");
+
+        // when
+        final List<FuzzyMatch<String>> matches = trie.fuzzyMatches("ete", 2);
+
+        // then
+        assertEquals(1, matches.size());
+        assertEquals("\u00e9t\u00e9", matches.get(0).getKey());
+        assertEquals(2, matches.get(0).getDistance());
+        assertTrue(trie.fuzzyMatches("ete", 1).isEmpty());
+        assertEquals(1, trie.fuzzyMatches("\u4e2d", 1).get(0).getDistance());
+        assertEquals("smile", trie.fuzzyMatches("a", 2).get(0).getValue());
+        assertTrue(trie.fuzzyMatches("a", 1).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptRangeOutOfBounds() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+
+        // then
+        trie.get(new byte[4], 2, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptEmptyBuffer() {
+
+        // given
+        final ByteTrie<String> trie = createByteTrie();
+
+        // then
+        trie.get(ByteBuffer.allocate(0));
+    }
+
+    private ByteTrie<String> createByteTrie() {
+        final ByteTrie<String> trie = new ByteTrie<String>();
+        trie.put("/api", "/api");
+        trie.put("/api/**", "/api/**");
+        trie.put("\u4e2d\u6587", "\u4e2d\u6587");
+        return trie;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected Trie<String> createTrie() {
+        return new ByteTrie<String>();
+    }
+}
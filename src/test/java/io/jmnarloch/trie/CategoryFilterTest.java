@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link CategoryFilter} class.
+ *
+ * @author Jakub Narloch
+ */
+public class CategoryFilterTest {
+
+    private static final int PROFANITY = 0;
+
+    private static final int SPAM = 1;
+
+    private static final int PERSONAL_DATA = 2;
+
+    @Test
+    public void shouldApplyPolicyOfEveryCategory() {
+
+        // given
+        final CategoryFilter instance = CategoryFilter.builder()
+                .replace(PROFANITY, "***")
+                .report(SPAM)
+                .mask(PERSONAL_DATA, '#')
+                .addAll(Arrays.asList("bad", "ugly"), 1 << PROFANITY)
+                .add("free", 1 << SPAM)
+                .add("john", 1 << PERSONAL_DATA)
+                .build();
+
+        // when
+        final CategoryFilter.Result result = instance.filter("free bad john, j.o.h.n is ugly and bad");
+
+        // then
+        assertEquals("free *** ####, ####### is *** and ***", result.getText());
+        assertEquals(3, result.getHits(PROFANITY));
+        assertEquals(1, result.getHits(SPAM));
+        assertEquals(2, result.getHits(PERSONAL_DATA));
+        assertEquals(0, result.getHits(3));
+        assertEquals(0x7, result.getCategories());
+    }
+
+    @Test
+    public void shouldReplaceWithLowestCategory() {
+
+        // given
+        final CategoryFilter instance = CategoryFilter.builder()
+                .report(PROFANITY)
+                .mask(SPAM, '#')
+                .replace(PERSONAL_DATA, "*")
+                .add("bad", 1 << PROFANITY)
+                .add("bad", 1 << PERSONAL_DATA)
+                .add("worse", 1 << PERSONAL_DATA | 1 << SPAM)
+                .build();
+
+        // when
+        final CategoryFilter.Result result = instance.filter("bad worse");
+
+        // then
+        assertEquals(2, instance.size());
+        assertEquals("* #####", result.getText());
+        assertEquals(1, result.getHits(PROFANITY));
+        assertEquals(1, result.getHits(SPAM));
+        assertEquals(2, result.getHits(PERSONAL_DATA));
+    }
+
+    @Test
+    public void shouldNotHideReplacedMatchesBehindReportedOnes() {
+
+        // given
+        final CategoryFilter instance = CategoryFilter.builder()
+                .replace(PROFANITY, "***")
+                .report(SPAM)
+                .add("lick", 1 << SPAM)
+                .add("click", 1 << PROFANITY)
+                .add("clicker", 1 << SPAM)
+                .build();
+
+        // when
+        final CategoryFilter.Result result = instance.filter("please click here, clicker");
+
+        // then
+        assertEquals("please *** here, ***er", result.getText());
+        assertEquals(2, result.getHits(PROFANITY));
+        assertEquals(3, result.getHits(SPAM));
+    }
+
+    @Test
+    public void shouldMergeCategoriesOfNormalizedKeys() {
+
+        // given
+        final CategoryFilter instance = CategoryFilter.builder()
+                .replace(PROFANITY, "*")
+                .report(SPAM)
+                .normalizer(CharNormalizer.builder().foldCase().build())
+                .add("Bad", 1 << SPAM)
+                .add("bad", 1 << PROFANITY)
+                .build();
+
+        // when
+        final CategoryFilter.Result result = instance.filter("BAD");
+
+        // then
+        assertEquals(1, instance.size());
+        assertEquals("*", result.getText());
+        assertEquals(1, result.getHits(PROFANITY));
+        assertEquals(1, result.getHits(SPAM));
+    }
+
+    @Test
+    public void shouldFilterSameAsTrie() {
+
+        // given
+        final Random random = new Random(11);
+        for (int iteration = 0; iteration < 100; iteration++) {
+            final Map<String, String> map = new HashMap<>();
+            final CategoryFilter.Builder builder = CategoryFilter.builder()
+                    .replace(PROFANITY, "*")
+                    .replace(SPAM, "*");
+            for (int ind = 0; ind < 10; ind++) {
+                final String key = randomText(random, "abc", 1 + random.nextInt(4));
+                map.put(key, key);
+                builder.add(key, 1 << random.nextInt(2));
+            }
+            final Tst<String> trie = new Tst<>();
+            trie.putAll(map);
+            final String text = randomText(random, "abc .", 50);
+
+            // when
+            final CategoryFilter.Result result = builder.build().filter(text);
+
+            // then
+            assertEquals(trie.filter(text, "*"), result.getText());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAddKeyOfUndefinedCategory() {
+
+        // expect
+        CategoryFilter.builder()
+                .report(PROFANITY)
+                .add("bad", 1 << SPAM);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotDefineInvalidCategory() {
+
+        // expect
+        CategoryFilter.builder().report(CategoryFilter.MAX_CATEGORIES);
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        final StringBuilder text = new StringBuilder();
+        for (int ind = 0; ind < length; ind++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link CharNormalizer} class.
+ *
+ * @author Jakub Narloch
+ */
+public class CharNormalizerTest {
+
+    @Test
+    public void shouldSkipSymbolsByDefault() {
+
+        // given
+        final CharNormalizer instance = CharNormalizer.DEFAULT;
+
+        // expect
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            final boolean symbol = (c < 0x2E80 || c > 0x9FFF) && (c < 0x61 || c > 0x7a) && (c < 0x41 || c > 0x5a);
+            assertEquals(symbol, instance.isSkipped((char) c));
+            assertEquals(symbol, TrieUtil.isSymbol((char) c));
+        }
+        assertEquals("Bad\u4e2d", instance.normalize("B.a d-\u4e2d!"));
+    }
+
+    @Test
+    public void shouldFoldWidthAndCase() {
+
+        // given
+        final CharNormalizer instance = CharNormalizer.builder()
+                .foldWidth()
+                .foldCase()
+                .build();
+
+        // expect
+        assertEquals("bad", instance.normalize("\uff22\uff21\uff24"));
+        assertEquals("bad", instance.normalize("B.\uff0eA\u3000D"));
+        assertEquals('a', instance.normalize('A'));
+        assertTrue(instance.isSkipped('\uff0e'));
+    }
+
+    @Test
+    public void shouldMapAndKeepCharacters() {
+
+        // given
+        final CharNormalizer instance = CharNormalizer.builder()
+                .keep('0', '9')
+                .map("@4", 'a')
+                .map('\u0430', 'a')
+                .skip('x', 'z')
+                .build();
+
+        // expect
+        assertEquals("aaa", instance.normalize("@4\u0430"));
+        assertEquals("b1d", instance.normalize("b1dxyz"));
+        assertFalse(instance.isSkipped('5'));
+        assertTrue(instance.isSkipped('y'));
+    }
+
+    @Test
+    public void shouldNotAffectBuiltNormalizer() {
+
+        // given
+        final CharNormalizer.Builder builder = CharNormalizer.builder().map('0', 'o');
+        final CharNormalizer instance = builder.build();
+
+        // when
+        builder.map('0', 'x');
+
+        // then
+        assertEquals('o', instance.normalize('0'));
+        assertEquals('x', builder.build().normalize('0'));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotMapToSkip() {
+
+        // expect
+        CharNormalizer.builder().map('a', '\uffff');
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotSkipInvalidRange() {
+
+        // expect
+        CharNormalizer.builder().skip('z', 'a');
+    }
+}
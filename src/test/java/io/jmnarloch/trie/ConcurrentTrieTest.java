@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ConcurrentTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class ConcurrentTrieTest extends BaseTrieTest {
+
+    private static final int THREADS = 4;
+
+    private static final int KEYS = 5000;
+
+    @Override
+    protected Trie<String> createTrie() {
+        return new ConcurrentTrie<String>();
+    }
+
+    @Test
+    public void shouldRemoveEmptiedBranches() {
+
+        // given
+        final ConcurrentTrie<String> trie = new ConcurrentTrie<String>();
+        trie.put("abc", "abc");
+        trie.put("abd", "abd");
+        trie.put("a", "a");
+
+        // when
+        trie.remove("abc");
+        trie.remove("abd");
+
+        // then
+        assertEquals(1, trie.size());
+        assertEquals("a", trie.prefixKey("abcd"));
+        assertNull(trie.get("ab"));
+        assertEquals(new HashSet<String>(Arrays.asList("a")), trie.keySet());
+    }
+
+    @Test
+    public void shouldNotSeeModificationsInReadOnlySnapshot() {
+
+        // given
+        final ConcurrentTrie<String> trie = new ConcurrentTrie<String>();
+        trie.put("abc", "abc");
+        trie.put("abd", "abd");
+
+        // when
+        final ConcurrentTrie<String> snapshot = trie.readOnlySnapshot();
+        trie.put("abe", "abe");
+        trie.put("abc", "ABC");
+        trie.remove("abd");
+
+        // then
+        assertTrue(snapshot.isReadOnly());
+        assertEquals(2, snapshot.size());
+        assertEquals("abc", snapshot.get("abc"));
+        assertEquals("abd", snapshot.get("abd"));
+        assertNull(snapshot.get("abe"));
+        assertEquals(new HashSet<String>(Arrays.asList("abc", "abd")), snapshot.keySet());
+        assertEquals(2, trie.size());
+        assertEquals("ABC", trie.get("abc"));
+        assertEquals(new HashSet<String>(Arrays.asList("abc", "abe")), trie.keySet());
+    }
+
+    @Test
+    public void shouldModifySnapshotIndependently() {
+
+        // given
+        final ConcurrentTrie<String> trie = new ConcurrentTrie<String>();
+        trie.put("abc", "abc");
+
+        // when
+        final ConcurrentTrie<String> snapshot = trie.snapshot();
+        snapshot.put("abd", "abd");
+        snapshot.remove("abc");
+        trie.put("abe", "abe");
+
+        // then
+        assertEquals(new HashSet<String>(Arrays.asList("abd")), snapshot.keySet());
+        assertEquals(new HashSet<String>(Arrays.asList("abc", "abe")), trie.keySet());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotModifyReadOnlySnapshot() {
+
+        // given
+        final ConcurrentTrie<String> trie = new ConcurrentTrie<String>();
+
+        // when
+        trie.readOnlySnapshot().put("abc", "abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowNullValue() {
+
+        // given
+        final ConcurrentTrie<String> trie = new ConcurrentTrie<String>();
+
+        // when
+        trie.put("abc", null);
+    }
+
+    @Test
+    public void shouldPutAndRemoveConcurrently() throws Exception {
+
+        // given
+        final ConcurrentTrie<String> trie = new ConcurrentTrie<String>();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        final List<Future<Set<String>>> results = new ArrayList<Future<Set<String>>>();
+
+        // when
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                final int id = thread;
+                results.add(executor.submit(new Callable<Set<String>>() {
+                    @Override
+                    public Set<String> call() {
+                        for (int ind = 0; ind < KEYS; ind++) {
+                            trie.put(key(id, ind), key(id, ind));
+                        }
+                        for (int ind = 0; ind < KEYS; ind += 2) {
+                            trie.remove(key(id, ind));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            results.add(executor.submit(new Callable<Set<String>>() {
+                @Override
+                public Set<String> call() {
+                    for (int ind = 0; ind < 100; ind++) {
+                        final ConcurrentTrie<String> snapshot = trie.readOnlySnapshot();
+                        assertEquals(snapshot.size(), snapshot.keySet().size());
+                    }
+                    return null;
+                }
+            }));
+            for (Future<Set<String>> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertEquals(THREADS * KEYS / 2, trie.size());
+        for (int thread = 0; thread < THREADS; thread++) {
+            for (int ind = 0; ind < KEYS; ind++) {
+                assertEquals(ind % 2 == 0 ? null : key(thread, ind), trie.get(key(thread, ind)));
+            }
+        }
+    }
+
+    private static String key(int thread, int ind) {
+        return Integer.toString(ind) + "abcd".charAt(thread);
+    }
+}
@@ -0,0 +1,381 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link DoubleArrayTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class DoubleArrayTrieTest {
+
+    private Trie<String> instance;
+
+    @Before
+    public void setUp() {
+
+        Map<String, String> map = new HashMap<>();
+        for (String value : getValues()) {
+            map.put(value, value);
+        }
+        instance = new DoubleArrayTrie<String>(map);
+    }
+
+    @Test
+    public void shouldBeEmpty() {
+
+        // given
+        instance = new DoubleArrayTrie<String>(Collections.<String, String>emptyMap());
+
+        // expect
+        assertTrue(instance.isEmpty());
+        assertNull(instance.get("key"));
+        assertTrue(instance.keySet().isEmpty());
+    }
+
+    @Test
+    public void shouldReturnsCorrectTrieSize() {
+
+        // expect
+        assertEquals(getValues().size(), instance.size());
+    }
+
+    @Test
+    public void shouldCreateFromSortedEntries() {
+
+        // given
+        final TreeMap<String, String> map = new TreeMap<>();
+        for (String value : getValues()) {
+            map.put(value, value);
+        }
+
+        // when
+        instance = new DoubleArrayTrie<String>(map.entrySet().iterator());
+
+        // then
+        assertEquals(getValues(), instance.keySet());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnsortedEntries() {
+
+        // given
+        final List<Map.Entry<String, String>> entries = Arrays.<Map.Entry<String, String>>asList(
+                new AbstractMap.SimpleEntry<>("b", "b"),
+                new AbstractMap.SimpleEntry<>("a", "a")
+        );
+
+        // then
+        new DoubleArrayTrie<String>(entries.iterator());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotPutEntries() {
+
+        // then
+        instance.put("/other/**", "/other/**");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotRemoveEntries() {
+
+        // then
+        instance.remove("/uaa/**");
+    }
+
+    @Test
+    public void shouldFindAllMatchingKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final String result = instance.get(value);
+
+            // then
+            assertEquals(value, result);
+        }
+        assertNull(instance.get("/ua"));
+        assertNull(instance.get("/uaa/**/"));
+    }
+
+    @Test
+    public void shouldFindAllPrefixKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final String result = instance.prefixKey(value + "/next");
+
+            // then
+            assertEquals(value, result);
+        }
+    }
+
+    @Test
+    public void shouldFindAllPrefixKeysValues() {
+
+        for (String value : getValues()) {
+            // when
+            final String result = instance.prefix(value);
+
+            // then
+            assertEquals(value, result);
+        }
+    }
+
+    @Test
+    public void shouldFindAllExistingKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final boolean exists = instance.containsKey(value);
+
+            // then
+            assertTrue(exists);
+        }
+        assertFalse(instance.containsKey("/"));
+    }
+
+    @Test
+    public void shouldHandleNestedAndUnicodeKeys() {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        for (String key : Arrays.asList("a", "ab", "abc", "b", "\u4e2d", "\u4e2d\u6587", "\uffff")) {
+            map.put(key, key);
+        }
+
+        // when
+        instance = new DoubleArrayTrie<String>(map);
+
+        // then
+        assertEquals(map.keySet(), instance.keySet());
+        for (String key : map.keySet()) {
+            assertEquals(key, instance.get(key));
+        }
+        assertEquals("ab", instance.prefixKey("abd"));
+        assertEquals("\u4e2d\u6587", instance.prefix("\u4e2d\u6587\u5b57"));
+    }
+
+    @Test
+    public void shouldGetAllKeys() {
+
+        // expect
+        assertEquals(getValues(), instance.keySet());
+    }
+
+    @Test
+    public void shouldFilterWords() {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        map.put("bad", "bad");
+        map.put("badger", "badger");
+        map.put("worse", "worse");
+        instance = new DoubleArrayTrie<>(map);
+
+        // when
+        final String result = instance.filter("a bad b.b-a-d worse badge", "**");
+
+        // then
+        assertEquals("a ** b.** ** **ge", result);
+    }
+
+    @Test
+    public void shouldFindPrefixesInLongText() {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        map.put("ab", "ab");
+        map.put("abc", "abc");
+        instance = new DoubleArrayTrie<>(map);
+        final StringBuilder text = new StringBuilder();
+        while (text.length() < 200000) {
+            text.append("abcd");
+        }
+        final PrefixMatch<String> match = new PrefixMatch<>();
+        final List<String> matches = new ArrayList<>();
+
+        // when
+        for (int offset = 0; offset < 800; offset += 4) {
+            assertTrue(instance.longestMatch(text, offset, match));
+            instance.allPrefixes(text, offset, new MatchListener<String>() {
+                @Override
+                public boolean onMatch(int start, int end, String value) {
+                    matches.add(value);
+                    return true;
+                }
+            });
+        }
+
+        // then
+        assertEquals("abc", match.getValue());
+        assertEquals(3, match.getLength());
+        assertEquals(400, matches.size());
+        assertEquals(Arrays.asList("ab", "abc"), matches.subList(0, 2));
+        assertFalse(instance.longestMatch(text, 1, match));
+    }
+
+    @Test
+    public void shouldFilterStream() throws IOException {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        map.put("bad", "bad");
+        map.put("badger", "badger");
+        map.put("worse", "worse");
+        instance = new DoubleArrayTrie<>(map);
+        final StringWriter writer = new StringWriter();
+
+        // when
+        instance.filter(new StringReader("a bad b.b-a-d worse badge"), writer, "**");
+
+        // then
+        assertEquals("a ** b.** ** **ge", writer.toString());
+    }
+
+    @Test
+    public void shouldScanMatches() {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        map.put("bad", "bad");
+        map.put("badger", "badger");
+        instance = new DoubleArrayTrie<>(map);
+        final List<String> matches = new ArrayList<>();
+
+        // when
+        instance.scan("a b-a-dger", new MatchListener<String>() {
+            @Override
+            public boolean onMatch(int start, int end, String value) {
+                matches.add(start + ":" + end + ":" + value);
+                return true;
+            }
+        });
+
+        // then
+        assertEquals(Arrays.asList("2:7:bad", "2:10:badger"), matches);
+        assertTrue(instance.containsAnyMatch("so bad"));
+        assertFalse(instance.containsAnyMatch("so b-a"));
+    }
+
+    @Test
+    public void shouldPageKeysWithPrefix() {
+
+        // given
+        final TreeMap<String, String> expected = randomEntries(new Random(42));
+        instance = new DoubleArrayTrie<>(expected);
+        final Random random = new Random(7);
+
+        for (int ind = 0; ind < 300; ind++) {
+            // given
+            final String key = randomKey(random);
+            final String prefix = key.substring(0, Math.min(ind % 3, key.length()));
+            final String after = ind % 2 == 0 ? null : randomKey(random);
+            final int limit = random.nextInt(20);
+            final List<String> keys = new ArrayList<>();
+            for (String stored : expected.keySet()) {
+                if (stored.startsWith(prefix) && (after == null || stored.compareTo(after) > 0)
+                        && keys.size() < limit) {
+                    keys.add(stored);
+                }
+            }
+
+            // when
+            final List<String> result = new ArrayList<>();
+            for (String found : instance.keysWithPrefix(prefix, after, limit)) {
+                result.add(found);
+            }
+
+            // then
+            assertEquals(prefix + " after " + after, keys, result);
+        }
+    }
+
+    @Test
+    public void shouldNavigateKeysInOrder() {
+
+        // given
+        final TreeMap<String, String> expected = randomEntries(new Random(42));
+        instance = new DoubleArrayTrie<>(expected);
+        final List<String> keys = new ArrayList<>(expected.keySet());
+        final Random random = new Random(7);
+
+        // expect
+        assertEquals(keys.size(), instance.countWithPrefix(""));
+        for (int index = 0; index < keys.size(); index++) {
+            assertEquals(keys.get(index), instance.select(index));
+            assertEquals(index, instance.rank(keys.get(index)));
+        }
+        for (int ind = 0; ind < 300; ind++) {
+            final String key = randomKey(random);
+            assertEquals(key, expected.headMap(key).size(), instance.rank(key));
+            assertEquals(key, expected.floorKey(key), instance.floorKey(key));
+            assertEquals(key, expected.ceilingKey(key), instance.ceilingKey(key));
+            assertEquals(key, expected.subMap(key, key + Character.MAX_VALUE).size(), instance.countWithPrefix(key));
+        }
+    }
+
+    private static TreeMap<String, String> randomEntries(Random random) {
+        final TreeMap<String, String> entries = new TreeMap<>();
+        for (int ind = 0; ind < 300; ind++) {
+            final String key = randomKey(random);
+            entries.put(key, key);
+        }
+        return entries;
+    }
+
+    private static String randomKey(Random random) {
+        final StringBuilder key = new StringBuilder();
+        for (int length = 1 + random.nextInt(5); length > 0; length--) {
+            key.append(random.nextInt(8) == 0 ? '\u4e2d' : (char) ('a' + random.nextInt(3)));
+        }
+        return key.toString();
+    }
+
+    protected Set<String> getValues() {
+
+        return new HashSet<String>(Arrays.asList(
+                "/uaa/**",
+                "/user/**",
+                "/account/**",
+                "/api/**",
+                "/notifications/**",
+                "/ws/**"
+        ));
+    }
+}
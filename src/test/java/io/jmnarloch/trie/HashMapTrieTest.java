@@ -15,6 +15,17 @@
  */
 package io.jmnarloch.trie;
 
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
 /**
  * Tests the {@link HashMapTrie} class.
  *
@@ -26,4 +37,30 @@ public class HashMapTrieTest extends BaseTrieTest {
     protected Trie<String> createTrie() {
         return new HashMapTrie<String>();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldWriteAndReadTrie() throws IOException {
+
+        // given
+        final HashMapTrie<String> trie = new HashMapTrie<String>();
+        for (String key : Arrays.asList("abc", "ab", "abd", "b", "\u4e2d\u6587", "a")) {
+            trie.put(key, key);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        trie.writeTo(new DataOutputStream(bytes), ValueCodecs.utf8String());
+
+        // when
+        final ArrayTrie<String> result = new ArrayTrie<String>();
+        result.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), ValueCodecs.utf8String());
+
+        // then
+        assertEquals(6, result.size());
+        assertEquals(trie.keySet(), result.keySet());
+        for (String key : trie.keySet()) {
+            assertEquals(key, result.get(key));
+        }
+        assertEquals("ab", result.remove("ab"));
+        assertEquals(5, result.size());
+        assertEquals("abc", result.get("abc"));
+    }
+}
@@ -18,14 +18,25 @@ package io.jmnarloch.trie;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -175,6 +186,104 @@ public class ImmutableTstTest {
         }
     }
 
+    @Test
+    public void shouldFilterWords() {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        map.put("bad", "bad");
+        map.put("badger", "badger");
+        map.put("worse", "worse");
+        instance = new ImmutableTst<>(map);
+
+        // when
+        final String result = instance.filter("a bad b.b-a-d worse badge", "**");
+
+        // then
+        assertEquals("a ** b.** ** **ge", result);
+    }
+
+    @Test
+    public void shouldFilterWithEmptyDictionary() throws IOException {
+
+        // given
+        instance = new ImmutableTst<String>(Collections.<String, String>emptyMap());
+        final StringWriter target = new StringWriter();
+
+        // when
+        instance.filter(new StringReader("abc"), target, "#");
+
+        // then
+        assertEquals("abc", instance.filter("abc", "#"));
+        assertEquals("abc", target.toString());
+        assertFalse(instance.containsAnyMatch("abc"));
+        assertTrue(instance.keySet().isEmpty());
+    }
+
+    @Test
+    public void shouldScanMatches() {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        map.put("bad", "bad");
+        map.put("badger", "badger");
+        instance = new ImmutableTst<>(map);
+        final List<String> matches = new ArrayList<>();
+
+        // when
+        instance.scan("a b-a-dger", new MatchListener<String>() {
+            @Override
+            public boolean onMatch(int start, int end, String value) {
+                matches.add(start + ":" + end + ":" + value);
+                return true;
+            }
+        });
+
+        // then
+        assertEquals(Arrays.asList("2:7:bad", "2:10:badger"), matches);
+        assertTrue(instance.containsAnyMatch("so bad"));
+        assertFalse(instance.containsAnyMatch("so b-a"));
+    }
+
+    @Test
+    public void shouldCreateFromSortedEntries() {
+
+        // given
+        final Map<String, String> entries = new TreeMap<String, String>();
+        for (String value : getValues()) {
+            entries.put(value, value);
+        }
+
+        // when
+        instance = new ImmutableTst<String>(entries.entrySet().iterator());
+
+        // then
+        assertEquals(getValues().size(), instance.size());
+        assertEquals(getValues(), instance.keySet());
+        assertEquals("/api/**", instance.get("/api/**"));
+        assertEquals("/ws/**", instance.prefix("/ws/**/index"));
+    }
+
+    @Test
+    public void shouldCreateFromSerializedTree() throws IOException {
+
+        // given
+        final Tst<String> tst = new Tst<String>();
+        for (String value : getValues()) {
+            tst.put(value, value);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        tst.writeTo(new DataOutputStream(bytes), ValueCodecs.utf8String());
+
+        // when
+        instance = new ImmutableTst<String>(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                ValueCodecs.utf8String());
+
+        // then
+        assertEquals(getValues().size(), instance.size());
+        assertEquals(getValues(), instance.keySet());
+    }
+
     protected Set<String> getValues() {
 
         return new HashSet<String>(Arrays.asList(
@@ -186,4 +295,4 @@ public class ImmutableTstTest {
                 "/ws/**"
         ));
     }
-}
\ No newline at end of file
+}
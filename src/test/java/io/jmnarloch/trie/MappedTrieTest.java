@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link MappedTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class MappedTrieTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Trie<String> instance;
+
+    @Before
+    public void setUp() throws IOException {
+
+        Map<String, String> map = new HashMap<>();
+        for (String value : getValues()) {
+            map.put(value, value);
+        }
+        instance = writeAndOpen(map);
+    }
+
+    @Test
+    public void shouldBeEmpty() throws IOException {
+
+        // given
+        instance = writeAndOpen(Collections.<String, String>emptyMap());
+
+        // expect
+        assertTrue(instance.isEmpty());
+        assertNull(instance.get("key"));
+        assertTrue(instance.keySet().isEmpty());
+        assertEquals("key", instance.filter("key", "*"));
+    }
+
+    @Test
+    public void shouldReturnsCorrectTrieSize() {
+
+        // expect
+        assertEquals(getValues().size(), instance.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotPutEntries() {
+
+        // then
+        instance.put("/other/**", "/other/**");
+    }
+
+    @Test
+    public void shouldFindAllMatchingKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final String result = instance.get(value);
+
+            // then
+            assertEquals(value, result);
+        }
+        assertNull(instance.get("/ua"));
+        assertNull(instance.get("/uaa/**/"));
+    }
+
+    @Test
+    public void shouldFindAllPrefixKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final String result = instance.prefixKey(value + "/next");
+
+            // then
+            assertEquals(value, result);
+        }
+    }
+
+    @Test
+    public void shouldFindAllPrefixKeysValues() {
+
+        for (String value : getValues()) {
+            // when
+            final String result = instance.prefix(value);
+
+            // then
+            assertEquals(value, result);
+        }
+    }
+
+    @Test
+    public void shouldFindAllExistingKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final boolean exists = instance.containsKey(value);
+
+            // then
+            assertTrue(exists);
+        }
+        assertFalse(instance.containsKey("/"));
+    }
+
+    @Test
+    public void shouldGetAllKeys() {
+
+        // expect
+        assertEquals(getValues(), instance.keySet());
+    }
+
+    @Test
+    public void shouldWriteTrieWithUnicodeValues() throws IOException {
+
+        // given
+        final Trie<String> trie = new Tst<String>();
+        trie.put("a", "\u4e2d");
+        trie.put("ab", "");
+        trie.put("\u4e2d\u6587", "\u6587\u5b57");
+        final Path path = folder.newFile().toPath();
+
+        // when
+        MappedTrie.write(trie, ValueCodecs.utf8String(), path);
+        instance = MappedTrie.open(path, ValueCodecs.utf8String());
+
+        // then
+        assertEquals(3, instance.size());
+        assertEquals("\u4e2d", instance.get("a"));
+        assertEquals("", instance.get("ab"));
+        assertEquals("\u6587\u5b57", instance.prefix("\u4e2d\u6587\u5b57"));
+        assertEquals(trie.keySet(), instance.keySet());
+    }
+
+    @Test
+    public void shouldFilterWords() throws IOException {
+
+        // given
+        final Map<String, String> map = new HashMap<>();
+        map.put("bad", "bad");
+        map.put("badger", "badger");
+        map.put("worse", "worse");
+        instance = writeAndOpen(map);
+
+        // when
+        final String result = instance.filter("a bad b.b-a-d worse badge", "**");
+
+        // then
+        assertEquals("a ** b.** ** **ge", result);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectInvalidFile() throws IOException {
+
+        // given
+        final Path path = folder.newFile().toPath();
+        Files.write(path, "not a trie file at all".getBytes("UTF-8"));
+
+        // when
+        MappedTrie.open(path, ValueCodecs.utf8String());
+    }
+
+    private Trie<String> writeAndOpen(Map<String, String> map) throws IOException {
+        final Path path = folder.newFile().toPath();
+        MappedTrie.write(map, ValueCodecs.utf8String(), path);
+        return MappedTrie.open(path, ValueCodecs.utf8String());
+    }
+
+    protected Set<String> getValues() {
+
+        return new HashSet<String>(Arrays.asList(
+                "/uaa/**",
+                "/user/**",
+                "/account/**",
+                "/api/**",
+                "/notifications/**",
+                "/ws/**"
+        ));
+    }
+}
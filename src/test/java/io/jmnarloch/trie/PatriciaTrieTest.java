@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link PatriciaTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class PatriciaTrieTest extends BaseTrieTest {
+
+    @Override
+    protected Trie<String> createTrie() {
+        return new PatriciaTrie<String>();
+    }
+
+    @Test
+    public void shouldSplitAndMergeEdges() {
+
+        // given
+        final Trie<String> trie = createTrie();
+        for (String key : Arrays.asList("romane", "romanus", "romulus", "rubens", "ruber", "rom")) {
+            trie.put(key, key);
+        }
+
+        // when
+        trie.remove("romanus");
+        trie.remove("rom");
+
+        // then
+        assertEquals(4, trie.size());
+        assertEquals("romane", trie.get("romane"));
+        assertEquals("romulus", trie.get("romulus"));
+        assertNull(trie.get("rom"));
+        assertNull(trie.get("roman"));
+        assertEquals("rubens", trie.prefixKey("rubensstraat"));
+        assertEquals(new HashSet<String>(Arrays.asList("romane", "romulus", "rubens", "ruber")), trie.keySet());
+    }
+
+    @Test
+    public void shouldFindLongestPrefixWithinEdge() {
+
+        // given
+        final Trie<String> trie = createTrie();
+        trie.put("abc", "abc");
+        trie.put("abcdef", "abcdef");
+
+        // expect
+        assertEquals("abc", trie.prefixKey("abcde"));
+        assertEquals("abcdef", trie.prefix("abcdefgh"));
+        assertNull(trie.prefixKey("ab"));
+    }
+
+    @Test
+    public void shouldFilterWords() {
+
+        // given
+        final Trie<String> trie = createTrie();
+        trie.put("bad", "bad");
+        trie.put("badger", "badger");
+
+        // expect
+        assertEquals("a ** b.** c", trie.filter("a bad b.b-a-d c", "**"));
+    }
+}
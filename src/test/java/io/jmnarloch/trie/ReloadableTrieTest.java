@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link ReloadableTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class ReloadableTrieTest {
+
+    private ExecutorService executor;
+
+    private ReloadableTrie<String> instance;
+
+    @Before
+    public void setUp() {
+
+        executor = Executors.newFixedThreadPool(2);
+        instance = new ReloadableTrie<String>(new ImmutableTst<String>(entries("bad")));
+    }
+
+    @After
+    public void tearDown() {
+
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldBeEmpty() {
+
+        // given
+        instance = new ReloadableTrie<String>();
+
+        // expect
+        assertTrue(instance.isEmpty());
+        assertNull(instance.get("bad"));
+        assertEquals("a bad word", instance.filter("a bad word", "**"));
+        assertFalse(instance.containsAnyMatch("a bad word"));
+    }
+
+    @Test
+    public void shouldDelegateToDictionary() {
+
+        // expect
+        assertEquals(1, instance.size());
+        assertEquals("bad", instance.get("bad"));
+        assertEquals("bad", instance.prefix("badger"));
+        assertEquals(Collections.singleton("bad"), instance.keySet());
+        assertEquals("a ** word", instance.filter("a bad word", "**"));
+        assertEquals("bad", instance.fuzzyMatches("bed", 1).get(0).getKey());
+    }
+
+    @Test
+    public void shouldReloadDictionary() {
+
+        // given
+        final Trie<String> previous = instance.current();
+
+        // when
+        instance.reload(entries("worse"));
+
+        // then
+        assertNull(instance.get("bad"));
+        assertEquals("worse", instance.get("worse"));
+        assertEquals("bad", previous.get("bad"));
+        assertEquals("a bad **", instance.filter("a bad worse", "**"));
+    }
+
+    @Test
+    public void shouldReloadEmptyDictionary() {
+
+        // when
+        instance.reload(Collections.<String, String>emptyMap());
+
+        // then
+        assertTrue(instance.isEmpty());
+        assertEquals("a bad word", instance.filter("a bad word", "**"));
+    }
+
+    @Test
+    public void shouldReloadDictionaryInBackground() throws Exception {
+
+        // when
+        final Trie<String> result = instance.reloadAsync(entries("worse"), executor).get();
+
+        // then
+        assertSame(result, instance.current());
+        assertEquals("worse", instance.get("worse"));
+    }
+
+    @Test
+    public void shouldKeepDictionaryWhenLoadingFails() throws InterruptedException {
+
+        // given
+        final CompletableFuture<Trie<String>> result = instance.reloadAsync(new Callable<Trie<String>>() {
+            @Override
+            public Trie<String> call() throws IOException {
+                throw new IOException("The dictionary file is missing");
+            }
+        }, executor);
+
+        // when
+        try {
+            result.get();
+            fail();
+        } catch (ExecutionException e) {
+
+            // then
+            assertTrue(e.getCause() instanceof IOException);
+            assertEquals("bad", instance.get("bad"));
+        }
+    }
+
+    @Test
+    public void shouldDiscardOutdatedReload() throws Exception {
+
+        // given
+        final CountDownLatch latch = new CountDownLatch(1);
+        final CompletableFuture<Trie<String>> outdated = instance.reloadAsync(new Callable<Trie<String>>() {
+            @Override
+            public Trie<String> call() throws InterruptedException {
+                latch.await();
+                return new ImmutableTst<String>(entries("outdated"));
+            }
+        }, executor);
+
+        // when
+        final Trie<String> current = instance.reloadAsync(entries("worse"), executor).get();
+        latch.countDown();
+
+        // then
+        assertSame(current, outdated.get());
+        assertNull(instance.get("outdated"));
+        assertEquals("worse", instance.get("worse"));
+    }
+
+    @Test
+    public void shouldReturnEveryReplacedDictionaryOnce() throws Exception {
+
+        // given
+        final Trie<String> initial = instance.current();
+        final List<Future<List<Trie<String>>>> results = new ArrayList<>();
+        final Set<Trie<String>> swapped = Collections.newSetFromMap(new IdentityHashMap<Trie<String>, Boolean>());
+        for (int thread = 0; thread < 2; thread++) {
+            final List<Trie<String>> tries = new ArrayList<>();
+            for (int ind = 0; ind < 1000; ind++) {
+                tries.add(new ImmutableTst<String>(entries("bad")));
+            }
+            swapped.addAll(tries);
+            results.add(executor.submit(new Callable<List<Trie<String>>>() {
+                @Override
+                public List<Trie<String>> call() {
+                    final List<Trie<String>> replaced = new ArrayList<>();
+                    for (Trie<String> trie : tries) {
+                        replaced.add(instance.swap(trie));
+                    }
+                    return replaced;
+                }
+            }));
+        }
+
+        // when
+        final Set<Trie<String>> replaced = Collections.newSetFromMap(new IdentityHashMap<Trie<String>, Boolean>());
+        int count = 0;
+        for (Future<List<Trie<String>>> result : results) {
+            replaced.addAll(result.get());
+            count += result.get().size();
+        }
+
+        // then
+        assertEquals(count, replaced.size());
+        assertTrue(replaced.contains(initial));
+        assertFalse(replaced.contains(instance.current()));
+        replaced.add(instance.current());
+        replaced.remove(initial);
+        assertEquals(swapped, replaced);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotPutEntries() {
+
+        // then
+        instance.put("worse", "worse");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotRemoveEntries() {
+
+        // then
+        instance.remove("bad");
+    }
+
+    private static Map<String, String> entries(String... keys) {
+        final Map<String, String> entries = new HashMap<>();
+        for (String key : keys) {
+            entries.put(key, key);
+        }
+        return entries;
+    }
+}
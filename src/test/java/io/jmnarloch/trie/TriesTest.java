@@ -17,7 +17,21 @@ package io.jmnarloch.trie;
 
 import org.junit.Test;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests the {@link Tries} class.
@@ -125,4 +139,211 @@ public class TriesTest {
         // then
         assertNotNull(trie);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldCreatePatriciaTrie() {
+
+        // when
+        Trie<String> trie = Tries.newPatriciaTrie();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreateAdaptiveTrie() {
+
+        // when
+        Trie<String> trie = Tries.newAdaptiveTrie();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreateByteTrie() {
+
+        // when
+        Trie<String> trie = Tries.newByteTrie();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreateConcurrentTrie() {
+
+        // when
+        Trie<String> trie = Tries.newConcurrentTrie();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreateReloadableTrie() {
+
+        // when
+        Trie<String> trie = Tries.newReloadableTrie(new Tst<String>());
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreateIntArrayTrie() {
+
+        // when
+        IntTrie trie = Tries.newIntArrayTrie();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreateIntTroveCharHashMapTrie() {
+
+        // when
+        IntTrie trie = Tries.newIntTroveCharHashMapTrie();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreateLongArrayTrie() {
+
+        // when
+        LongTrie trie = Tries.newLongArrayTrie();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreateLongTroveCharHashMapTrie() {
+
+        // when
+        LongTrie trie = Tries.newLongTroveCharHashMapTrie();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldBuildTriesInParallel() {
+
+        // given
+        final Random random = new Random(42);
+        final Map<String, String> entries = new HashMap<String, String>();
+        for (int ind = 0; ind < 50000; ind++) {
+            final StringBuilder key = new StringBuilder();
+            for (int length = 1 + random.nextInt(8); length > 0; length--) {
+                key.append((char) ('a' + random.nextInt(26)));
+            }
+            entries.put(key.toString(), key.toString());
+        }
+        entries.put("\u4e2d\u6587", "\u4e2d\u6587");
+        final List<String> keys = new ArrayList<String>(new TreeSet<String>(entries.keySet()));
+
+        for (Trie<String> trie : Arrays.<Trie<String>>asList(Tries.<String>newAdaptiveTrie(),
+                Tries.<String>newHashMapTrie(), Tsts.<String>newTst(), Tries.<String>newByteTrie(),
+                Tries.<String>newPatriciaTrie())) {
+
+            // when
+            final Trie<String> result = Tries.parallelBuild(entries, trie);
+
+            // then
+            assertSame(trie, result);
+            assertEquals(entries.size(), trie.size());
+            assertEquals(entries.keySet(), trie.keySet());
+            for (int index = 0; index < keys.size(); index += 97) {
+                assertEquals(keys.get(index), trie.get(keys.get(index)));
+                assertEquals(index, trie.rank(keys.get(index)));
+            }
+        }
+    }
+
+    @Test
+    public void shouldBuildEmptyTrieInParallel() {
+
+        // when
+        final Tst<String> trie = Tries.parallelBuild(Collections.<String, String>emptyMap(), Tsts.<String>newTst());
+
+        // then
+        assertTrue(trie.isEmpty());
+        trie.put("abc", "abc");
+        assertEquals("abc", trie.get("abc"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBuildRepeatedKeysInParallel() {
+
+        // given
+        final List<Map.Entry<String, String>> entries = new ArrayList<Map.Entry<String, String>>();
+        entries.add(new AbstractMap.SimpleImmutableEntry<String, String>("abc", "abc"));
+        entries.add(new AbstractMap.SimpleImmutableEntry<String, String>("abc", "abc"));
+
+        // then
+        Tries.parallelBuild(entries.spliterator(), Tries.<String>newAdaptiveTrie(), ForkJoinPool.commonPool());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBuildNonEmptyTrieInParallel() {
+
+        // given
+        final Tst<String> trie = Tsts.newTst();
+        trie.put("abc", "abc");
+
+        // then
+        Tries.parallelBuild(Collections.singletonMap("abd", "abd"), trie);
+    }
+
+    @Test
+    public void shouldFilterInParallel() {
+
+        // given
+        final Random random = new Random(42);
+        final Tst<String> trie = Tsts.newTst();
+        for (int ind = 0; ind < 50; ind++) {
+            final String key = randomText(random, "abcd", 2 + random.nextInt(3));
+            trie.put(key, key);
+        }
+        final String text = randomText(random, "abcd. ", 1 << 19);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            // when
+            final String result = Tries.parallelFilter(trie, text, "*", pool);
+
+            // then
+            assertEquals(trie.filter(text, "*"), result);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldFilterInParallelWithEmptyDictionary() {
+
+        // given
+        final Tst<String> trie = Tsts.newTst();
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            // expect
+            assertEquals("abc", Tries.parallelFilter(trie, "abc", "*", pool));
+            assertEquals("abc", Tries.parallelFilter(new ReloadableTrie<String>(), "abc", "*", pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        final StringBuilder text = new StringBuilder(length);
+        for (int ind = 0; ind < length; ind++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
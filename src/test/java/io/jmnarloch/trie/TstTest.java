@@ -15,6 +15,25 @@
  */
 package io.jmnarloch.trie;
 
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 /**
  * Tests the {@link Tries} class.
  *
@@ -26,4 +45,152 @@ public class TstTest extends BaseTrieTest {
     protected Trie<String> createTrie() {
         return new Tst<String>();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldFindShorterPrefixKey() {
+
+        // given
+        final Tst<String> tst = new Tst<String>();
+        tst.put("a", "a");
+        tst.put("b", "b");
+        tst.put("abc", "abc");
+        tst.put("bad", "bad");
+
+        // expect
+        assertEquals("a", tst.prefixKey("ab"));
+        assertEquals("bad", tst.prefixKey("badger"));
+        assertEquals("bad", tst.prefixKey(new StringBuilder("badger")));
+        assertEquals("a", tst.prefixKey("abx".toCharArray(), 0, 3));
+        assertNull(tst.prefixKey("c"));
+    }
+
+    @Test
+    public void shouldCountPrefixOfExistingKey() {
+
+        // given
+        final Tst<String> tst = new Tst<String>();
+        tst.put("abc", "abc");
+
+        // when
+        tst.put("ab", "ab");
+
+        // then
+        assertEquals(2, tst.size());
+        assertEquals("ab", tst.select(0));
+        assertEquals(1, tst.rank("abc"));
+        assertEquals("ab", tst.remove("ab"));
+        assertEquals(1, tst.size());
+        assertEquals("abc", tst.get("abc"));
+    }
+
+    @Test
+    public void shouldBuildFromSortedEntries() {
+
+        // given
+        final Tst<String> trie = new Tst<String>();
+        trie.put("old", "old");
+        final Random random = new Random(42);
+        final TreeMap<String, String> entries = new TreeMap<String, String>();
+        for (int ind = 0; ind < 2000; ind++) {
+            final StringBuilder key = new StringBuilder();
+            for (int length = 1 + random.nextInt(8); length > 0; length--) {
+                key.append((char) ('a' + random.nextInt(4)));
+            }
+            entries.put(key.toString(), key.toString());
+        }
+
+        // when
+        trie.putAllSorted(entries.entrySet().iterator());
+
+        // then
+        assertEquals(entries.size(), trie.size());
+        assertNull(trie.get("old"));
+        final List<String> keys = new ArrayList<String>(entries.keySet());
+        for (int index = 0; index < keys.size(); index++) {
+            assertEquals(keys.get(index), trie.get(keys.get(index)));
+            assertEquals(keys.get(index), trie.select(index));
+        }
+        final List<String> scanned = new ArrayList<String>();
+        for (String key : trie.keysWithPrefix("")) {
+            scanned.add(key);
+        }
+        assertEquals(keys, scanned);
+
+        // and
+        final int removed = keys.size() / 2;
+        for (String key : keys.subList(0, removed)) {
+            trie.remove(key);
+        }
+        trie.put("z", "z");
+        assertEquals(keys.size() - removed + 1, trie.size());
+        assertEquals("z", trie.get("z"));
+        assertEquals(keys.get(removed), trie.select(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBuildFromUnsortedEntries() {
+
+        // given
+        final Map<String, String> entries = new LinkedHashMap<String, String>();
+        entries.put("abc", "abc");
+        entries.put("ab", "ab");
+
+        // then
+        new Tst<String>().putAllSorted(entries.entrySet().iterator());
+    }
+
+    @Test
+    public void shouldWriteAndReadTree() throws IOException {
+
+        // given
+        final Tst<String> tst = new Tst<String>();
+        for (String key : Arrays.asList("abc", "ab", "abd", "b", "\u4e2d\u6587", "a")) {
+            tst.put(key, key);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        tst.writeTo(new DataOutputStream(bytes), ValueCodecs.utf8String());
+
+        // when
+        final Tst<String> result = new Tst<String>();
+        result.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), ValueCodecs.utf8String());
+
+        // then
+        assertEquals(6, result.size());
+        assertEquals(tst.keySet(), result.keySet());
+        for (String key : tst.keySet()) {
+            assertEquals(key, result.get(key));
+        }
+        assertEquals("\u4e2d\u6587", result.prefix("\u4e2d\u6587\u5b57"));
+        assertEquals("abd", result.remove("abd"));
+        assertEquals(new HashSet<String>(Arrays.asList("abc", "ab", "b", "\u4e2d\u6587", "a")), result.keySet());
+    }
+
+    @Test
+    public void shouldWriteAndReadEmptyTree() throws IOException {
+
+        // given
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new Tst<String>().writeTo(new DataOutputStream(bytes), ValueCodecs.utf8String());
+        final Tst<String> result = new Tst<String>();
+        result.put("abc", "abc");
+
+        // when
+        result.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), ValueCodecs.utf8String());
+
+        // then
+        assertEquals(0, result.size());
+        assertNull(result.get("abc"));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectSerializedTrie() throws IOException {
+
+        // given
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new HashMapTrie<String>().writeTo(new DataOutputStream(bytes), ValueCodecs.utf8String());
+
+        // when
+        new Tst<String>().readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                ValueCodecs.utf8String());
+    }
+}
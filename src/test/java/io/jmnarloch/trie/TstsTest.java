@@ -35,4 +35,34 @@ public class TstsTest {
         // then
         assertNotNull(trie);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldCreateIntTst() {
+
+        // when
+        IntTrie trie = Tsts.newIntTst();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreateLongTst() {
+
+        // when
+        LongTrie trie = Tsts.newLongTst();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreateWeightedTst() {
+
+        // when
+        WeightedTst<String> tst = Tsts.newWeightedTst();
+
+        // then
+        assertNotNull(tst);
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link WeightedTst} class.
+ *
+ * @author Jakub Narloch
+ */
+public class WeightedTstTest {
+
+    private WeightedTst<String> instance;
+
+    @Before
+    public void setUp() {
+
+        instance = new WeightedTst<String>();
+        instance.put("java", "java", 90);
+        instance.put("javascript", "javascript", 100);
+        instance.put("jakarta", "jakarta", 20);
+        instance.put("jar", "jar", 50);
+        instance.put("json", "json", 70);
+        instance.put("kotlin", "kotlin", 80);
+    }
+
+    @Test
+    public void shouldBeEmpty() {
+
+        // given
+        instance = new WeightedTst<String>();
+
+        // expect
+        assertTrue(instance.isEmpty());
+        assertEquals(0, instance.size());
+        assertTrue(instance.topK("", 10).isEmpty());
+    }
+
+    @Test
+    public void shouldGetEntries() {
+
+        // expect
+        assertEquals(6, instance.size());
+        assertEquals("jar", instance.get("jar"));
+        assertEquals(50, instance.getScore("jar"), 0);
+        assertTrue(Double.isNaN(instance.getScore("ja")));
+        assertNull(instance.get("ja"));
+        assertFalse(instance.containsKey("jav"));
+    }
+
+    @Test
+    public void shouldSuggestBestScoredKeys() {
+
+        // when
+        final List<Suggestion<String>> result = instance.topK("j", 3);
+
+        // then
+        assertEquals(keys("javascript", "java", "json"), keysOf(result));
+        assertEquals(100, result.get(0).getScore(), 0);
+        assertEquals("javascript", result.get(0).getValue());
+    }
+
+    @Test
+    public void shouldSuggestPrefixItself() {
+
+        // expect
+        assertEquals(keys("javascript", "java"), keysOf(instance.topK("java", 5)));
+        assertEquals(keys("kotlin"), keysOf(instance.topK("kotlin", 5)));
+        assertTrue(instance.topK("python", 5).isEmpty());
+        assertTrue(instance.topK("j", 0).isEmpty());
+    }
+
+    @Test
+    public void shouldSuggestAllKeys() {
+
+        // expect
+        assertEquals(keys("javascript", "java", "kotlin", "json", "jar", "jakarta"), keysOf(instance.topK("", 10)));
+    }
+
+    @Test
+    public void shouldUpdateScores() {
+
+        // when
+        final String previous = instance.put("javascript", "js", 10);
+
+        // then
+        assertEquals("javascript", previous);
+        assertEquals(6, instance.size());
+        assertEquals(keys("java", "json"), keysOf(instance.topK("j", 2)));
+    }
+
+    @Test
+    public void shouldRemoveEntries() {
+
+        // when
+        final String removed = instance.remove("javascript");
+
+        // then
+        assertEquals("javascript", removed);
+        assertNull(instance.remove("javascript"));
+        assertEquals(5, instance.size());
+        assertEquals(keys("java", "json"), keysOf(instance.topK("j", 2)));
+    }
+
+    @Test
+    public void shouldSuggestSameKeysAsSorting() {
+
+        // given
+        instance = new WeightedTst<String>();
+        final Map<String, Double> scores = new HashMap<String, Double>();
+        final Random random = new Random(42);
+        for (int ind = 0; ind < 2000; ind++) {
+            final StringBuilder key = new StringBuilder();
+            for (int length = 1 + random.nextInt(6); length > 0; length--) {
+                key.append((char) ('a' + random.nextInt(4)));
+            }
+            final double score = random.nextInt(100000);
+            instance.put(key.toString(), key.toString(), score);
+            scores.put(key.toString(), score);
+        }
+        for (int ind = 0; ind < 200; ind++) {
+            final String key = new ArrayList<String>(scores.keySet()).get(random.nextInt(scores.size()));
+            instance.remove(key);
+            scores.remove(key);
+        }
+
+        for (String prefix : new String[]{"", "a", "b", "ab", "dcb"}) {
+            // when
+            final List<Suggestion<String>> result = instance.topK(prefix, 10);
+
+            // then
+            final List<Double> expected = new ArrayList<Double>();
+            for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                if (entry.getKey().startsWith(prefix)) {
+                    expected.add(entry.getValue());
+                }
+            }
+            Collections.sort(expected, Collections.reverseOrder());
+            final List<Double> actual = new ArrayList<Double>();
+            for (Suggestion<String> suggestion : result) {
+                assertTrue(suggestion.getKey().startsWith(prefix));
+                assertEquals(scores.get(suggestion.getKey()), suggestion.getScore(), 0);
+                actual.add(suggestion.getScore());
+            }
+            assertEquals(expected.subList(0, Math.min(10, expected.size())), actual);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNullValue() {
+
+        // then
+        instance.put("key", null, 1);
+    }
+
+    private static List<String> keys(String... keys) {
+        final List<String> list = new ArrayList<String>();
+        Collections.addAll(list, keys);
+        return list;
+    }
+
+    private static List<String> keysOf(List<Suggestion<String>> suggestions) {
+        final List<String> keys = new ArrayList<String>();
+        for (Suggestion<String> suggestion : suggestions) {
+            keys.add(suggestion.getKey());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2015-2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.trie;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link WildcardPattern} class.
+ *
+ * @author Jakub Narloch
+ */
+public class WildcardPatternTest {
+
+    @Test
+    public void shouldMatchSingleCharacter() {
+
+        // given
+        final WildcardPattern pattern = WildcardPattern.compile("ab?d");
+
+        // expect
+        assertTrue(pattern.matches("abcd"));
+        assertTrue(pattern.matches("ab\u4e2dd"));
+        assertFalse(pattern.matches("abd"));
+        assertFalse(pattern.matches("abccd"));
+    }
+
+    @Test
+    public void shouldMatchAnySequence() {
+
+        // given
+        final WildcardPattern pattern = WildcardPattern.compile("a*b**c");
+
+        // expect
+        assertTrue(pattern.matches("abc"));
+        assertTrue(pattern.matches("axxbyyc"));
+        assertTrue(pattern.matches("abcbc"));
+        assertFalse(pattern.matches("abcd"));
+        assertTrue(WildcardPattern.compile("*").matches(""));
+    }
+
+    @Test
+    public void shouldMatchCharacterClasses() {
+
+        // given
+        final WildcardPattern pattern = WildcardPattern.compile("[a-cx][!0-9][^-]");
+
+        // expect
+        assertTrue(pattern.matches("bz+"));
+        assertTrue(pattern.matches("x-a"));
+        assertFalse(pattern.matches("d-a"));
+        assertFalse(pattern.matches("a1a"));
+        assertFalse(pattern.matches("aa-"));
+        assertTrue(WildcardPattern.compile("[]a]").matches("]"));
+        assertTrue(WildcardPattern.compile("[a-]").matches("-"));
+    }
+
+    @Test
+    public void shouldMatchEscapedCharacters() {
+
+        // given
+        final WildcardPattern pattern = WildcardPattern.compile("\\*\\?[\\]]");
+
+        // expect
+        assertTrue(pattern.matches("*?]"));
+        assertFalse(pattern.matches("a?]"));
+        assertEquals("*?]", pattern.literalPrefix());
+    }
+
+    @Test
+    public void shouldFindLiteralPrefix() {
+
+        // expect
+        assertEquals("ab", WildcardPattern.compile("ab?d*").literalPrefix());
+        assertEquals("", WildcardPattern.compile("*ab").literalPrefix());
+        assertEquals("abc", WildcardPattern.compile("abc").literalPrefix());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptUnclosedClass() {
+
+        // then
+        WildcardPattern.compile("ab[cd");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptDanglingEscape() {
+
+        // then
+        WildcardPattern.compile("ab\\");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNullPattern() {
+
+        // then
+        WildcardPattern.compile(null);
+    }
+}